@@ -0,0 +1,10 @@
+package com.raga.library.archive;
+
+import java.time.LocalDate;
+
+/**
+ * Outcome of one archival run, the number of returned loans moved to the
+ * archive and the batches they were moved in
+ */
+public record ArchiveRunSummary(LocalDate returnedBefore, long loansArchived, int batches, long elapsedMillis) {
+}
@@ -0,0 +1,114 @@
+package com.raga.library.aspect;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.raga.library.lock.StripedLock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * This class is responsible for serializing the circulation operations on the
+ * same book within the JVM, so that concurrent borrows and returns of a popular
+ * title queue here instead of waiting on each other's row locks in the
+ * database. Books are mapped to a fixed number of striped locks, so operations
+ * on different books run in parallel unless their books share a stripe. The
+ * aspect is ordered just before the transaction advice, which has the lowest
+ * precedence, so the lock is held until the transaction has committed. Each node of a deployment has its own locks:
+ * operations on the same book sent to different nodes are still serialized by
+ * the database only
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class BookLockAspect {
+
+	public static final String BOOK_ID_PARAMETER = "bookId";
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${library.book-lock.stripes:256}")
+	private int stripes;
+
+	@Value("${library.book-lock.wait-timeout:PT10S}")
+	private Duration waitTimeout;
+
+	private StripedLock bookLocks;
+
+	private Counter contended;
+
+	private Timer waitTimer;
+
+	@PostConstruct
+	void initialize() {
+		bookLocks = new StripedLock(stripes);
+		contended = Counter.builder("library.book.lock.contended")
+				.description("Circulation operations that waited for another operation on their book stripe")
+				.register(meterRegistry);
+		waitTimer = Timer.builder("library.book.lock.wait")
+				.description("Time contended circulation operations waited for their book stripe")
+				.register(meterRegistry);
+		Gauge.builder("library.book.lock.waiting", bookLocks, StripedLock::queuedThreads)
+				.description("Circulation operations waiting for their book stripe").register(meterRegistry);
+	}
+
+	/**
+	 * Runs a method annotated with SerializedPerBook while holding the lock of its
+	 * book
+	 *
+	 * @param joinPoint The method call
+	 * @return The result of the method
+	 * @throws IllegalStateException If the lock is not acquired within the wait
+	 *                               timeout
+	 */
+	@Around("@annotation(com.raga.library.aspect.SerializedPerBook)")
+	public Object serializePerBook(ProceedingJoinPoint joinPoint) throws Throwable {
+		Long bookId = bookId(joinPoint);
+		if (bookId == null) {
+			return joinPoint.proceed();
+		}
+		ReentrantLock lock = bookLocks.lockFor(bookId);
+		if (!lock.tryLock()) {
+			contended.increment();
+			long start = System.nanoTime();
+			boolean acquired = lock.tryLock(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+			waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			if (!acquired) {
+				throw new IllegalStateException(
+						"Timed out waiting for the other circulation operations on book " + bookId);
+			}
+		}
+		try {
+			return joinPoint.proceed();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static Long bookId(ProceedingJoinPoint joinPoint) {
+		String[] parameterNames = ((MethodSignature) joinPoint.getSignature()).getParameterNames();
+		for (int i = 0; i < parameterNames.length; i++) {
+			if (BOOK_ID_PARAMETER.equals(parameterNames[i])) {
+				return (Long) joinPoint.getArgs()[i];
+			}
+		}
+		throw new IllegalStateException(joinPoint.getSignature().toShortString()
+				+ " is serialized per book but has no " + BOOK_ID_PARAMETER + " parameter");
+	}
+}
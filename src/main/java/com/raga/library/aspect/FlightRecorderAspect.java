@@ -0,0 +1,112 @@
+package com.raga.library.aspect;
+
+import java.util.Collection;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.raga.library.dto.ImportBatch;
+import com.raga.library.dto.ListQuery;
+import com.raga.library.jfr.BulkImportEvent;
+import com.raga.library.jfr.CatalogSearchEvent;
+import com.raga.library.jfr.OperationOutcome;
+
+/**
+ * This class is responsible for recording the catalog searches and bulk
+ * imports as flight recorder events. The event of a call runs from its start to
+ * its return, and a call ending with an exception is recorded with the outcome
+ * of the exception. The aspect is ordered before the shard routing, the book
+ * lock and the transaction advice, so the event also times the commit
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 3)
+public class FlightRecorderAspect {
+
+	public static final String BOOK_ID_PARAMETER = "id";
+
+	/**
+	 * Records a call of a method annotated with RecordedAsCatalogSearch as a
+	 * CatalogSearchEvent
+	 *
+	 * @param joinPoint The method call
+	 * @return The result of the method
+	 */
+	@Around("@annotation(com.raga.library.aspect.RecordedAsCatalogSearch)")
+	public Object recordCatalogSearch(ProceedingJoinPoint joinPoint) throws Throwable {
+		CatalogSearchEvent event = new CatalogSearchEvent();
+		event.begin();
+		Long bookId = bookId(joinPoint);
+		ListQuery query = argument(joinPoint, ListQuery.class);
+		try {
+			Object result = joinPoint.proceed();
+			event.complete(bookId, query, results(result), OperationOutcome.SUCCEEDED);
+			return result;
+		} catch (Throwable e) {
+			event.complete(bookId, query, 0, OperationOutcome.of(e));
+			throw e;
+		}
+	}
+
+	/**
+	 * Records a call of a method annotated with RecordedAsBulkImport as a
+	 * BulkImportEvent
+	 *
+	 * @param joinPoint            The method call
+	 * @param recordedAsBulkImport The annotation naming the imported entity
+	 * @return The result of the method
+	 */
+	@Around("@annotation(recordedAsBulkImport)")
+	public Object recordBulkImport(ProceedingJoinPoint joinPoint, RecordedAsBulkImport recordedAsBulkImport)
+			throws Throwable {
+		BulkImportEvent event = new BulkImportEvent();
+		event.begin();
+		ImportBatch batch = argument(joinPoint, ImportBatch.class);
+		int records = batch != null ? batch.size() : 0;
+		try {
+			Object result = joinPoint.proceed();
+			event.complete(recordedAsBulkImport.value(), records, OperationOutcome.SUCCEEDED);
+			return result;
+		} catch (Throwable e) {
+			event.complete(recordedAsBulkImport.value(), records, OperationOutcome.of(e));
+			throw e;
+		}
+	}
+
+	private static Long bookId(ProceedingJoinPoint joinPoint) {
+		String[] parameterNames = ((MethodSignature) joinPoint.getSignature()).getParameterNames();
+		for (int i = 0; i < parameterNames.length; i++) {
+			if (BOOK_ID_PARAMETER.equals(parameterNames[i]) && joinPoint.getArgs()[i] instanceof Long bookId) {
+				return bookId;
+			}
+		}
+		return null;
+	}
+
+	private static <T> T argument(ProceedingJoinPoint joinPoint, Class<T> type) {
+		for (Object argument : joinPoint.getArgs()) {
+			if (type.isInstance(argument)) {
+				return type.cast(argument);
+			}
+		}
+		return null;
+	}
+
+	private static int results(Object result) {
+		Object found = result instanceof ResponseEntity<?> response ? response.getBody() : result;
+		if (found instanceof Collection<?> books) {
+			return books.size();
+		}
+		if (found instanceof Slice<?> books) {
+			return books.getNumberOfElements();
+		}
+		return found != null ? 1 : 0;
+	}
+}
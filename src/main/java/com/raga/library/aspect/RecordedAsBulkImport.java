@@ -0,0 +1,23 @@
+package com.raga.library.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method adding a batch of records, whose calls are recorded as
+ * BulkImportEvents. The number of records is taken from the method's
+ * ImportBatch parameter
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RecordedAsBulkImport {
+
+	/**
+	 * @return The kind of records imported, book or patron
+	 */
+	String value();
+}
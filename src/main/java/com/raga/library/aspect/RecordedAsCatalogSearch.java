@@ -0,0 +1,19 @@
+package com.raga.library.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method searching the book catalog, whose calls are recorded as
+ * CatalogSearchEvents. The book is taken from the method's id parameter, the
+ * sort and page from its ListQuery parameter, and the number of results from
+ * the list, slice or response body it returns
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RecordedAsCatalogSearch {
+}
@@ -0,0 +1,24 @@
+package com.raga.library.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method whose calls run on the shard of a patron. The patron is taken
+ * from the named parameter, either the patron id or the patron itself, and the
+ * shard is set around the transaction of the method, so that the transaction
+ * connects to it
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RoutedByPatron {
+
+	/**
+	 * @return The name of the parameter holding the patron id or the patron
+	 */
+	String value() default "patronId";
+}
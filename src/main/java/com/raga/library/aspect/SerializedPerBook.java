@@ -0,0 +1,19 @@
+package com.raga.library.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method whose calls are serialized per book within the JVM. The book
+ * is taken from the method's bookId parameter, and the lock is held around the
+ * transaction of the method, so that the next call on the book sees its
+ * committed changes
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SerializedPerBook {
+}
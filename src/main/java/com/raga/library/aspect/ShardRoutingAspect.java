@@ -0,0 +1,67 @@
+package com.raga.library.aspect;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.raga.library.entity.Patron;
+import com.raga.library.service.ShardService;
+import com.raga.library.shard.ShardContext;
+
+/**
+ * This class is responsible for running the methods annotated with
+ * RoutedByPatron on the shard of their patron. The aspect is ordered before
+ * the per-book lock and the transaction advice, so the shard is set before the
+ * transaction takes its connection. Without sharding the methods run
+ * unchanged
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class ShardRoutingAspect {
+
+	@Autowired
+	private ShardService shardService;
+
+	/**
+	 * Runs a method annotated with RoutedByPatron on the shard of its patron
+	 *
+	 * @param joinPoint      The method call
+	 * @param routedByPatron The annotation naming the patron parameter
+	 * @return The result of the method
+	 */
+	@Around("@annotation(routedByPatron)")
+	public Object routeByPatron(ProceedingJoinPoint joinPoint, RoutedByPatron routedByPatron) throws Throwable {
+		if (!shardService.isSharded()) {
+			return joinPoint.proceed();
+		}
+		Object patron = patronArgument(joinPoint, routedByPatron.value());
+		if (patron == null) {
+			return joinPoint.proceed();
+		}
+		int shard = patron instanceof Patron entity ? shardService.shardOf(entity)
+				: shardService.shardOf((Long) patron);
+		Integer previous = ShardContext.switchTo(shard);
+		try {
+			return joinPoint.proceed();
+		} finally {
+			ShardContext.restore(previous);
+		}
+	}
+
+	private static Object patronArgument(ProceedingJoinPoint joinPoint, String parameter) {
+		String[] parameterNames = ((MethodSignature) joinPoint.getSignature()).getParameterNames();
+		for (int i = 0; i < parameterNames.length; i++) {
+			if (parameter.equals(parameterNames[i])) {
+				return joinPoint.getArgs()[i];
+			}
+		}
+		throw new IllegalStateException(joinPoint.getSignature().toShortString()
+				+ " is routed by patron but has no " + parameter + " parameter");
+	}
+}
@@ -0,0 +1,15 @@
+package com.raga.library.asset;
+
+/**
+ * Summary of one build of the static assets
+ *
+ * @param files       The number of assets built
+ * @param reused      The number of images reused from a previous build
+ * @param sourceBytes The size of the source assets
+ * @param outputBytes The size of the optimized assets
+ * @param gzipBytes   The size of the precompressed stylesheets
+ * @param millis      The duration of the build
+ */
+public record AssetBuildSummary(int files, int reused, long sourceBytes, long outputBytes, long gzipBytes,
+		long millis) {
+}
@@ -0,0 +1,274 @@
+package com.raga.library.asset;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Builds the optimized static assets served under /css and /images. Images
+ * wider than the maximum width are scaled down and JPEGs are re-encoded,
+ * keeping whichever of the original and the re-encoded file is smaller.
+ * Stylesheets are minified, their image references are rewritten to the
+ * content-hashed image URLs, and a gzip variant is written next to each of
+ * them. The written files keep their plain names: the resource chain serving
+ * the output directory derives the hashed URLs from the content of the files,
+ * the same way this pipeline does. An image already built from the same source
+ * with the same settings is reused, so that a restart does not encode it again.
+ */
+public class AssetPipeline {
+
+	public static final String STYLESHEETS = "css";
+
+	public static final String IMAGES = "images";
+
+	public static final String GZIP_SUFFIX = ".gz";
+
+	static final String SETTINGS_FILE = ".settings";
+
+	private static final Set<String> JPEG_EXTENSIONS = Set.of("jpg", "jpeg");
+
+	private static final Pattern CSS_URL = Pattern.compile("url\\(\\s*(['\"]?)([^'\")]+)\\1\\s*\\)");
+
+	private static final Pattern CSS_COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+
+	private static final Pattern CSS_PUNCTUATION_SPACE = Pattern.compile("\\s*([{};,])\\s*");
+
+	private final ResourcePatternResolver resourceResolver;
+
+	private final String sourceLocation;
+
+	private final Path outputDirectory;
+
+	private final int imageMaxWidth;
+
+	private final float jpegQuality;
+
+	/**
+	 * Creates the pipeline
+	 *
+	 * @param resourceResolver The resolver listing the source assets
+	 * @param sourceLocation   The location of the source asset directories, ending
+	 *                         with a slash
+	 * @param outputDirectory  The directory the optimized assets are written to
+	 * @param imageMaxWidth    The width images are scaled down to
+	 * @param jpegQuality      The quality, between 0 and 1, of re-encoded JPEGs
+	 */
+	public AssetPipeline(ResourcePatternResolver resourceResolver, String sourceLocation, Path outputDirectory,
+			int imageMaxWidth, float jpegQuality) {
+		this.resourceResolver = resourceResolver;
+		this.sourceLocation = sourceLocation;
+		this.outputDirectory = outputDirectory;
+		this.imageMaxWidth = imageMaxWidth;
+		this.jpegQuality = jpegQuality;
+	}
+
+	/**
+	 * @return The directory the optimized assets are written to
+	 */
+	public Path outputDirectory() {
+		return outputDirectory;
+	}
+
+	/**
+	 * Builds every asset. The images are built first, so that the stylesheets can
+	 * refer to their hashed URLs
+	 *
+	 * @return The summary of the build
+	 */
+	public AssetBuildSummary build() {
+		long start = System.nanoTime();
+		Map<String, String> versionedImages = new HashMap<>();
+		int files = 0;
+		int reused = 0;
+		long sourceBytes = 0;
+		long outputBytes = 0;
+		long gzipBytes = 0;
+		try {
+			String settings = "image-max-width=" + imageMaxWidth + ",jpeg-quality=" + jpegQuality;
+			Path settingsFile = outputDirectory.resolve(SETTINGS_FILE);
+			boolean sameSettings = Files.exists(settingsFile) && Files.readString(settingsFile).equals(settings);
+			for (Resource image : sources(IMAGES)) {
+				String filename = image.getFilename();
+				byte[] source = image.getContentAsByteArray();
+				Path built = outputDirectory.resolve(IMAGES).resolve(filename);
+				byte[] optimized;
+				if (sameSettings && isUpToDate(built, image)) {
+					optimized = Files.readAllBytes(built);
+					reused++;
+				} else {
+					optimized = optimizeImage(filename, source);
+					write(IMAGES, filename, optimized);
+				}
+				versionedImages.put("/" + IMAGES + "/" + filename,
+						"/" + IMAGES + "/" + versionedName(filename, optimized));
+				files++;
+				sourceBytes += source.length;
+				outputBytes += optimized.length;
+			}
+			for (Resource stylesheet : sources(STYLESHEETS)) {
+				String filename = stylesheet.getFilename();
+				byte[] source = stylesheet.getContentAsByteArray();
+				byte[] css = minify(rewriteUrls(new String(source, StandardCharsets.UTF_8), versionedImages))
+						.getBytes(StandardCharsets.UTF_8);
+				byte[] gzip = gzip(css);
+				write(STYLESHEETS, filename, css);
+				write(STYLESHEETS, filename + GZIP_SUFFIX, gzip);
+				files++;
+				sourceBytes += source.length;
+				outputBytes += css.length;
+				gzipBytes += gzip.length;
+			}
+			Files.writeString(settingsFile, settings);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to build the static assets in " + outputDirectory, e);
+		}
+		return new AssetBuildSummary(files, reused, sourceBytes, outputBytes, gzipBytes,
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	/**
+	 * Returns the content-hashed name of an asset, in the form used by the
+	 * resource chain's content version strategy
+	 *
+	 * @param filename The plain name of the asset
+	 * @param content  The content of the asset
+	 * @return The hashed name, such as {@code lib-<md5>.jpeg}
+	 */
+	public static String versionedName(String filename, byte[] content) {
+		String extension = StringUtils.getFilenameExtension(filename);
+		return StringUtils.stripFilenameExtension(filename) + "-" + DigestUtils.md5DigestAsHex(content)
+				+ (extension != null ? "." + extension : "");
+	}
+
+	/**
+	 * Rewrites the {@code url(...)} references of a stylesheet to the given
+	 * versioned URLs, leaving unknown references unchanged
+	 */
+	static String rewriteUrls(String css, Map<String, String> versionedUrls) {
+		Matcher matcher = CSS_URL.matcher(css);
+		StringBuilder rewritten = new StringBuilder(css.length());
+		while (matcher.find()) {
+			String versioned = versionedUrls.get(matcher.group(2).trim());
+			String replacement = versioned != null ? "url('" + versioned + "')" : matcher.group();
+			matcher.appendReplacement(rewritten, Matcher.quoteReplacement(replacement));
+		}
+		matcher.appendTail(rewritten);
+		return rewritten.toString();
+	}
+
+	/**
+	 * Removes the comments and the insignificant whitespace of a stylesheet.
+	 * Whitespace around colons is kept, since it separates a descendant selector
+	 * from a pseudo-class
+	 */
+	static String minify(String css) {
+		String collapsed = CSS_COMMENT.matcher(css).replaceAll("").replaceAll("\\s+", " ");
+		return CSS_PUNCTUATION_SPACE.matcher(collapsed).replaceAll("$1").trim();
+	}
+
+	private List<Resource> sources(String directory) throws IOException {
+		return Arrays.stream(resourceResolver.getResources(sourceLocation + directory + "/*"))
+				.filter(resource -> resource.isReadable() && resource.getFilename() != null
+						&& !resource.getFilename().endsWith(GZIP_SUFFIX))
+				.toList();
+	}
+
+	private static boolean isUpToDate(Path built, Resource source) {
+		try {
+			return Files.exists(built) && Files.getLastModifiedTime(built).toMillis() >= source.lastModified();
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private byte[] optimizeImage(String filename, byte[] source) {
+		String extension = StringUtils.getFilenameExtension(filename);
+		if (extension == null || !JPEG_EXTENSIONS.contains(extension.toLowerCase(Locale.ROOT))) {
+			return source;
+		}
+		try {
+			BufferedImage image = ImageIO.read(new ByteArrayInputStream(source));
+			if (image == null) {
+				return source;
+			}
+			int width = Math.min(image.getWidth(), imageMaxWidth);
+			int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+			BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			Graphics2D graphics = scaled.createGraphics();
+			try {
+				graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+				graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+				graphics.drawImage(image, 0, 0, width, height, null);
+			} finally {
+				graphics.dispose();
+			}
+			byte[] encoded = encodeJpeg(scaled);
+			return encoded.length < source.length ? encoded : source;
+		} catch (IOException e) {
+			// An image the JDK cannot decode, such as a CMYK JPEG, is served as it is
+			return source;
+		}
+	}
+
+	private byte[] encodeJpeg(BufferedImage image) throws IOException {
+		ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+		ImageWriteParam param = writer.getDefaultWriteParam();
+		param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+		param.setCompressionQuality(jpegQuality);
+		param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+		try (ImageOutputStream output = ImageIO.createImageOutputStream(encoded)) {
+			writer.setOutput(output);
+			writer.write(null, new IIOImage(image, null, null), param);
+		} finally {
+			writer.dispose();
+		}
+		return encoded.toByteArray();
+	}
+
+	private static byte[] gzip(byte[] content) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 3 + 64);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(compressed) {
+			{
+				def.setLevel(Deflater.BEST_COMPRESSION);
+			}
+		}) {
+			gzip.write(content);
+		}
+		return compressed.toByteArray();
+	}
+
+	private void write(String directory, String filename, byte[] content) throws IOException {
+		Path target = outputDirectory.resolve(directory);
+		Files.createDirectories(target);
+		Files.write(target.resolve(filename), content);
+	}
+}
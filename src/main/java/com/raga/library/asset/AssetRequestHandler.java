@@ -0,0 +1,41 @@
+package com.raga.library.asset;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves the static assets. A content-hashed URL can never change its content,
+ * so it is answered with a one-year immutable Cache-Control header, while the
+ * plain URL of an asset has to be revalidated with its Last-Modified header
+ */
+public class AssetRequestHandler extends ResourceHttpRequestHandler {
+
+	public static final CacheControl VERSIONED = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+	public static final CacheControl UNVERSIONED = CacheControl.noCache().cachePublic();
+
+	private static final Pattern VERSIONED_PATH = Pattern.compile(".*-[0-9a-f]{32}(\\.[^/.]+)?");
+
+	@Override
+	protected void setHeaders(HttpServletResponse response, Resource resource, MediaType mediaType)
+			throws IOException {
+		super.setHeaders(response, resource, mediaType);
+		String path = RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+				? (String) attributes.getRequest().getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE)
+				: null;
+		CacheControl cacheControl = path != null && VERSIONED_PATH.matcher(path).matches() ? VERSIONED : UNVERSIONED;
+		response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+	}
+}
@@ -0,0 +1,61 @@
+package com.raga.library.asset;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Writes file-backed resources of at least the minimum size with the servlet
+ * container's sendfile support when the connector offers it. The response body
+ * is left empty and the container transfers the file from the page cache to the
+ * socket once the handler returns, without copying it through the heap.
+ * Smaller resources, resources inside a jar and containers without sendfile
+ * support are copied as usual
+ */
+public class SendfileResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+	static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+	static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+	static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+	static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+	private final long minimumBytes;
+
+	/**
+	 * @param minimumBytes The size from which a file is sent with sendfile
+	 */
+	public SendfileResourceHttpMessageConverter(long minimumBytes) {
+		this.minimumBytes = minimumBytes;
+	}
+
+	@Override
+	protected void writeContent(Resource resource, HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+		HttpServletRequest request = RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+				? attributes.getRequest()
+				: null;
+		if (request != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) && resource.isFile()) {
+			File file = resource.getFile();
+			long length = file.length();
+			if (length >= minimumBytes) {
+				// The Content-Length header was already set from the same file
+				request.setAttribute(SENDFILE_FILENAME, file.getAbsolutePath());
+				request.setAttribute(SENDFILE_START, 0L);
+				request.setAttribute(SENDFILE_END, length);
+				return;
+			}
+		}
+		super.writeContent(resource, outputMessage);
+	}
+}
@@ -0,0 +1,40 @@
+package com.raga.library.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A rendered HTML page together with its gzip variant, compressed once when the
+ * page is cached. The version is the version of the entity the page was
+ * rendered from
+ */
+public record RenderedPage(long version, byte[] html, byte[] gzip) {
+
+	private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+	/**
+	 * Creates the cached page from the rendered HTML
+	 *
+	 * @param version The version of the rendered entity
+	 * @param html    The rendered HTML
+	 * @return The page with its gzip variant
+	 */
+	public static RenderedPage of(long version, byte[] html) {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(html.length / 4 + 64);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+			gzip.write(html);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to compress the rendered page", e);
+		}
+		return new RenderedPage(version, html, compressed.toByteArray());
+	}
+
+	/**
+	 * @return The approximate memory held by the cache entry
+	 */
+	public int weight() {
+		return html.length + gzip.length + ENTRY_OVERHEAD_BYTES;
+	}
+}
@@ -0,0 +1,20 @@
+package com.raga.library.cache;
+
+/**
+ * Key of a rendered page in the page cache, the view and the id of the entity
+ * the page shows
+ */
+public record RenderedPageKey(String viewName, long id) {
+
+	public static final String BOOK_DETAILS = "book-details";
+
+	public static final String PATRON_DETAILS = "patron-details";
+
+	public static RenderedPageKey bookDetails(long bookId) {
+		return new RenderedPageKey(BOOK_DETAILS, bookId);
+	}
+
+	public static RenderedPageKey patronDetails(long patronId) {
+		return new RenderedPageKey(PATRON_DETAILS, patronId);
+	}
+}
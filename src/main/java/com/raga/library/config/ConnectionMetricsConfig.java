@@ -0,0 +1,43 @@
+package com.raga.library.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.raga.library.metrics.EndpointConnectionMetricsTrackerFactory;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Installs the connection acquire and hold timers per endpoint on the
+ * connection pool of spring.datasource. The pools of the shards and of the
+ * read replicas are given them where they are created. The post processor is
+ * declared by a static method, so that it is registered before the data source
+ * is created
+ */
+@Configuration
+public class ConnectionMetricsConfig {
+
+	@Bean
+	public EndpointConnectionMetricsTrackerFactory endpointConnectionMetricsTrackerFactory(MeterRegistry meterRegistry) {
+		return new EndpointConnectionMetricsTrackerFactory(meterRegistry);
+	}
+
+	@Bean
+	public static BeanPostProcessor connectionMetricsPostProcessor(
+			ObjectProvider<EndpointConnectionMetricsTrackerFactory> metricsTrackerFactory) {
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof HikariDataSource dataSource && dataSource.getMetricsTrackerFactory() == null
+						&& dataSource.getMetricRegistry() == null) {
+					dataSource.setMetricsTrackerFactory(metricsTrackerFactory.getObject());
+				}
+				return bean;
+			}
+		};
+	}
+}
@@ -0,0 +1,37 @@
+package com.raga.library.config;
+
+import java.math.BigDecimal;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.raga.library.entity.PatronCategory;
+import com.raga.library.fine.DailyRateFinePolicy;
+import com.raga.library.fine.FinePolicy;
+
+/**
+ * Declares the default fine policy for each patron category
+ */
+@Configuration
+public class FinePolicyConfig {
+
+	@Bean
+	public FinePolicy standardFinePolicy(@Value("${library.fines.standard.daily-rate:0.25}") BigDecimal dailyRate,
+			@Value("${library.fines.standard.grace-days:0}") int graceDays,
+			@Value("${library.fines.standard.maximum:10.00}") BigDecimal maximum) {
+		return new DailyRateFinePolicy(PatronCategory.STANDARD, dailyRate, graceDays, maximum);
+	}
+
+	@Bean
+	public FinePolicy studentFinePolicy(@Value("${library.fines.student.daily-rate:0.10}") BigDecimal dailyRate,
+			@Value("${library.fines.student.grace-days:2}") int graceDays,
+			@Value("${library.fines.student.maximum:5.00}") BigDecimal maximum) {
+		return new DailyRateFinePolicy(PatronCategory.STUDENT, dailyRate, graceDays, maximum);
+	}
+
+	@Bean
+	public FinePolicy staffFinePolicy() {
+		return new DailyRateFinePolicy(PatronCategory.STAFF, BigDecimal.ZERO, 0, BigDecimal.ZERO);
+	}
+}
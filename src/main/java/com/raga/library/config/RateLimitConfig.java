@@ -0,0 +1,61 @@
+package com.raga.library.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.raga.library.ratelimit.RateLimit;
+import com.raga.library.ratelimit.RateLimitInterceptor;
+import com.raga.library.ratelimit.RateLimitPolicy;
+import com.raga.library.service.IdempotencyService;
+import com.raga.library.service.RateLimitService;
+
+/**
+ * Declares the rate limits of each endpoint group and registers an interceptor
+ * enforcing them on the paths of the group. The policies are declared by
+ * static methods, since this configuration is itself injected with them
+ */
+@Configuration
+public class RateLimitConfig implements WebMvcConfigurer {
+
+	@Autowired
+	private RateLimitService rateLimitService;
+
+	@Autowired
+	private IdempotencyService idempotencyService;
+
+	@Autowired
+	private List<RateLimitPolicy> rateLimitPolicies;
+
+	@Bean
+	public static RateLimitPolicy circulationRateLimitPolicy(
+			@Value("${library.rate-limit.circulation.paths:/library/api/borrow/**,/library/api/return/**}") List<String> paths,
+			@Value("${library.rate-limit.circulation.patron-capacity:5}") int patronCapacity,
+			@Value("${library.rate-limit.circulation.patron-per-second:0.2}") double patronPerSecond,
+			@Value("${library.rate-limit.circulation.client-capacity:60}") int clientCapacity,
+			@Value("${library.rate-limit.circulation.client-per-second:5}") double clientPerSecond) {
+		return new RateLimitPolicy("circulation", paths, RateLimit.of(patronCapacity, patronPerSecond),
+				RateLimit.of(clientCapacity, clientPerSecond), true);
+	}
+
+	@Bean
+	public static RateLimitPolicy bulkRateLimitPolicy(
+			@Value("${library.rate-limit.bulk.paths:/library/api/books/bulk,/library/api/patrons/bulk,/library/api/books/stream,/library/api/patrons/stream,/library/api/borrowingRecords/stream}") List<String> paths,
+			@Value("${library.rate-limit.bulk.client-capacity:3}") int clientCapacity,
+			@Value("${library.rate-limit.bulk.client-per-second:0.1}") double clientPerSecond) {
+		return new RateLimitPolicy("bulk", paths, null, RateLimit.of(clientCapacity, clientPerSecond), false);
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		for (RateLimitPolicy policy : rateLimitPolicies) {
+			registry.addInterceptor(new RateLimitInterceptor(rateLimitService, idempotencyService, policy))
+					.addPathPatterns(policy.paths());
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.raga.library.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.raga.library.replica.ReadYourWritesFilter;
+import com.raga.library.replica.Replica;
+import com.raga.library.replica.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+
+/**
+ * Configuration of the read replicas, enabled by library.replicas.enabled. The
+ * spring.datasource properties then describe the primary, and each entry of
+ * library.replicas.sources describes one replica with the same url, username
+ * and password properties. Read-only transactions go to a replica whose lag is
+ * at most library.replicas.maximum-lag, and everything else to the primary.
+ * The routing data source is wrapped in a lazy proxy, which takes a connection
+ * only at the first statement, once the transaction is known to be read-only
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.replicas.enabled", havingValue = "true")
+public class ReplicaConfig {
+
+	@Bean
+	public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties primaryProperties,
+			Environment environment, MetricsTrackerFactory metricsTrackerFactory,
+			@Value("${library.replicas.maximum-lag:PT5S}") Duration maximumLag) {
+		if (environment.getProperty("library.sharding.enabled", Boolean.class, false)) {
+			throw new IllegalStateException("library.replicas.enabled cannot be combined with library.sharding.enabled");
+		}
+		Binder binder = Binder.get(environment);
+		List<DataSourceProperties> replicaProperties = binder
+				.bind("library.replicas.sources", Bindable.listOf(DataSourceProperties.class)).orElse(List.of());
+		if (replicaProperties.isEmpty()) {
+			throw new IllegalStateException("library.replicas.enabled is set but no library.replicas.sources are configured");
+		}
+
+		HikariDataSource primary = ShardingConfig.createDataSource(primaryProperties, binder, "primary",
+				metricsTrackerFactory);
+		List<Replica> replicas = new ArrayList<>();
+		for (int replica = 0; replica < replicaProperties.size(); replica++) {
+			HikariDataSource dataSource = ShardingConfig.createDataSource(replicaProperties.get(replica), binder,
+					"replica-" + replica, metricsTrackerFactory);
+			dataSource.setReadOnly(true);
+			replicas.add(new Replica("replica-" + replica, dataSource));
+		}
+		return new ReplicaRoutingDataSource(primary, replicas, maximumLag);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+		return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+	}
+
+	@Bean
+	public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+			@Value("${library.replicas.maximum-lag:PT5S}") Duration maximumLag) {
+		return new FilterRegistrationBean<>(new ReadYourWritesFilter(maximumLag));
+	}
+}
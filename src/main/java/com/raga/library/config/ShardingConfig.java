@@ -0,0 +1,83 @@
+package com.raga.library.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import com.raga.library.shard.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+
+/**
+ * Configuration of the patron shards, enabled by library.sharding.enabled. The
+ * spring.datasource properties then describe the catalog, and each entry of
+ * library.sharding.shards describes one shard with the same url, username and
+ * password properties. Every shard allocates auto-increment ids congruent to
+ * its shard number, through library.sharding.id-interleaving-sql run on each
+ * new connection, so that patron and loan ids are unique across the shards and
+ * the id of a new patron maps back to the shard that stored it. The schema
+ * migrations run on the catalog and then on each shard
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+	@Bean
+	@Primary
+	public ShardRoutingDataSource dataSource(DataSourceProperties catalogProperties, Environment environment,
+			MetricsTrackerFactory metricsTrackerFactory,
+			@Value("${library.sharding.id-interleaving-sql:set session auto_increment_increment = %1$d, auto_increment_offset = %2$d}") String idInterleavingSql) {
+		Binder binder = Binder.get(environment);
+		List<DataSourceProperties> shardProperties = binder
+				.bind("library.sharding.shards", Bindable.listOf(DataSourceProperties.class)).orElse(List.of());
+		if (shardProperties.isEmpty()) {
+			throw new IllegalStateException("library.sharding.enabled is set but no library.sharding.shards are configured");
+		}
+
+		HikariDataSource catalog = createDataSource(catalogProperties, binder, "catalog", metricsTrackerFactory);
+		List<DataSource> shards = new ArrayList<>();
+		for (int shard = 0; shard < shardProperties.size(); shard++) {
+			HikariDataSource dataSource = createDataSource(shardProperties.get(shard), binder, "shard-" + shard,
+					metricsTrackerFactory);
+			if (StringUtils.hasText(idInterleavingSql)) {
+				dataSource.setConnectionInitSql(String.format(idInterleavingSql, shardProperties.size(), shard + 1));
+			}
+			shards.add(dataSource);
+		}
+		return new ShardRoutingDataSource(catalog, shards);
+	}
+
+	@Bean
+	public FlywayMigrationStrategy shardMigrationStrategy(ShardRoutingDataSource dataSource) {
+		return flyway -> {
+			flyway.migrate();
+			for (int shard = 0; shard < dataSource.shardCount(); shard++) {
+				Flyway.configure().configuration(flyway.getConfiguration()).dataSource(dataSource.shard(shard)).load()
+						.migrate();
+			}
+		};
+	}
+
+	static HikariDataSource createDataSource(DataSourceProperties properties, Binder binder, String poolName,
+			MetricsTrackerFactory metricsTrackerFactory) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+		dataSource.setPoolName(poolName);
+		dataSource.setMetricsTrackerFactory(metricsTrackerFactory);
+		return dataSource;
+	}
+}
@@ -0,0 +1,39 @@
+package com.raga.library.config;
+
+import java.util.Arrays;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Configuration of the startup-optimized profile, which initializes beans
+ * lazily. The schema migration and the EntityManagerFactory stay eager, so that
+ * the first request does not pay for them, and so do the services with
+ * scheduled jobs, which nothing else would ever ask for
+ */
+@Configuration
+@Profile("startup")
+public class StartupConfig {
+
+	@Bean
+	public static LazyInitializationExcludeFilter eagerInfrastructureAndJobs() {
+		LazyInitializationExcludeFilter infrastructure = LazyInitializationExcludeFilter.forBeanTypes(Flyway.class,
+				FlywayMigrationInitializer.class, EntityManagerFactory.class);
+		return (beanName, beanDefinition, beanType) -> infrastructure.isExcluded(beanName, beanDefinition, beanType)
+				|| hasScheduledMethods(beanType);
+	}
+
+	static boolean hasScheduledMethods(Class<?> beanType) {
+		return beanType != null && Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(beanType))
+				.anyMatch(method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class));
+	}
+}
@@ -0,0 +1,94 @@
+package com.raga.library.config;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.servlet.resource.CachingResourceResolver;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import com.raga.library.asset.AssetBuildSummary;
+import com.raga.library.asset.AssetPipeline;
+import com.raga.library.asset.AssetRequestHandler;
+import com.raga.library.asset.SendfileResourceHttpMessageConverter;
+
+/**
+ * Builds the optimized stylesheets and images at startup and serves them under
+ * content-hashed URLs. Links written with {@code @{...}} in the templates are
+ * rewritten to the hashed URLs, and stylesheets are served precompressed to
+ * clients accepting gzip
+ */
+@Configuration
+public class StaticAssetConfig {
+
+	public static final String SOURCE_LOCATION = "classpath:/static/";
+
+	private final Logger logger = LoggerFactory.getLogger(StaticAssetConfig.class);
+
+	@Bean
+	public AssetPipeline assetPipeline(@Value("${library.assets.directory:data/assets}") String directory,
+			@Value("${library.assets.image-max-width:1280}") int imageMaxWidth,
+			@Value("${library.assets.jpeg-quality:0.8}") float jpegQuality) {
+		AssetPipeline assetPipeline = new AssetPipeline(new PathMatchingResourcePatternResolver(), SOURCE_LOCATION,
+				Path.of(directory), imageMaxWidth, jpegQuality);
+		AssetBuildSummary summary = assetPipeline.build();
+		logger.info("Built {} static assets ({} images reused) in {} ms: {} bytes optimized to {}, {} bytes of gzip"
+				+ " stylesheets", summary.files(), summary.reused(), summary.millis(), summary.sourceBytes(),
+				summary.outputBytes(), summary.gzipBytes());
+		return assetPipeline;
+	}
+
+	@Bean
+	public AssetRequestHandler stylesheetRequestHandler(AssetPipeline assetPipeline,
+			@Value("${library.assets.sendfile-min-bytes:49152}") long sendfileMinimumBytes) {
+		return assetRequestHandler(assetPipeline, AssetPipeline.STYLESHEETS, sendfileMinimumBytes);
+	}
+
+	@Bean
+	public AssetRequestHandler imageRequestHandler(AssetPipeline assetPipeline,
+			@Value("${library.assets.sendfile-min-bytes:49152}") long sendfileMinimumBytes) {
+		return assetRequestHandler(assetPipeline, AssetPipeline.IMAGES, sendfileMinimumBytes);
+	}
+
+	@Bean
+	public SimpleUrlHandlerMapping assetHandlerMapping(AssetRequestHandler stylesheetRequestHandler,
+			AssetRequestHandler imageRequestHandler) {
+		// Ahead of the default static resource mapping of /**
+		return new SimpleUrlHandlerMapping(Map.of("/" + AssetPipeline.STYLESHEETS + "/**", stylesheetRequestHandler,
+				"/" + AssetPipeline.IMAGES + "/**", imageRequestHandler), Ordered.LOWEST_PRECEDENCE - 2);
+	}
+
+	@Bean
+	public FilterRegistrationBean<ResourceUrlEncodingFilter> assetUrlEncodingFilter() {
+		return new FilterRegistrationBean<>(new ResourceUrlEncodingFilter());
+	}
+
+	private static AssetRequestHandler assetRequestHandler(AssetPipeline assetPipeline, String directory,
+			long sendfileMinimumBytes) {
+		AssetRequestHandler handler = new AssetRequestHandler();
+		handler.setLocations(List.of(
+				new FileSystemResource(assetPipeline.outputDirectory().resolve(directory).toAbsolutePath() + "/"),
+				new ClassPathResource("static/" + directory + "/")));
+		// The cache keeps the content hashes from being computed on every request
+		handler.setResourceResolvers(List.of(new CachingResourceResolver(new ConcurrentMapCache(directory)),
+				new EncodedResourceResolver(), new VersionResourceResolver().addContentVersionStrategy("/**"),
+				new PathResourceResolver()));
+		handler.setResourceHttpMessageConverter(new SendfileResourceHttpMessageConverter(sendfileMinimumBytes));
+		return handler;
+	}
+}
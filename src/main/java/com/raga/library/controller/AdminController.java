@@ -0,0 +1,152 @@
+package com.raga.library.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.raga.library.archive.ArchiveRunSummary;
+import com.raga.library.exception.ResourceNotFoundException;
+import com.raga.library.fine.FineRunSummary;
+import com.raga.library.jfr.FlightRecordingSummary;
+import com.raga.library.journal.JournalRecord;
+import com.raga.library.projection.ProjectionRebuildSummary;
+import com.raga.library.ratelimit.ThrottledKey;
+import com.raga.library.service.ActiveLoanProjectionService;
+import com.raga.library.service.ArchivalService;
+import com.raga.library.service.EventJournalService;
+import com.raga.library.service.FineCalculationService;
+import com.raga.library.service.FlightRecordingService;
+import com.raga.library.service.RateLimitService;
+
+/**
+ * This class is responsible for handling RESTful endpoints for administrative
+ * operations of the library
+ */
+@RestController
+@RequestMapping("/library/api/admin")
+public class AdminController {
+
+	@Autowired
+	private FineCalculationService fineCalculationService;
+
+	@Autowired
+	private ArchivalService archivalService;
+
+	@Autowired
+	private EventJournalService eventJournalService;
+
+	@Autowired
+	private ActiveLoanProjectionService activeLoanProjectionService;
+
+	@Autowired
+	private RateLimitService rateLimitService;
+
+	@Autowired
+	private FlightRecordingService flightRecordingService;
+
+	/**
+	 * Runs the fine calculation on demand
+	 *
+	 * @param asOf The date fines are assessed for, today when omitted
+	 * @return ResponseEntity containing the summary and throughput of the run
+	 */
+	@PostMapping("/fines/run")
+	public ResponseEntity<FineRunSummary> runFineCalculation(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+		FineRunSummary summary = fineCalculationService.calculateFines(asOf != null ? asOf : LocalDate.now());
+		return ResponseEntity.ok().body(summary);
+	}
+
+	/**
+	 * Runs the archival of returned loans on demand
+	 *
+	 * @param asOf The date the retention period is counted back from, today when
+	 *             omitted
+	 * @return ResponseEntity containing the summary of the run
+	 */
+	@PostMapping("/archive/run")
+	public ResponseEntity<ArchiveRunSummary> runArchival(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+		ArchiveRunSummary summary = archivalService.archiveReturnedLoans(asOf != null ? asOf : LocalDate.now());
+		return ResponseEntity.ok().body(summary);
+	}
+
+	/**
+	 * Reads the event journal from the given offset on
+	 *
+	 * @param fromOffset The offset of the first record, 0 by default
+	 * @param limit      The maximum number of records
+	 * @return The journal records, oldest first
+	 */
+	@GetMapping("/journal")
+	public List<JournalRecord> readJournal(@RequestParam(defaultValue = "0") long fromOffset,
+			@RequestParam(defaultValue = "100") int limit) {
+		return eventJournalService.readJournal(fromOffset, limit);
+	}
+
+	/**
+	 * Rebuilds the active loans read model from the borrowing record, book and
+	 * patron tables
+	 *
+	 * @return ResponseEntity containing the summary of the rebuild
+	 */
+	@PostMapping("/projections/active-loans/rebuild")
+	public ResponseEntity<ProjectionRebuildSummary> rebuildActiveLoans() {
+		return ResponseEntity.ok().body(activeLoanProjectionService.rebuildProjection());
+	}
+
+	/**
+	 * Lists the patrons and clients with the most throttled requests
+	 *
+	 * @param limit The maximum number of keys
+	 * @return The throttled keys, most throttled first
+	 */
+	@GetMapping("/rate-limits")
+	public List<ThrottledKey> mostThrottledKeys(@RequestParam(defaultValue = "20") int limit) {
+		return rateLimitService.mostThrottledKeys(limit);
+	}
+
+	/**
+	 * Starts the flight recording of the borrow, return, catalog search and bulk
+	 * import events, unless it already runs
+	 *
+	 * @return ResponseEntity containing the running recording
+	 */
+	@PostMapping("/recordings/start")
+	public ResponseEntity<FlightRecordingSummary> startRecording() {
+		return ResponseEntity.ok().body(flightRecordingService.startRecording());
+	}
+
+	/**
+	 * Dumps the events of the running flight recording to a file, and keeps
+	 * recording
+	 *
+	 * @return ResponseEntity containing the recording and the file it was dumped
+	 *         to
+	 * @throws ResourceNotFoundException If no recording runs
+	 */
+	@PostMapping("/recordings/dump")
+	public ResponseEntity<FlightRecordingSummary> dumpRecording() throws ResourceNotFoundException {
+		return ResponseEntity.ok().body(flightRecordingService.dumpRecording());
+	}
+
+	/**
+	 * Stops the running flight recording and dumps its events to a file
+	 *
+	 * @return ResponseEntity containing the recording and the file it was dumped
+	 *         to
+	 * @throws ResourceNotFoundException If no recording runs
+	 */
+	@PostMapping("/recordings/stop")
+	public ResponseEntity<FlightRecordingSummary> stopRecording() throws ResourceNotFoundException {
+		return ResponseEntity.ok().body(flightRecordingService.stopRecording());
+	}
+}
@@ -1,8 +1,11 @@
 package com.raga.library.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -12,13 +15,27 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.raga.library.aspect.RecordedAsBulkImport;
+import com.raga.library.aspect.RecordedAsCatalogSearch;
+import com.raga.library.dto.BookBatch;
+import com.raga.library.dto.LoanCursor;
+import com.raga.library.dto.LoanHistoryPage;
+import com.raga.library.dto.LoanHistoryQuery;
+import com.raga.library.dto.LoanStatus;
 import com.raga.library.entity.Book;
+import com.raga.library.exception.InvalidCursorException;
 import com.raga.library.exception.MethodArgumentNotValidException;
 import com.raga.library.exception.ResourceNotFoundException;
 import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.wire.BulkStream;
+import com.raga.library.wire.WireFormat;
 
 import jakarta.validation.Valid;
 
@@ -33,29 +50,77 @@ public class BookController {
 	@Autowired
 	private BookService bookService;
 
+	@Autowired
+	private BorrowingRecordService borrowingRecordService;
+
 	/**
-	 * Retrieves a list of all books
+	 * Retrieves a list of all books, recorded as a CatalogSearchEvent
 	 *
 	 * @return List of all books
 	 */
 	@GetMapping("/books")
+	@RecordedAsCatalogSearch
 	public List<Book> retrieveAllBooks() {
 		return bookService.retrieveAllBooks();
 	}
 
 	/**
-	 * Retrieves details of a specific book by ID
+	 * Streams all books, in id order, for bulk clients. The stream is
+	 * newline-delimited JSON, or a sequence of CBOR or Smile values when the
+	 * Accept header asks for application/cbor or application/x-jackson-smile
+	 *
+	 * @param accept The Accept header of the request
+	 * @return ResponseEntity streaming the books
+	 */
+	@GetMapping("/books/stream")
+	public ResponseEntity<StreamingResponseBody> streamAllBooks(
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		WireFormat format = WireFormat.negotiate(accept);
+		return ResponseEntity.ok().contentType(format.getStreamMediaType()).body(BulkStream.of(format,
+				afterId -> bookService.retrieveBooksAfter(afterId, BulkStream.PAGE_SIZE), Book::getId));
+	}
+
+	/**
+	 * Retrieves details of a specific book by ID, recorded as a
+	 * CatalogSearchEvent
 	 *
 	 * @param id ID of the book to retrieve
 	 * @return ResponseEntity containing the book details
 	 * @throws ResourceNotFoundException If the book ID is not found
 	 */
 	@GetMapping("/books/{id}")
+	@RecordedAsCatalogSearch
 	public ResponseEntity<Book> retrieveBookById(@PathVariable Long id) throws ResourceNotFoundException {
 		Book book = bookService.retrieveBook(id);
 		return ResponseEntity.ok().body(book);
 	}
 
+	/**
+	 * Retrieves one page of the loan history of a book, most recent loan first
+	 *
+	 * @param id     ID of the book
+	 * @param status Filter on ACTIVE or RETURNED loans, ALL by default
+	 * @param from   Earliest borrow date to include
+	 * @param to     Latest borrow date to include
+	 * @param cursor The next cursor of the previous page, omitted for the first
+	 *               page
+	 * @param size   The page size
+	 * @return The page of loans and the cursor of the next page
+	 * @throws ResourceNotFoundException If the book ID is not found
+	 * @throws InvalidCursorException    If the cursor is malformed
+	 */
+	@GetMapping("/books/{id}/loans")
+	public LoanHistoryPage retrieveBookLoans(@PathVariable Long id,
+			@RequestParam(defaultValue = "ALL") LoanStatus status,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "" + LoanHistoryQuery.DEFAULT_SIZE) int size)
+			throws ResourceNotFoundException, InvalidCursorException {
+		LoanHistoryQuery query = new LoanHistoryQuery(status, from, to, LoanCursor.decode(cursor), size);
+		return borrowingRecordService.retrieveBookLoanHistory(id, query);
+	}
+
 	/**
 	 * Adds a new book to the library
 	 *
@@ -75,6 +140,26 @@ public class BookController {
 				.body("Book added successfully with title : " + book.getTitle());
 	}
 
+	/**
+	 * Adds a batch of new books to the library in one transaction, recorded as a
+	 * BulkImportEvent. The body may be JSON, CBOR or Smile
+	 *
+	 * @param batch         The books to be added
+	 * @param bindingResult to handle validation errors
+	 * @return ResponseEntity containing the number of added books
+	 * @throws MethodArgumentNotValidException If validation errors occur
+	 */
+	@PostMapping("/books/bulk")
+	@RecordedAsBulkImport("book")
+	public ResponseEntity<String> addNewBooks(@Valid @RequestBody BookBatch batch, BindingResult bindingResult)
+			throws MethodArgumentNotValidException {
+		if (bindingResult.hasErrors()) {
+			throw new MethodArgumentNotValidException(bindingResult);
+		}
+		int saved = bookService.saveBooks(batch.books());
+		return ResponseEntity.status(HttpStatus.CREATED).body(saved + " books added successfully");
+	}
+
 	/**
 	 * Updates an existing book's information
 	 *
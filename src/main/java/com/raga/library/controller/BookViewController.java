@@ -1,8 +1,7 @@
 package com.raga.library.controller;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,12 +9,24 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 
+import com.raga.library.cache.RenderedPageKey;
+import com.raga.library.dto.ListQuery;
+import com.raga.library.dto.LoanCursor;
+import com.raga.library.dto.LoanHistoryQuery;
 import com.raga.library.entity.Book;
+import com.raga.library.exception.InvalidCursorException;
 import com.raga.library.exception.MethodArgumentNotValidException;
 import com.raga.library.exception.ResourceNotFoundException;
 import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.LibraryStatisticsService;
+import com.raga.library.service.RenderedPageCacheService;
+import com.raga.library.service.TrendingService;
+import com.raga.library.trending.TrendingWindow;
+import com.raga.library.view.KeysetRows;
 
 import jakarta.validation.Valid;
 
@@ -29,56 +40,104 @@ public class BookViewController {
 	@Autowired
 	private BookService bookService;
 
+	@Autowired
+	private BorrowingRecordService borrowingRecordService;
+
+	@Autowired
+	private LibraryStatisticsService libraryStatisticsService;
+
+	@Autowired
+	private TrendingService trendingService;
+
+	@Autowired
+	private RenderedPageCacheService renderedPageCacheService;
+
 	/**
-	 * Displays the home page of the library application
+	 * Displays the home page of the library application with the titles trending
+	 * today
 	 * 
 	 * @return ModelAndView object representing the home page view
 	 */
 	@GetMapping
 	public ModelAndView viewHomePage() {
 		ModelAndView modelAndView = new ModelAndView("home-page");
+		modelAndView.addObject("trendingBooks", trendingService.retrieveTrendingBooks(TrendingWindow.DAY, 5));
 		return modelAndView;
 	}
 
 	/**
-	 * Displays the dashboard of the library application
+	 * Displays the dashboard of the library application together with the
+	 * current library statistics and the titles and patrons trending today
 	 * 
 	 * @return ModelAndView object representing the dashboard view
 	 */
 	@GetMapping("/dashboard")
 	public ModelAndView viewDashboard() {
 		ModelAndView modelAndView = new ModelAndView("dashboard");
+		modelAndView.addObject("statistics", libraryStatisticsService.retrieveStatistics());
+		modelAndView.addObject("trendingBooks", trendingService.retrieveTrendingBooks(TrendingWindow.DAY, 5));
+		modelAndView.addObject("trendingPatrons", trendingService.retrieveTrendingPatrons(TrendingWindow.DAY, 5));
 		return modelAndView;
 	}
 
 	/**
-	 * Retrieves a list of all books and displays them
+	 * Displays one sorted page of books, or all books when streaming
 	 * 
+	 * @param page      The page number, starting at 0
+	 * @param size      The page size
+	 * @param sort      The property the list is sorted by
+	 * @param direction The sort direction
+	 * @param stream    Whether all books are rendered while they are read, in id
+	 *                  order, instead of a single page
 	 * @return ModelAndView object representing the view with the list of books
 	 */
 	@GetMapping("/books")
-	public ModelAndView retrieveAllBooks() {
-		List<Book> books = bookService.retrieveAllBooks();
+	public ModelAndView retrieveAllBooks(@RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = "" + ListQuery.DEFAULT_SIZE) int size,
+			@RequestParam(defaultValue = ListQuery.DEFAULT_SORT) String sort,
+			@RequestParam(defaultValue = "ASC") Sort.Direction direction,
+			@RequestParam(defaultValue = "false") boolean stream) {
 		ModelAndView modelAndView = new ModelAndView("book-list");
-		modelAndView.addObject("books", books);
+		if (stream) {
+			modelAndView.addObject("books", new KeysetRows<>(KeysetRows.PAGE_SIZE,
+					afterId -> bookService.retrieveBooksAfter(afterId, KeysetRows.PAGE_SIZE), Book::getId));
+			modelAndView.addObject("listQuery", ListQuery.firstPage());
+		} else {
+			ListQuery listQuery = new ListQuery(page, size, sort, direction).sortableBy(BookService.SORTABLE_PROPERTIES);
+			modelAndView.addObject("books", bookService.retrieveBooks(listQuery));
+			modelAndView.addObject("listQuery", listQuery);
+		}
+		modelAndView.addObject("streaming", stream);
 		return modelAndView;
 	}
 
 	/**
-	 * Retrieves a book by its ID and displays its details
+	 * Retrieves a book by its ID and displays its details with one page of its
+	 * loan history. The page with the most recent loans is served from the
+	 * rendered page cache
 	 * 
-	 * @param id The ID of the book to retrieve.
+	 * @param id     The ID of the book to retrieve.
+	 * @param cursor The cursor of the loan history page, omitted for the most
+	 *               recent loans
 	 * @return ModelAndView object representing the view with the book details
 	 */
 	@GetMapping("/books/{id}")
-	public ModelAndView retrieveBookById(@PathVariable Long id) {
+	public ModelAndView retrieveBookById(@PathVariable Long id, @RequestParam(required = false) String cursor) {
 		Book book;
 		ModelAndView modelAndView = new ModelAndView("book-details");
 
 		try {
 			book = bookService.retrieveBook(id);
 			modelAndView.addObject("book", book);
-		} catch (ResourceNotFoundException e) {
+			if (cursor == null) {
+				modelAndView.setView(renderedPageCacheService.cachedView(RenderedPageKey.bookDetails(id),
+						book.getVersion(), model -> model.put("loanHistory",
+								borrowingRecordService.retrieveBookLoanHistory(id, LoanHistoryQuery.firstPage(10)))));
+			} else {
+				modelAndView.addObject("loanHistory", borrowingRecordService.retrieveBookLoanHistory(id,
+						new LoanHistoryQuery(null, null, null, LoanCursor.decode(cursor), 10)));
+			}
+		} catch (ResourceNotFoundException | InvalidCursorException e) {
 			modelAndView.addObject("errorMessage", "Error in retrieving Book : " + e.getMessage());
 			modelAndView.setViewName("error");
 		}
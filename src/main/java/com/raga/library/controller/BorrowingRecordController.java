@@ -1,18 +1,39 @@
 package com.raga.library.controller;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.raga.library.dto.LoanInclude;
+import com.raga.library.dto.LoanListResponse;
+import com.raga.library.dto.LoanResponse;
+import com.raga.library.entity.ActiveLoan;
 import com.raga.library.entity.BorrowingRecord;
+import com.raga.library.exception.CirculationConflictException;
+import com.raga.library.exception.CirculationNotFoundException;
+import com.raga.library.exception.IdempotencyKeyConflictException;
+import com.raga.library.service.ActiveLoanProjectionService;
 import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.IdempotencyService;
+import com.raga.library.wire.BulkStream;
+import com.raga.library.wire.WireFormat;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * This class is responsible for handling RESTful endpoints for managing
@@ -25,33 +46,122 @@ public class BorrowingRecordController {
 	@Autowired
 	private BorrowingRecordService borrowingRecordService;
 
+	@Autowired
+	private ActiveLoanProjectionService activeLoanProjectionService;
+
+	@Autowired
+	private IdempotencyService idempotencyService;
+
 	/**
-	 * Retrieves all borrowing records
+	 * Retrieves all borrowing records. Loans reference their book and patron by
+	 * id, and each referenced book or patron is listed once when requested with
+	 * include=BOOK,PATRON
 	 * 
-	 * @return list of all borrowing
-	 *         records
+	 * @param include The referenced entities to side-load
+	 * @return The loans and the requested books and patrons
 	 */
 	@GetMapping("/borrowingRecords")
-	public List<BorrowingRecord> retrieveAllBooks() {
-		return borrowingRecordService.retrieveAllBorrowingRecord();
+	public LoanListResponse retrieveAllBooks(@RequestParam(required = false) Set<LoanInclude> include) {
+		return borrowingRecordService.retrieveLoanList(include != null ? include : EnumSet.noneOf(LoanInclude.class));
+	}
+
+	/**
+	 * Streams all loans, in id order, for bulk clients. The stream is
+	 * newline-delimited JSON, or a sequence of CBOR or Smile values when the
+	 * Accept header asks for application/cbor or application/x-jackson-smile
+	 * 
+	 * @param accept The Accept header of the request
+	 * @return ResponseEntity streaming the loans
+	 */
+	@GetMapping("/borrowingRecords/stream")
+	public ResponseEntity<StreamingResponseBody> streamAllBorrowingRecords(
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		WireFormat format = WireFormat.negotiate(accept);
+		return ResponseEntity.ok().contentType(format.getStreamMediaType()).body(BulkStream.of(format,
+				afterId -> borrowingRecordService.retrieveLoansAfter(afterId, BulkStream.PAGE_SIZE), LoanResponse::id));
+	}
+
+	/**
+	 * Retrieves all active loans from the active loans read model
+	 * 
+	 * @return list of active loans with their book and patron details
+	 */
+	@GetMapping("/loans/active")
+	public List<ActiveLoan> retrieveActiveLoans() {
+		return activeLoanProjectionService.retrieveActiveLoans();
 	}
 	
 	/**
-	 * Method that allows a patron to borrow a book
+	 * Method that allows a patron to borrow a book. A retry sent with the same
+	 * Idempotency-Key header gets the response of the first request instead of
+	 * borrowing again
 	 *
 	 * @param bookId The ID of the book to be borrowed
 	 * @param patronId The ID of the patron borrowing the book
+	 * @param idempotencyKey The idempotency key of the request, if any
+	 * @param request The HTTP request
 	 * @return ResponseEntity containing the result of the borrow record
+	 * @throws CirculationNotFoundException If the book or patron is not found
+	 * @throws CirculationConflictException If the patron already borrowed the book
+	 * @throws IdempotencyKeyConflictException If the key was sent with a different request
 	 */
 	@PostMapping("/borrow/{bookId}/patron/{patronId}")
-	public ResponseEntity<?> borrowABook(@PathVariable Long bookId, @PathVariable Long patronId) {
-		try {
-			BorrowingRecord borrowingRecord = borrowingRecordService.borrowBook(bookId, patronId);
-			
-			return ResponseEntity.status(HttpStatus.CREATED).body("Book Borrowed Successfully on " + borrowingRecord.getBorrowDate());
-		} catch (Exception e) {
-			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-					.body("Error in borrowing the book: " + e.getMessage());
+	public ResponseEntity<?> borrowABook(@PathVariable Long bookId, @PathVariable Long patronId,
+			@RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+			HttpServletRequest request) throws IdempotencyKeyConflictException {
+		return executeOnce(idempotencyKey, request, () -> {
+			try {
+				BorrowingRecord borrowingRecord = borrowingRecordService.borrowBook(bookId, patronId);
+
+				return ResponseEntity.status(HttpStatus.CREATED).body("Book Borrowed Successfully on " + borrowingRecord.getBorrowDate());
+			} catch (CirculationNotFoundException | CirculationConflictException e) {
+				// Expected outcomes are answered by the GlobalExceptionHandler
+				throw e;
+			} catch (Exception e) {
+				return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+						.body("Error in borrowing the book: " + e.getMessage());
+			}
+		});
+	}
+
+	/**
+	 * Method that allows a patron to return a book. A retry sent with the same
+	 * Idempotency-Key header gets the response of the first request instead of
+	 * returning again
+	 *
+	 * @param bookId The ID of the book to be returned
+	 * @param patronId The ID of the patron returning the book
+	 * @param idempotencyKey The idempotency key of the request, if any
+	 * @param request The HTTP request
+	 * @return ResponseEntity containing the result of the return
+	 * @throws CirculationNotFoundException If the patron has no active loan of the book
+	 * @throws CirculationConflictException If the patron has more than one active loan of the book
+	 * @throws IdempotencyKeyConflictException If the key was sent with a different request
+	 */
+	@PutMapping("/return/{bookId}/patron/{patronId}")
+	public ResponseEntity<?> returnABook(@PathVariable Long bookId, @PathVariable Long patronId,
+			@RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+			HttpServletRequest request) throws IdempotencyKeyConflictException {
+		return executeOnce(idempotencyKey, request, () -> {
+			try {
+				BorrowingRecord borrowingRecord = borrowingRecordService.returnBook(bookId, patronId);
+
+				return ResponseEntity.ok().body("Book Returned Successfully on " + borrowingRecord.getReturnDate());
+			} catch (CirculationNotFoundException | CirculationConflictException e) {
+				// Expected outcomes are answered by the GlobalExceptionHandler
+				throw e;
+			} catch (Exception e) {
+				return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+						.body("Error in returning the book: " + e.getMessage());
+			}
+		});
+	}
+
+	private ResponseEntity<?> executeOnce(String idempotencyKey, HttpServletRequest request,
+			Supplier<ResponseEntity<?>> execution) throws IdempotencyKeyConflictException {
+		if (idempotencyKey == null || idempotencyKey.isBlank()) {
+			return execution.get();
 		}
+		return idempotencyService.execute(idempotencyKey, IdempotencyService.fingerprint(request), execution);
 	}
 }
@@ -3,18 +3,20 @@ package com.raga.library.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 
-import com.raga.library.entity.Book;
+import com.raga.library.dto.ListQuery;
+import com.raga.library.entity.ActiveLoan;
 import com.raga.library.entity.BorrowingRecord;
-import com.raga.library.entity.Patron;
-import com.raga.library.service.BookService;
+import com.raga.library.service.ActiveLoanProjectionService;
 import com.raga.library.service.BorrowingRecordService;
-import com.raga.library.service.PatronService;
+import com.raga.library.view.KeysetRows;
 
 /**
  * Controller class responsible for handling HTTP requests related to borrowing
@@ -28,22 +30,40 @@ public class BorrowingRecordViewController {
 	private BorrowingRecordService borrowingRecordService;
 
 	@Autowired
-	private BookService bookService;
-
-	@Autowired
-	private PatronService patronService;
+	private ActiveLoanProjectionService activeLoanProjectionService;
 
 	/**
-	 * Retrieves all borrowing records and displays them
+	 * Displays one sorted page of borrowing records, or all records when
+	 * streaming
 	 * 
+	 * @param page      The page number, starting at 0
+	 * @param size      The page size
+	 * @param sort      The property the list is sorted by
+	 * @param direction The sort direction
+	 * @param stream    Whether all records are rendered while they are read, in id
+	 *                  order, instead of a single page
 	 * @return ModelAndView object representing the view with the list of borrowing
 	 *         records
 	 */
 	@GetMapping("/borrowingRecords")
-	public ModelAndView retrieveAllBooks() {
-		List<BorrowingRecord> borrowingRecord = borrowingRecordService.retrieveAllBorrowingRecord();
+	public ModelAndView retrieveAllBooks(@RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = "" + ListQuery.DEFAULT_SIZE) int size,
+			@RequestParam(defaultValue = ListQuery.DEFAULT_SORT) String sort,
+			@RequestParam(defaultValue = "ASC") Sort.Direction direction,
+			@RequestParam(defaultValue = "false") boolean stream) {
 		ModelAndView modelAndView = new ModelAndView("borrowingRecord-list");
-		modelAndView.addObject("borrowingRecord", borrowingRecord);
+		if (stream) {
+			modelAndView.addObject("borrowingRecord", new KeysetRows<>(KeysetRows.PAGE_SIZE,
+					afterId -> borrowingRecordService.retrieveBorrowingRecordsAfter(afterId, KeysetRows.PAGE_SIZE),
+					BorrowingRecord::getId));
+			modelAndView.addObject("listQuery", ListQuery.firstPage());
+		} else {
+			ListQuery listQuery = new ListQuery(page, size, sort, direction)
+					.sortableBy(BorrowingRecordService.SORTABLE_PROPERTIES);
+			modelAndView.addObject("borrowingRecord", borrowingRecordService.retrieveBorrowingRecords(listQuery));
+			modelAndView.addObject("listQuery", listQuery);
+		}
+		modelAndView.addObject("streaming", stream);
 		return modelAndView;
 	}
 
@@ -59,20 +79,22 @@ public class BorrowingRecordViewController {
 	}
 
 	/**
-	 * Displays the form for returning a book
+	 * Displays the form for returning a book, listing the active loans from the
+	 * active loans read model
 	 * 
 	 * @return ModelAndView object representing the form for returning a book
 	 */
 	@GetMapping("/returningBook")
 	public ModelAndView returnBookRecord() {
-		List<BorrowingRecord> borrowingRecord = borrowingRecordService.retrieveAllBorrowingRecord();
+		List<ActiveLoan> activeLoans = activeLoanProjectionService.retrieveActiveLoans();
 		ModelAndView modelAndView = new ModelAndView("return-book");
-		modelAndView.addObject("borrowingRecord", borrowingRecord);
+		modelAndView.addObject("activeLoans", activeLoans);
 		return modelAndView;
 	}
 
 	/**
-	 * Method that allows a patron to borrow a book
+	 * Method that allows a patron to borrow a book. The confirmation shows the
+	 * book and patron of the returned borrowing record, without reading them again
 	 * 
 	 * @param bookId   The ID of the book to be borrowed
 	 * @param patronId The ID of the patron borrowing the book
@@ -85,11 +107,9 @@ public class BorrowingRecordViewController {
 
 		try {
 			BorrowingRecord borrowingRecord = borrowingRecordService.borrowBook(bookId, patronId);
-			Book book = bookService.retrieveBook(bookId);
-			Patron patron = patronService.retrievePatron(patronId);
 			modelAndView.addObject("message", "Book Borrowed Successfully on " + borrowingRecord.getBorrowDate());
-			modelAndView.addObject("book", book);
-			modelAndView.addObject("patron", patron);
+			modelAndView.addObject("book", borrowingRecord.getBook());
+			modelAndView.addObject("patron", borrowingRecord.getPatron());
 		} catch (Exception e) {
 			modelAndView.addObject("errorMessage", "Error in borrowing the book : " + e.getMessage());
 			modelAndView.setViewName("error");
@@ -98,7 +118,8 @@ public class BorrowingRecordViewController {
 	}
 
 	/**
-	 * Record the return of a borrowed book by a patron
+	 * Record the return of a borrowed book by a patron. The confirmation shows the
+	 * book and patron of the returned borrowing record, without reading them again
 	 * 
 	 * @param bookId   The ID of the book to be returned
 	 * @param patronId The ID of the patron returning the book
@@ -111,11 +132,9 @@ public class BorrowingRecordViewController {
 
 		try {
 			BorrowingRecord borrowingRecord = borrowingRecordService.returnBook(bookId, patronId);
-			Book book = bookService.retrieveBook(bookId);
-			Patron patron = patronService.retrievePatron(patronId);
 			modelAndView.addObject("message", "Book Returned Successfully on " + borrowingRecord.getReturnDate());
-			modelAndView.addObject("book", book);
-			modelAndView.addObject("patron", patron);
+			modelAndView.addObject("book", borrowingRecord.getBook());
+			modelAndView.addObject("patron", borrowingRecord.getPatron());
 		} catch (Exception e) {
 			modelAndView.addObject("errorMessage", "Error in returning the book : " + e.getMessage());
 			modelAndView.setViewName("error");
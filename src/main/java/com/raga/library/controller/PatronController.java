@@ -1,8 +1,11 @@
 package com.raga.library.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -12,12 +15,25 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.raga.library.aspect.RecordedAsBulkImport;
+import com.raga.library.dto.LoanCursor;
+import com.raga.library.dto.LoanHistoryPage;
+import com.raga.library.dto.LoanHistoryQuery;
+import com.raga.library.dto.LoanStatus;
+import com.raga.library.dto.PatronBatch;
 import com.raga.library.entity.Patron;
+import com.raga.library.exception.InvalidCursorException;
 import com.raga.library.exception.MethodArgumentNotValidException;
 import com.raga.library.exception.ResourceNotFoundException;
+import com.raga.library.service.BorrowingRecordService;
 import com.raga.library.service.PatronService;
+import com.raga.library.wire.BulkStream;
+import com.raga.library.wire.WireFormat;
 
 import jakarta.validation.Valid;
 
@@ -32,6 +48,9 @@ public class PatronController {
 	@Autowired
 	private PatronService patronService;
 
+	@Autowired
+	private BorrowingRecordService borrowingRecordService;
+
 	/**
 	 * Retrieve a list of all patrons
 	 *
@@ -42,6 +61,22 @@ public class PatronController {
 		return patronService.retrieveAllPatrons();
 	}
 
+	/**
+	 * Streams all patrons, in id order, for bulk clients. The stream is
+	 * newline-delimited JSON, or a sequence of CBOR or Smile values when the
+	 * Accept header asks for application/cbor or application/x-jackson-smile
+	 *
+	 * @param accept The Accept header of the request
+	 * @return ResponseEntity streaming the patrons
+	 */
+	@GetMapping("/patrons/stream")
+	public ResponseEntity<StreamingResponseBody> streamAllPatrons(
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		WireFormat format = WireFormat.negotiate(accept);
+		return ResponseEntity.ok().contentType(format.getStreamMediaType()).body(BulkStream.of(format,
+				afterId -> patronService.retrievePatronsAfter(afterId, BulkStream.PAGE_SIZE), Patron::getId));
+	}
+
 	/**
 	 * Retrieve details of a specific patron by ID
 	 *
@@ -55,6 +90,32 @@ public class PatronController {
 		return ResponseEntity.ok().body(patron);
 	}
 
+	/**
+	 * Retrieves one page of the loan history of a patron, most recent loan first
+	 *
+	 * @param id     ID of the patron
+	 * @param status Filter on ACTIVE or RETURNED loans, ALL by default
+	 * @param from   Earliest borrow date to include
+	 * @param to     Latest borrow date to include
+	 * @param cursor The next cursor of the previous page, omitted for the first
+	 *               page
+	 * @param size   The page size
+	 * @return The page of loans and the cursor of the next page
+	 * @throws ResourceNotFoundException If the patron ID is not found
+	 * @throws InvalidCursorException    If the cursor is malformed
+	 */
+	@GetMapping("/patrons/{id}/loans")
+	public LoanHistoryPage retrievePatronLoans(@PathVariable Long id,
+			@RequestParam(defaultValue = "ALL") LoanStatus status,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "" + LoanHistoryQuery.DEFAULT_SIZE) int size)
+			throws ResourceNotFoundException, InvalidCursorException {
+		LoanHistoryQuery query = new LoanHistoryQuery(status, from, to, LoanCursor.decode(cursor), size);
+		return borrowingRecordService.retrievePatronLoanHistory(id, query);
+	}
+
 	/**
 	 * Adds a new patron to the library
 	 *
@@ -74,6 +135,26 @@ public class PatronController {
 				.body("Patron added successfully with Name : " + patron.getName());
 	}
 
+	/**
+	 * Adds a batch of new patrons to the library in one transaction per patron
+	 * shard, recorded as a BulkImportEvent. The body may be JSON, CBOR or Smile
+	 *
+	 * @param batch         The patrons to be added
+	 * @param bindingResult to handle validation errors
+	 * @return ResponseEntity containing the number of added patrons
+	 * @throws MethodArgumentNotValidException If validation errors occur
+	 */
+	@PostMapping("/patrons/bulk")
+	@RecordedAsBulkImport("patron")
+	public ResponseEntity<String> addNewPatrons(@Valid @RequestBody PatronBatch batch, BindingResult bindingResult)
+			throws MethodArgumentNotValidException {
+		if (bindingResult.hasErrors()) {
+			throw new MethodArgumentNotValidException(bindingResult);
+		}
+		int saved = patronService.savePatrons(batch.patrons());
+		return ResponseEntity.status(HttpStatus.CREATED).body(saved + " patrons added successfully");
+	}
+
 	/**
 	 * Updates an existing patron's information
 	 *
@@ -1,8 +1,7 @@
 package com.raga.library.controller;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,12 +9,21 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 
+import com.raga.library.cache.RenderedPageKey;
+import com.raga.library.dto.ListQuery;
+import com.raga.library.dto.LoanCursor;
+import com.raga.library.dto.LoanHistoryQuery;
 import com.raga.library.entity.Patron;
+import com.raga.library.exception.InvalidCursorException;
 import com.raga.library.exception.MethodArgumentNotValidException;
 import com.raga.library.exception.ResourceNotFoundException;
+import com.raga.library.service.BorrowingRecordService;
 import com.raga.library.service.PatronService;
+import com.raga.library.service.RenderedPageCacheService;
+import com.raga.library.view.KeysetRows;
 
 import jakarta.validation.Valid;
 
@@ -30,33 +38,70 @@ public class PatronViewController {
 	@Autowired
 	private PatronService patronService;
 
+	@Autowired
+	private BorrowingRecordService borrowingRecordService;
+
+	@Autowired
+	private RenderedPageCacheService renderedPageCacheService;
+
 	/**
-	 * Retrieve a list of all patrons and displays them
+	 * Displays one sorted page of patrons, or all patrons when streaming
 	 * 
+	 * @param page      The page number, starting at 0
+	 * @param size      The page size
+	 * @param sort      The property the list is sorted by
+	 * @param direction The sort direction
+	 * @param stream    Whether all patrons are rendered while they are read, in id
+	 *                  order, instead of a single page
 	 * @return ModelAndView object representing the view with the list of patrons
 	 */
 	@GetMapping("/patrons")
-	public ModelAndView retrieveAllPatrons() {
-		List<Patron> patrons = patronService.retrieveAllPatrons();
+	public ModelAndView retrieveAllPatrons(@RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = "" + ListQuery.DEFAULT_SIZE) int size,
+			@RequestParam(defaultValue = ListQuery.DEFAULT_SORT) String sort,
+			@RequestParam(defaultValue = "ASC") Sort.Direction direction,
+			@RequestParam(defaultValue = "false") boolean stream) {
 		ModelAndView modelAndView = new ModelAndView("patron-list");
-		modelAndView.addObject("patrons", patrons);
+		if (stream) {
+			modelAndView.addObject("patrons", new KeysetRows<>(KeysetRows.PAGE_SIZE,
+					afterId -> patronService.retrievePatronsAfter(afterId, KeysetRows.PAGE_SIZE), Patron::getId));
+			modelAndView.addObject("listQuery", ListQuery.firstPage());
+		} else {
+			ListQuery listQuery = new ListQuery(page, size, sort, direction)
+					.sortableBy(PatronService.SORTABLE_PROPERTIES);
+			modelAndView.addObject("patrons", patronService.retrievePatrons(listQuery));
+			modelAndView.addObject("listQuery", listQuery);
+		}
+		modelAndView.addObject("streaming", stream);
 		return modelAndView;
 	}
 
 	/**
-	 * Retrieves a patron by its ID and displays its details
+	 * Retrieves a patron by its ID and displays its details with one page of its
+	 * loan history. The page with the most recent loans is served from the
+	 * rendered page cache
 	 * 
-	 * @param id The ID of the patron to retrieve
+	 * @param id     The ID of the patron to retrieve
+	 * @param cursor The cursor of the loan history page, omitted for the most
+	 *               recent loans
 	 * @return ModelAndView object representing the view with the patron details
 	 */
 	@GetMapping("/patrons/{id}")
-	public ModelAndView retrievePatronById(@PathVariable Long id) {
+	public ModelAndView retrievePatronById(@PathVariable Long id, @RequestParam(required = false) String cursor) {
 		ModelAndView modelAndView = new ModelAndView();
 		try {
 			Patron patron = patronService.retrievePatron(id);
 			modelAndView.addObject("patron", patron);
-			modelAndView.setViewName("patron-details");
-		} catch (ResourceNotFoundException e) {
+			if (cursor == null) {
+				modelAndView.setView(renderedPageCacheService.cachedView(RenderedPageKey.patronDetails(id),
+						patron.getVersion(), model -> model.put("loanHistory",
+								borrowingRecordService.retrievePatronLoanHistory(id, LoanHistoryQuery.firstPage(10)))));
+			} else {
+				modelAndView.addObject("loanHistory", borrowingRecordService.retrievePatronLoanHistory(id,
+						new LoanHistoryQuery(null, null, null, LoanCursor.decode(cursor), 10)));
+				modelAndView.setViewName("patron-details");
+			}
+		} catch (ResourceNotFoundException | InvalidCursorException e) {
 			modelAndView.addObject("errorMessage", "Error in retrieving Patron : " + e.getMessage());
 			modelAndView.setViewName("error");
 		}
@@ -0,0 +1,31 @@
+package com.raga.library.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.raga.library.dto.LibraryStatistics;
+import com.raga.library.service.LibraryStatisticsService;
+
+/**
+ * This class is responsible for handling RESTful endpoints for the library
+ * statistics
+ */
+@RestController
+@RequestMapping("/library/api")
+public class StatisticsController {
+
+	@Autowired
+	private LibraryStatisticsService libraryStatisticsService;
+
+	/**
+	 * Retrieves the current library statistics
+	 *
+	 * @return The library statistics
+	 */
+	@GetMapping("/statistics")
+	public LibraryStatistics retrieveStatistics() {
+		return libraryStatisticsService.retrieveStatistics();
+	}
+}
@@ -0,0 +1,53 @@
+package com.raga.library.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.raga.library.service.TrendingService;
+import com.raga.library.trending.TrendingEntry;
+import com.raga.library.trending.TrendingWindow;
+
+/**
+ * This class is responsible for handling RESTful endpoints for the trending
+ * titles and patrons
+ */
+@RestController
+@RequestMapping("/library/api/trending")
+public class TrendingController {
+
+	private static final int MAXIMUM_LIMIT = 50;
+
+	@Autowired
+	private TrendingService trendingService;
+
+	/**
+	 * Retrieves the most borrowed books of a sliding window
+	 *
+	 * @param window The sliding window, HOUR, DAY or WEEK
+	 * @param limit  The maximum number of books
+	 * @return List of trending books, most borrowed first
+	 */
+	@GetMapping("/books")
+	public List<TrendingEntry> retrieveTrendingBooks(@RequestParam(defaultValue = "DAY") TrendingWindow window,
+			@RequestParam(defaultValue = "10") int limit) {
+		return trendingService.retrieveTrendingBooks(window, Math.min(Math.max(limit, 1), MAXIMUM_LIMIT));
+	}
+
+	/**
+	 * Retrieves the most active patrons of a sliding window
+	 *
+	 * @param window The sliding window, HOUR, DAY or WEEK
+	 * @param limit  The maximum number of patrons
+	 * @return List of trending patrons, most borrows first
+	 */
+	@GetMapping("/patrons")
+	public List<TrendingEntry> retrieveTrendingPatrons(@RequestParam(defaultValue = "DAY") TrendingWindow window,
+			@RequestParam(defaultValue = "10") int limit) {
+		return trendingService.retrieveTrendingPatrons(window, Math.min(Math.max(limit, 1), MAXIMUM_LIMIT));
+	}
+}
@@ -0,0 +1,24 @@
+package com.raga.library.dto;
+
+import java.util.List;
+
+import com.raga.library.entity.Book;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Request body of a bulk book import
+ */
+public record BookBatch(@NotEmpty(message = "At least one book is required")
+		@Size(max = BookBatch.MAXIMUM_SIZE, message = "At most 10000 books can be imported at once")
+		List<@Valid Book> books) implements ImportBatch {
+
+	public static final int MAXIMUM_SIZE = 10_000;
+
+	@Override
+	public int size() {
+		return books != null ? books.size() : 0;
+	}
+}
@@ -0,0 +1,14 @@
+package com.raga.library.dto;
+
+import com.raga.library.entity.Book;
+
+/**
+ * Response representation of a book
+ */
+public record BookResponse(Long id, String title, String author, Integer publicationYear, String isbn) {
+
+	public static BookResponse from(Book book) {
+		return new BookResponse(book.getId(), book.getTitle(), book.getAuthor(), book.getPublicationYear(),
+				book.getIsbn());
+	}
+}
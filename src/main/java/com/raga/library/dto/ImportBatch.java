@@ -0,0 +1,12 @@
+package com.raga.library.dto;
+
+/**
+ * Request body of a bulk import of books or patrons
+ */
+public interface ImportBatch {
+
+	/**
+	 * @return The number of records in the batch, 0 when it has none
+	 */
+	int size();
+}
@@ -0,0 +1,11 @@
+package com.raga.library.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Snapshot of the library counters shown on the dashboard
+ */
+public record LibraryStatistics(long totalBooks, long totalPatrons, long activeLoans, long borrowsToday,
+		long returnsToday, long overdueLoans, LocalDateTime lastReconciledAt) {
+
+}
@@ -0,0 +1,109 @@
+package com.raga.library.dto;
+
+import java.util.Comparator;
+import java.util.Set;
+
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Page, page size and sort order of a list view. Paging stops at
+ * MAXIMUM_ROWS rows, since every deeper page reads and skips more rows; the
+ * streamed views and the keyset endpoints go through all the rows
+ */
+public record ListQuery(int page, int size, String sort, Sort.Direction direction) {
+
+	public static final int DEFAULT_SIZE = 50;
+
+	public static final int MAXIMUM_SIZE = 200;
+
+	public static final int MAXIMUM_ROWS = 10_000;
+
+	public static final String DEFAULT_SORT = "id";
+
+	public ListQuery {
+		size = Math.min(Math.max(size, 1), MAXIMUM_SIZE);
+		page = Math.min(Math.max(page, 0), lastReachablePage(size));
+		sort = sort != null ? sort : DEFAULT_SORT;
+		direction = direction != null ? direction : Sort.Direction.ASC;
+	}
+
+	/**
+	 * Creates the query of the first page in id order
+	 *
+	 * @return The query
+	 */
+	public static ListQuery firstPage() {
+		return new ListQuery(0, DEFAULT_SIZE, DEFAULT_SORT, Sort.Direction.ASC);
+	}
+
+	/**
+	 * @return Whether the page is the last one within MAXIMUM_ROWS rows, so that
+	 *         no next page is offered
+	 */
+	public boolean isLastReachablePage() {
+		return page == lastReachablePage(size);
+	}
+
+	private static int lastReachablePage(int size) {
+		return MAXIMUM_ROWS / size - 1;
+	}
+
+	/**
+	 * Replaces a sort property that is not sortable by the default id order
+	 *
+	 * @param sortableProperties The properties the list can be sorted by
+	 * @return The query with a sortable property
+	 */
+	public ListQuery sortableBy(Set<String> sortableProperties) {
+		return sortableProperties.contains(sort) ? this : new ListQuery(page, size, DEFAULT_SORT, direction);
+	}
+
+	/**
+	 * Creates the page request of the query. Rows with equal sort values are
+	 * ordered by id so consecutive pages never overlap
+	 *
+	 * @return The page request
+	 */
+	public Pageable toPageable() {
+		Sort order = Sort.by(direction, sort);
+		if (!DEFAULT_SORT.equals(sort)) {
+			order = order.and(Sort.by(Sort.Direction.ASC, DEFAULT_SORT));
+		}
+		return PageRequest.of(page, size, order);
+	}
+
+	/**
+	 * Creates the order of the query in memory, for merging the pages read from
+	 * several shards. Null values come first in ascending order, as in MySQL
+	 *
+	 * @return The order of the rows, by the sort property and then by id
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public <T> Comparator<T> comparator() {
+		Comparator<Comparable> values = Comparator.nullsFirst(Comparator.naturalOrder());
+		Comparator<T> order = Comparator.comparing(row -> (Comparable) propertyOf(row, sort), values);
+		if (direction.isDescending()) {
+			order = order.reversed();
+		}
+		if (!DEFAULT_SORT.equals(sort)) {
+			order = order.thenComparing(row -> (Comparable) propertyOf(row, DEFAULT_SORT), values);
+		}
+		return order;
+	}
+
+	private static Object propertyOf(Object row, String property) {
+		return PropertyAccessorFactory.forBeanPropertyAccess(row).getPropertyValue(property);
+	}
+
+	/**
+	 * @param property A column of the list
+	 * @return The direction a click on the column header sorts in, descending
+	 *         when the list is already sorted ascending by that column
+	 */
+	public Sort.Direction toggle(String property) {
+		return property.equals(sort) && direction.isAscending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+	}
+}
@@ -0,0 +1,44 @@
+package com.raga.library.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.raga.library.exception.InvalidCursorException;
+
+/**
+ * Keyset position within a loan history, the borrow date and id of the last
+ * loan of the previous page. It is exchanged with clients as an opaque string
+ */
+public record LoanCursor(LocalDate borrowDate, Long id) {
+
+	/**
+	 * @return The opaque string form of the cursor
+	 */
+	public String encode() {
+		String position = borrowDate + ":" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decodes a cursor received from a client
+	 * 
+	 * @param cursor The opaque cursor, may be null or blank for the first page
+	 * @return The decoded cursor, or null for the first page
+	 * @throws InvalidCursorException If the cursor is malformed
+	 */
+	public static LoanCursor decode(String cursor) throws InvalidCursorException {
+		if (cursor == null || cursor.isBlank()) {
+			return null;
+		}
+		try {
+			String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separator = position.indexOf(':');
+			return new LoanCursor(LocalDate.parse(position.substring(0, separator)),
+					Long.valueOf(position.substring(separator + 1)));
+		} catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+			throw new InvalidCursorException("Invalid cursor :: " + cursor);
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.raga.library.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.raga.library.entity.ArchivedBorrowingRecord;
+import com.raga.library.entity.BorrowingRecord;
+
+/**
+ * One loan of a patron or book loan history
+ */
+public record LoanHistoryEntry(Long id, Long bookId, String bookTitle, Long patronId, String patronName,
+		LocalDate borrowDate, LocalDate dueDate, LocalDate returnDate, BigDecimal fineAmount) {
+
+	/**
+	 * Creates a history entry from a borrowing record with its book and patron
+	 * 
+	 * @param borrowingRecord The borrowing record
+	 * @return The history entry
+	 */
+	public static LoanHistoryEntry from(BorrowingRecord borrowingRecord) {
+		return new LoanHistoryEntry(borrowingRecord.getId(), borrowingRecord.getBook().getId(),
+				borrowingRecord.getBook().getTitle(), borrowingRecord.getPatron().getId(),
+				borrowingRecord.getPatron().getName(), borrowingRecord.getBorrowDate(), borrowingRecord.getDueDate(),
+				borrowingRecord.getReturnDate(), borrowingRecord.getFineAmount());
+	}
+
+	/**
+	 * Creates a history entry from an archived borrowing record with its book and
+	 * patron
+	 * 
+	 * @param archivedRecord The archived borrowing record
+	 * @return The history entry
+	 */
+	public static LoanHistoryEntry from(ArchivedBorrowingRecord archivedRecord) {
+		return new LoanHistoryEntry(archivedRecord.getId(), archivedRecord.getBook().getId(),
+				archivedRecord.getBook().getTitle(), archivedRecord.getPatron().getId(),
+				archivedRecord.getPatron().getName(), archivedRecord.getBorrowDate(), archivedRecord.getDueDate(),
+				archivedRecord.getReturnDate(), archivedRecord.getFineAmount());
+	}
+}
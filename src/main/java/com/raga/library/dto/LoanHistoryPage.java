@@ -0,0 +1,11 @@
+package com.raga.library.dto;
+
+import java.util.List;
+
+/**
+ * One page of a loan history, most recent loan first. The next cursor is null
+ * on the last page
+ */
+public record LoanHistoryPage(List<LoanHistoryEntry> loans, String nextCursor) {
+
+}
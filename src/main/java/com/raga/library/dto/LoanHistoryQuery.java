@@ -0,0 +1,28 @@
+package com.raga.library.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Filters and keyset position of a loan history query
+ */
+public record LoanHistoryQuery(LoanStatus status, LocalDate from, LocalDate to, LoanCursor cursor, int size) {
+
+	public static final int DEFAULT_SIZE = 20;
+
+	public static final int MAXIMUM_SIZE = 100;
+
+	public LoanHistoryQuery {
+		status = status != null ? status : LoanStatus.ALL;
+		size = Math.min(Math.max(size, 1), MAXIMUM_SIZE);
+	}
+
+	/**
+	 * Creates a query for the first page without filters
+	 * 
+	 * @param size The page size
+	 * @return The query
+	 */
+	public static LoanHistoryQuery firstPage(int size) {
+		return new LoanHistoryQuery(LoanStatus.ALL, null, null, null, size);
+	}
+}
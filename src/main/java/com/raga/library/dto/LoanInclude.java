@@ -0,0 +1,11 @@
+package com.raga.library.dto;
+
+/**
+ * This enum represents the entities referenced by loans that can be side-loaded
+ * into a loan list response
+ */
+public enum LoanInclude {
+
+	BOOK, PATRON
+
+}
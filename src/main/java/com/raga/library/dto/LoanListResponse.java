@@ -0,0 +1,13 @@
+package com.raga.library.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Response representation of a list of loans. Books and patrons are only
+ * present when requested, each listed once however many loans reference it
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record LoanListResponse(List<LoanResponse> loans, List<BookResponse> books, List<PatronResponse> patrons) {
+}
@@ -0,0 +1,19 @@
+package com.raga.library.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.raga.library.entity.BorrowingRecord;
+
+/**
+ * Response representation of a loan, referencing its book and patron by id
+ */
+public record LoanResponse(Long id, Long bookId, Long patronId, LocalDate borrowDate, LocalDate dueDate,
+		LocalDate returnDate, BigDecimal fineAmount) {
+
+	public static LoanResponse from(BorrowingRecord borrowingRecord) {
+		return new LoanResponse(borrowingRecord.getId(), borrowingRecord.getBook().getId(),
+				borrowingRecord.getPatron().getId(), borrowingRecord.getBorrowDate(), borrowingRecord.getDueDate(),
+				borrowingRecord.getReturnDate(), borrowingRecord.getFineAmount());
+	}
+}
@@ -0,0 +1,10 @@
+package com.raga.library.dto;
+
+/**
+ * This enum represents the status filter of a loan history query
+ */
+public enum LoanStatus {
+
+	ALL, ACTIVE, RETURNED
+
+}
@@ -0,0 +1,24 @@
+package com.raga.library.dto;
+
+import java.util.List;
+
+import com.raga.library.entity.Patron;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Request body of a bulk patron import
+ */
+public record PatronBatch(@NotEmpty(message = "At least one patron is required")
+		@Size(max = PatronBatch.MAXIMUM_SIZE, message = "At most 10000 patrons can be imported at once")
+		List<@Valid Patron> patrons) implements ImportBatch {
+
+	public static final int MAXIMUM_SIZE = 10_000;
+
+	@Override
+	public int size() {
+		return patrons != null ? patrons.size() : 0;
+	}
+}
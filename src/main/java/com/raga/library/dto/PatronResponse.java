@@ -0,0 +1,14 @@
+package com.raga.library.dto;
+
+import com.raga.library.entity.Patron;
+import com.raga.library.entity.PatronCategory;
+
+/**
+ * Response representation of a patron
+ */
+public record PatronResponse(Long id, String name, String contactNumber, PatronCategory category) {
+
+	public static PatronResponse from(Patron patron) {
+		return new PatronResponse(patron.getId(), patron.getName(), patron.getContactNumber(), patron.getCategory());
+	}
+}
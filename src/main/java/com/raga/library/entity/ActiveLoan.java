@@ -0,0 +1,112 @@
+package com.raga.library.entity;
+
+import java.time.LocalDate;
+
+import org.springframework.data.domain.Persistable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+/**
+ * This class represents one row of the active loans read model, a flat copy of
+ * a borrowing record that has not been returned yet together with the book
+ * title and author and the patron name, so active loans can be listed without
+ * joining the book and patron tables. Its id is the id of the borrowing
+ * record, so a new row tells Spring Data it is new and is inserted directly,
+ * instead of being merged after a select by id
+ */
+@Entity
+@Table(name = "active_loan", indexes = { @Index(name = "idx_active_loan_borrow_date", columnList = "borrow_date, id"),
+		@Index(name = "idx_active_loan_book", columnList = "book_id"),
+		@Index(name = "idx_active_loan_patron", columnList = "patron_id") })
+public class ActiveLoan implements Persistable<Long> {
+
+	@Id
+	private Long id;
+
+	private Long bookId;
+
+	private String bookTitle;
+
+	private String bookAuthor;
+
+	private Long patronId;
+
+	private String patronName;
+
+	private LocalDate borrowDate;
+
+	private LocalDate dueDate;
+
+	@Transient
+	private boolean persisted;
+
+	@Override
+	public Long getId() {
+		return id;
+	}
+
+	public Long getBookId() {
+		return bookId;
+	}
+
+	public String getBookTitle() {
+		return bookTitle;
+	}
+
+	public String getBookAuthor() {
+		return bookAuthor;
+	}
+
+	public Long getPatronId() {
+		return patronId;
+	}
+
+	public String getPatronName() {
+		return patronName;
+	}
+
+	public LocalDate getBorrowDate() {
+		return borrowDate;
+	}
+
+	public LocalDate getDueDate() {
+		return dueDate;
+	}
+
+	@Override
+	@JsonIgnore
+	public boolean isNew() {
+		return !persisted;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markPersisted() {
+		persisted = true;
+	}
+
+	public ActiveLoan() {
+		super();
+	}
+
+	public ActiveLoan(BorrowingRecord borrowingRecord) {
+		super();
+		this.id = borrowingRecord.getId();
+		this.bookId = borrowingRecord.getBook().getId();
+		this.bookTitle = borrowingRecord.getBook().getTitle();
+		this.bookAuthor = borrowingRecord.getBook().getAuthor();
+		this.patronId = borrowingRecord.getPatron().getId();
+		this.patronName = borrowingRecord.getPatron().getName();
+		this.borrowDate = borrowingRecord.getBorrowDate();
+		this.dueDate = borrowingRecord.getDueDate();
+	}
+
+}
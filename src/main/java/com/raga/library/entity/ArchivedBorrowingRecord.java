@@ -0,0 +1,90 @@
+package com.raga.library.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * This class represents a returned borrowing record that has been moved out of
+ * the borrowing_record table by the archival run. It keeps the id and columns
+ * of the original record and is only ever read
+ */
+@Entity
+@Table(name = "borrowing_record_archive", indexes = {
+		@Index(name = "idx_borrowing_record_archive_patron_borrow_date", columnList = "patron_id, borrow_date"),
+		@Index(name = "idx_borrowing_record_archive_book_borrow_date", columnList = "book_id, borrow_date") })
+public class ArchivedBorrowingRecord {
+
+	@Id
+	private Long id;
+
+	@ManyToOne
+	@JoinColumn(name = "book_id")
+	private Book book;
+
+	@ManyToOne
+	@JoinColumn(name = "patron_id")
+	private Patron patron;
+
+	private LocalDate borrowDate;
+
+	private LocalDate dueDate;
+
+	private LocalDate returnDate;
+
+	private BigDecimal fineAmount;
+
+	private LocalDate fineAssessedOn;
+
+	public Long getId() {
+		return id;
+	}
+
+	public Book getBook() {
+		return book;
+	}
+
+	public Patron getPatron() {
+		return patron;
+	}
+
+	public LocalDate getBorrowDate() {
+		return borrowDate;
+	}
+
+	public LocalDate getDueDate() {
+		return dueDate;
+	}
+
+	public LocalDate getReturnDate() {
+		return returnDate;
+	}
+
+	public BigDecimal getFineAmount() {
+		return fineAmount;
+	}
+
+	public LocalDate getFineAssessedOn() {
+		return fineAssessedOn;
+	}
+
+	public ArchivedBorrowingRecord() {
+		super();
+	}
+
+	public ArchivedBorrowingRecord(Long id, Book book, Patron patron, LocalDate borrowDate, LocalDate returnDate) {
+		super();
+		this.id = id;
+		this.book = book;
+		this.patron = patron;
+		this.borrowDate = borrowDate;
+		this.returnDate = returnDate;
+	}
+
+}
@@ -4,6 +4,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
@@ -13,9 +16,12 @@ import jakarta.validation.constraints.Size;
 
 /**
  * This class represents an entity for books in the library. It includes
- * attributes such as ID, title, author, publication year and ISBN
+ * attributes such as ID, title, author, publication year and ISBN, and the
+ * version incremented by every update
  */
 @Entity
+@Table(indexes = { @Index(name = "idx_book_title", columnList = "title"),
+		@Index(name = "idx_book_author", columnList = "author") })
 public class Book {
 
 	@Id
@@ -39,6 +45,9 @@ public class Book {
 	@Pattern(regexp = "^[0-9]{13}$", message = "ISBN must be a 13-digit number")
 	private String isbn;
 
+	@Version
+	private long version;
+
 	public Long getId() {
 		return id;
 	}
@@ -79,6 +88,14 @@ public class Book {
 		this.isbn = isbn;
 	}
 
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
 	public Book() {
 		super();
 	}
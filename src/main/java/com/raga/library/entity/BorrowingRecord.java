@@ -1,19 +1,27 @@
 package com.raga.library.entity;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 
 /**
  * This class represents an entity for borrowing records in the library. It
- * includes attributes such as Book, Patron, borrowDate and returnDate
+ * includes attributes such as Book, Patron, borrowDate, dueDate, returnDate and
+ * the fine assessed by the nightly fine run
  */
 @Entity
+@Table(indexes = { @Index(name = "idx_borrowing_record_patron_borrow_date", columnList = "patron_id, borrow_date"),
+		@Index(name = "idx_borrowing_record_book_borrow_date", columnList = "book_id, borrow_date"),
+		@Index(name = "idx_borrowing_record_borrow_date", columnList = "borrow_date"),
+		@Index(name = "idx_borrowing_record_return_date", columnList = "return_date, id") })
 public class BorrowingRecord {
 
 	@Id
@@ -29,13 +37,31 @@ public class BorrowingRecord {
 	private Patron patron;
 
 	private LocalDate borrowDate;
+
+	private LocalDate dueDate;
 	
 	private LocalDate returnDate;
 
+	private BigDecimal fineAmount;
+
+	private LocalDate fineAssessedOn;
+
+	public Long getId() {
+		return id;
+	}
+
 	public LocalDate getBorrowDate() {
 		return borrowDate;
 	}
 
+	public LocalDate getDueDate() {
+		return dueDate;
+	}
+
+	public void setDueDate(LocalDate dueDate) {
+		this.dueDate = dueDate;
+	}
+
 	public LocalDate getReturnDate() {
 		return returnDate;
 	}
@@ -44,6 +70,14 @@ public class BorrowingRecord {
 		this.returnDate = returnDate;
 	}
 
+	public BigDecimal getFineAmount() {
+		return fineAmount;
+	}
+
+	public LocalDate getFineAssessedOn() {
+		return fineAssessedOn;
+	}
+
 	public Book getBook() {
 		return book;
 	}
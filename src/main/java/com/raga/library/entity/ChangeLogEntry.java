@@ -0,0 +1,81 @@
+package com.raga.library.entity;
+
+import java.time.LocalDateTime;
+
+import com.raga.library.event.ChangeType;
+import com.raga.library.event.ChangedEntityType;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * This class represents one entry of the change feed, written in the
+ * transaction that changed a book or a patron. The auto-increment id is the
+ * sequence number the nodes read the feed by
+ */
+@Entity
+@Table(name = "change_log", indexes = { @Index(name = "idx_change_log_changed_at", columnList = "changed_at") })
+public class ChangeLogEntry {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Enumerated(EnumType.STRING)
+	private ChangedEntityType entityType;
+
+	private Long entityId;
+
+	@Enumerated(EnumType.STRING)
+	private ChangeType changeType;
+
+	private String originNode;
+
+	private LocalDateTime changedAt;
+
+	public Long getId() {
+		return id;
+	}
+
+	public ChangedEntityType getEntityType() {
+		return entityType;
+	}
+
+	public Long getEntityId() {
+		return entityId;
+	}
+
+	public ChangeType getChangeType() {
+		return changeType;
+	}
+
+	public String getOriginNode() {
+		return originNode;
+	}
+
+	public LocalDateTime getChangedAt() {
+		return changedAt;
+	}
+
+	public ChangeLogEntry() {
+		super();
+	}
+
+	public ChangeLogEntry(Long id, ChangedEntityType entityType, Long entityId, ChangeType changeType,
+			String originNode, LocalDateTime changedAt) {
+		super();
+		this.id = id;
+		this.entityType = entityType;
+		this.entityId = entityId;
+		this.changeType = changeType;
+		this.originNode = originNode;
+		this.changedAt = changedAt;
+	}
+
+}
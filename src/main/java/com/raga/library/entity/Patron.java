@@ -1,17 +1,24 @@
 package com.raga.library.entity;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
 
 /**
  * This class represents an entity for patrons. It includes attributes such as
- * ID, name and contactNumber
+ * ID, name, contactNumber and category, and the version incremented by every
+ * update
  */
 @Entity
+@Table(indexes = @Index(name = "idx_patron_name", columnList = "name"))
 public class Patron {
 
 	@Id
@@ -26,6 +33,12 @@ public class Patron {
 	@Size(min = 9, message = "Contact Number should have at least 9 characters")
 	private String contactNumber;
 
+	@Enumerated(EnumType.STRING)
+	private PatronCategory category = PatronCategory.STANDARD;
+
+	@Version
+	private long version;
+
 	public Long getId() { 
 		return id;
 	}
@@ -50,6 +63,22 @@ public class Patron {
 		this.contactNumber = contactNumber;
 	}
 
+	public PatronCategory getCategory() {
+		return category;
+	}
+
+	public void setCategory(PatronCategory category) {
+		this.category = category;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
 	public Patron() {
 		super();
 	}
@@ -0,0 +1,11 @@
+package com.raga.library.entity;
+
+/**
+ * This enum represents the membership category of a patron. The category
+ * decides which fine policy is applied to the patron's loans
+ */
+public enum PatronCategory {
+
+	STANDARD, STUDENT, STAFF
+
+}
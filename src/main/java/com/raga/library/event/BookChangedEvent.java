@@ -0,0 +1,18 @@
+package com.raga.library.event;
+
+import com.raga.library.entity.Book;
+
+/**
+ * Application event published by the BookService after a book is saved or
+ * deleted. A saved book is carried with the event, a deleted one only by its id
+ */
+public record BookChangedEvent(Long bookId, ChangeType changeType, Book book) {
+
+	public BookChangedEvent(Long bookId, ChangeType changeType) {
+		this(bookId, changeType, null);
+	}
+
+	public BookChangedEvent(Book book, ChangeType changeType) {
+		this(book.getId(), changeType, book);
+	}
+}
@@ -0,0 +1,10 @@
+package com.raga.library.event;
+
+/**
+ * This enum represents the kind of change made to a Book or Patron
+ */
+public enum ChangeType {
+
+	CREATED, UPDATED, DELETED
+
+}
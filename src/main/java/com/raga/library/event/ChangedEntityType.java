@@ -0,0 +1,10 @@
+package com.raga.library.event;
+
+/**
+ * This enum represents the kind of entity a change feed entry refers to
+ */
+public enum ChangedEntityType {
+
+	BOOK, PATRON
+
+}
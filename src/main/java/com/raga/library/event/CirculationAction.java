@@ -0,0 +1,10 @@
+package com.raga.library.event;
+
+/**
+ * This enum represents the circulation operation performed on a loan
+ */
+public enum CirculationAction {
+
+	BORROWED, RETURNED
+
+}
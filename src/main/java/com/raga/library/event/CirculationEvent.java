@@ -0,0 +1,12 @@
+package com.raga.library.event;
+
+import com.raga.library.entity.BorrowingRecord;
+
+/**
+ * Application event published by the BorrowingRecordService after a book is
+ * borrowed or returned. It carries the saved borrowing record together with its
+ * book and patron
+ */
+public record CirculationEvent(BorrowingRecord borrowingRecord, CirculationAction action) {
+
+}
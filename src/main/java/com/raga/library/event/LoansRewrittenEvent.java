@@ -0,0 +1,10 @@
+package com.raga.library.event;
+
+/**
+ * Application event published by the FineCalculationService and the
+ * ArchivalService after a run rewrote loans in bulk, without a circulation
+ * event per loan
+ */
+public record LoansRewrittenEvent(String job, long loans) {
+
+}
@@ -0,0 +1,18 @@
+package com.raga.library.event;
+
+import com.raga.library.entity.Patron;
+
+/**
+ * Application event published by the PatronService after a patron is saved or
+ * deleted. A saved patron is carried with the event, a deleted one only by its id
+ */
+public record PatronChangedEvent(Long patronId, ChangeType changeType, Patron patron) {
+
+	public PatronChangedEvent(Long patronId, ChangeType changeType) {
+		this(patronId, changeType, null);
+	}
+
+	public PatronChangedEvent(Patron patron, ChangeType changeType) {
+		this(patron.getId(), changeType, patron);
+	}
+}
@@ -0,0 +1,10 @@
+package com.raga.library.event;
+
+/**
+ * Application event published by the ChangeFeedService when the change feed
+ * shows that another node changed a book or a patron, so that the caches of
+ * this node can drop their copy of it
+ */
+public record RemoteChangeEvent(ChangedEntityType entityType, Long entityId, ChangeType changeType) {
+
+}
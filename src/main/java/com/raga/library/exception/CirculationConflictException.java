@@ -0,0 +1,26 @@
+package com.raga.library.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This class is responsible for CirculationConflictException when a borrow or
+ * return conflicts with the loans of the patron, such as a second borrow of a
+ * book the patron has not returned. The conflict is reported back to the
+ * client as it is, so the stack trace is never filled in
+ *
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class CirculationConflictException extends IllegalStateException {
+
+	private static final long serialVersionUID = 1L;
+
+	public CirculationConflictException(String message) {
+		super(message);
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+}
@@ -0,0 +1,28 @@
+package com.raga.library.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * This class is responsible for CirculationNotFoundException when the book or
+ * patron of a borrow, or the active loan of a return, is not found. Unknown
+ * ids are an expected outcome of a borrow or return, so the stack trace is
+ * never filled in
+ *
+ */
+@ResponseStatus(value = HttpStatus.NOT_FOUND)
+public class CirculationNotFoundException extends EntityNotFoundException {
+
+	private static final long serialVersionUID = 1L;
+
+	public CirculationNotFoundException(String message) {
+		super(message);
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+}
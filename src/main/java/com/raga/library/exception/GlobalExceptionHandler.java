@@ -3,6 +3,7 @@ package com.raga.library.exception;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -45,4 +46,66 @@ public class GlobalExceptionHandler {
 			WebRequest request) {
 		return new ResponseEntity<String>(exception.getMessage(), HttpStatus.NOT_FOUND);
 	}
+
+	/**
+	 * Handler method for CirculationNotFoundException when the book or patron of
+	 * a borrow, or the active loan of a return, is not found
+	 *
+	 * @param exception CirculationNotFoundException
+	 * @return ResponseEntity
+	 */
+	@ExceptionHandler(CirculationNotFoundException.class)
+	public ResponseEntity<String> handleCirculationNotFoundException(CirculationNotFoundException exception) {
+		return new ResponseEntity<String>(exception.getMessage(), HttpStatus.NOT_FOUND);
+	}
+
+	/**
+	 * Handler method for CirculationConflictException when a borrow or return
+	 * conflicts with the loans of the patron
+	 *
+	 * @param exception CirculationConflictException
+	 * @return ResponseEntity
+	 */
+	@ExceptionHandler(CirculationConflictException.class)
+	public ResponseEntity<String> handleCirculationConflictException(CirculationConflictException exception) {
+		return new ResponseEntity<String>(exception.getMessage(), HttpStatus.CONFLICT);
+	}
+
+	/**
+	 * Handler method for InvalidCursorException when a pagination cursor cannot be
+	 * decoded
+	 *
+	 * @param exception InvalidCursorException
+	 * @return ResponseEntity
+	 */
+	@ExceptionHandler(InvalidCursorException.class)
+	public ResponseEntity<String> handleInvalidCursorException(InvalidCursorException exception) {
+		return new ResponseEntity<String>(exception.getMessage(), HttpStatus.BAD_REQUEST);
+	}
+
+	/**
+	 * Handler method for RateLimitExceededException when a client or a patron is
+	 * throttled
+	 *
+	 * @param exception RateLimitExceededException
+	 * @return ResponseEntity with the Retry-After header
+	 */
+	@ExceptionHandler(RateLimitExceededException.class)
+	public ResponseEntity<String> handleRateLimitExceededException(RateLimitExceededException exception) {
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+				.body(exception.getMessage());
+	}
+
+	/**
+	 * Handler method for IdempotencyKeyConflictException when an idempotency key
+	 * cannot be answered with the response of its first request
+	 *
+	 * @param exception IdempotencyKeyConflictException
+	 * @return ResponseEntity
+	 */
+	@ExceptionHandler(IdempotencyKeyConflictException.class)
+	public ResponseEntity<String> handleIdempotencyKeyConflictException(IdempotencyKeyConflictException exception) {
+		return new ResponseEntity<String>(exception.getMessage(), HttpStatus.CONFLICT);
+	}
 }
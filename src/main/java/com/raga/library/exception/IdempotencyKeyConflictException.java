@@ -0,0 +1,21 @@
+package com.raga.library.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This class is responsible for IdempotencyKeyConflictException when an
+ * idempotency key is reused for a different request, or when the request first
+ * sent with the key is still running after the wait timeout. Conflicts are
+ * answered to the client and never logged, so no stack trace is recorded
+ *
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class IdempotencyKeyConflictException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public IdempotencyKeyConflictException(String message) {
+		super(message, null, false, false);
+	}
+}
@@ -0,0 +1,20 @@
+package com.raga.library.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This class is responsible for InvalidCursorException when a pagination cursor
+ * sent by a client cannot be decoded. A malformed cursor is the client's
+ * mistake and is only reported back to it, so no stack trace is recorded
+ *
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidCursorException(String message) {
+		super(message, null, false, false);
+	}
+}
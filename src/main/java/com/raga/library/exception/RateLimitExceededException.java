@@ -0,0 +1,32 @@
+package com.raga.library.exception;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This class is responsible for RateLimitExceededException when a client or a
+ * patron sends more requests than its rate limit allows. The exception is
+ * thrown for every throttled request, so it is created without a stack trace
+ *
+ */
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS)
+public class RateLimitExceededException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long waitNanos;
+
+	public RateLimitExceededException(String message, long waitNanos) {
+		super(message, null, false, false);
+		this.waitNanos = waitNanos;
+	}
+
+	/**
+	 * @return The whole seconds until the request would be admitted, at least 1
+	 */
+	public long getRetryAfterSeconds() {
+		return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+	}
+}
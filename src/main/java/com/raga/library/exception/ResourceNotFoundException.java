@@ -5,7 +5,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
  * This class is responsible for ResourceNotFoundException when a requested
- * resource is not found
+ * resource is not found. Unknown ids are an expected outcome, often of clients
+ * probing ids, so the exception is created without a stack trace
  *
  */
 @ResponseStatus(value = HttpStatus.NOT_FOUND)
@@ -14,6 +15,6 @@ public class ResourceNotFoundException extends Exception {
 	private static final long serialVersionUID = 1L;
 	
 	public ResourceNotFoundException(String message) {
-		super(message);
+		super(message, null, false, false);
 	}
 }
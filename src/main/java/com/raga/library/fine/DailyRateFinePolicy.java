@@ -0,0 +1,46 @@
+package com.raga.library.fine;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+import com.raga.library.entity.PatronCategory;
+
+/**
+ * Fine policy charging a fixed amount per day late after a grace period, capped
+ * at a maximum fine per loan. Fines are rounded half up to cents
+ */
+public class DailyRateFinePolicy implements FinePolicy {
+
+	private final PatronCategory category;
+
+	private final BigDecimal dailyRate;
+
+	private final int gracePeriodDays;
+
+	private final BigDecimal maximumFine;
+
+	public DailyRateFinePolicy(PatronCategory category, BigDecimal dailyRate, int gracePeriodDays,
+			BigDecimal maximumFine) {
+		this.category = category;
+		this.dailyRate = dailyRate;
+		this.gracePeriodDays = gracePeriodDays;
+		this.maximumFine = maximumFine;
+	}
+
+	@Override
+	public PatronCategory category() {
+		return category;
+	}
+
+	@Override
+	public BigDecimal assessFine(LocalDate dueDate, LocalDate assessedUntil) {
+		long daysLate = ChronoUnit.DAYS.between(dueDate, assessedUntil) - gracePeriodDays;
+		if (daysLate <= 0) {
+			return BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+		}
+		BigDecimal fine = dailyRate.multiply(BigDecimal.valueOf(daysLate));
+		return fine.min(maximumFine).setScale(2, RoundingMode.HALF_UP);
+	}
+}
@@ -0,0 +1,29 @@
+package com.raga.library.fine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.raga.library.entity.PatronCategory;
+
+/**
+ * Strategy for assessing the fine of a loan. One policy is registered as a bean
+ * per patron category; registering a different bean for a category replaces
+ * the rules applied to that category
+ */
+public interface FinePolicy {
+
+	/**
+	 * @return The patron category this policy applies to
+	 */
+	PatronCategory category();
+
+	/**
+	 * Assesses the fine of a loan
+	 * 
+	 * @param dueDate        The date the book was due back
+	 * @param assessedUntil  The return date, or the assessment date for a loan
+	 *                       that is still open
+	 * @return The total fine of the loan, never null
+	 */
+	BigDecimal assessFine(LocalDate dueDate, LocalDate assessedUntil);
+}
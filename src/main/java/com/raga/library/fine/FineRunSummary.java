@@ -0,0 +1,26 @@
+package com.raga.library.fine;
+
+import java.time.LocalDate;
+
+/**
+ * Outcome of one fine calculation run, including its throughput in loans per
+ * second
+ */
+public record FineRunSummary(LocalDate asOf, long loansProcessed, long loansUpdated, long elapsedMillis,
+		double loansPerSecond) {
+
+	/**
+	 * Creates a summary and derives the throughput from the elapsed time
+	 * 
+	 * @param asOf           The date the fines were assessed for
+	 * @param loansProcessed The number of loans examined
+	 * @param loansUpdated   The number of loans whose fine changed
+	 * @param elapsedNanos   The wall clock duration of the run
+	 * @return The run summary
+	 */
+	public static FineRunSummary of(LocalDate asOf, long loansProcessed, long loansUpdated, long elapsedNanos) {
+		double seconds = elapsedNanos / 1_000_000_000.0;
+		double loansPerSecond = seconds > 0 ? loansProcessed / seconds : 0;
+		return new FineRunSummary(asOf, loansProcessed, loansUpdated, elapsedNanos / 1_000_000, loansPerSecond);
+	}
+}
@@ -0,0 +1,16 @@
+package com.raga.library.fine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.raga.library.entity.PatronCategory;
+
+/**
+ * Flat projection of a borrowing record carrying only the columns needed to
+ * assess its fine, so that the fine run does not load the Book and Patron
+ * entity graph for every loan
+ */
+public record LoanFineCandidate(Long id, LocalDate borrowDate, LocalDate dueDate, LocalDate returnDate,
+		PatronCategory category, BigDecimal fineAmount) {
+
+}
@@ -0,0 +1,24 @@
+package com.raga.library.idempotency;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * A request sent with an idempotency key, with the response it is completed
+ * with once executed. Retries of the request wait on the same response
+ *
+ * @param fingerprint The method and path of the request, which a retry with the
+ *                    same key must match
+ * @param response    The response of the single execution of the request
+ */
+public record IdempotentRequest(String fingerprint, CompletableFuture<ResponseEntity<?>> response) {
+
+	/**
+	 * @param fingerprint The method and path of the request
+	 * @return A request whose response is not known yet
+	 */
+	public static IdempotentRequest pending(String fingerprint) {
+		return new IdempotentRequest(fingerprint, new CompletableFuture<>());
+	}
+}
@@ -0,0 +1,14 @@
+package com.raga.library.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a patron borrowing a book
+ */
+@Name("com.raga.library.Borrow")
+@Label("Borrow")
+@Description("A patron borrowing a book, from the checks of the book and patron to the save of the borrowing record")
+public class BorrowEvent extends LibraryOperationEvent {
+}
@@ -0,0 +1,36 @@
+package com.raga.library.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a batch of books or patrons added in one request
+ */
+@Name("com.raga.library.BulkImport")
+@Label("Bulk Import")
+@Description("A batch of books or patrons added in one request")
+public class BulkImportEvent extends LibraryOperationEvent {
+
+	@Label("Entity")
+	String entity;
+
+	@Label("Records")
+	int records;
+
+	/**
+	 * Ends the event and commits it when a recording enables it and it lasted at
+	 * least its threshold
+	 *
+	 * @param entity  The kind of records imported, book or patron
+	 * @param records The number of records in the batch
+	 * @param outcome The outcome of the import
+	 */
+	public void complete(String entity, int records, OperationOutcome outcome) {
+		if (ended(null, null, outcome)) {
+			this.entity = entity;
+			this.records = records;
+			commit();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.raga.library.jfr;
+
+import com.raga.library.dto.ListQuery;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a search of the book catalog, either a lookup of one
+ * book by its ID or a list of books
+ */
+@Name("com.raga.library.CatalogSearch")
+@Label("Catalog Search")
+@Description("A lookup of a book by its id or a list of books, sorted and paged for the list view")
+public class CatalogSearchEvent extends LibraryOperationEvent {
+
+	@Label("Sort")
+	String sort;
+
+	@Label("Page")
+	int page;
+
+	@Label("Page Size")
+	int pageSize;
+
+	@Label("Results")
+	int results;
+
+	/**
+	 * Ends the event and commits it when a recording enables it and it lasted at
+	 * least its threshold
+	 *
+	 * @param bookId  The ID of the book looked up, null for a list
+	 * @param query   The page and sort order of the list, null for a lookup or an
+	 *                unpaged list
+	 * @param results The number of books found
+	 * @param outcome The outcome of the search
+	 */
+	public void complete(Long bookId, ListQuery query, int results, OperationOutcome outcome) {
+		if (ended(bookId, null, outcome)) {
+			if (query != null) {
+				this.sort = query.sort() + "," + query.direction();
+				this.page = query.page();
+				this.pageSize = query.size();
+			}
+			this.results = results;
+			commit();
+		}
+	}
+}
@@ -0,0 +1,11 @@
+package com.raga.library.jfr;
+
+import java.time.Instant;
+
+/**
+ * State of the flight recording of the library events, and the file it was
+ * last dumped to
+ */
+public record FlightRecordingSummary(long id, String name, String state, Instant startTime, String settings,
+		String file, long fileBytes) {
+}
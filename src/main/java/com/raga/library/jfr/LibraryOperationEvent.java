@@ -0,0 +1,58 @@
+package com.raga.library.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base class of the flight recorder events of the library operations, carrying
+ * the book and patron of the operation and its outcome. The duration of the
+ * event runs from begin to complete. The fields are only set once the event is
+ * known to be recorded, so while no recording enables the event an operation
+ * pays for no more than the begin and complete calls, which the JIT reduces to
+ * a check of the event settings
+ */
+@Category("Library")
+@StackTrace(false)
+public abstract class LibraryOperationEvent extends Event {
+
+	@Label("Book Id")
+	long bookId;
+
+	@Label("Patron Id")
+	long patronId;
+
+	@Label("Outcome")
+	String outcome;
+
+	/**
+	 * Ends the event and commits it when a recording enables it and it lasted at
+	 * least its threshold
+	 *
+	 * @param bookId   The ID of the book, null when the operation has none
+	 * @param patronId The ID of the patron, null when the operation has none
+	 * @param outcome  The outcome of the operation
+	 */
+	public void complete(Long bookId, Long patronId, OperationOutcome outcome) {
+		if (ended(bookId, patronId, outcome)) {
+			commit();
+		}
+	}
+
+	/**
+	 * Ends the event and sets its fields when it is to be committed
+	 *
+	 * @return Whether the event is to be committed
+	 */
+	boolean ended(Long bookId, Long patronId, OperationOutcome outcome) {
+		end();
+		if (!shouldCommit()) {
+			return false;
+		}
+		this.bookId = bookId != null ? bookId : 0;
+		this.patronId = patronId != null ? patronId : 0;
+		this.outcome = outcome.name();
+		return true;
+	}
+}
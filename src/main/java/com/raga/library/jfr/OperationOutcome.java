@@ -0,0 +1,31 @@
+package com.raga.library.jfr;
+
+import com.raga.library.exception.MethodArgumentNotValidException;
+import com.raga.library.exception.ResourceNotFoundException;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * This enum represents the outcome of a library operation recorded by a flight
+ * recorder event
+ */
+public enum OperationOutcome {
+
+	SUCCEEDED, NOT_FOUND, REJECTED, FAILED;
+
+	/**
+	 * @param failure The exception the operation failed with
+	 * @return NOT_FOUND when the book, patron or loan does not exist, REJECTED
+	 *         when the request is invalid or conflicts with the state of the
+	 *         library, FAILED otherwise
+	 */
+	public static OperationOutcome of(Throwable failure) {
+		if (failure instanceof EntityNotFoundException || failure instanceof ResourceNotFoundException) {
+			return NOT_FOUND;
+		}
+		if (failure instanceof IllegalStateException || failure instanceof MethodArgumentNotValidException) {
+			return REJECTED;
+		}
+		return FAILED;
+	}
+}
@@ -0,0 +1,14 @@
+package com.raga.library.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a patron returning a book
+ */
+@Name("com.raga.library.Return")
+@Label("Return")
+@Description("A patron returning a book, from the read of the active borrowing record to its save")
+public class ReturnEvent extends LibraryOperationEvent {
+}
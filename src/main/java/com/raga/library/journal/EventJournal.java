@@ -0,0 +1,356 @@
+package com.raga.library.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of library events stored in a directory of fixed-size,
+ * memory-mapped segment files. A write copies the record into the mapped
+ * segment, and an append also waits until a background thread has flushed the
+ * record to disk. The thread flushes whenever a record is waited for, and every
+ * record written while one flush runs is covered by the next one, so concurrent
+ * appends share a single fsync. When a segment is full the journal rolls over
+ * to a new segment starting at the next offset, and whole segments older than
+ * the retention period can be deleted.
+ */
+public class EventJournal implements AutoCloseable {
+
+	private final Path directory;
+
+	private final int segmentBytes;
+
+	private final int indexIntervalBytes;
+
+	private final ConcurrentSkipListMap<Long, JournalSegment> segments = new ConcurrentSkipListMap<>();
+
+	private final ExecutorService flusher;
+
+	private final ReentrantLock durabilityLock = new ReentrantLock();
+
+	private final Condition flushRequested = durabilityLock.newCondition();
+
+	private final Condition flushed = durabilityLock.newCondition();
+
+	private volatile JournalSegment activeSegment;
+
+	private long durableOffset;
+
+	private long requestedOffset;
+
+	private long failedOffset;
+
+	private RuntimeException flushFailure;
+
+	private boolean closed;
+
+	/**
+	 * Opens the journal in the given directory, recovering the segments already
+	 * there
+	 *
+	 * @param directory          The directory of the segment files
+	 * @param segmentBytes       The size of each segment file
+	 * @param indexIntervalBytes The number of bytes between two sparse index
+	 *                           entries
+	 */
+	public EventJournal(Path directory, int segmentBytes, int indexIntervalBytes) {
+		this.directory = directory;
+		this.segmentBytes = segmentBytes;
+		this.indexIntervalBytes = indexIntervalBytes;
+		try {
+			Files.createDirectories(directory);
+			try (Stream<Path> files = Files.list(directory)) {
+				for (Path file : files.filter(f -> f.getFileName().toString().endsWith(JournalSegment.FILE_SUFFIX))
+						.toList()) {
+					long baseOffset = JournalSegment.baseOffsetOf(file);
+					segments.put(baseOffset,
+							JournalSegment.open(directory, baseOffset, segmentBytes, indexIntervalBytes));
+				}
+			}
+			if (segments.isEmpty()) {
+				segments.put(0L, JournalSegment.open(directory, 0L, segmentBytes, indexIntervalBytes));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to open the event journal in " + directory, e);
+		}
+		activeSegment = segments.lastEntry().getValue();
+		durableOffset = activeSegment.getNextOffset();
+
+		flusher = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "event-journal-fsync");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flusher.execute(this::runFlusher);
+	}
+
+	/**
+	 * Appends a record without fields to the journal and waits until it is
+	 * durable
+	 *
+	 * @return The offset of the record
+	 */
+	public long append(JournalEventType type, Long loanId, Long bookId, Long patronId, LocalDate date) {
+		return append(type, loanId, bookId, patronId, date, Collections.emptyMap());
+	}
+
+	/**
+	 * Appends a record to the journal and waits until the group fsync covering it
+	 * has completed
+	 *
+	 * @return The offset of the record
+	 */
+	public long append(JournalEventType type, Long loanId, Long bookId, Long patronId, LocalDate date,
+			Map<String, String> fields) {
+		long offset = write(type, loanId, bookId, patronId, date, fields);
+		awaitDurable(offset);
+		return offset;
+	}
+
+	/**
+	 * Writes a record to the active segment, rolling over to a new segment when
+	 * the active one is full. The record is only durable once awaitDurable returns
+	 * for its offset or a later one
+	 *
+	 * @return The offset of the record
+	 */
+	public synchronized long write(JournalEventType type, Long loanId, Long bookId, Long patronId, LocalDate date,
+			Map<String, String> fields) {
+		Instant timestamp = Instant.now();
+		long offset = activeSegment.append(timestamp, type, loanId, bookId, patronId, date, fields);
+		if (offset < 0) {
+			roll();
+			offset = activeSegment.append(timestamp, type, loanId, bookId, patronId, date, fields);
+			if (offset < 0) {
+				throw new IllegalArgumentException("The " + type + " record does not fit in a journal segment");
+			}
+		}
+		return offset;
+	}
+
+	/**
+	 * Waits until the records up to the given offset are flushed to disk, asking
+	 * the background thread for a flush unless one covering the offset is already
+	 * asked for
+	 *
+	 * @param offset The offset of the last record to wait for
+	 * @throws IllegalStateException When the flush covering the record failed or
+	 *                               the journal is closed
+	 */
+	public void awaitDurable(long offset) {
+		durabilityLock.lock();
+		try {
+			if (offset >= requestedOffset) {
+				requestedOffset = offset + 1;
+				flushRequested.signal();
+			}
+			while (durableOffset <= offset) {
+				if (flushFailure != null && failedOffset > offset) {
+					throw new IllegalStateException("Unable to flush the event journal", flushFailure);
+				}
+				if (closed) {
+					throw new IllegalStateException("The event journal is closed");
+				}
+				flushed.awaitUninterruptibly();
+			}
+		} finally {
+			durabilityLock.unlock();
+		}
+	}
+
+	/**
+	 * Reads the records from the given offset on, oldest first
+	 *
+	 * @param fromOffset The offset of the first record to return
+	 * @param maxRecords The maximum number of records to return
+	 * @return The records, empty when the offset is past the end of the journal
+	 */
+	public List<JournalRecord> read(long fromOffset, int maxRecords) {
+		List<JournalRecord> records = new ArrayList<>();
+		Long first = segments.floorKey(fromOffset);
+		for (JournalSegment segment : segments.tailMap(first != null ? first : fromOffset).values()) {
+			segment.read(fromOffset, maxRecords, records);
+			if (records.size() >= maxRecords) {
+				break;
+			}
+		}
+		return records;
+	}
+
+	/**
+	 * Flushes the records written to the active segment since the last flush, and
+	 * wakes the appends waiting for them. The records of the full segments were
+	 * flushed when the journal rolled over
+	 */
+	public void flush() {
+		JournalSegment segment;
+		long target;
+		synchronized (this) {
+			segment = activeSegment;
+			target = segment.getNextOffset();
+		}
+		try {
+			segment.force();
+		} catch (RuntimeException e) {
+			durabilityLock.lock();
+			try {
+				flushFailure = e;
+				failedOffset = target;
+				if (requestedOffset <= target) {
+					requestedOffset = durableOffset;
+				}
+				flushed.signalAll();
+			} finally {
+				durabilityLock.unlock();
+			}
+			throw e;
+		}
+		durabilityLock.lock();
+		try {
+			durableOffset = Math.max(durableOffset, target);
+			flushFailure = null;
+			flushed.signalAll();
+		} finally {
+			durabilityLock.unlock();
+		}
+	}
+
+	/**
+	 * Deletes the full segments whose newest record is older than the given
+	 * instant. The active segment is always kept
+	 *
+	 * @param cutoff The retention cutoff
+	 * @return The number of deleted segments
+	 */
+	public synchronized int deleteSegmentsBefore(Instant cutoff) {
+		int deleted = 0;
+		Iterator<Map.Entry<Long, JournalSegment>> iterator = segments.entrySet().iterator();
+		while (iterator.hasNext()) {
+			JournalSegment segment = iterator.next().getValue();
+			if (segment == activeSegment) {
+				break;
+			}
+			if (segment.getLastTimestamp() == null || segment.getLastTimestamp().isBefore(cutoff)) {
+				iterator.remove();
+				try {
+					segment.delete();
+				} catch (IOException e) {
+					throw new UncheckedIOException("Unable to delete journal segment " + segment.getBaseOffset(), e);
+				}
+				deleted++;
+			}
+		}
+		return deleted;
+	}
+
+	/**
+	 * @return The offset the next record will be written at
+	 */
+	public long nextOffset() {
+		return activeSegment.getNextOffset();
+	}
+
+	/**
+	 * @return The offset of the first record not known to be flushed to disk
+	 */
+	public long durableOffset() {
+		durabilityLock.lock();
+		try {
+			return durableOffset;
+		} finally {
+			durabilityLock.unlock();
+		}
+	}
+
+	/**
+	 * @return The offset of the oldest record still retained
+	 */
+	public long firstOffset() {
+		return segments.firstKey();
+	}
+
+	/**
+	 * @return The number of segment files
+	 */
+	public int segmentCount() {
+		return segments.size();
+	}
+
+	@Override
+	public void close() {
+		long target;
+		synchronized (this) {
+			for (JournalSegment segment : segments.values()) {
+				try {
+					segment.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException("Unable to close journal segment " + segment.getBaseOffset(), e);
+				}
+			}
+			target = activeSegment.getNextOffset();
+		}
+		durabilityLock.lock();
+		try {
+			durableOffset = Math.max(durableOffset, target);
+			closed = true;
+			flushRequested.signal();
+			flushed.signalAll();
+		} finally {
+			durabilityLock.unlock();
+		}
+		flusher.shutdown();
+	}
+
+	/**
+	 * Flushes the journal each time a record that is not durable yet is waited
+	 * for, until the journal is closed
+	 */
+	private void runFlusher() {
+		durabilityLock.lock();
+		try {
+			while (!closed) {
+				if (requestedOffset <= durableOffset) {
+					flushRequested.awaitUninterruptibly();
+					continue;
+				}
+				durabilityLock.unlock();
+				try {
+					flush();
+				} catch (RuntimeException e) {
+					// Reported to the appends waiting for the flush
+				} finally {
+					durabilityLock.lock();
+				}
+			}
+		} finally {
+			durabilityLock.unlock();
+		}
+	}
+
+	private void roll() {
+		JournalSegment full = activeSegment;
+		full.force();
+		long baseOffset = full.getNextOffset();
+		try {
+			JournalSegment next = JournalSegment.open(directory, baseOffset, segmentBytes, indexIntervalBytes);
+			segments.put(baseOffset, next);
+			activeSegment = next;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to roll the event journal at offset " + baseOffset, e);
+		}
+	}
+}
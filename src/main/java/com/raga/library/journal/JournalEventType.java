@@ -0,0 +1,68 @@
+package com.raga.library.journal;
+
+import com.raga.library.event.ChangeType;
+import com.raga.library.event.CirculationAction;
+
+/**
+ * This enum represents the kind of change recorded in the event journal, with
+ * the code it is stored under
+ */
+public enum JournalEventType {
+
+	BOOK_CREATED(1), BOOK_UPDATED(2), BOOK_DELETED(3), PATRON_CREATED(4), PATRON_UPDATED(5), PATRON_DELETED(6),
+	BOOK_BORROWED(7), BOOK_RETURNED(8);
+
+	private final byte code;
+
+	JournalEventType(int code) {
+		this.code = (byte) code;
+	}
+
+	public byte getCode() {
+		return code;
+	}
+
+	/**
+	 * @return Whether records of this type describe a loan, carrying the loan,
+	 *         book and patron ids and the date of the operation
+	 */
+	public boolean isCirculation() {
+		return this == BOOK_BORROWED || this == BOOK_RETURNED;
+	}
+
+	/**
+	 * @return Whether records of this type describe a change to a book
+	 */
+	public boolean isBookChange() {
+		return this == BOOK_CREATED || this == BOOK_UPDATED || this == BOOK_DELETED;
+	}
+
+	public static JournalEventType fromCode(byte code) {
+		for (JournalEventType type : values()) {
+			if (type.code == code) {
+				return type;
+			}
+		}
+		throw new IllegalArgumentException("Unknown journal event type code : " + code);
+	}
+
+	public static JournalEventType ofBook(ChangeType changeType) {
+		return switch (changeType) {
+		case CREATED -> BOOK_CREATED;
+		case UPDATED -> BOOK_UPDATED;
+		case DELETED -> BOOK_DELETED;
+		};
+	}
+
+	public static JournalEventType ofPatron(ChangeType changeType) {
+		return switch (changeType) {
+		case CREATED -> PATRON_CREATED;
+		case UPDATED -> PATRON_UPDATED;
+		case DELETED -> PATRON_DELETED;
+		};
+	}
+
+	public static JournalEventType ofCirculation(CirculationAction action) {
+		return action == CirculationAction.BORROWED ? BOOK_BORROWED : BOOK_RETURNED;
+	}
+}
@@ -0,0 +1,15 @@
+package com.raga.library.journal;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * One entry of the event journal. Book changes carry the book id, patron
+ * changes the patron id and circulation records the loan, book and patron ids
+ * together with the borrow or return date. Created and updated books and
+ * patrons also carry their fields as saved, by name
+ */
+public record JournalRecord(long offset, Instant timestamp, JournalEventType type, Long loanId, Long bookId,
+		Long patronId, LocalDate date, Map<String, String> fields) {
+}
@@ -0,0 +1,305 @@
+package com.raga.library.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * One fixed-size, memory-mapped file of the event journal holding the records
+ * from its base offset on. Each record is framed as its length and CRC32
+ * followed by the body, and the length is written last so a record torn by a
+ * crash is never read back. A book or patron change may end with its fields,
+ * as a count followed by the length-prefixed UTF-8 name and value of each. A sparse index maps every few kilobytes of records
+ * to the offset starting there, so a replay only scans from the nearest indexed
+ * position. Appends are serialized by the journal, reads may run concurrently
+ * and only see fully written records.
+ */
+class JournalSegment {
+
+	static final String FILE_SUFFIX = ".journal";
+
+	private static final int FRAME_HEADER_BYTES = 8;
+
+	private static final int BODY_BYTES = 8 + 8 + 1 + 8;
+
+	private static final int CIRCULATION_BODY_BYTES = BODY_BYTES + 8 + 8 + 8;
+
+	private static final long ABSENT = -1L;
+
+	private static final int NULL_VALUE = -1;
+
+	private final long baseOffset;
+
+	private final Path file;
+
+	private final FileChannel channel;
+
+	private final MappedByteBuffer buffer;
+
+	private final int indexIntervalBytes;
+
+	private final ConcurrentSkipListMap<Long, Integer> index = new ConcurrentSkipListMap<>();
+
+	private final AtomicBoolean dirty = new AtomicBoolean();
+
+	private volatile int writePosition;
+
+	private volatile long nextOffset;
+
+	private volatile Instant lastTimestamp;
+
+	private int lastIndexedPosition = -1;
+
+	private JournalSegment(long baseOffset, Path file, FileChannel channel, MappedByteBuffer buffer,
+			int indexIntervalBytes) {
+		this.baseOffset = baseOffset;
+		this.file = file;
+		this.channel = channel;
+		this.buffer = buffer;
+		this.indexIntervalBytes = indexIntervalBytes;
+		this.nextOffset = baseOffset;
+	}
+
+	/**
+	 * Opens or creates the segment starting at the given offset and recovers the
+	 * records already written to it
+	 */
+	static JournalSegment open(Path directory, long baseOffset, int segmentBytes, int indexIntervalBytes)
+			throws IOException {
+		Path file = directory.resolve(fileName(baseOffset));
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		long size = Math.max(channel.size(), segmentBytes);
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		JournalSegment segment = new JournalSegment(baseOffset, file, channel, buffer, indexIntervalBytes);
+		segment.recover();
+		return segment;
+	}
+
+	static String fileName(long baseOffset) {
+		return String.format("%020d%s", baseOffset, FILE_SUFFIX);
+	}
+
+	static long baseOffsetOf(Path file) {
+		String name = file.getFileName().toString();
+		return Long.parseLong(name.substring(0, name.length() - FILE_SUFFIX.length()));
+	}
+
+	/**
+	 * Writes a record at the end of the segment
+	 *
+	 * @return The offset of the record, or -1 when the segment has no room left
+	 */
+	long append(Instant timestamp, JournalEventType type, Long loanId, Long bookId, Long patronId, LocalDate date,
+			Map<String, String> fields) {
+		byte[][] encodedFields = type.isCirculation() ? new byte[0][] : encode(fields);
+		int bodyBytes = type.isCirculation() ? CIRCULATION_BODY_BYTES : BODY_BYTES + fieldsBytes(encodedFields);
+		int position = writePosition;
+		if (position + FRAME_HEADER_BYTES + bodyBytes > buffer.capacity()) {
+			return -1;
+		}
+		long offset = nextOffset;
+		int body = position + FRAME_HEADER_BYTES;
+		buffer.putLong(body, offset);
+		buffer.putLong(body + 8, timestamp.toEpochMilli());
+		buffer.put(body + 16, type.getCode());
+		if (type.isCirculation()) {
+			buffer.putLong(body + 17, valueOf(loanId));
+			buffer.putLong(body + 25, valueOf(bookId));
+			buffer.putLong(body + 33, valueOf(patronId));
+			buffer.putLong(body + 41, date != null ? date.toEpochDay() : ABSENT);
+		} else {
+			buffer.putLong(body + 17, valueOf(type.isBookChange() ? bookId : patronId));
+			if (encodedFields.length > 0) {
+				putFields(body + BODY_BYTES, encodedFields);
+			}
+		}
+		buffer.putInt(position + 4, checksum(body, bodyBytes));
+		buffer.putInt(position, bodyBytes);
+
+		indexRecord(offset, position);
+		nextOffset = offset + 1;
+		lastTimestamp = timestamp;
+		writePosition = body + bodyBytes;
+		dirty.set(true);
+		return offset;
+	}
+
+	/**
+	 * Adds the records from the given offset on to the list until it holds the
+	 * given number of records
+	 */
+	void read(long fromOffset, int maxRecords, List<JournalRecord> records) {
+		int limit = writePosition;
+		Map.Entry<Long, Integer> start = index.floorEntry(fromOffset);
+		int position = start != null ? start.getValue() : 0;
+		while (position < limit && records.size() < maxRecords) {
+			int bodyBytes = buffer.getInt(position);
+			JournalRecord record = decode(position + FRAME_HEADER_BYTES, bodyBytes);
+			if (record.offset() >= fromOffset) {
+				records.add(record);
+			}
+			position += FRAME_HEADER_BYTES + bodyBytes;
+		}
+	}
+
+	/**
+	 * Flushes the records appended since the last flush to the storage device.
+	 * Concurrent calls are serialized, so a call finding nothing to flush returns
+	 * after the flush that covered its records
+	 */
+	synchronized void force() {
+		if (dirty.getAndSet(false)) {
+			buffer.force();
+		}
+	}
+
+	void close() throws IOException {
+		force();
+		channel.close();
+	}
+
+	void delete() throws IOException {
+		close();
+		Files.deleteIfExists(file);
+	}
+
+	long getBaseOffset() {
+		return baseOffset;
+	}
+
+	long getNextOffset() {
+		return nextOffset;
+	}
+
+	Instant getLastTimestamp() {
+		return lastTimestamp;
+	}
+
+	private void recover() {
+		int position = 0;
+		while (position + FRAME_HEADER_BYTES <= buffer.capacity()) {
+			int bodyBytes = buffer.getInt(position);
+			int body = position + FRAME_HEADER_BYTES;
+			if (bodyBytes < BODY_BYTES || body + bodyBytes > buffer.capacity()
+					|| buffer.getInt(position + 4) != checksum(body, bodyBytes)) {
+				break;
+			}
+			JournalRecord record = decode(body, bodyBytes);
+			indexRecord(record.offset(), position);
+			nextOffset = record.offset() + 1;
+			lastTimestamp = record.timestamp();
+			position = body + bodyBytes;
+		}
+		writePosition = position;
+	}
+
+	private JournalRecord decode(int body, int bodyBytes) {
+		long offset = buffer.getLong(body);
+		Instant timestamp = Instant.ofEpochMilli(buffer.getLong(body + 8));
+		JournalEventType type = JournalEventType.fromCode(buffer.get(body + 16));
+		if (type.isCirculation()) {
+			long epochDay = buffer.getLong(body + 41);
+			return new JournalRecord(offset, timestamp, type, idOf(buffer.getLong(body + 17)),
+					idOf(buffer.getLong(body + 25)), idOf(buffer.getLong(body + 33)),
+					epochDay != ABSENT ? LocalDate.ofEpochDay(epochDay) : null, Collections.emptyMap());
+		}
+		Long id = idOf(buffer.getLong(body + 17));
+		Map<String, String> fields = bodyBytes > BODY_BYTES ? getFields(body + BODY_BYTES) : Collections.emptyMap();
+		return new JournalRecord(offset, timestamp, type, null, type.isBookChange() ? id : null,
+				type.isBookChange() ? null : id, null, fields);
+	}
+
+	private void putFields(int position, byte[][] encodedFields) {
+		buffer.putInt(position, encodedFields.length / 2);
+		position += 4;
+		for (byte[] encoded : encodedFields) {
+			buffer.putInt(position, encoded != null ? encoded.length : NULL_VALUE);
+			position += 4;
+			if (encoded != null) {
+				buffer.put(position, encoded);
+				position += encoded.length;
+			}
+		}
+	}
+
+	private Map<String, String> getFields(int position) {
+		int count = buffer.getInt(position);
+		position += 4;
+		Map<String, String> fields = new LinkedHashMap<>();
+		for (int i = 0; i < count; i++) {
+			String[] nameAndValue = new String[2];
+			for (int j = 0; j < 2; j++) {
+				int length = buffer.getInt(position);
+				position += 4;
+				if (length != NULL_VALUE) {
+					byte[] encoded = new byte[length];
+					buffer.get(position, encoded);
+					position += length;
+					nameAndValue[j] = new String(encoded, StandardCharsets.UTF_8);
+				}
+			}
+			fields.put(nameAndValue[0], nameAndValue[1]);
+		}
+		return fields;
+	}
+
+	private void indexRecord(long offset, int position) {
+		if (lastIndexedPosition < 0 || position - lastIndexedPosition >= indexIntervalBytes) {
+			index.put(offset, position);
+			lastIndexedPosition = position;
+		}
+	}
+
+	private int checksum(int body, int bodyBytes) {
+		CRC32 crc = new CRC32();
+		crc.update(buffer.slice(body, bodyBytes));
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Encodes the name and the value of each field, in order, the values of null
+	 * fields staying null
+	 */
+	private static byte[][] encode(Map<String, String> fields) {
+		byte[][] encodedFields = new byte[fields.size() * 2][];
+		int i = 0;
+		for (Map.Entry<String, String> field : fields.entrySet()) {
+			encodedFields[i++] = field.getKey().getBytes(StandardCharsets.UTF_8);
+			encodedFields[i++] = field.getValue() != null ? field.getValue().getBytes(StandardCharsets.UTF_8) : null;
+		}
+		return encodedFields;
+	}
+
+	private static int fieldsBytes(byte[][] encodedFields) {
+		if (encodedFields.length == 0) {
+			return 0;
+		}
+		int bytes = 4;
+		for (byte[] encoded : encodedFields) {
+			bytes += 4 + (encoded != null ? encoded.length : 0);
+		}
+		return bytes;
+	}
+
+	private static long valueOf(Long id) {
+		return id != null ? id : ABSENT;
+	}
+
+	private static Long idOf(long value) {
+		return value != ABSENT ? value : null;
+	}
+}
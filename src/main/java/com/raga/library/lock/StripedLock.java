@@ -0,0 +1,65 @@
+package com.raga.library.lock;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared by any number of keys. Each key maps to one of
+ * the stripes, so operations on the same key are always serialized, while
+ * operations on different keys only wait for each other when their keys share a
+ * stripe. The number of stripes is rounded up to a power of two
+ */
+public class StripedLock {
+
+	private final ReentrantLock[] locks;
+
+	private final int mask;
+
+	/**
+	 * Creates the locks
+	 *
+	 * @param stripes The number of locks, rounded up to a power of two
+	 */
+	public StripedLock(int stripes) {
+		int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+		this.locks = new ReentrantLock[size];
+		for (int i = 0; i < size; i++) {
+			locks[i] = new ReentrantLock();
+		}
+		this.mask = size - 1;
+	}
+
+	/**
+	 * @param key The key to lock
+	 * @return The lock of the stripe of the key
+	 */
+	public ReentrantLock lockFor(long key) {
+		return locks[stripeOf(key)];
+	}
+
+	/**
+	 * @param key The key to lock
+	 * @return The index of the stripe of the key. Consecutive keys are spread
+	 *         over the stripes by a multiplicative hash
+	 */
+	public int stripeOf(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+	}
+
+	/**
+	 * @return The number of stripes
+	 */
+	public int stripes() {
+		return locks.length;
+	}
+
+	/**
+	 * @return An estimate of the number of threads waiting for any of the locks
+	 */
+	public int queuedThreads() {
+		int queued = 0;
+		for (ReentrantLock lock : locks) {
+			queued += lock.getQueueLength();
+		}
+		return queued;
+	}
+}
@@ -0,0 +1,106 @@
+package com.raga.library.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Records how long each connection pool takes to hand out a connection, in
+ * library.db.connection.acquire, and how long the connection is then held
+ * before it returns to the pool, in library.db.connection.hold. Both timers are
+ * tagged with the pool and with the method and URI pattern of the request the
+ * connection was taken for, or none outside of a request. The pool calls the
+ * tracker on the thread taking and closing the connection, which is how the
+ * request is found. The standard hikaricp metrics of the pool are still
+ * recorded
+ */
+public class EndpointConnectionMetricsTrackerFactory implements MetricsTrackerFactory {
+
+	static final String NONE = "none";
+
+	private final MeterRegistry meterRegistry;
+
+	private final MicrometerMetricsTrackerFactory poolMetricsTrackerFactory;
+
+	private final ConcurrentHashMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+	public EndpointConnectionMetricsTrackerFactory(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+		this.poolMetricsTrackerFactory = new MicrometerMetricsTrackerFactory(meterRegistry);
+	}
+
+	@Override
+	public IMetricsTracker create(String poolName, PoolStats poolStats) {
+		return new EndpointMetricsTracker(poolName, poolMetricsTrackerFactory.create(poolName, poolStats));
+	}
+
+	private Timer timer(String name, String poolName) {
+		String method = NONE;
+		String uri = NONE;
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes instanceof ServletRequestAttributes servletAttributes) {
+			HttpServletRequest request = servletAttributes.getRequest();
+			Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			method = request.getMethod();
+			uri = pattern != null ? pattern.toString() : "UNKNOWN";
+		}
+		return timers.computeIfAbsent(new TimerKey(name, poolName, method, uri),
+				key -> Timer.builder(key.name()).tag("pool", key.poolName()).tag("method", key.method())
+						.tag("uri", key.uri()).register(meterRegistry));
+	}
+
+	private record TimerKey(String name, String poolName, String method, String uri) {
+	}
+
+	private class EndpointMetricsTracker implements IMetricsTracker {
+
+		private final String poolName;
+
+		private final IMetricsTracker poolMetricsTracker;
+
+		EndpointMetricsTracker(String poolName, IMetricsTracker poolMetricsTracker) {
+			this.poolName = poolName;
+			this.poolMetricsTracker = poolMetricsTracker;
+		}
+
+		@Override
+		public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+			poolMetricsTracker.recordConnectionCreatedMillis(connectionCreatedMillis);
+		}
+
+		@Override
+		public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+			poolMetricsTracker.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+			timer("library.db.connection.acquire", poolName).record(elapsedAcquiredNanos, TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+			poolMetricsTracker.recordConnectionUsageMillis(elapsedBorrowedMillis);
+			timer("library.db.connection.hold", poolName).record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public void recordConnectionTimeout() {
+			poolMetricsTracker.recordConnectionTimeout();
+		}
+
+		@Override
+		public void close() {
+			poolMetricsTracker.close();
+		}
+	}
+}
@@ -0,0 +1,7 @@
+package com.raga.library.projection;
+
+/**
+ * Outcome of one rebuild of the active loans read model
+ */
+public record ProjectionRebuildSummary(long activeLoans, int chunks, long elapsedMillis) {
+}
@@ -0,0 +1,29 @@
+package com.raga.library.ratelimit;
+
+/**
+ * Rate allowed for one key: a burst of up to the capacity, refilled at a steady
+ * rate. Held as the interval between two requests at the steady rate and the
+ * burst tolerance of the generic cell rate algorithm
+ *
+ * @param emissionIntervalNanos The interval between two requests at the steady
+ *                              rate
+ * @param burstToleranceNanos   How far ahead of the steady rate a key may be
+ */
+public record RateLimit(long emissionIntervalNanos, long burstToleranceNanos) {
+
+	/**
+	 * Creates the rate limit of a token bucket
+	 *
+	 * @param capacity  The number of requests allowed in a burst
+	 * @param perSecond The number of requests per second the bucket is refilled
+	 *                  with
+	 * @return The rate limit
+	 */
+	public static RateLimit of(int capacity, double perSecond) {
+		if (capacity < 1 || perSecond <= 0) {
+			throw new IllegalArgumentException("The capacity and the rate of a rate limit must be positive");
+		}
+		long emissionIntervalNanos = Math.max(1, Math.round(1_000_000_000 / perSecond));
+		return new RateLimit(emissionIntervalNanos, (capacity - 1) * emissionIntervalNanos);
+	}
+}
@@ -0,0 +1,68 @@
+package com.raga.library.ratelimit;
+
+import java.util.Map;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.raga.library.exception.RateLimitExceededException;
+import com.raga.library.service.IdempotencyService;
+import com.raga.library.service.RateLimitService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admits the requests to the endpoints of a rate limit policy, taking a token
+ * from the bucket of the client and of the patron. A request finding an empty
+ * bucket is rejected with 429 Too Many Requests before reaching the controller.
+ * The client is the remote address of the request, which Tomcat takes from the
+ * X-Forwarded-For header of the requests sent by a trusted proxy.
+ * On the endpoints of a policy with idempotent retries, a retry sent with the
+ * idempotency key of the same request is admitted without a token, since it is
+ * answered with the response of the first request
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+	public static final String PATRON_ID_VARIABLE = "patronId";
+
+	private final RateLimitService rateLimitService;
+
+	private final IdempotencyService idempotencyService;
+
+	private final RateLimitPolicy policy;
+
+	public RateLimitInterceptor(RateLimitService rateLimitService, IdempotencyService idempotencyService,
+			RateLimitPolicy policy) {
+		this.rateLimitService = rateLimitService;
+		this.idempotencyService = idempotencyService;
+		this.policy = policy;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+			throws RateLimitExceededException {
+		if (policy.idempotentRetries()) {
+			String idempotencyKey = request.getHeader(IdempotencyService.IDEMPOTENCY_KEY_HEADER);
+			if (idempotencyKey != null && !idempotencyKey.isBlank()
+					&& idempotencyService.isKnown(idempotencyKey, IdempotencyService.fingerprint(request))) {
+				return true;
+			}
+		}
+		long waitNanos = rateLimitService.acquire(policy, RateLimitKeyType.CLIENT, request.getRemoteAddr());
+		if (waitNanos == 0 && policy.patronLimit() != null) {
+			@SuppressWarnings("unchecked")
+			Map<String, String> variables = (Map<String, String>) request
+					.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+			String patronId = variables != null ? variables.get(PATRON_ID_VARIABLE) : null;
+			if (patronId != null) {
+				waitNanos = rateLimitService.acquire(policy, RateLimitKeyType.PATRON, patronId);
+			}
+		}
+		if (waitNanos > 0) {
+			throw new RateLimitExceededException("Too many " + policy.group() + " requests, retry later",
+					waitNanos);
+		}
+		return true;
+	}
+}
@@ -0,0 +1,17 @@
+package com.raga.library.ratelimit;
+
+/**
+ * What a rate limit is counted by
+ */
+public enum RateLimitKeyType {
+
+	/**
+	 * The patron of the request, taken from the patronId path variable
+	 */
+	PATRON,
+
+	/**
+	 * The address of the client sending the request
+	 */
+	CLIENT
+}
@@ -0,0 +1,30 @@
+package com.raga.library.ratelimit;
+
+import java.util.List;
+
+/**
+ * Rate limits of a group of endpoints. A request to one of the paths takes a
+ * token from the bucket of its client and, when the path has a patronId
+ * variable, from the bucket of its patron
+ *
+ * @param group       The name of the endpoint group
+ * @param paths       The path patterns of the endpoints
+ * @param patronLimit The limit of each patron, or null when patrons are not
+ *                    limited
+ * @param clientLimit The limit of each client
+ * @param idempotentRetries Whether the endpoints answer a retry sent with an
+ *                    idempotency key with the stored response of the first
+ *                    request, so that the retry is not limited
+ */
+public record RateLimitPolicy(String group, List<String> paths, RateLimit patronLimit, RateLimit clientLimit,
+		boolean idempotentRetries) {
+
+	/**
+	 * @param keyType What the limit is counted by
+	 * @return The limit of each key of the type, or null when keys of the type are
+	 *         not limited
+	 */
+	public RateLimit limitOf(RateLimitKeyType keyType) {
+		return keyType == RateLimitKeyType.PATRON ? patronLimit : clientLimit;
+	}
+}
@@ -0,0 +1,12 @@
+package com.raga.library.ratelimit;
+
+/**
+ * A rate limited key with the number of its requests that were throttled
+ *
+ * @param group             The endpoint group
+ * @param keyType           What the key is
+ * @param key               The patron id or the client address
+ * @param throttledRequests The number of throttled requests of the key
+ */
+public record ThrottledKey(String group, RateLimitKeyType keyType, String key, long throttledRequests) {
+}
@@ -0,0 +1,68 @@
+package com.raga.library.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket of one key, implemented with the generic cell rate algorithm.
+ * Instead of a token count refilled over time, the bucket only holds the
+ * theoretical arrival time of the next request at the steady rate, advanced
+ * with a single compare-and-set, so acquiring never takes a lock
+ */
+public class TokenBucket {
+
+	private final AtomicLong theoreticalArrival;
+
+	private final AtomicLong throttled = new AtomicLong();
+
+	/**
+	 * Creates a full bucket
+	 *
+	 * @param now The current time, in nanoseconds
+	 */
+	public TokenBucket(long now) {
+		this.theoreticalArrival = new AtomicLong(now);
+	}
+
+	/**
+	 * Takes a token from the bucket
+	 *
+	 * @param now   The current time, in nanoseconds
+	 * @param limit The rate limit of the bucket
+	 * @return 0 when a token was taken, otherwise the nanoseconds until the next
+	 *         token is available
+	 */
+	public long tryAcquire(long now, RateLimit limit) {
+		while (true) {
+			long arrival = theoreticalArrival.get();
+			long earliest = arrival - limit.burstToleranceNanos();
+			if (now - earliest < 0) {
+				throttled.incrementAndGet();
+				return earliest - now;
+			}
+			long next = (now - arrival > 0 ? now : arrival) + limit.emissionIntervalNanos();
+			if (theoreticalArrival.compareAndSet(arrival, next)) {
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * Tells whether the bucket has been full for a while. A full bucket behaves
+	 * exactly like a new one, so it can be dropped without changing the rate its
+	 * key is admitted at
+	 *
+	 * @param now       The current time, in nanoseconds
+	 * @param idleNanos How long the bucket must have been full
+	 * @return true when the bucket has been full for at least the given time
+	 */
+	public boolean isIdle(long now, long idleNanos) {
+		return now - theoreticalArrival.get() >= idleNanos;
+	}
+
+	/**
+	 * @return The number of requests throttled by the bucket
+	 */
+	public long throttledRequests() {
+		return throttled.get();
+	}
+}
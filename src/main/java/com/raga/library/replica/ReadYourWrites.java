@@ -0,0 +1,70 @@
+package com.raga.library.replica;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Holds the time of the last write the current thread, or the client it
+ * serves, committed on the primary. A read-only transaction reads from a
+ * replica only if that replica has applied the changes up to this time, so that
+ * a client reads its own borrows and returns. The time of the last write of a
+ * client is carried from request to request by the ReadYourWritesFilter
+ */
+public final class ReadYourWrites {
+
+	private static final ThreadLocal<Instant> LAST_WRITE = new ThreadLocal<>();
+
+	private static final ThreadLocal<Consumer<Instant>> WRITE_LISTENER = new ThreadLocal<>();
+
+	private ReadYourWrites() {
+	}
+
+	/**
+	 * @return The time of the last write of the current thread, or null if it
+	 *         has not written
+	 */
+	public static Instant lastWrite() {
+		return LAST_WRITE.get();
+	}
+
+	/**
+	 * Records a write committed by the current thread, and passes it to the
+	 * listener of the current request
+	 *
+	 * @param committedAt The time the write committed at
+	 */
+	public static void recordWrite(Instant committedAt) {
+		Instant lastWrite = LAST_WRITE.get();
+		if (lastWrite == null || committedAt.isAfter(lastWrite)) {
+			LAST_WRITE.set(committedAt);
+		}
+		Consumer<Instant> listener = WRITE_LISTENER.get();
+		if (listener != null) {
+			listener.accept(committedAt);
+		}
+	}
+
+	/**
+	 * Starts serving a request on the current thread
+	 *
+	 * @param lastWrite The time of the last write of the client, or null if
+	 *                  unknown
+	 * @param listener  Called with the time of each write of the request
+	 */
+	public static void open(Instant lastWrite, Consumer<Instant> listener) {
+		if (lastWrite == null) {
+			LAST_WRITE.remove();
+		} else {
+			LAST_WRITE.set(lastWrite);
+		}
+		WRITE_LISTENER.set(listener);
+	}
+
+	/**
+	 * Ends serving a request on the current thread
+	 */
+	public static void close() {
+		LAST_WRITE.remove();
+		WRITE_LISTENER.remove();
+	}
+}
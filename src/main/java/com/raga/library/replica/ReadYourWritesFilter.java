@@ -0,0 +1,67 @@
+package com.raga.library.replica;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Carries the time of the last write of a client from request to request in a
+ * cookie, so that the reads following a borrow or return see it even when
+ * served by another node. The cookie expires after the maximum replication lag,
+ * since every replica read from has then applied the write
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	public static final String LAST_WRITE_COOKIE = "LIBRARY_LAST_WRITE";
+
+	private final Duration maximumLag;
+
+	public ReadYourWritesFilter(Duration maximumLag) {
+		this.maximumLag = maximumLag;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		ReadYourWrites.open(lastWrite(request), committedAt -> {
+			// The commit precedes the body, unless the body is streamed from within the
+			// transaction, in which case only the rest of this request reads its writes
+			if (!response.isCommitted()) {
+				Cookie cookie = new Cookie(LAST_WRITE_COOKIE, Long.toString(committedAt.toEpochMilli()));
+				cookie.setPath("/");
+				cookie.setHttpOnly(true);
+				cookie.setMaxAge((int) Math.max(1, maximumLag.toSeconds()));
+				response.addCookie(cookie);
+			}
+		});
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			ReadYourWrites.close();
+		}
+	}
+
+	private static Instant lastWrite(HttpServletRequest request) {
+		Cookie[] cookies = request.getCookies();
+		if (cookies != null) {
+			for (Cookie cookie : cookies) {
+				if (LAST_WRITE_COOKIE.equals(cookie.getName())) {
+					try {
+						return Instant.ofEpochMilli(Long.parseLong(cookie.getValue()));
+					} catch (NumberFormatException e) {
+						return null;
+					}
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,91 @@
+package com.raga.library.replica;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.sql.DataSource;
+
+/**
+ * A read replica of the primary database, with the state of its last health
+ * check. A replica that is reachable and replicating has applied the changes of
+ * the primary up to some time, and a read-only transaction may read from it if
+ * that time is recent enough and after the last write of its client
+ */
+public class Replica {
+
+	private final String name;
+
+	private final DataSource dataSource;
+
+	private volatile Instant appliedUpTo;
+
+	private volatile Duration lag;
+
+	/**
+	 * Creates a replica, not used until its first health check
+	 *
+	 * @param name       The name of the replica in the logs and metrics
+	 * @param dataSource The data source of the replica
+	 */
+	public Replica(String name, DataSource dataSource) {
+		this.name = name;
+		this.dataSource = dataSource;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public DataSource getDataSource() {
+		return dataSource;
+	}
+
+	/**
+	 * @return The time up to which the replica has applied the changes of the
+	 *         primary, or null if it is down
+	 */
+	public Instant getAppliedUpTo() {
+		return appliedUpTo;
+	}
+
+	/**
+	 * @return The replication lag of the last health check, or null if the replica
+	 *         is down
+	 */
+	public Duration getLag() {
+		return lag;
+	}
+
+	/**
+	 * @param instant A time
+	 * @return Whether the replica has applied the changes of the primary up to
+	 *         the given time
+	 */
+	public boolean hasApplied(Instant instant) {
+		Instant applied = appliedUpTo;
+		return applied != null && !applied.isBefore(instant);
+	}
+
+	/**
+	 * Records a successful health check
+	 *
+	 * @param checkedAt The time of the check
+	 * @param lag       The replication lag reported by the replica
+	 */
+	public void markUp(Instant checkedAt, Duration lag) {
+		this.lag = lag;
+		this.appliedUpTo = checkedAt.minus(lag);
+	}
+
+	/**
+	 * Records a failed health check
+	 *
+	 * @return Whether the replica was up before
+	 */
+	public boolean markDown() {
+		boolean wasUp = appliedUpTo != null;
+		appliedUpTo = null;
+		lag = null;
+		return wasUp;
+	}
+}
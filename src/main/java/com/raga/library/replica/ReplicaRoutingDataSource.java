@@ -0,0 +1,133 @@
+package com.raga.library.replica;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source connecting read-only transactions to a read replica, and all
+ * other work to the primary. A read-only transaction uses the next replica in
+ * turn that has applied the changes of the primary up to the maximum lag ago,
+ * and up to the last write of its client as held in ReadYourWrites, and falls
+ * back to the primary when no replica qualifies. Since the transaction must be
+ * known to be read-only when the connection is chosen, this data source is
+ * used behind a LazyConnectionDataSourceProxy
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+	private static final TransactionSynchronization WRITE_RECORDER = new TransactionSynchronization() {
+
+		@Override
+		public void afterCommit() {
+			ReadYourWrites.recordWrite(Instant.now());
+		}
+	};
+
+	private final DataSource primary;
+
+	private final List<Replica> replicas;
+
+	private final Duration maximumLag;
+
+	private final AtomicInteger nextReplica = new AtomicInteger();
+
+	private final LongAdder primaryFallbacks = new LongAdder();
+
+	/**
+	 * Creates the data source
+	 *
+	 * @param primary    The data source of the primary
+	 * @param replicas   The read replicas
+	 * @param maximumLag The maximum replication lag of a replica read from
+	 */
+	public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, Duration maximumLag) {
+		this.primary = primary;
+		this.replicas = List.copyOf(replicas);
+		this.maximumLag = maximumLag;
+		Map<Object, Object> targetDataSources = new HashMap<>();
+		for (int replica = 0; replica < replicas.size(); replica++) {
+			targetDataSources.put(replica, replicas.get(replica).getDataSource());
+		}
+		setTargetDataSources(targetDataSources);
+		setDefaultTargetDataSource(primary);
+		setLenientFallback(false);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			if (TransactionSynchronizationManager.isActualTransactionActive()
+					&& TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.registerSynchronization(WRITE_RECORDER);
+			}
+			return null;
+		}
+		Instant required = Instant.now().minus(maximumLag);
+		Instant lastWrite = ReadYourWrites.lastWrite();
+		if (lastWrite != null && lastWrite.isAfter(required)) {
+			required = lastWrite;
+		}
+		int start = nextReplica.getAndIncrement();
+		for (int i = 0; i < replicas.size(); i++) {
+			int replica = Math.floorMod(start + i, replicas.size());
+			if (replicas.get(replica).hasApplied(required)) {
+				return replica;
+			}
+		}
+		primaryFallbacks.increment();
+		return null;
+	}
+
+	/**
+	 * @return The read replicas
+	 */
+	public List<Replica> replicas() {
+		return replicas;
+	}
+
+	/**
+	 * @return The data source of the primary
+	 */
+	public DataSource primary() {
+		return primary;
+	}
+
+	/**
+	 * @return The number of read-only transactions sent to the primary since no
+	 *         replica was recent enough
+	 */
+	public long primaryFallbacks() {
+		return primaryFallbacks.sum();
+	}
+
+	/**
+	 * Closes the connection pools of the primary and of the replicas
+	 */
+	@Override
+	public void close() {
+		for (Replica replica : replicas) {
+			close(replica.getDataSource());
+		}
+		close(primary);
+	}
+
+	private static void close(DataSource dataSource) {
+		if (dataSource instanceof AutoCloseable closeable) {
+			try {
+				closeable.close();
+			} catch (Exception e) {
+				throw new IllegalStateException("Unable to close the connection pool " + dataSource, e);
+			}
+		}
+	}
+}
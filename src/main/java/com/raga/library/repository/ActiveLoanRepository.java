@@ -0,0 +1,52 @@
+package com.raga.library.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.raga.library.entity.ActiveLoan;
+
+/**
+ * Repository interface responsible for reading and maintaining the active loans
+ * read model
+ * 
+ */
+public interface ActiveLoanRepository extends JpaRepository<ActiveLoan, Long> {
+
+	/**
+	 * Retrieves all active loans, oldest first, from the (borrow_date, id) index
+	 * 
+	 * @return The active loans
+	 */
+	List<ActiveLoan> findAllByOrderByBorrowDateAscIdAsc();
+
+	@Modifying
+	@Query("update ActiveLoan l set l.bookTitle = :title, l.bookAuthor = :author where l.bookId = :bookId")
+	int updateBook(@Param("bookId") Long bookId, @Param("title") String title, @Param("author") String author);
+
+	@Modifying
+	@Query("update ActiveLoan l set l.patronName = :name where l.patronId = :patronId")
+	int updatePatron(@Param("patronId") Long patronId, @Param("name") String name);
+
+	/**
+	 * Removes the active loan of a returned borrowing record with a single
+	 * statement, without loading it first
+	 * 
+	 * @param id The ID of the borrowing record
+	 * @return The number of active loans removed
+	 */
+	@Modifying
+	@Query("delete from ActiveLoan l where l.id = :id")
+	int deleteLoan(@Param("id") Long id);
+
+	@Modifying
+	@Query("delete from ActiveLoan l where l.bookId = :bookId")
+	int deleteByBookId(@Param("bookId") Long bookId);
+
+	@Modifying
+	@Query("delete from ActiveLoan l where l.patronId = :patronId")
+	int deleteByPatronId(@Param("patronId") Long patronId);
+}
@@ -0,0 +1,41 @@
+package com.raga.library.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.raga.library.entity.ArchivedBorrowingRecord;
+
+/**
+ * Repository interface responsible for reading the archived borrowing records.
+ * Records only enter the archive through the archival run
+ * 
+ */
+public interface ArchivedBorrowingRecordRepository extends JpaRepository<ArchivedBorrowingRecord, Long> {
+
+	/**
+	 * Retrieves one keyset page of a patron's archived loans, most recent first
+	 * 
+	 * @see BorrowingRecordRepository#findPatronLoanHistory
+	 */
+	@Query("select r from ArchivedBorrowingRecord r join fetch r.book join fetch r.patron where r.patron.id = :patronId "
+			+ BorrowingRecordRepository.LOAN_HISTORY_RANGE)
+	List<ArchivedBorrowingRecord> findPatronLoanHistory(@Param("patronId") Long patronId,
+			@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("afterDate") LocalDate afterDate,
+			@Param("afterId") Long afterId, Pageable pageable);
+
+	/**
+	 * Retrieves one keyset page of a book's archived loans, most recent first
+	 * 
+	 * @see BorrowingRecordRepository#findBookLoanHistory
+	 */
+	@Query("select r from ArchivedBorrowingRecord r join fetch r.book join fetch r.patron where r.book.id = :bookId "
+			+ BorrowingRecordRepository.LOAN_HISTORY_RANGE)
+	List<ArchivedBorrowingRecord> findBookLoanHistory(@Param("bookId") Long bookId, @Param("from") LocalDate from,
+			@Param("to") LocalDate to, @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId,
+			Pageable pageable);
+}
@@ -1,9 +1,17 @@
 package com.raga.library.repository;
 
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.raga.library.entity.Book;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repository interface responsible for performing CRUD operations on the Book
  * entity
@@ -11,4 +19,25 @@ import com.raga.library.entity.Book;
  */
 public interface BookRepository extends JpaRepository<Book, Long> {
 
+	/**
+	 * Retrieves the next page of books after the given id, in id order
+	 * 
+	 * @param afterId  Only books with a greater id are returned
+	 * @param pageable Limits the size of the page
+	 * @return The books of the page
+	 */
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL") })
+	List<Book> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+	/**
+	 * Retrieves one page of books in the order of the page request, without
+	 * counting all books
+	 * 
+	 * @param pageable The page and sort order
+	 * @return The books of the page
+	 */
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL") })
+	Slice<Book> findSliceBy(Pageable pageable);
 }
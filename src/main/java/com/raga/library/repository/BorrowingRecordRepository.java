@@ -1,10 +1,21 @@
 package com.raga.library.repository;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.raga.library.dto.LoanResponse;
 import com.raga.library.entity.BorrowingRecord;
+import com.raga.library.fine.LoanFineCandidate;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Repository interface responsible for performing CRUD operations on the BorrowingRecord
@@ -13,7 +24,146 @@ import com.raga.library.entity.BorrowingRecord;
  */
 public interface BorrowingRecordRepository extends JpaRepository<BorrowingRecord, Long>{
 
-	List<BorrowingRecord> findByBookIdAndPatronId(Long book_id, Long patron_Id);
+	String LOAN_HISTORY_RANGE = "and (:from is null or r.borrowDate >= :from) and (:to is null or r.borrowDate <= :to) "
+			+ "and (:afterDate is null or r.borrowDate < :afterDate or (r.borrowDate = :afterDate and r.id < :afterId)) "
+			+ "order by r.borrowDate desc, r.id desc";
+
+	String LOAN_HISTORY_FILTER = "and (:includeActive = true or r.returnDate is not null) "
+			+ "and (:includeReturned = true or r.returnDate is null) " + LOAN_HISTORY_RANGE;
 
 	boolean existsByBookIdAndPatronId(Long bookId, Long patronId);
+
+	boolean existsByBookIdAndPatronIdAndReturnDateIsNull(Long bookId, Long patronId);
+
+	/**
+	 * Retrieves the borrowing records of a book by a patron that are not returned
+	 * yet, with their book and patron, in a single query
+	 * 
+	 * @param bookId   The ID of the book
+	 * @param patronId The ID of the patron
+	 * @return The active borrowing records, normally at most one
+	 */
+	@Query("select r from BorrowingRecord r join fetch r.book join fetch r.patron "
+			+ "where r.book.id = :bookId and r.patron.id = :patronId and r.returnDate is null")
+	List<BorrowingRecord> findActiveWithBookAndPatron(@Param("bookId") Long bookId, @Param("patronId") Long patronId);
+
+	/**
+	 * Retrieves all loans as flat responses that reference their book and patron
+	 * by id, without loading either
+	 * 
+	 * @return The loans in id order
+	 */
+	@Query("select new com.raga.library.dto.LoanResponse(r.id, r.book.id, r.patron.id, r.borrowDate, r.dueDate, r.returnDate, r.fineAmount) "
+			+ "from BorrowingRecord r order by r.id")
+	List<LoanResponse> findAllLoanResponses();
+
+	/**
+	 * Retrieves the next page of loans after the given id as flat responses, in id
+	 * order
+	 * 
+	 * @param afterId  Only loans with a greater id are returned
+	 * @param pageable Limits the size of the page
+	 * @return The loans of the page
+	 */
+	@Query("select new com.raga.library.dto.LoanResponse(r.id, r.book.id, r.patron.id, r.borrowDate, r.dueDate, r.returnDate, r.fineAmount) "
+			+ "from BorrowingRecord r where r.id > :afterId order by r.id")
+	List<LoanResponse> findLoanResponsesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+	/**
+	 * Retrieves one page of borrowing records with their book and patron in the
+	 * order of the page request, without counting all records
+	 * 
+	 * @param pageable The page and sort order
+	 * @return The borrowing records of the page
+	 */
+	@Query("select r from BorrowingRecord r join fetch r.book join fetch r.patron")
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL") })
+	Slice<BorrowingRecord> findSliceBy(Pageable pageable);
+
+	/**
+	 * Retrieves the next page of borrowing records with their book and patron
+	 * after the given id, in id order
+	 * 
+	 * @param afterId  Only records with a greater id are returned
+	 * @param pageable Limits the size of the page
+	 * @return The borrowing records of the page
+	 */
+	@Query("select r from BorrowingRecord r join fetch r.book join fetch r.patron where r.id > :afterId order by r.id")
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL") })
+	List<BorrowingRecord> findWithBookAndPatronAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+	/**
+	 * Retrieves one keyset page of a patron's loans, most recent first, backed by
+	 * the (patron_id, borrow_date) index
+	 * 
+	 * @param patronId        The ID of the patron
+	 * @param includeActive   Whether loans not yet returned are included
+	 * @param includeReturned Whether returned loans are included
+	 * @param from            Earliest borrow date, or null
+	 * @param to              Latest borrow date, or null
+	 * @param afterDate       Borrow date of the last loan of the previous page, or
+	 *                        null for the first page
+	 * @param afterId         ID of the last loan of the previous page
+	 * @param pageable        Limits the size of the page
+	 * @return The loans of the page with their book and patron
+	 */
+	@Query("select r from BorrowingRecord r join fetch r.book join fetch r.patron where r.patron.id = :patronId "
+			+ LOAN_HISTORY_FILTER)
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL") })
+	List<BorrowingRecord> findPatronLoanHistory(@Param("patronId") Long patronId,
+			@Param("includeActive") boolean includeActive, @Param("includeReturned") boolean includeReturned,
+			@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("afterDate") LocalDate afterDate,
+			@Param("afterId") Long afterId, Pageable pageable);
+
+	/**
+	 * Retrieves one keyset page of a book's loans, most recent first, backed by the
+	 * (book_id, borrow_date) index
+	 * 
+	 * @see #findPatronLoanHistory
+	 */
+	@Query("select r from BorrowingRecord r join fetch r.book join fetch r.patron where r.book.id = :bookId "
+			+ LOAN_HISTORY_FILTER)
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL") })
+	List<BorrowingRecord> findBookLoanHistory(@Param("bookId") Long bookId,
+			@Param("includeActive") boolean includeActive, @Param("includeReturned") boolean includeReturned,
+			@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("afterDate") LocalDate afterDate,
+			@Param("afterId") Long afterId, Pageable pageable);
+
+	long countByReturnDateIsNull();
+
+	/**
+	 * Retrieves the ids of the next batch of loans returned before the cutoff, in
+	 * id order
+	 * 
+	 * @param returnedBefore Loans returned before this date are included
+	 * @param pageable       Limits the size of the batch
+	 * @return The ids of the loans to archive
+	 */
+	@Query("select r.id from BorrowingRecord r where r.returnDate < :returnedBefore order by r.id")
+	List<Long> findArchivableIds(@Param("returnedBefore") LocalDate returnedBefore, Pageable pageable);
+
+	long countByBorrowDate(LocalDate borrowDate);
+
+	long countByReturnDate(LocalDate returnDate);
+
+	long countByReturnDateIsNullAndDueDateBefore(LocalDate date);
+
+	/**
+	 * Retrieves the next page of open or recently returned loans after the given
+	 * id, in id order, as flat fine candidates
+	 * 
+	 * @param returnedSince Loans returned on or after this date are included
+	 * @param afterId       Only loans with a greater id are returned
+	 * @param pageable      Limits the size of the page
+	 * @return The fine candidates of the page
+	 */
+	@Query("select new com.raga.library.fine.LoanFineCandidate(r.id, r.borrowDate, r.dueDate, r.returnDate, p.category, r.fineAmount) "
+			+ "from BorrowingRecord r join r.patron p "
+			+ "where r.id > :afterId and (r.returnDate is null or r.returnDate >= :returnedSince) order by r.id")
+	List<LoanFineCandidate> findFineCandidates(@Param("returnedSince") LocalDate returnedSince,
+			@Param("afterId") Long afterId, Pageable pageable);
 }
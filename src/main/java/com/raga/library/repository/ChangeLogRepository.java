@@ -0,0 +1,39 @@
+package com.raga.library.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.raga.library.entity.ChangeLogEntry;
+
+/**
+ * Repository interface responsible for appending to and reading the change feed
+ * 
+ */
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+	/**
+	 * Retrieves the entries following the given sequence number, as a range scan
+	 * of the primary key
+	 * 
+	 * @param afterId  Only entries with a greater id are returned
+	 * @param pageable The maximum number of entries
+	 * @return The entries, in sequence order
+	 */
+	List<ChangeLogEntry> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+	/**
+	 * @return The sequence number of the last entry, 0 when the feed is empty
+	 */
+	@Query("select coalesce(max(c.id), 0) from ChangeLogEntry c")
+	long findLastId();
+
+	@Modifying
+	@Query("delete from ChangeLogEntry c where c.changedAt < :before")
+	int deleteByChangedAtBefore(@Param("before") LocalDateTime before);
+}
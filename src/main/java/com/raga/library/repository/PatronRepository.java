@@ -1,9 +1,17 @@
 package com.raga.library.repository;
 
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.raga.library.entity.Patron;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repository interface responsible for performing CRUD operations on the Patron
  * entity
@@ -11,4 +19,25 @@ import com.raga.library.entity.Patron;
  */
 public interface PatronRepository extends JpaRepository<Patron, Long> {
 
+	/**
+	 * Retrieves the next page of patrons after the given id, in id order
+	 * 
+	 * @param afterId  Only patrons with a greater id are returned
+	 * @param pageable Limits the size of the page
+	 * @return The patrons of the page
+	 */
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL") })
+	List<Patron> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+	/**
+	 * Retrieves one page of patrons in the order of the page request, without
+	 * counting all patrons
+	 * 
+	 * @param pageable The page and sort order
+	 * @return The patrons of the page
+	 */
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL") })
+	Slice<Patron> findSliceBy(Pageable pageable);
 }
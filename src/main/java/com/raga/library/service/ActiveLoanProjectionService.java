@@ -0,0 +1,270 @@
+package com.raga.library.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.raga.library.entity.ActiveLoan;
+import com.raga.library.entity.BorrowingRecord;
+import com.raga.library.event.BookChangedEvent;
+import com.raga.library.event.ChangeType;
+import com.raga.library.event.CirculationAction;
+import com.raga.library.event.CirculationEvent;
+import com.raga.library.event.PatronChangedEvent;
+import com.raga.library.projection.ProjectionRebuildSummary;
+import com.raga.library.repository.ActiveLoanRepository;
+import com.raga.library.repository.BookRepository;
+import com.raga.library.repository.PatronRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Service class responsible for the active loans read model. The projection is
+ * updated in the same transaction as the borrow, return, book update or patron
+ * update that changes it, by listening synchronously to the events the
+ * services publish, so the Return Book page can list active loans with a
+ * single query on one table. The projection can be rebuilt from the source
+ * tables at any time, in id range chunks that run in parallel, each replacing
+ * its range in its own transaction. The range ends at the highest borrowing
+ * record id when the rebuild starts, so loans borrowed during the rebuild are
+ * left to the event listener, and a chunk skips the loans the listener has
+ * already added. A chunk locks the open borrowing records of its range before
+ * the projection rows, in the order a return locks them, and is retried when it
+ * still loses a deadlock, for instance on the book and patron rows it reads.
+ * Rebuilds hold the projection row of the job_lock table, so
+ * only one node populates an empty projection on startup. Each patron shard
+ * holds the projection of its own loans, and the active loans are merged from
+ * every shard.
+ */
+@Service
+public class ActiveLoanProjectionService {
+
+	private static final String REBUILD_LOCK_SQL = "select name from job_lock where name = 'active-loan-projection' for update";
+
+	private static final String ACTIVE_LOAN_BOUNDS_SQL = "select (select min(id) from active_loan), "
+			+ "(select min(id) from borrowing_record where return_date is null), (select max(id) from borrowing_record)";
+
+	private static final String LOCK_CHUNK_SQL = "select id from borrowing_record where return_date is null and id between ? and ? for update";
+
+	private static final String DELETE_CHUNK_SQL = "delete from active_loan where id between ? and ?";
+
+	private static final String INSERT_CHUNK_SQL = "insert ignore into active_loan "
+			+ "(id, book_id, book_title, book_author, patron_id, patron_name, borrow_date, due_date) "
+			+ "select r.id, b.id, b.title, b.author, p.id, p.name, r.borrow_date, r.due_date "
+			+ "from borrowing_record r join book b on b.id = r.book_id join patron p on p.id = r.patron_id "
+			+ "where r.return_date is null and r.id between ? and ?";
+
+	private static final int CHUNK_ATTEMPTS = 3;
+
+	private final Logger logger = LoggerFactory.getLogger(ActiveLoanProjectionService.class);
+
+	@Autowired
+	private ActiveLoanRepository activeLoanRepository;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private PatronRepository patronRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private ShardService shardService;
+
+	@Value("${library.projection.rebuild-parallelism:4}")
+	private int parallelism;
+
+	@Value("${library.projection.rebuild-chunk-size:10000}")
+	private int chunkSize;
+
+	private TransactionTemplate transactionTemplate;
+
+	private ExecutorService executor;
+
+	@PostConstruct
+	void initialize() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Populates the projection of each shard on its first start, when it is still
+	 * empty. A node starting while another one populates the projection waits for
+	 * the rebuild lock and then finds the projection populated
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void populateProjection() {
+		shardService.fanOut(shard -> transactionTemplate.execute(status -> {
+			jdbcTemplate.queryForList(REBUILD_LOCK_SQL, String.class);
+			return activeLoanRepository.count() == 0 ? rebuildShard(shard) : null;
+		}));
+	}
+
+	/**
+	 * Retrieves all active loans from the read model
+	 * 
+	 * @return The active loans, oldest first
+	 */
+	@Transactional(readOnly = true)
+	public List<ActiveLoan> retrieveActiveLoans() {
+		return shardService.fanOutMerged(shard -> activeLoanRepository.findAllByOrderByBorrowDateAscIdAsc(),
+				Comparator.comparing(ActiveLoan::getBorrowDate).thenComparing(ActiveLoan::getId), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Adds a borrowed loan to the projection or removes a returned one
+	 * 
+	 * @param event The circulation operation
+	 */
+	@EventListener
+	@Transactional
+	public void onCirculation(CirculationEvent event) {
+		BorrowingRecord borrowingRecord = event.borrowingRecord();
+		if (event.action() == CirculationAction.BORROWED) {
+			activeLoanRepository.save(new ActiveLoan(borrowingRecord));
+		} else {
+			activeLoanRepository.deleteLoan(borrowingRecord.getId());
+		}
+	}
+
+	/**
+	 * Copies the title and author of an updated book to its active loans
+	 * 
+	 * @param event The book change
+	 */
+	@EventListener
+	@Transactional
+	public void onBookChanged(BookChangedEvent event) {
+		if (event.changeType() == ChangeType.UPDATED) {
+			bookRepository.findById(event.bookId())
+					.ifPresent(book -> activeLoanRepository.updateBook(book.getId(), book.getTitle(), book.getAuthor()));
+		} else if (event.changeType() == ChangeType.DELETED) {
+			activeLoanRepository.deleteByBookId(event.bookId());
+		}
+	}
+
+	/**
+	 * Copies the name of an updated patron to their active loans
+	 * 
+	 * @param event The patron change
+	 */
+	@EventListener
+	@Transactional
+	public void onPatronChanged(PatronChangedEvent event) {
+		if (event.changeType() == ChangeType.UPDATED) {
+			patronRepository.findById(event.patronId())
+					.ifPresent(patron -> activeLoanRepository.updatePatron(patron.getId(), patron.getName()));
+		} else if (event.changeType() == ChangeType.DELETED) {
+			activeLoanRepository.deleteByPatronId(event.patronId());
+		}
+	}
+
+	/**
+	 * Regenerates the projection from the borrowing record, book and patron
+	 * tables of every shard
+	 * 
+	 * @return The summary of the rebuild
+	 */
+	public ProjectionRebuildSummary rebuildProjection() {
+		long start = System.nanoTime();
+		List<ProjectionRebuildSummary> shards = shardService.fanOut(shard -> transactionTemplate.execute(status -> {
+			jdbcTemplate.queryForList(REBUILD_LOCK_SQL, String.class);
+			return rebuildShard(shard);
+		}));
+		return summarize(shards.stream().mapToLong(ProjectionRebuildSummary::activeLoans).sum(),
+				shards.stream().mapToInt(ProjectionRebuildSummary::chunks).sum(), start);
+	}
+
+	private ProjectionRebuildSummary rebuildShard(int shard) {
+		long start = System.nanoTime();
+		long[] bounds = jdbcTemplate.query(ACTIVE_LOAN_BOUNDS_SQL, rs -> {
+			if (!rs.next() || rs.getObject(3) == null || (rs.getObject(1) == null && rs.getObject(2) == null)) {
+				return null;
+			}
+			long from = rs.getObject(1) == null ? rs.getLong(2)
+					: rs.getObject(2) == null ? rs.getLong(1) : Math.min(rs.getLong(1), rs.getLong(2));
+			return new long[] { from, rs.getLong(3) };
+		});
+		if (bounds == null) {
+			return new ProjectionRebuildSummary(0, 0, (System.nanoTime() - start) / 1_000_000);
+		}
+
+		List<Future<Integer>> chunks = new ArrayList<>();
+		for (long from = bounds[0]; from <= bounds[1]; from += chunkSize) {
+			long to = Math.min(from + chunkSize - 1, bounds[1]);
+			long chunkFrom = from;
+			chunks.add(executor.submit(() -> shardService.callOnShard(shard, () -> rebuildChunk(chunkFrom, to))));
+		}
+		long activeLoans = 0;
+		try {
+			for (Future<Integer> chunk : chunks) {
+				activeLoans += chunk.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Active loan projection rebuild was interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Active loan projection rebuild failed", e.getCause());
+		}
+		return new ProjectionRebuildSummary(activeLoans, chunks.size(), (System.nanoTime() - start) / 1_000_000);
+	}
+
+	/**
+	 * Replaces the projection of one id range in its own transaction. The open
+	 * borrowing records of the range are locked first, so that a return of one of
+	 * them, which updates its borrowing record and then deletes its active loan,
+	 * waits for the chunk instead of deadlocking with it
+	 */
+	private int rebuildChunk(long from, long to) {
+		for (int attempt = 1;; attempt++) {
+			try {
+				return transactionTemplate.execute(status -> {
+					jdbcTemplate.queryForList(LOCK_CHUNK_SQL, Long.class, from, to);
+					jdbcTemplate.update(DELETE_CHUNK_SQL, from, to);
+					return jdbcTemplate.update(INSERT_CHUNK_SQL, from, to);
+				});
+			} catch (PessimisticLockingFailureException e) {
+				if (attempt == CHUNK_ATTEMPTS) {
+					throw e;
+				}
+				logger.warn("Active loan projection chunk {} to {} lost a deadlock, retrying", from, to);
+			}
+		}
+	}
+
+	private ProjectionRebuildSummary summarize(long activeLoans, int chunks, long start) {
+		ProjectionRebuildSummary summary = new ProjectionRebuildSummary(activeLoans, chunks,
+				(System.nanoTime() - start) / 1_000_000);
+		logger.info("Active loan projection rebuilt with {} loans in {} chunks in {} ms", summary.activeLoans(),
+				summary.chunks(), summary.elapsedMillis());
+		return summary;
+	}
+}
@@ -0,0 +1,160 @@
+package com.raga.library.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.raga.library.archive.ArchiveRunSummary;
+import com.raga.library.event.LoansRewrittenEvent;
+import com.raga.library.repository.BorrowingRecordRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Service class responsible for moving returned loans out of the
+ * borrowing_record table once they are older than the retention period, so
+ * that the table the borrow and return operations work on stays proportional
+ * to the number of active loans. Loans are moved in small batches, each copied
+ * to the archive and deleted in its own transaction, with a pause between
+ * batches to leave room for regular traffic. The loan history reads both
+ * tables. A run that moved loans publishes a LoansRewrittenEvent.
+ */
+@Service
+public class ArchivalService {
+
+	private static final String COPY_TO_ARCHIVE_SQL = "insert into borrowing_record_archive "
+			+ "(id, book_id, patron_id, borrow_date, due_date, return_date, fine_amount, fine_assessed_on) "
+			+ "select id, book_id, patron_id, borrow_date, due_date, return_date, fine_amount, fine_assessed_on "
+			+ "from borrowing_record where id in (:ids)";
+
+	private static final String DELETE_ARCHIVED_SQL = "delete from borrowing_record where id in (:ids)";
+
+	private final Logger logger = LoggerFactory.getLogger(ArchivalService.class);
+
+	@Autowired
+	private BorrowingRecordRepository borrowingRecordRepository;
+
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${library.archive.returned-after-days:180}")
+	private int returnedAfterDays;
+
+	@Value("${library.archive.batch-size:1000}")
+	private int batchSize;
+
+	@Value("${library.archive.batch-pause:PT0.2S}")
+	private Duration batchPause;
+
+	@Value("${library.archive.max-batches:500}")
+	private int maxBatches;
+
+	@Autowired
+	private ShardService shardService;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	private TransactionTemplate transactionTemplate;
+
+	@PostConstruct
+	void initialize() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Runs the archival for the current day on the configured schedule
+	 */
+	@Scheduled(cron = "${library.archive.cron:0 0 3 * * *}")
+	public void runNightlyArchival() {
+		archiveReturnedLoans(LocalDate.now());
+	}
+
+	/**
+	 * Moves the loans returned more than the retention period before the given
+	 * date to the archive of their shard, on all shards in parallel
+	 *
+	 * @param asOf The date the retention period is counted back from
+	 * @return The summary of the run
+	 */
+	public ArchiveRunSummary archiveReturnedLoans(LocalDate asOf) {
+		long start = System.nanoTime();
+		LocalDate returnedBefore = asOf.minusDays(returnedAfterDays);
+		List<long[]> shards = shardService.fanOut(shard -> archiveShardLoans(returnedBefore));
+		long loansArchived = shards.stream().mapToLong(counts -> counts[0]).sum();
+		int batches = (int) shards.stream().mapToLong(counts -> counts[1]).sum();
+		if (loansArchived > 0) {
+			eventPublisher.publishEvent(new LoansRewrittenEvent("archive", loansArchived));
+		}
+
+		ArchiveRunSummary summary = new ArchiveRunSummary(returnedBefore, loansArchived, batches,
+				(System.nanoTime() - start) / 1_000_000);
+		logger.info("Archival of loans returned before {} moved {} loans in {} batches in {} ms", returnedBefore,
+				summary.loansArchived(), summary.batches(), summary.elapsedMillis());
+		return summary;
+	}
+
+	/**
+	 * Archives the returned loans of the current shard, in batches of at most the
+	 * batch size, up to the maximum number of batches
+	 *
+	 * @return The number of loans archived and of batches
+	 */
+	private long[] archiveShardLoans(LocalDate returnedBefore) {
+		long loansArchived = 0;
+		int batches = 0;
+
+		while (batches < maxBatches) {
+			List<Long> ids = borrowingRecordRepository.findArchivableIds(returnedBefore, PageRequest.of(0, batchSize));
+			if (ids.isEmpty()) {
+				break;
+			}
+			loansArchived += transactionTemplate.execute(status -> moveToArchive(ids));
+			batches++;
+			if (ids.size() < batchSize || !pause()) {
+				break;
+			}
+		}
+		return new long[] { loansArchived, batches };
+	}
+
+	private int moveToArchive(List<Long> ids) {
+		MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids);
+		jdbcTemplate.update(COPY_TO_ARCHIVE_SQL, parameters);
+		return jdbcTemplate.update(DELETE_ARCHIVED_SQL, parameters);
+	}
+
+	/**
+	 * Throttles the run between two batches
+	 *
+	 * @return false when the run was interrupted and should stop
+	 */
+	private boolean pause() {
+		if (batchPause.isZero() || batchPause.isNegative()) {
+			return true;
+		}
+		try {
+			Thread.sleep(batchPause.toMillis());
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}
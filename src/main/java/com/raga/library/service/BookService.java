@@ -1,11 +1,20 @@
 package com.raga.library.service;
 
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.raga.library.aspect.RecordedAsCatalogSearch;
+import com.raga.library.dto.ListQuery;
 import com.raga.library.entity.Book;
+import com.raga.library.event.BookChangedEvent;
+import com.raga.library.event.ChangeType;
 import com.raga.library.exception.ResourceNotFoundException;
 import com.raga.library.repository.BookRepository;
 
@@ -15,17 +24,26 @@ import com.raga.library.repository.BookRepository;
 @Service
 public class BookService {
 
+	public static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "title", "author", "publicationYear", "isbn");
+
 	@Autowired
 	private BookRepository bookRepository;
 
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
 	/**
 	 * Saves a Book
 	 * 
 	 * @param book to be saved
 	 * @return The saved book.
 	 */
+	@Transactional
 	public Book saveBook(Book book) {
-		return bookRepository.save(book);
+		ChangeType changeType = book.getId() == null ? ChangeType.CREATED : ChangeType.UPDATED;
+		Book savedBook = bookRepository.save(book);
+		eventPublisher.publishEvent(new BookChangedEvent(savedBook, changeType));
+		return savedBook;
 	}
 
 	/**
@@ -35,6 +53,7 @@ public class BookService {
 	 * @return The retrieved book.
 	 * @throws ResourceNotFoundException
 	 */
+	@Transactional(readOnly = true)
 	public Book retrieveBook(Long id) throws ResourceNotFoundException {
 		return bookRepository.findById(id)
 				.orElseThrow(() -> new ResourceNotFoundException("Book not found for this id :: " + id));
@@ -45,16 +64,60 @@ public class BookService {
 	 * 
 	 * @return The list of all books
 	 */
+	@Transactional(readOnly = true)
 	public List<Book> retrieveAllBooks() {
 		return bookRepository.findAll();
 	}
 
 	/**
-	 * Deletes a book by ID
+	 * Saves a batch of new books in one transaction
+	 * 
+	 * @param books The books to be saved
+	 * @return The number of saved books
+	 */
+	@Transactional
+	public int saveBooks(List<Book> books) {
+		List<Book> savedBooks = bookRepository.saveAll(books);
+		savedBooks.forEach(savedBook -> eventPublisher
+				.publishEvent(new BookChangedEvent(savedBook, ChangeType.CREATED)));
+		return savedBooks.size();
+	}
+
+	/**
+	 * Retrieves one page of books for the list view, recorded as a
+	 * CatalogSearchEvent
+	 * 
+	 * @param query The page, page size and sort order
+	 * @return The books of the page
+	 */
+	@Transactional(readOnly = true)
+	@RecordedAsCatalogSearch
+	public Slice<Book> retrieveBooks(ListQuery query) {
+		return bookRepository.findSliceBy(query.sortableBy(SORTABLE_PROPERTIES).toPageable());
+	}
+
+	/**
+	 * Retrieves the page of books following the given id, in id order
+	 * 
+	 * @param afterId Only books with a greater id are returned
+	 * @param size    The page size
+	 * @return The books of the page
+	 */
+	@Transactional(readOnly = true)
+	public List<Book> retrieveBooksAfter(long afterId, int size) {
+		return bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size));
+	}
+
+	/**
+	 * Deletes a book by ID. The deletion is only published when the book existed
 	 * 
 	 * @param id - ID of the book to be deleted
 	 */
+	@Transactional
 	public void deleteBook(Long id) {
-		bookRepository.deleteById(id);
+		bookRepository.findById(id).ifPresent(book -> {
+			bookRepository.delete(book);
+			eventPublisher.publishEvent(new BookChangedEvent(id, ChangeType.DELETED));
+		});
 	}
 }
@@ -1,28 +1,61 @@
 package com.raga.library.service;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.raga.library.aspect.RoutedByPatron;
+import com.raga.library.aspect.SerializedPerBook;
+import com.raga.library.dto.BookResponse;
+import com.raga.library.dto.ListQuery;
+import com.raga.library.dto.LoanCursor;
+import com.raga.library.dto.LoanHistoryEntry;
+import com.raga.library.dto.LoanHistoryPage;
+import com.raga.library.dto.LoanHistoryQuery;
+import com.raga.library.dto.LoanInclude;
+import com.raga.library.dto.LoanListResponse;
+import com.raga.library.dto.LoanResponse;
+import com.raga.library.dto.LoanStatus;
+import com.raga.library.dto.PatronResponse;
 import com.raga.library.entity.Book;
 import com.raga.library.entity.BorrowingRecord;
 import com.raga.library.entity.Patron;
+import com.raga.library.event.CirculationAction;
+import com.raga.library.event.CirculationEvent;
+import com.raga.library.exception.CirculationConflictException;
+import com.raga.library.exception.CirculationNotFoundException;
+import com.raga.library.exception.ResourceNotFoundException;
+import com.raga.library.jfr.BorrowEvent;
+import com.raga.library.jfr.OperationOutcome;
+import com.raga.library.jfr.ReturnEvent;
+import com.raga.library.repository.ArchivedBorrowingRecordRepository;
 import com.raga.library.repository.BookRepository;
 import com.raga.library.repository.BorrowingRecordRepository;
 import com.raga.library.repository.PatronRepository;
 
-import jakarta.persistence.EntityNotFoundException;
-
 /**
  * Service class responsible for managing operations related to Borrowing and
- * Returns of a Book.
+ * Returns of a Book. Loans are stored on the shard of their patron, so the
+ * operations on one patron's loans run on that shard, and the lists of all
+ * loans or of a book's loans are merged from every shard.
  */
 @Service
 public class BorrowingRecordService {
 
+	public static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "borrowDate", "dueDate", "returnDate");
+
 	@Autowired
 	private PatronRepository patronRepository;
 
@@ -32,72 +65,120 @@ public class BorrowingRecordService {
 	@Autowired
 	private BorrowingRecordRepository borrowingRecordRepository;
 
+	@Autowired
+	private ArchivedBorrowingRecordRepository archivedBorrowingRecordRepository;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private ShardService shardService;
+
+	private static final Comparator<LoanHistoryEntry> LOAN_HISTORY_ORDER = Comparator
+			.comparing(LoanHistoryEntry::borrowDate).thenComparing(LoanHistoryEntry::id).reversed();
+
+	@Value("${library.loan.period-days:14}")
+	private int loanPeriodDays;
+
 	/**
-	 * Allows a Patron to borrow a book
+	 * Allows a Patron to borrow a book. The book and the patron are read once, and
+	 * the returned record carries both for the confirmation page. Each borrow is
+	 * recorded as a BorrowEvent for the flight recorder
 	 * 
 	 * @param bookId   The ID of the book to be borrowed
 	 * @param patronId The ID of the patron borrowing the book
-	 * @return The borrowing record after the book is borrowed
-	 * @throws EntityNotFoundException If the book or patron Id is not found
-	 * @throws IllegalStateException If the patron already has an active borrowing record for the book
+	 * @return The borrowing record after the book is borrowed, with its book and patron
+	 * @throws CirculationNotFoundException If the book or patron Id is not found
+	 * @throws CirculationConflictException If the patron already has an active borrowing record for the book
 	 */
 	@Transactional
+	@SerializedPerBook
+	@RoutedByPatron
 	public BorrowingRecord borrowBook(Long bookId, Long patronId) {
+		BorrowEvent event = new BorrowEvent();
+		event.begin();
+		try {
+			BorrowingRecord borrowingRecord = borrow(bookId, patronId);
+			event.complete(bookId, patronId, OperationOutcome.SUCCEEDED);
+			return borrowingRecord;
+		} catch (RuntimeException e) {
+			event.complete(bookId, patronId, OperationOutcome.of(e));
+			throw e;
+		}
+	}
 
+	private BorrowingRecord borrow(Long bookId, Long patronId) {
 		Book book = bookRepository.findById(bookId)
-				.orElseThrow(() -> new EntityNotFoundException("Book not found with id : " + bookId));
+				.orElseThrow(() -> new CirculationNotFoundException("Book not found with id : " + bookId));
 		Patron patron = patronRepository.findById(patronId)
-				.orElseThrow(() -> new EntityNotFoundException("Patron not found with id : " + patronId));
+				.orElseThrow(() -> new CirculationNotFoundException("Patron not found with id : " + patronId));
 
-		// Check if there is any borrowing record and is returned or not for the given
-		// book Id and and Patron Id
-		List<BorrowingRecord> allBorrowingRecords = borrowingRecordRepository.findByBookIdAndPatronId(bookId, patronId);
-		boolean hasActiveBorrowingRecords = allBorrowingRecords.stream()
-				.anyMatch(borrowingRecord -> borrowingRecord.getReturnDate() == null);
-
-		if (hasActiveBorrowingRecords) { 
+		// Check if there is a borrowing record of the book by the patron that is not
+		// returned yet, without loading their past records
+		if (borrowingRecordRepository.existsByBookIdAndPatronIdAndReturnDateIsNull(bookId, patronId)) { 
 			// When the patron already has an active borrowing record
 			
-			throw new IllegalStateException("The patron already has an active borrowing record for the book!");
+			throw new CirculationConflictException("The patron already has an active borrowing record for the book!");
 		}
 
-		// Save a new borrowing record
-		BorrowingRecord borrowingRecord = new BorrowingRecord(book, patron, LocalDate.now(), null);
-		return borrowingRecordRepository.save(borrowingRecord);
+		// Save a new borrowing record, due back after the loan period
+		LocalDate borrowDate = LocalDate.now();
+		BorrowingRecord borrowingRecord = new BorrowingRecord(book, patron, borrowDate, null);
+		borrowingRecord.setDueDate(borrowDate.plusDays(loanPeriodDays));
+		BorrowingRecord savedBorrowingRecord = borrowingRecordRepository.save(borrowingRecord);
+		eventPublisher.publishEvent(new CirculationEvent(savedBorrowingRecord, CirculationAction.BORROWED));
+		return savedBorrowingRecord;
 	}
 
 	/**
-	 * Allows a Patron to return a book
+	 * Allows a Patron to return a book. The active borrowing record is read with
+	 * its book and patron in a single query, and the returned record carries both
+	 * for the confirmation page. Each return is recorded as a ReturnEvent for the
+	 * flight recorder
 	 * 
 	 * @param bookId   The ID of the book to be returned
 	 * @param patronId The ID of the patron returning the book
-	 * @return The borrowing record after the book is borrowed
-	 * @throws EntityNotFoundException If No active borrowing record found for Book and Patron
-	 * @throws IllegalStateException If More than one active borrowing record found for Book and Patron
+	 * @return The borrowing record after the book is returned, with its book and patron
+	 * @throws CirculationNotFoundException If No active borrowing record found for Book and Patron
+	 * @throws CirculationConflictException If More than one active borrowing record found for Book and Patron
 	 */
 	@Transactional
+	@SerializedPerBook
+	@RoutedByPatron
 	public BorrowingRecord returnBook(Long bookId, Long patronId) {
+		ReturnEvent event = new ReturnEvent();
+		event.begin();
+		try {
+			BorrowingRecord borrowingRecord = giveBack(bookId, patronId);
+			event.complete(bookId, patronId, OperationOutcome.SUCCEEDED);
+			return borrowingRecord;
+		} catch (RuntimeException e) {
+			event.complete(bookId, patronId, OperationOutcome.of(e));
+			throw e;
+		}
+	}
 
-		// Find all borrowing records for the given book Id and patron Id
-		List<BorrowingRecord> allBorrowingRecords = borrowingRecordRepository.findByBookIdAndPatronId(bookId, patronId);
-
-		// If there are any active borrowing records and is not returned
-		List<BorrowingRecord> activeBorrowingRecords = allBorrowingRecords.stream()
-				.filter(borrowingRecord -> borrowingRecord.getReturnDate() == null).toList();
+	private BorrowingRecord giveBack(Long bookId, Long patronId) {
+		// Find the active borrowing records for the given book Id and patron Id, that
+		// are not returned yet
+		List<BorrowingRecord> activeBorrowingRecords = borrowingRecordRepository
+				.findActiveWithBookAndPatron(bookId, patronId);
 
 		if (activeBorrowingRecords.size() > 1) {
 			// when more than one active borrowing record is found
-			throw new IllegalStateException("More than one active borrowing record found for Book and Patron!");
+			throw new CirculationConflictException("More than one active borrowing record found for Book and Patron!");
 		}
 
 		if (!activeBorrowingRecords.isEmpty()) {
 			// Update the return date and save
 			BorrowingRecord borrowingRecord = activeBorrowingRecords.get(0);
 			borrowingRecord.setReturnDate(LocalDate.now());
-			return borrowingRecordRepository.save(borrowingRecord);
+			BorrowingRecord savedBorrowingRecord = borrowingRecordRepository.save(borrowingRecord);
+			eventPublisher.publishEvent(new CirculationEvent(savedBorrowingRecord, CirculationAction.RETURNED));
+			return savedBorrowingRecord;
 		} else {
 			// when no active borrowing record is found
-			throw new EntityNotFoundException("No active borrowing record found for Book and Patron!");
+			throw new CirculationNotFoundException("No active borrowing record found for Book and Patron!");
 		}
 	}
 	
@@ -106,8 +187,173 @@ public class BorrowingRecordService {
 	 * 
 	 * @return The list of all books   
 	 */
+	@Transactional(readOnly = true)
 	public List<BorrowingRecord> retrieveAllBorrowingRecord() {
-		return borrowingRecordRepository.findAll();  
+		return shardService.fanOutMerged(shard -> borrowingRecordRepository.findAll(),
+				Comparator.comparing(BorrowingRecord::getId), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Retrieves all loans referencing their book and patron by id, side-loading
+	 * each referenced book or patron once when requested
+	 * 
+	 * @param includes The referenced entities to side-load
+	 * @return The loans and the requested books and patrons
+	 */
+	@Transactional(readOnly = true)
+	public LoanListResponse retrieveLoanList(Set<LoanInclude> includes) {
+		List<LoanResponse> loans = shardService.fanOutMerged(shard -> borrowingRecordRepository.findAllLoanResponses(),
+				Comparator.comparing(LoanResponse::id), Integer.MAX_VALUE);
+		List<BookResponse> books = null;
+		List<PatronResponse> patrons = null;
+		if (includes.contains(LoanInclude.BOOK)) {
+			Set<Long> bookIds = loans.stream().map(LoanResponse::bookId)
+					.collect(Collectors.toCollection(TreeSet::new));
+			books = bookRepository.findAllById(bookIds).stream().map(BookResponse::from)
+					.sorted(Comparator.comparing(BookResponse::id)).toList();
+		}
+		if (includes.contains(LoanInclude.PATRON)) {
+			Set<Long> patronIds = loans.stream().map(LoanResponse::patronId)
+					.collect(Collectors.toCollection(TreeSet::new));
+			patrons = shardService.fanOut(shard -> patronRepository.findAllById(patronIds)).stream()
+					.flatMap(List::stream).map(PatronResponse::from)
+					.sorted(Comparator.comparing(PatronResponse::id)).toList();
+		}
+		return new LoanListResponse(loans, books, patrons);
+	}
+
+	/**
+	 * Retrieves one page of borrowing records with their book and patron for the
+	 * list view
+	 * 
+	 * @param query The page, page size and sort order
+	 * @return The borrowing records of the page
+	 */
+	@Transactional(readOnly = true)
+	public Slice<BorrowingRecord> retrieveBorrowingRecords(ListQuery query) {
+		return shardService.fanOutSlice(query.sortableBy(SORTABLE_PROPERTIES), borrowingRecordRepository::findSliceBy);
+	}
+
+	/**
+	 * Retrieves the page of borrowing records with their book and patron
+	 * following the given id, in id order
+	 * 
+	 * @param afterId Only records with a greater id are returned
+	 * @param size    The page size
+	 * @return The borrowing records of the page
+	 */
+	@Transactional(readOnly = true)
+	public List<BorrowingRecord> retrieveBorrowingRecordsAfter(long afterId, int size) {
+		return shardService.fanOutMerged(
+				shard -> borrowingRecordRepository.findWithBookAndPatronAfter(afterId, PageRequest.of(0, size)),
+				Comparator.comparing(BorrowingRecord::getId), size);
+	}
+
+	/**
+	 * Retrieves the page of loans following the given id, in id order
+	 * 
+	 * @param afterId Only loans with a greater id are returned
+	 * @param size    The page size
+	 * @return The loans of the page
+	 */
+	@Transactional(readOnly = true)
+	public List<LoanResponse> retrieveLoansAfter(long afterId, int size) {
+		return shardService.fanOutMerged(
+				shard -> borrowingRecordRepository.findLoanResponsesAfter(afterId, PageRequest.of(0, size)),
+				Comparator.comparing(LoanResponse::id), size);
+	}
+
+	/**
+	 * Retrieves one page of a patron's loan history across the borrowing records
+	 * and the archive
+	 * 
+	 * @param patronId The ID of the patron
+	 * @param query    The filters and keyset position of the page
+	 * @return The page of loans, most recent first
+	 * @throws ResourceNotFoundException If the patron Id is not found
+	 */
+	@Transactional(readOnly = true)
+	@RoutedByPatron
+	public LoanHistoryPage retrievePatronLoanHistory(Long patronId, LoanHistoryQuery query)
+			throws ResourceNotFoundException {
+		LoanCursor cursor = query.cursor();
+		LocalDate afterDate = cursor != null ? cursor.borrowDate() : null;
+		Long afterId = cursor != null ? cursor.id() : null;
+		PageRequest pageRequest = PageRequest.of(0, query.size() + 1);
+		List<LoanHistoryEntry> loans = borrowingRecordRepository
+				.findPatronLoanHistory(patronId, query.status() != LoanStatus.RETURNED,
+						query.status() != LoanStatus.ACTIVE, query.from(), query.to(), afterDate, afterId, pageRequest)
+				.stream().map(LoanHistoryEntry::from).toList();
+		if (query.status() != LoanStatus.ACTIVE) {
+			loans = mergeLoanHistory(loans, archivedBorrowingRecordRepository
+					.findPatronLoanHistory(patronId, query.from(), query.to(), afterDate, afterId, pageRequest)
+					.stream().map(LoanHistoryEntry::from).toList(), query.size() + 1);
+		}
+		if (loans.isEmpty() && !patronRepository.existsById(patronId)) {
+			throw new ResourceNotFoundException("Patron not found for this id :: " + patronId);
+		}
+		return toLoanHistoryPage(loans, query.size());
+	}
+
+	/**
+	 * Retrieves one page of a book's loan history across the borrowing records and
+	 * the archive of every shard
+	 * 
+	 * @param bookId The ID of the book
+	 * @param query  The filters and keyset position of the page
+	 * @return The page of loans, most recent first
+	 * @throws ResourceNotFoundException If the book Id is not found
+	 */
+	@Transactional(readOnly = true)
+	public LoanHistoryPage retrieveBookLoanHistory(Long bookId, LoanHistoryQuery query)
+			throws ResourceNotFoundException {
+		LoanCursor cursor = query.cursor();
+		LocalDate afterDate = cursor != null ? cursor.borrowDate() : null;
+		Long afterId = cursor != null ? cursor.id() : null;
+		PageRequest pageRequest = PageRequest.of(0, query.size() + 1);
+		List<LoanHistoryEntry> loans = shardService.fanOutMerged(shard -> {
+			List<LoanHistoryEntry> shardLoans = borrowingRecordRepository
+					.findBookLoanHistory(bookId, query.status() != LoanStatus.RETURNED,
+							query.status() != LoanStatus.ACTIVE, query.from(), query.to(), afterDate, afterId,
+							pageRequest)
+					.stream().map(LoanHistoryEntry::from).toList();
+			if (query.status() != LoanStatus.ACTIVE) {
+				shardLoans = mergeLoanHistory(shardLoans, archivedBorrowingRecordRepository
+						.findBookLoanHistory(bookId, query.from(), query.to(), afterDate, afterId, pageRequest)
+						.stream().map(LoanHistoryEntry::from).toList(), query.size() + 1);
+			}
+			return shardLoans;
+		}, LOAN_HISTORY_ORDER, query.size() + 1);
+		if (loans.isEmpty() && !bookRepository.existsById(bookId)) {
+			throw new ResourceNotFoundException("Book not found for this id :: " + bookId);
+		}
+		return toLoanHistoryPage(loans, query.size());
+	}
+
+	/**
+	 * Merges the pages read from the borrowing records and the archive, both most
+	 * recent first, into one page of at most the given number of loans
+	 */
+	private static List<LoanHistoryEntry> mergeLoanHistory(List<LoanHistoryEntry> hot, List<LoanHistoryEntry> archived,
+			int limit) {
+		if (archived.isEmpty()) {
+			return hot;
+		}
+		return Stream.concat(hot.stream(), archived.stream()).sorted(LOAN_HISTORY_ORDER).limit(limit).toList();
+	}
+
+	/**
+	 * Converts the loans of a page, fetched with one extra row to detect whether a
+	 * next page exists
+	 */
+	private static LoanHistoryPage toLoanHistoryPage(List<LoanHistoryEntry> loans, int size) {
+		List<LoanHistoryEntry> entries = loans.stream().limit(size).toList();
+		String nextCursor = null;
+		if (loans.size() > size) {
+			LoanHistoryEntry last = entries.get(entries.size() - 1);
+			nextCursor = new LoanCursor(last.borrowDate(), last.id()).encode();
+		}
+		return new LoanHistoryPage(entries, nextCursor);
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,128 @@
+package com.raga.library.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.raga.library.entity.Book;
+import com.raga.library.event.BookChangedEvent;
+import com.raga.library.event.ChangeType;
+import com.raga.library.repository.BookRepository;
+
+/**
+ * Service class copying the books of the catalog to every patron shard, so that
+ * the loans on a shard can reference and join their books locally. A book is
+ * copied once its change is committed on the catalog, and all books are copied
+ * again at startup, which repairs copies missed while a shard was unreachable.
+ * The copy of a deleted book is kept on the shards holding loans of it.
+ * Without sharding the catalog is the only database and nothing is copied
+ */
+@Service
+public class CatalogReplicationService {
+
+	private static final String UPSERT_BOOK_SQL = "insert into book (id, title, author, publication_year, isbn, version) "
+			+ "values (?, ?, ?, ?, ?, ?) on duplicate key update title = values(title), author = values(author), "
+			+ "publication_year = values(publication_year), isbn = values(isbn), version = values(version)";
+
+	private static final String DELETE_BOOK_SQL = "delete from book where id = ?";
+
+	private final Logger logger = LoggerFactory.getLogger(CatalogReplicationService.class);
+
+	@Autowired
+	private ShardService shardService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ActiveLoanProjectionService activeLoanProjectionService;
+
+	@Value("${library.sharding.catalog-batch-size:1000}")
+	private int batchSize;
+
+	/**
+	 * Copies all books to every shard at startup, before the read models of the
+	 * shards are populated from them
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void replicateCatalog() {
+		if (!shardService.isSharded()) {
+			return;
+		}
+		long books = 0;
+		long afterId = 0;
+		while (true) {
+			List<Book> page = bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, batchSize));
+			if (page.isEmpty()) {
+				break;
+			}
+			shardService.fanOut(shard -> jdbcTemplate.batchUpdate(UPSERT_BOOK_SQL, page, batchSize,
+					CatalogReplicationService::setBook));
+			books += page.size();
+			afterId = page.get(page.size() - 1).getId();
+		}
+		logger.info("Catalog of {} books copied to {} shards", books, shardService.shardCount());
+	}
+
+	/**
+	 * Copies a created or updated book to every shard, or deletes its copies,
+	 * and updates the active loans of the book on each shard
+	 *
+	 * @param event The book change, once committed on the catalog
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onBookChanged(BookChangedEvent event) {
+		if (!shardService.isSharded()) {
+			return;
+		}
+		if (event.changeType() == ChangeType.DELETED) {
+			shardService.fanOut(shard -> {
+				activeLoanProjectionService.onBookChanged(event);
+				return deleteCopy(shard, event.bookId());
+			});
+			return;
+		}
+		bookRepository.findById(event.bookId()).ifPresent(book -> shardService.fanOut(shard -> {
+			jdbcTemplate.update(UPSERT_BOOK_SQL, ps -> setBook(ps, book));
+			activeLoanProjectionService.onBookChanged(event);
+			return null;
+		}));
+	}
+
+	private boolean deleteCopy(int shard, Long bookId) {
+		try {
+			return jdbcTemplate.update(DELETE_BOOK_SQL, bookId) > 0;
+		} catch (DataIntegrityViolationException e) {
+			logger.info("Copy of deleted book {} kept on shard {}, which holds loans of it", bookId, shard);
+			return false;
+		}
+	}
+
+	private static void setBook(PreparedStatement ps, Book book) throws SQLException {
+		ps.setLong(1, book.getId());
+		ps.setString(2, book.getTitle());
+		ps.setString(3, book.getAuthor());
+		ps.setObject(4, book.getPublicationYear());
+		ps.setString(5, book.getIsbn());
+		ps.setLong(6, book.getVersion());
+	}
+}
@@ -0,0 +1,312 @@
+package com.raga.library.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.raga.library.entity.BorrowingRecord;
+import com.raga.library.entity.ChangeLogEntry;
+import com.raga.library.event.BookChangedEvent;
+import com.raga.library.event.ChangeType;
+import com.raga.library.event.ChangedEntityType;
+import com.raga.library.event.CirculationEvent;
+import com.raga.library.event.PatronChangedEvent;
+import com.raga.library.event.RemoteChangeEvent;
+import com.raga.library.repository.ChangeLogRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Service class keeping the caches of the nodes of a deployment coherent
+ * through a change feed in the database. Every update or deletion of a book or
+ * a patron, and every loan, which changes the loan history of its book and
+ * patron, is appended to the change_log table in the transaction making the
+ * change. Each node polls the feed with a range scan of the primary key from
+ * the last sequence number it has read, and publishes a RemoteChangeEvent for
+ * each change made by another node, so a cached copy is stale for at most the
+ * poll interval plus the time of a poll. Creations are not appended, since a
+ * new book or patron cannot be cached anywhere yet.
+ *
+ * Auto-increment ids are allocated before commit, so an entry can become
+ * visible after entries with greater ids. The poll therefore applies every
+ * entry it reads, but only moves its sequence number past a gap once the gap
+ * is filled, or once it is older than the gap timeout, after which it is taken
+ * for a rolled back transaction.
+ *
+ * With patron shards, each change is appended to the database of its
+ * transaction, so the catalog and every shard have a feed of their own, and
+ * each node keeps a sequence number per feed. A shard allocates the ids
+ * congruent to its shard number, so consecutive entries of a shard's feed are
+ * the number of shards apart, and only a missing id of that sequence is a gap.
+ */
+@Service
+public class ChangeFeedService {
+
+	private final Logger logger = LoggerFactory.getLogger(ChangeFeedService.class);
+
+	@Autowired
+	private ChangeLogRepository changeLogRepository;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ShardService shardService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${library.node-id:${random.uuid}}")
+	private String nodeId;
+
+	@Value("${library.change-feed.batch-size:500}")
+	private int batchSize;
+
+	@Value("${library.change-feed.gap-timeout:PT10S}")
+	private Duration gapTimeout;
+
+	@Value("${library.change-feed.retention:P1D}")
+	private Duration retention;
+
+	private LongSupplier nanoClock = System::nanoTime;
+
+	private final ConcurrentHashMap<String, Timer> lagTimers = new ConcurrentHashMap<>();
+
+	private final List<Feed> feeds = new ArrayList<>();
+
+	private TransactionTemplate transactionTemplate;
+
+	private volatile long lastPollAt;
+
+	@PostConstruct
+	void initialize() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		lastPollAt = nanoClock.getAsLong();
+		feeds.add(new Feed(null, "catalog", 1));
+		if (shardService.isSharded()) {
+			for (int shard = 0; shard < shardService.shardCount(); shard++) {
+				feeds.add(new Feed(shard, "shard-" + shard, shardService.shardCount()));
+			}
+		}
+		for (Feed feed : feeds) {
+			Gauge.builder("library.change.feed.position", feed, Feed::position).tag("feed", feed.name)
+					.description("Sequence number of the change feed this node has read up to")
+					.register(meterRegistry);
+		}
+		Gauge.builder("library.change.feed.poll.age", this, ChangeFeedService::secondsSinceLastPoll)
+				.description("Seconds since this node last read the change feed").baseUnit("seconds")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Appends an updated or deleted book to the feed
+	 *
+	 * @param event The book change, before its transaction commits
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+	public void onBookChanged(BookChangedEvent event) {
+		append(ChangedEntityType.BOOK, event.bookId(), event.changeType());
+	}
+
+	/**
+	 * Appends an updated or deleted patron to the feed
+	 *
+	 * @param event The patron change, before its transaction commits
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+	public void onPatronChanged(PatronChangedEvent event) {
+		append(ChangedEntityType.PATRON, event.patronId(), event.changeType());
+	}
+
+	/**
+	 * Appends the book and the patron of a borrowed or returned loan to the feed,
+	 * since their loan history changed
+	 *
+	 * @param event The circulation operation, before its transaction commits
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+	public void onCirculation(CirculationEvent event) {
+		BorrowingRecord borrowingRecord = event.borrowingRecord();
+		append(ChangedEntityType.BOOK, borrowingRecord.getBook().getId(), ChangeType.UPDATED);
+		append(ChangedEntityType.PATRON, borrowingRecord.getPatron().getId(), ChangeType.UPDATED);
+	}
+
+	/**
+	 * Reads the changes appended to each feed since the last poll and publishes
+	 * those made by other nodes. The first poll starts from the end of the feeds,
+	 * since the caches of a starting node are empty
+	 *
+	 * @return The number of changes made by other nodes
+	 */
+	@Scheduled(fixedDelayString = "${library.change-feed.poll-interval:PT1S}")
+	public int pollChanges() {
+		int remoteChanges = 0;
+		for (Feed feed : feeds) {
+			remoteChanges += shardService.callOnShard(feed.shard, () -> poll(feed));
+		}
+		lastPollAt = nanoClock.getAsLong();
+		return remoteChanges;
+	}
+
+	/**
+	 * Deletes the entries older than the retention period from each feed
+	 */
+	@Scheduled(cron = "${library.change-feed.retention-cron:0 45 4 * * *}")
+	public void purgeChanges() {
+		LocalDateTime before = LocalDateTime.now(ZoneOffset.UTC).minus(retention);
+		for (Feed feed : feeds) {
+			int deleted = shardService.callOnShard(feed.shard,
+					() -> transactionTemplate.execute(status -> changeLogRepository.deleteByChangedAtBefore(before)));
+			logger.info("Change feed entries of the {} older than {} deleted : {}", feed.name, retention, deleted);
+		}
+	}
+
+	/**
+	 * @return The sequence number of the catalog change feed this node has read up
+	 *         to
+	 */
+	public long position() {
+		return feeds.get(0).position;
+	}
+
+	/**
+	 * @return The name of this node in the change feed
+	 */
+	public String nodeId() {
+		return nodeId;
+	}
+
+	private void append(ChangedEntityType entityType, Long entityId, ChangeType changeType) {
+		if (changeType == ChangeType.CREATED) {
+			return;
+		}
+		changeLogRepository.save(new ChangeLogEntry(null, entityType, entityId, changeType, nodeId,
+				LocalDateTime.now(ZoneOffset.UTC)));
+	}
+
+	private int poll(Feed feed) {
+		if (feed.position < 0) {
+			feed.position = changeLogRepository.findLastId();
+			return 0;
+		}
+		int remoteChanges = 0;
+		long after = feed.position;
+		List<ChangeLogEntry> entries;
+		do {
+			entries = changeLogRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, batchSize));
+			for (ChangeLogEntry entry : entries) {
+				if (feed.appliedAfterPosition.add(entry.getId()) && !nodeId.equals(entry.getOriginNode())) {
+					apply(entry);
+					remoteChanges++;
+				}
+				after = entry.getId();
+			}
+		} while (entries.size() == batchSize);
+		advancePosition(feed);
+		return remoteChanges;
+	}
+
+	private void apply(ChangeLogEntry entry) {
+		eventPublisher.publishEvent(new RemoteChangeEvent(entry.getEntityType(), entry.getEntityId(),
+				entry.getChangeType()));
+		if (entry.getChangedAt() != null) {
+			Duration lag = Duration.between(entry.getChangedAt(), LocalDateTime.now(ZoneOffset.UTC));
+			lagTimers.computeIfAbsent(entry.getOriginNode(), this::lagTimer)
+					.record(lag.isNegative() ? Duration.ZERO : lag);
+		}
+	}
+
+	private void advancePosition(Feed feed) {
+		NavigableSet<Long> applied = feed.appliedAfterPosition;
+		long next = feed.position;
+		while (true) {
+			while (!applied.isEmpty() && applied.first() == next + feed.idStep) {
+				next = applied.pollFirst();
+			}
+			if (applied.isEmpty()) {
+				feed.gapAfter = -1;
+				break;
+			}
+			long now = nanoClock.getAsLong();
+			if (feed.gapAfter != next) {
+				feed.gapAfter = next;
+				feed.gapSince = now;
+				break;
+			}
+			if (now - feed.gapSince < gapTimeout.toNanos()) {
+				break;
+			}
+			logger.info("Change feed entries {} to {} of the {} skipped, never committed", next + feed.idStep,
+					applied.first() - feed.idStep, feed.name);
+			next = applied.first() - feed.idStep;
+		}
+		feed.position = next;
+	}
+
+	private Timer lagTimer(String originNode) {
+		return Timer.builder("library.change.feed.lag").tag("origin", String.valueOf(originNode))
+				.description("Time from a change on another node to its invalidation on this node")
+				.register(meterRegistry);
+	}
+
+	private double secondsSinceLastPoll() {
+		return (double) (nanoClock.getAsLong() - lastPollAt) / TimeUnit.SECONDS.toNanos(1);
+	}
+
+	/**
+	 * The change feed of the catalog or of one shard, and the sequence number this
+	 * node has read it up to
+	 */
+	private static class Feed {
+
+		private final Integer shard;
+
+		private final String name;
+
+		private final int idStep;
+
+		private final NavigableSet<Long> appliedAfterPosition = new ConcurrentSkipListSet<>();
+
+		private volatile long position = -1;
+
+		private long gapAfter = -1;
+
+		private long gapSince;
+
+		Feed(Integer shard, String name, int idStep) {
+			this.shard = shard;
+			this.name = name;
+			this.idStep = idStep;
+		}
+
+		long position() {
+			return position;
+		}
+	}
+}
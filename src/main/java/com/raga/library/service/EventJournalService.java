@@ -0,0 +1,223 @@
+package com.raga.library.service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.raga.library.entity.Book;
+import com.raga.library.entity.BorrowingRecord;
+import com.raga.library.entity.Patron;
+import com.raga.library.event.BookChangedEvent;
+import com.raga.library.event.CirculationAction;
+import com.raga.library.event.CirculationEvent;
+import com.raga.library.event.PatronChangedEvent;
+import com.raga.library.journal.EventJournal;
+import com.raga.library.journal.JournalEventType;
+import com.raga.library.journal.JournalRecord;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Service class responsible for recording every committed book change, patron
+ * change, borrow and return in the append-only event journal, for audit and
+ * replay. The changes of a transaction are collected as they are published and
+ * written to the journal just before the transaction commits, which then waits
+ * for the group fsync covering them. A committed change is therefore always in
+ * the journal, and a transaction whose changes cannot be journaled is rolled
+ * back. The transaction is flushed before its changes are written, but a commit
+ * failing after the fsync still leaves the records of changes that were not
+ * committed.
+ */
+@Service
+public class EventJournalService {
+
+	public static final int MAXIMUM_READ_SIZE = 1000;
+
+	private final Logger logger = LoggerFactory.getLogger(EventJournalService.class);
+
+	@Value("${library.journal.directory:data/journal}")
+	private String directory;
+
+	@Value("${library.journal.segment-bytes:67108864}")
+	private int segmentBytes;
+
+	@Value("${library.journal.index-interval-bytes:4096}")
+	private int indexIntervalBytes;
+
+	@Value("${library.journal.retention:P90D}")
+	private Duration retention;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private EventJournal journal;
+
+	@PostConstruct
+	void initialize() {
+		journal = new EventJournal(Path.of(directory), segmentBytes, indexIntervalBytes);
+		logger.info("Event journal opened in {} at offset {}", Path.of(directory).toAbsolutePath(),
+				journal.nextOffset());
+	}
+
+	@PreDestroy
+	void shutdown() {
+		journal.close();
+	}
+
+	/**
+	 * Records a book change with the fields of the saved book
+	 * 
+	 * @param event The book change
+	 */
+	@EventListener
+	public void onBookChanged(BookChangedEvent event) {
+		record(new PendingRecord(JournalEventType.ofBook(event.changeType()), null, event.bookId(), null, null,
+				fieldsOf(event.book())));
+	}
+
+	/**
+	 * Records a patron change with the fields of the saved patron
+	 * 
+	 * @param event The patron change
+	 */
+	@EventListener
+	public void onPatronChanged(PatronChangedEvent event) {
+		record(new PendingRecord(JournalEventType.ofPatron(event.changeType()), null, null, event.patronId(), null,
+				fieldsOf(event.patron())));
+	}
+
+	/**
+	 * Records a borrow or return
+	 * 
+	 * @param event The circulation operation
+	 */
+	@EventListener
+	public void onCirculation(CirculationEvent event) {
+		BorrowingRecord borrowingRecord = event.borrowingRecord();
+		record(new PendingRecord(JournalEventType.ofCirculation(event.action()), borrowingRecord.getId(),
+				borrowingRecord.getBook().getId(), borrowingRecord.getPatron().getId(),
+				event.action() == CirculationAction.BORROWED ? borrowingRecord.getBorrowDate()
+						: borrowingRecord.getReturnDate(),
+				Map.of()));
+	}
+
+	/**
+	 * Reads the journal from the given offset on, oldest first
+	 * 
+	 * @param fromOffset The offset of the first record to return
+	 * @param limit      The maximum number of records to return
+	 * @return The journal records
+	 */
+	public List<JournalRecord> readJournal(long fromOffset, int limit) {
+		return journal.read(fromOffset, Math.min(Math.max(limit, 1), MAXIMUM_READ_SIZE));
+	}
+
+	/**
+	 * Deletes the journal segments that only hold records older than the retention
+	 * period
+	 */
+	@Scheduled(cron = "${library.journal.retention-cron:0 15 4 * * *}")
+	public void applyRetention() {
+		int deleted = journal.deleteSegmentsBefore(Instant.now().minus(retention));
+		if (deleted > 0) {
+			logger.info("Event journal retention deleted {} segments, first retained offset is {}", deleted,
+					journal.firstOffset());
+		}
+	}
+
+	/**
+	 * Adds the record to the records of the current transaction, or appends it
+	 * right away outside of a transaction
+	 */
+	private void record(PendingRecord record) {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()
+				|| !TransactionSynchronizationManager.isSynchronizationActive()) {
+			journal.append(record.type(), record.loanId(), record.bookId(), record.patronId(), record.date(),
+					record.fields());
+			return;
+		}
+		TransactionRecords records = (TransactionRecords) TransactionSynchronizationManager.getResource(this);
+		if (records == null) {
+			records = new TransactionRecords();
+			TransactionSynchronizationManager.bindResource(this, records);
+			TransactionSynchronizationManager.registerSynchronization(records);
+		}
+		records.pending.add(record);
+	}
+
+	private static Map<String, String> fieldsOf(Book book) {
+		Map<String, String> fields = new LinkedHashMap<>();
+		if (book != null) {
+			fields.put("title", book.getTitle());
+			fields.put("author", book.getAuthor());
+			fields.put("publicationYear", Objects.toString(book.getPublicationYear(), null));
+			fields.put("isbn", book.getIsbn());
+		}
+		return fields;
+	}
+
+	private static Map<String, String> fieldsOf(Patron patron) {
+		Map<String, String> fields = new LinkedHashMap<>();
+		if (patron != null) {
+			fields.put("name", patron.getName());
+			fields.put("contactNumber", patron.getContactNumber());
+			fields.put("category", Objects.toString(patron.getCategory(), null));
+		}
+		return fields;
+	}
+
+	/**
+	 * A change waiting for its transaction to commit, with the fields captured
+	 * when it was published
+	 */
+	private record PendingRecord(JournalEventType type, Long loanId, Long bookId, Long patronId, LocalDate date,
+			Map<String, String> fields) {
+	}
+
+	/**
+	 * The changes of one transaction, written to the journal before it commits
+	 * with a single wait for their fsync
+	 */
+	private class TransactionRecords implements TransactionSynchronization {
+
+		private final List<PendingRecord> pending = new ArrayList<>();
+
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			// Failures of the pending updates, such as version conflicts, roll back
+			// before their changes are journaled
+			entityManager.flush();
+			long lastOffset = -1;
+			for (PendingRecord record : pending) {
+				lastOffset = journal.write(record.type(), record.loanId(), record.bookId(), record.patronId(),
+						record.date(), record.fields());
+			}
+			if (lastOffset >= 0) {
+				journal.awaitDurable(lastOffset);
+			}
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(EventJournalService.this);
+		}
+	}
+}
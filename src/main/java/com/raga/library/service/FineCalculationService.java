@@ -0,0 +1,234 @@
+package com.raga.library.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.raga.library.entity.PatronCategory;
+import com.raga.library.event.LoansRewrittenEvent;
+import com.raga.library.fine.FinePolicy;
+import com.raga.library.fine.FineRunSummary;
+import com.raga.library.fine.LoanFineCandidate;
+import com.raga.library.repository.BorrowingRecordRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Service class responsible for the nightly fine accrual of open and recently
+ * returned loans. Loans are read in id-ordered pages, each page is assessed in
+ * parallel on a dedicated fork/join pool and the changed fines are written back
+ * with batched updates. A fine is always recomputed from the loan dates, so
+ * running the calculation again for the same day leaves the table unchanged.
+ * The patron shards are processed in parallel, each reading its own loans.
+ * A run that changed fines publishes a LoansRewrittenEvent.
+ */
+@Service
+public class FineCalculationService {
+
+	private static final String UPDATE_FINE_SQL = "update borrowing_record set fine_amount = ?, fine_assessed_on = ? where id = ?";
+
+	private final Logger logger = LoggerFactory.getLogger(FineCalculationService.class);
+
+	@Autowired
+	private BorrowingRecordRepository borrowingRecordRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private List<FinePolicy> finePolicies;
+
+	@Autowired
+	private ShardService shardService;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Value("${library.fines.parallelism:4}")
+	private int parallelism;
+
+	@Value("${library.fines.page-size:20000}")
+	private int pageSize;
+
+	@Value("${library.fines.batch-size:500}")
+	private int batchSize;
+
+	@Value("${library.fines.split-threshold:1000}")
+	private int splitThreshold;
+
+	@Value("${library.fines.recent-return-days:7}")
+	private int recentReturnDays;
+
+	@Value("${library.loan.period-days:14}")
+	private int loanPeriodDays;
+
+	private final Map<PatronCategory, FinePolicy> policiesByCategory = new EnumMap<>(PatronCategory.class);
+
+	private ForkJoinPool pool;
+
+	@PostConstruct
+	void initialize() {
+		finePolicies.forEach(policy -> policiesByCategory.put(policy.category(), policy));
+		pool = new ForkJoinPool(Math.max(1, parallelism));
+	}
+
+	@PreDestroy
+	void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Runs the fine calculation for the current day on the configured schedule
+	 */
+	@Scheduled(cron = "${library.fines.cron:0 30 1 * * *}")
+	public void runNightlyFineCalculation() {
+		calculateFines(LocalDate.now());
+	}
+
+	/**
+	 * Assesses the fines of all open loans and of loans returned within the recent
+	 * return window
+	 *
+	 * @param asOf The date fines are assessed for
+	 * @return The summary of the run including its throughput
+	 */
+	public FineRunSummary calculateFines(LocalDate asOf) {
+		long start = System.nanoTime();
+		LocalDate returnedSince = asOf.minusDays(recentReturnDays);
+		List<long[]> shards = shardService.fanOut(shard -> calculateShardFines(asOf, returnedSince));
+		long loansProcessed = shards.stream().mapToLong(counts -> counts[0]).sum();
+		long loansUpdated = shards.stream().mapToLong(counts -> counts[1]).sum();
+		if (loansUpdated > 0) {
+			eventPublisher.publishEvent(new LoansRewrittenEvent("fines", loansUpdated));
+		}
+
+		FineRunSummary summary = FineRunSummary.of(asOf, loansProcessed, loansUpdated, System.nanoTime() - start);
+		logger.info("Fine run for {} processed {} loans ({} updated) in {} ms : {} loans/sec", asOf,
+				summary.loansProcessed(), summary.loansUpdated(), summary.elapsedMillis(),
+				String.format("%.0f", summary.loansPerSecond()));
+		return summary;
+	}
+
+	/**
+	 * Assesses the fines of the loans of the current shard
+	 *
+	 * @return The number of loans processed and of loans updated
+	 */
+	private long[] calculateShardFines(LocalDate asOf, LocalDate returnedSince) {
+		long loansProcessed = 0;
+		long loansUpdated = 0;
+		Long afterId = 0L;
+
+		while (true) {
+			List<LoanFineCandidate> page = borrowingRecordRepository.findFineCandidates(returnedSince, afterId,
+					PageRequest.of(0, pageSize));
+			if (page.isEmpty()) {
+				break;
+			}
+			List<FineAssessment> changedFines = pool.invoke(new FineTask(page, 0, page.size(), asOf));
+			writeFines(changedFines, asOf);
+			loansProcessed += page.size();
+			loansUpdated += changedFines.size();
+			afterId = page.get(page.size() - 1).id();
+			if (page.size() < pageSize) {
+				break;
+			}
+		}
+		return new long[] { loansProcessed, loansUpdated };
+	}
+
+	/**
+	 * Assesses the fine of a single loan with the policy of the patron's category
+	 *
+	 * @param loan The loan to assess
+	 * @param asOf The date fines are assessed for
+	 * @return The fine of the loan
+	 */
+	BigDecimal assessFine(LoanFineCandidate loan, LocalDate asOf) {
+		FinePolicy policy = policiesByCategory.get(loan.category() != null ? loan.category() : PatronCategory.STANDARD);
+		if (policy == null) {
+			return BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+		}
+		LocalDate dueDate = loan.dueDate() != null ? loan.dueDate() : loan.borrowDate().plusDays(loanPeriodDays);
+		LocalDate assessedUntil = loan.returnDate() != null ? loan.returnDate() : asOf;
+		return policy.assessFine(dueDate, assessedUntil);
+	}
+
+	private void writeFines(List<FineAssessment> changedFines, LocalDate asOf) {
+		if (changedFines.isEmpty()) {
+			return;
+		}
+		Date assessedOn = Date.valueOf(asOf);
+		jdbcTemplate.batchUpdate(UPDATE_FINE_SQL, changedFines, batchSize, (ps, fine) -> {
+			ps.setBigDecimal(1, fine.amount());
+			ps.setDate(2, assessedOn);
+			ps.setLong(3, fine.loanId());
+		});
+	}
+
+	private record FineAssessment(Long loanId, BigDecimal amount) {
+	}
+
+	/**
+	 * Splits a page of loans until it is below the split threshold and returns
+	 * only the loans whose fine differs from the stored one
+	 */
+	private class FineTask extends RecursiveTask<List<FineAssessment>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<LoanFineCandidate> loans;
+
+		private final int from;
+
+		private final int to;
+
+		private final LocalDate asOf;
+
+		FineTask(List<LoanFineCandidate> loans, int from, int to, LocalDate asOf) {
+			this.loans = loans;
+			this.from = from;
+			this.to = to;
+			this.asOf = asOf;
+		}
+
+		@Override
+		protected List<FineAssessment> compute() {
+			if (to - from <= splitThreshold) {
+				List<FineAssessment> changed = new ArrayList<>();
+				for (int i = from; i < to; i++) {
+					LoanFineCandidate loan = loans.get(i);
+					BigDecimal fine = assessFine(loan, asOf);
+					if (loan.fineAmount() == null || loan.fineAmount().compareTo(fine) != 0) {
+						changed.add(new FineAssessment(loan.id(), fine));
+					}
+				}
+				return changed;
+			}
+			int middle = (from + to) >>> 1;
+			FineTask left = new FineTask(loans, from, middle, asOf);
+			left.fork();
+			List<FineAssessment> changed = new FineTask(loans, middle, to, asOf).compute();
+			changed.addAll(left.join());
+			return changed;
+		}
+	}
+}
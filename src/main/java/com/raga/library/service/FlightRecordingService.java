@@ -0,0 +1,159 @@
+package com.raga.library.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.raga.library.exception.ResourceNotFoundException;
+import com.raga.library.jfr.BorrowEvent;
+import com.raga.library.jfr.BulkImportEvent;
+import com.raga.library.jfr.CatalogSearchEvent;
+import com.raga.library.jfr.FlightRecordingSummary;
+import com.raga.library.jfr.LibraryOperationEvent;
+import com.raga.library.jfr.ReturnEvent;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Service class responsible for the on-demand flight recording of the library
+ * events together with the JDK events of the chosen settings. One recording
+ * runs at a time and keeps the events of its maximum age on disk, so that it
+ * can be dumped to a file while it runs and when it is stopped. While no
+ * recording runs the library events are disabled and cost the operations
+ * nearly nothing.
+ */
+@Service
+public class FlightRecordingService {
+
+	public static final String RECORDING_NAME = "library";
+
+	private static final List<Class<? extends LibraryOperationEvent>> EVENT_TYPES = List.of(BorrowEvent.class,
+			ReturnEvent.class, CatalogSearchEvent.class, BulkImportEvent.class);
+
+	private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+	private final Logger logger = LoggerFactory.getLogger(FlightRecordingService.class);
+
+	@Value("${library.flight-recording.directory:data/recordings}")
+	private String directory;
+
+	@Value("${library.flight-recording.settings:default}")
+	private String settings;
+
+	@Value("${library.flight-recording.max-age:PT1H}")
+	private Duration maxAge;
+
+	private Recording recording;
+
+	@PreDestroy
+	synchronized void shutdown() {
+		if (recording != null) {
+			recording.close();
+			recording = null;
+		}
+	}
+
+	/**
+	 * Starts recording the library events, unless a recording already runs
+	 * 
+	 * @return The running recording
+	 * @throws IllegalStateException If the configured settings are not found
+	 */
+	public synchronized FlightRecordingSummary startRecording() {
+		if (recording == null) {
+			Recording started = new Recording(configuration());
+			started.setName(RECORDING_NAME);
+			started.setToDisk(true);
+			started.setMaxAge(maxAge);
+			for (Class<? extends LibraryOperationEvent> eventType : EVENT_TYPES) {
+				started.enable(eventType).withoutThreshold();
+			}
+			started.start();
+			recording = started;
+			logger.info("Flight recording {} started with the {} settings", started.getId(), settings);
+		}
+		return summary(recording, null);
+	}
+
+	/**
+	 * Writes the events of the running recording to a new file, and keeps
+	 * recording
+	 * 
+	 * @return The running recording and the file it was dumped to
+	 * @throws ResourceNotFoundException If no recording runs
+	 */
+	public synchronized FlightRecordingSummary dumpRecording() throws ResourceNotFoundException {
+		Recording running = runningRecording();
+		return summary(running, dump(running));
+	}
+
+	/**
+	 * Stops the running recording and writes its events to a new file
+	 * 
+	 * @return The stopped recording and the file it was dumped to
+	 * @throws ResourceNotFoundException If no recording runs
+	 */
+	public synchronized FlightRecordingSummary stopRecording() throws ResourceNotFoundException {
+		Recording running = runningRecording();
+		running.stop();
+		try {
+			FlightRecordingSummary summary = summary(running, dump(running));
+			logger.info("Flight recording {} stopped and dumped to {}", running.getId(), summary.file());
+			return summary;
+		} finally {
+			running.close();
+			recording = null;
+		}
+	}
+
+	private Recording runningRecording() throws ResourceNotFoundException {
+		if (recording == null) {
+			throw new ResourceNotFoundException("No flight recording is running");
+		}
+		return recording;
+	}
+
+	private Configuration configuration() {
+		try {
+			return Configuration.getConfiguration(settings);
+		} catch (IOException | ParseException e) {
+			throw new IllegalStateException("Flight recorder settings not found : " + settings, e);
+		}
+	}
+
+	private Path dump(Recording running) {
+		Path file = Path.of(directory).resolve(RECORDING_NAME + "-" + running.getId() + "-"
+				+ FILE_TIMESTAMP.format(ZonedDateTime.now(ZoneOffset.UTC)) + ".jfr");
+		try {
+			Files.createDirectories(file.getParent());
+			running.dump(file);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to dump flight recording " + running.getId() + " to " + file, e);
+		}
+		return file;
+	}
+
+	private FlightRecordingSummary summary(Recording recording, Path file) {
+		try {
+			return new FlightRecordingSummary(recording.getId(), recording.getName(), recording.getState().name(),
+					recording.getStartTime(), settings, file != null ? file.toAbsolutePath().toString() : null,
+					file != null ? Files.size(file) : 0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package com.raga.library.service;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.raga.library.exception.IdempotencyKeyConflictException;
+import com.raga.library.idempotency.IdempotentRequest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Service class answering the retries of a request sent with an idempotency key
+ * with the response of its first execution. The responses are held in memory,
+ * in a store bounded by the number of keys, and expire after the retention
+ * period. Requests arriving with the key of a request still running wait for
+ * its response instead of executing again. Server errors are not kept, so that
+ * a retry after one executes again
+ */
+@Service
+public class IdempotencyService {
+
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+	public static final String CACHE_NAME = "idempotentResponses";
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${library.idempotency.maximum-keys:100000}")
+	private long maximumKeys;
+
+	@Value("${library.idempotency.retention:PT24H}")
+	private Duration retention;
+
+	@Value("${library.idempotency.wait-timeout:PT30S}")
+	private Duration waitTimeout;
+
+	private Ticker ticker = Ticker.systemTicker();
+
+	private Cache<String, IdempotentRequest> requests;
+
+	private Counter executed;
+
+	private Counter replayed;
+
+	@PostConstruct
+	void initialize() {
+		requests = Caffeine.newBuilder().maximumSize(maximumKeys).expireAfterWrite(retention).ticker(ticker)
+				.recordStats().build();
+		CaffeineCacheMetrics.monitor(meterRegistry, requests, CACHE_NAME);
+		executed = requestCounter("executed");
+		replayed = requestCounter("replayed");
+	}
+
+	/**
+	 * Executes a request once per idempotency key. The first request with a key
+	 * executes, and the requests with the same key, whether concurrent or
+	 * retried later, get its response with the Idempotent-Replayed header
+	 *
+	 * @param idempotencyKey The idempotency key of the request
+	 * @param fingerprint    The method and path of the request
+	 * @param execution      Executes the request
+	 * @return The response of the request
+	 * @throws IdempotencyKeyConflictException If the key was sent with a different
+	 *                                         request, or if the request with the
+	 *                                         key is still running after the wait
+	 *                                         timeout
+	 */
+	public ResponseEntity<?> execute(String idempotencyKey, String fingerprint, Supplier<ResponseEntity<?>> execution)
+			throws IdempotencyKeyConflictException {
+		IdempotentRequest request = IdempotentRequest.pending(fingerprint);
+		IdempotentRequest first = requests.asMap().putIfAbsent(idempotencyKey, request);
+		if (first != null) {
+			if (!first.fingerprint().equals(fingerprint)) {
+				throw new IdempotencyKeyConflictException(
+						"The idempotency key " + idempotencyKey + " was sent with a different request");
+			}
+			replayed.increment();
+			return replay(idempotencyKey, first);
+		}
+
+		executed.increment();
+		try {
+			ResponseEntity<?> response = execution.get();
+			request.response().complete(response);
+			if (response.getStatusCode().is5xxServerError()) {
+				requests.asMap().remove(idempotencyKey, request);
+			}
+			return response;
+		} catch (RuntimeException | Error e) {
+			request.response().completeExceptionally(e);
+			requests.asMap().remove(idempotencyKey, request);
+			throw e;
+		}
+	}
+
+	/**
+	 * Checks whether a request has already been sent with its idempotency key, so
+	 * that its retries can be answered without being rate limited
+	 *
+	 * @param idempotencyKey The idempotency key of the request
+	 * @param fingerprint    The method and path of the request
+	 * @return Whether the key has a stored or pending response of the same
+	 *         request
+	 */
+	public boolean isKnown(String idempotencyKey, String fingerprint) {
+		IdempotentRequest first = requests.asMap().get(idempotencyKey);
+		return first != null && first.fingerprint().equals(fingerprint);
+	}
+
+	/**
+	 * @param request The HTTP request
+	 * @return The method and path identifying the request an idempotency key is
+	 *         sent with
+	 */
+	public static String fingerprint(HttpServletRequest request) {
+		return request.getMethod() + " " + request.getRequestURI();
+	}
+
+	/**
+	 * @return The number of idempotency keys with a stored or pending response
+	 */
+	public long storedKeys() {
+		return requests.estimatedSize();
+	}
+
+	private ResponseEntity<?> replay(String idempotencyKey, IdempotentRequest first)
+			throws IdempotencyKeyConflictException {
+		ResponseEntity<?> response;
+		try {
+			response = first.response().get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			throw new IdempotencyKeyConflictException(
+					"The request with the idempotency key " + idempotencyKey + " is still in progress");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IdempotencyKeyConflictException(
+					"Interrupted while waiting for the request with the idempotency key " + idempotencyKey);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw (Error) e.getCause();
+		}
+		return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders())
+				.header(REPLAYED_HEADER, "true").body(response.getBody());
+	}
+
+	private Counter requestCounter(String result) {
+		return Counter.builder("library.idempotency.requests").tag("result", result)
+				.description("Requests sent with an idempotency key").register(meterRegistry);
+	}
+}
@@ -0,0 +1,172 @@
+package com.raga.library.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.raga.library.dto.LibraryStatistics;
+import com.raga.library.event.BookChangedEvent;
+import com.raga.library.event.ChangeType;
+import com.raga.library.event.CirculationAction;
+import com.raga.library.event.CirculationEvent;
+import com.raga.library.event.PatronChangedEvent;
+import com.raga.library.repository.BookRepository;
+import com.raga.library.repository.BorrowingRecordRepository;
+import com.raga.library.repository.PatronRepository;
+
+/**
+ * Service class responsible for the library statistics shown on the dashboard.
+ * The counters are seeded from the database once the application is ready and
+ * are then maintained incrementally from the events published by the services
+ * after each committed change, so reading them never touches the database. A
+ * periodic reconciliation recounts everything to correct any drift and to
+ * refresh the overdue count, which changes with the date rather than with
+ * writes.
+ */
+@Service
+public class LibraryStatisticsService {
+
+	private final Logger logger = LoggerFactory.getLogger(LibraryStatisticsService.class);
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private PatronRepository patronRepository;
+
+	@Autowired
+	private BorrowingRecordRepository borrowingRecordRepository;
+
+	@Autowired
+	private ShardService shardService;
+
+	private final AtomicLong totalBooks = new AtomicLong();
+
+	private final AtomicLong totalPatrons = new AtomicLong();
+
+	private final AtomicLong activeLoans = new AtomicLong();
+
+	private final AtomicLong borrowsToday = new AtomicLong();
+
+	private final AtomicLong returnsToday = new AtomicLong();
+
+	private final AtomicLong overdueLoans = new AtomicLong();
+
+	private volatile LocalDate today = LocalDate.now();
+
+	private volatile LocalDateTime lastReconciledAt;
+
+	/**
+	 * Seeds the counters once the application has started
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void seedStatistics() {
+		reconcileStatistics();
+	}
+
+	/**
+	 * Recounts all counters from the database
+	 */
+	@Scheduled(fixedDelayString = "${library.statistics.reconcile-interval:PT10M}", initialDelayString = "${library.statistics.reconcile-interval:PT10M}")
+	public void reconcileStatistics() {
+		LocalDate date = LocalDate.now();
+		synchronized (this) {
+			today = date;
+			totalBooks.set(bookRepository.count());
+			totalPatrons.set(shardService.fanOutSum(shard -> patronRepository.count()));
+			activeLoans.set(shardService.fanOutSum(shard -> borrowingRecordRepository.countByReturnDateIsNull()));
+			borrowsToday.set(shardService.fanOutSum(shard -> borrowingRecordRepository.countByBorrowDate(date)));
+			returnsToday.set(shardService.fanOutSum(shard -> borrowingRecordRepository.countByReturnDate(date)));
+			overdueLoans.set(shardService
+					.fanOutSum(shard -> borrowingRecordRepository.countByReturnDateIsNullAndDueDateBefore(date)));
+			lastReconciledAt = LocalDateTime.now();
+		}
+		logger.info("Library statistics reconciled : {}", retrieveStatistics());
+	}
+
+	/**
+	 * Retrieves the current value of all counters
+	 * 
+	 * @return The library statistics
+	 */
+	public LibraryStatistics retrieveStatistics() {
+		rollOverDay();
+		return new LibraryStatistics(totalBooks.get(), totalPatrons.get(), activeLoans.get(), borrowsToday.get(),
+				returnsToday.get(), overdueLoans.get(), lastReconciledAt);
+	}
+
+	/**
+	 * Updates the book count after a book is created or deleted
+	 * 
+	 * @param event The committed book change
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onBookChanged(BookChangedEvent event) {
+		if (event.changeType() == ChangeType.CREATED) {
+			totalBooks.incrementAndGet();
+		} else if (event.changeType() == ChangeType.DELETED) {
+			decrement(totalBooks);
+		}
+	}
+
+	/**
+	 * Updates the patron count after a patron is created or deleted
+	 * 
+	 * @param event The committed patron change
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPatronChanged(PatronChangedEvent event) {
+		if (event.changeType() == ChangeType.CREATED) {
+			totalPatrons.incrementAndGet();
+		} else if (event.changeType() == ChangeType.DELETED) {
+			decrement(totalPatrons);
+		}
+	}
+
+	/**
+	 * Updates the loan counters after a book is borrowed or returned
+	 * 
+	 * @param event The committed circulation operation
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCirculation(CirculationEvent event) {
+		rollOverDay();
+		if (event.action() == CirculationAction.BORROWED) {
+			activeLoans.incrementAndGet();
+			borrowsToday.incrementAndGet();
+		} else {
+			decrement(activeLoans);
+			returnsToday.incrementAndGet();
+			LocalDate dueDate = event.borrowingRecord().getDueDate();
+			if (dueDate != null && dueDate.isBefore(today)) {
+				decrement(overdueLoans);
+			}
+		}
+	}
+
+	private void rollOverDay() {
+		LocalDate date = LocalDate.now();
+		if (!date.equals(today)) {
+			synchronized (this) {
+				if (!date.equals(today)) {
+					today = date;
+					borrowsToday.set(0);
+					returnsToday.set(0);
+				}
+			}
+		}
+	}
+
+	private static void decrement(AtomicLong counter) {
+		counter.updateAndGet(value -> value > 0 ? value - 1 : 0);
+	}
+}
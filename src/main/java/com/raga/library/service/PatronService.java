@@ -1,31 +1,72 @@
 package com.raga.library.service;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.raga.library.aspect.RoutedByPatron;
+import com.raga.library.dto.ListQuery;
 import com.raga.library.entity.Patron;
+import com.raga.library.event.ChangeType;
+import com.raga.library.event.PatronChangedEvent;
 import com.raga.library.exception.ResourceNotFoundException;
 import com.raga.library.repository.PatronRepository;
 
+import jakarta.annotation.PostConstruct;
+
 /**
  * Service class responsible for for managing CRUD operations related to Patrons.
+ * Operations on one patron run on the patron's shard, and the lists of all
+ * patrons are merged from every shard.
  */
 @Service
 public class PatronService {
+
+	public static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "name", "contactNumber");
  
 	@Autowired 
 	private PatronRepository patronRepository;
 
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private ShardService shardService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+
+	@PostConstruct
+	void initialize() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
 	/**
 	 * Saves a Patron
 	 * 
 	 * @param patron to be saved
 	 * @return The saved patron.
 	 */
+	@Transactional
+	@RoutedByPatron("patron")
 	public Patron savePatron(Patron patron) {
-		return patronRepository.save(patron);
+		ChangeType changeType = patron.getId() == null ? ChangeType.CREATED : ChangeType.UPDATED;
+		Patron savedPatron = patronRepository.save(patron);
+		eventPublisher.publishEvent(new PatronChangedEvent(savedPatron, changeType));
+		return savedPatron;
 	}
 
 	/**
@@ -35,6 +76,8 @@ public class PatronService {
 	 * @return The retrieved patron.
 	 * @throws ResourceNotFoundException
 	 */
+	@Transactional(readOnly = true)
+	@RoutedByPatron("id")
 	public Patron retrievePatron(Long id) throws ResourceNotFoundException {
 		return patronRepository.findById(id)
 				.orElseThrow(() -> new ResourceNotFoundException("Patron not found for this id :: " + id));
@@ -45,17 +88,69 @@ public class PatronService {
 	 * 
 	 * @return The list of all patrons
 	 */
+	@Transactional(readOnly = true)
 	public List<Patron> retrieveAllPatrons() {
-		return patronRepository.findAll();
+		return shardService.fanOutMerged(shard -> patronRepository.findAll(),
+				Comparator.comparing(Patron::getId), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Saves a batch of new patrons in one transaction per shard, which also
+	 * publishes the changes of its patrons. The shards commit independently, so
+	 * when one fails the patrons of the shards already committed stay saved
+	 * 
+	 * @param patrons The patrons to be saved
+	 * @return The number of saved patrons
+	 */
+	public int savePatrons(List<Patron> patrons) {
+		Map<Integer, List<Patron>> patronsByShard = patrons.stream()
+				.collect(Collectors.groupingBy(shardService::shardOf));
+		return shardService.fanOut(shard -> transactionTemplate.execute(status -> {
+			List<Patron> savedPatrons = patronRepository.saveAll(patronsByShard.getOrDefault(shard, List.of()));
+			savedPatrons.forEach(savedPatron -> eventPublisher
+					.publishEvent(new PatronChangedEvent(savedPatron, ChangeType.CREATED)));
+			return savedPatrons.size();
+		})).stream().mapToInt(Integer::intValue).sum();
+	}
+
+	/**
+	 * Retrieves one page of patrons for the list view
+	 * 
+	 * @param query The page, page size and sort order
+	 * @return The patrons of the page
+	 */
+	@Transactional(readOnly = true)
+	public Slice<Patron> retrievePatrons(ListQuery query) {
+		return shardService.fanOutSlice(query.sortableBy(SORTABLE_PROPERTIES), patronRepository::findSliceBy);
+	}
+
+	/**
+	 * Retrieves the page of patrons following the given id, in id order
+	 * 
+	 * @param afterId Only patrons with a greater id are returned
+	 * @param size    The page size
+	 * @return The patrons of the page
+	 */
+	@Transactional(readOnly = true)
+	public List<Patron> retrievePatronsAfter(long afterId, int size) {
+		return shardService.fanOutMerged(
+				shard -> patronRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size)),
+				Comparator.comparing(Patron::getId), size);
 	}
 
 	/**
-	 * Deletes a patron by ID
+	 * Deletes a patron by ID. The deletion is only published when the patron
+	 * existed
 	 * 
 	 * @param id - ID of the patron to be deleted
 	 */
+	@Transactional
+	@RoutedByPatron("id")
 	public void deletePatron(Long id) {
-		patronRepository.deleteById(id);
+		patronRepository.findById(id).ifPresent(patron -> {
+			patronRepository.delete(patron);
+			eventPublisher.publishEvent(new PatronChangedEvent(id, ChangeType.DELETED));
+		});
 	}
 
 }
@@ -0,0 +1,156 @@
+package com.raga.library.service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.raga.library.ratelimit.RateLimit;
+import com.raga.library.ratelimit.RateLimitKeyType;
+import com.raga.library.ratelimit.RateLimitPolicy;
+import com.raga.library.ratelimit.ThrottledKey;
+import com.raga.library.ratelimit.TokenBucket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Service class holding the token buckets of the rate limited patrons and
+ * clients in memory. The buckets are kept in a concurrent hash map, whose bins
+ * stripe the keys so that lookups never lock, and each key has its own
+ * lock-free bucket, so keys never contend with each other. A bucket that has
+ * been full for the eviction period is dropped by a periodic sweep; a full
+ * bucket behaves like a new one, so evicting it changes nothing for its key.
+ * Past the maximum number of keys, the full buckets are dropped before a new
+ * one is added, at most once a second. The admitted and throttled requests of
+ * each endpoint group are counted as metrics, and the throttled requests of
+ * each key are kept with its bucket
+ */
+@Service
+public class RateLimitService {
+
+	private static final long OVERFLOW_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	@Autowired
+	private List<RateLimitPolicy> rateLimitPolicies;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${library.rate-limit.maximum-keys:100000}")
+	private long maximumKeys;
+
+	@Value("${library.rate-limit.idle-eviction:PT10M}")
+	private Duration idleEviction;
+
+	private LongSupplier nanoClock = System::nanoTime;
+
+	private final Map<BucketKey, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+	private final AtomicLong lastOverflowSweep = new AtomicLong();
+
+	private final Map<String, Counter> admitted = new HashMap<>();
+
+	private final Map<String, Counter> throttled = new HashMap<>();
+
+	@PostConstruct
+	void initialize() {
+		lastOverflowSweep.set(nanoClock.getAsLong() - OVERFLOW_SWEEP_INTERVAL_NANOS);
+		for (RateLimitPolicy policy : rateLimitPolicies) {
+			admitted.put(policy.group(), requestCounter(policy.group(), "admitted"));
+			throttled.put(policy.group(), requestCounter(policy.group(), "throttled"));
+		}
+		Gauge.builder("library.rate.limit.keys", this, RateLimitService::trackedKeys)
+				.description("Patrons and clients with a token bucket").register(meterRegistry);
+	}
+
+	/**
+	 * Takes a token from the bucket of a key
+	 *
+	 * @param policy  The rate limit policy of the endpoint
+	 * @param keyType What the key is
+	 * @param key     The patron id or the client address
+	 * @return 0 when the request is admitted, otherwise the nanoseconds until it
+	 *         would be
+	 */
+	public long acquire(RateLimitPolicy policy, RateLimitKeyType keyType, String key) {
+		RateLimit limit = policy.limitOf(keyType);
+		if (limit == null) {
+			return 0;
+		}
+		long now = nanoClock.getAsLong();
+		BucketKey bucketKey = new BucketKey(policy.group(), keyType, key);
+		TokenBucket bucket = buckets.get(bucketKey);
+		if (bucket == null) {
+			bucket = addBucket(bucketKey, now);
+		}
+		long waitNanos = bucket.tryAcquire(now, limit);
+		(waitNanos == 0 ? admitted : throttled).get(policy.group()).increment();
+		return waitNanos;
+	}
+
+	/**
+	 * Lists the keys with the most throttled requests among those with a bucket
+	 *
+	 * @param limit The maximum number of keys
+	 * @return The keys, most throttled first
+	 */
+	public List<ThrottledKey> mostThrottledKeys(int limit) {
+		return buckets.entrySet().stream().filter(entry -> entry.getValue().throttledRequests() > 0)
+				.map(entry -> new ThrottledKey(entry.getKey().group(), entry.getKey().keyType(),
+						entry.getKey().key(), entry.getValue().throttledRequests()))
+				.sorted(Comparator.comparingLong(ThrottledKey::throttledRequests).reversed()).limit(limit).toList();
+	}
+
+	/**
+	 * Drops the buckets that have been full for the eviction period
+	 *
+	 * @return The number of dropped buckets
+	 */
+	@Scheduled(fixedDelayString = "${library.rate-limit.idle-eviction:PT10M}", initialDelayString = "${library.rate-limit.idle-eviction:PT10M}")
+	public int evictIdleBuckets() {
+		return evictBuckets(nanoClock.getAsLong(), idleEviction.toNanos());
+	}
+
+	/**
+	 * @return The number of patrons and clients with a token bucket
+	 */
+	public long trackedKeys() {
+		return buckets.size();
+	}
+
+	private TokenBucket addBucket(BucketKey bucketKey, long now) {
+		long lastSweep = lastOverflowSweep.get();
+		if (buckets.size() >= maximumKeys && now - lastSweep >= OVERFLOW_SWEEP_INTERVAL_NANOS
+				&& lastOverflowSweep.compareAndSet(lastSweep, now)) {
+			evictBuckets(now, 0);
+		}
+		return buckets.computeIfAbsent(bucketKey, newKey -> new TokenBucket(now));
+	}
+
+	private int evictBuckets(long now, long idleNanos) {
+		int before = buckets.size();
+		buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+		return Math.max(0, before - buckets.size());
+	}
+
+	private Counter requestCounter(String group, String result) {
+		return Counter.builder("library.rate.limit.requests").tag("group", group).tag("result", result)
+				.description("Requests checked against the rate limits").register(meterRegistry);
+	}
+
+	private record BucketKey(String group, RateLimitKeyType keyType, String key) {
+	}
+}
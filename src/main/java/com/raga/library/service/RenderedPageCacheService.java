@@ -0,0 +1,242 @@
+package com.raga.library.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.View;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.raga.library.cache.RenderedPage;
+import com.raga.library.cache.RenderedPageKey;
+import com.raga.library.entity.BorrowingRecord;
+import com.raga.library.event.BookChangedEvent;
+import com.raga.library.event.ChangedEntityType;
+import com.raga.library.event.CirculationEvent;
+import com.raga.library.event.LoansRewrittenEvent;
+import com.raga.library.event.PatronChangedEvent;
+import com.raga.library.event.RemoteChangeEvent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Service class caching the rendered book and patron details pages. A page is
+ * cached together with its gzip variant and the version of the entity it shows,
+ * and is rendered again when the entity's version differs. Book, patron and
+ * circulation events evict the pages of the affected entities, on this node
+ * and, through the change feed, on the other nodes, and the fine and archival
+ * runs evict every page. Each eviction bumps the generation of the page's
+ * stripe, and a render only stores its page when the generation is unchanged,
+ * so a render that read the model before an eviction cannot put back a stale
+ * page. Pages expire after the maximum age, which bounds their staleness when
+ * an eviction is missed, such as a bulk run on another node. The cache is
+ * bounded by the bytes it holds, and its hit rate and size are published as
+ * metrics
+ */
+@Service
+public class RenderedPageCacheService {
+
+	public static final String CACHE_NAME = "renderedPages";
+
+	private static final String TEXT_HTML_UTF8 = MediaType.TEXT_HTML_VALUE + ";charset=UTF-8";
+
+	private static final int GENERATION_STRIPES = 1024;
+
+	@Autowired
+	private ThymeleafViewResolver thymeleafViewResolver;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${library.page-cache.maximum-bytes:33554432}")
+	private long maximumBytes;
+
+	@Value("${library.page-cache.maximum-age:PT10M}")
+	private Duration maximumAge;
+
+	private Cache<RenderedPageKey, RenderedPage> cache;
+
+	private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+	@PostConstruct
+	void initialize() {
+		cache = Caffeine.newBuilder().maximumWeight(maximumBytes)
+				.weigher((RenderedPageKey key, RenderedPage page) -> page.weight()).expireAfterWrite(maximumAge)
+				.recordStats().build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+		Gauge.builder("library.page.cache.bytes", this, RenderedPageCacheService::cachedBytes)
+				.description("Bytes held by the rendered page cache").baseUnit("bytes").register(meterRegistry);
+	}
+
+	/**
+	 * Creates the view serving a page from the cache. The page is rendered from
+	 * the controller's model, completed by the model loader, only when it is not
+	 * cached for the given version
+	 *
+	 * @param key         The page to serve
+	 * @param version     The current version of the entity the page shows
+	 * @param modelLoader Adds the model attributes only needed for rendering
+	 * @return The view
+	 */
+	public View cachedView(RenderedPageKey key, long version, ModelLoader modelLoader) {
+		return new View() {
+
+			@Override
+			public String getContentType() {
+				return TEXT_HTML_UTF8;
+			}
+
+			@Override
+			public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response)
+					throws Exception {
+				RenderedPage page = cache.getIfPresent(key);
+				if (page == null || page.version() != version) {
+					long generation = generations.get(stripeOf(key));
+					Map<String, Object> renderModel = new HashMap<>(model);
+					modelLoader.load(renderModel);
+					RenderedPage rendered = RenderedPage.of(version,
+							renderPage(key.viewName(), renderModel, request, response));
+					cache.asMap().compute(key,
+							(cachedKey, cached) -> generations.get(stripeOf(key)) == generation ? rendered : cached);
+					page = rendered;
+				}
+				writePage(page, request, response);
+			}
+		};
+	}
+
+	/**
+	 * Evicts the details page of a changed or deleted book
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onBookChanged(BookChangedEvent event) {
+		evict(RenderedPageKey.bookDetails(event.bookId()));
+	}
+
+	/**
+	 * Evicts the details page of a changed or deleted patron
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPatronChanged(PatronChangedEvent event) {
+		evict(RenderedPageKey.patronDetails(event.patronId()));
+	}
+
+	/**
+	 * Evicts the details pages of the book and patron of a loan, whose loan
+	 * history changed
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCirculation(CirculationEvent event) {
+		BorrowingRecord borrowingRecord = event.borrowingRecord();
+		evict(RenderedPageKey.bookDetails(borrowingRecord.getBook().getId()));
+		evict(RenderedPageKey.patronDetails(borrowingRecord.getPatron().getId()));
+	}
+
+	/**
+	 * Evicts the details page of a book or patron changed by another node
+	 */
+	@EventListener
+	public void onRemoteChange(RemoteChangeEvent event) {
+		evict(event.entityType() == ChangedEntityType.BOOK ? RenderedPageKey.bookDetails(event.entityId())
+				: RenderedPageKey.patronDetails(event.entityId()));
+	}
+
+	/**
+	 * Evicts every page after a fine or archival run, whose loan histories may
+	 * show other fines or loans
+	 */
+	@EventListener
+	public void onLoansRewritten(LoansRewrittenEvent event) {
+		for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+			generations.incrementAndGet(stripe);
+		}
+		cache.invalidateAll();
+	}
+
+	/**
+	 * Reports the bytes held by the cached pages, after applying the pending
+	 * writes that Caffeine otherwise weighs asynchronously
+	 * 
+	 * @return The bytes currently held by the cached pages
+	 */
+	public long cachedBytes() {
+		cache.cleanUp();
+		return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+	}
+
+	/**
+	 * Evicts a page, after bumping the generation of its stripe so that a render
+	 * in progress does not store it again
+	 */
+	private void evict(RenderedPageKey key) {
+		generations.incrementAndGet(stripeOf(key));
+		cache.invalidate(key);
+	}
+
+	private static int stripeOf(RenderedPageKey key) {
+		return (key.hashCode() * 0x9E3779B9 >>> 22) & (GENERATION_STRIPES - 1);
+	}
+
+	private byte[] renderPage(String viewName, Map<String, Object> model, HttpServletRequest request,
+			HttpServletResponse response) throws Exception {
+		View view = thymeleafViewResolver.resolveViewName(viewName, request.getLocale());
+		ContentCachingResponseWrapper buffer = new ContentCachingResponseWrapper(response);
+		view.render(model, request, buffer);
+		buffer.getWriter().flush();
+		return buffer.getContentAsByteArray();
+	}
+
+	private static void writePage(RenderedPage page, HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+		boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+		byte[] body = gzip ? page.gzip() : page.html();
+		response.setContentType(TEXT_HTML_UTF8);
+		response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (gzip) {
+			response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+	}
+
+	/**
+	 * Adds the model attributes of a page that are only needed when it is
+	 * rendered
+	 */
+	@FunctionalInterface
+	public interface ModelLoader {
+
+		void load(Map<String, Object> model) throws Exception;
+	}
+
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.trim().split(";");
+			if (parts[0].trim().toLowerCase(Locale.ROOT).equals("gzip")) {
+				return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,127 @@
+package com.raga.library.service;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.raga.library.replica.Replica;
+import com.raga.library.replica.ReplicaRoutingDataSource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Service class checking the health and replication lag of the read replicas.
+ * Each check runs library.replicas.lag-query on the replica and reads the lag
+ * in seconds from its library.replicas.lag-column, by default the
+ * Seconds_Behind_Source of MySQL. A replica that cannot be reached, or is not
+ * replicating, is not read from until a later check succeeds, and a replica
+ * whose checks stop is dropped once its last check is older than the maximum
+ * lag. Without read replicas the checks do nothing
+ */
+@Service
+public class ReplicaHealthService {
+
+	private final Logger logger = LoggerFactory.getLogger(ReplicaHealthService.class);
+
+	@Autowired(required = false)
+	private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${library.replicas.lag-query:show replica status}")
+	private String lagQuery;
+
+	@Value("${library.replicas.lag-column:Seconds_Behind_Source}")
+	private String lagColumn;
+
+	@Value("${library.replicas.check-timeout:PT2S}")
+	private Duration checkTimeout;
+
+	@PostConstruct
+	void initialize() {
+		if (replicaRoutingDataSource == null) {
+			return;
+		}
+		for (Replica replica : replicaRoutingDataSource.replicas()) {
+			Gauge.builder("library.replica.lag", replica, ReplicaHealthService::lagSeconds)
+					.tag("replica", replica.getName())
+					.description("Replication lag of the read replica, NaN while it is down").baseUnit("seconds")
+					.register(meterRegistry);
+		}
+		FunctionCounter
+				.builder("library.replica.primary.fallbacks", replicaRoutingDataSource,
+						ReplicaRoutingDataSource::primaryFallbacks)
+				.description("Read-only transactions sent to the primary since no replica was recent enough")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Checks every read replica
+	 */
+	@Scheduled(fixedDelayString = "${library.replicas.check-interval:PT1S}")
+	public void checkReplicas() {
+		if (replicaRoutingDataSource == null) {
+			return;
+		}
+		for (Replica replica : replicaRoutingDataSource.replicas()) {
+			checkReplica(replica);
+		}
+	}
+
+	/**
+	 * Reads the replication lag of a replica and records it, or records the
+	 * replica as down
+	 *
+	 * @param replica The replica
+	 */
+	void checkReplica(Replica replica) {
+		Instant checkedAt = Instant.now();
+		Long lagSeconds = null;
+		try (Connection connection = replica.getDataSource().getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.setQueryTimeout((int) Math.max(1, checkTimeout.toSeconds()));
+			try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+				if (resultSet.next()) {
+					long lag = resultSet.getLong(lagColumn);
+					lagSeconds = resultSet.wasNull() ? null : lag;
+				}
+			}
+		} catch (SQLException e) {
+			if (replica.markDown()) {
+				logger.warn("Read replica {} is down: {}", replica.getName(), e.getMessage());
+			}
+			return;
+		}
+		if (lagSeconds == null) {
+			if (replica.markDown()) {
+				logger.warn("Read replica {} is not replicating", replica.getName());
+			}
+			return;
+		}
+		if (replica.getAppliedUpTo() == null) {
+			logger.info("Read replica {} is up, {} seconds behind", replica.getName(), lagSeconds);
+		}
+		// The lag is reported in whole seconds, so the replica may be up to one more
+		// second behind
+		replica.markUp(checkedAt.minusSeconds(1), Duration.ofSeconds(lagSeconds));
+	}
+
+	private static double lagSeconds(Replica replica) {
+		Duration lag = replica.getLag();
+		return lag != null ? lag.toSeconds() : Double.NaN;
+	}
+}
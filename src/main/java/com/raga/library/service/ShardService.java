@@ -0,0 +1,224 @@
+package com.raga.library.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.raga.library.dto.ListQuery;
+import com.raga.library.entity.Patron;
+import com.raga.library.shard.ShardContext;
+import com.raga.library.shard.ShardRoutingDataSource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Service class mapping patrons to their shard and running queries on every
+ * shard. A patron id maps to the shard its id is congruent to, which is the
+ * shard that allocated it, and new patrons are spread over the shards in turn.
+ * Queries over all patrons or loans run on each shard in parallel, on threads
+ * of their own, and their results are merged. Without sharding there is a
+ * single shard, and the queries run on the calling thread in its transaction
+ */
+@Service
+public class ShardService {
+
+	@Autowired(required = false)
+	private ShardRoutingDataSource shardRoutingDataSource;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${library.sharding.fan-out-parallelism:8}")
+	private int parallelism;
+
+	private final AtomicInteger nextShard = new AtomicInteger();
+
+	private ExecutorService executor;
+
+	private TransactionTemplate readOnlyTransaction;
+
+	@PostConstruct
+	void initialize() {
+		if (isSharded()) {
+			AtomicInteger threads = new AtomicInteger();
+			executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+				Thread thread = new Thread(runnable, "shard-fan-out-" + threads.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			readOnlyTransaction = new TransactionTemplate(transactionManager);
+			readOnlyTransaction.setReadOnly(true);
+		}
+	}
+
+	@PreDestroy
+	void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * @return Whether the patrons are spread over several shards
+	 */
+	public boolean isSharded() {
+		return shardRoutingDataSource != null;
+	}
+
+	/**
+	 * @return The number of shards, 1 without sharding
+	 */
+	public int shardCount() {
+		return isSharded() ? shardRoutingDataSource.shardCount() : 1;
+	}
+
+	/**
+	 * @param patronId The ID of the patron
+	 * @return The shard of the patron
+	 */
+	public int shardOf(long patronId) {
+		return (int) Math.floorMod(patronId - 1, (long) shardCount());
+	}
+
+	/**
+	 * @param patron The patron
+	 * @return The shard of the patron, or the next shard in turn for a new patron
+	 */
+	public int shardOf(Patron patron) {
+		if (patron.getId() != null) {
+			return shardOf(patron.getId());
+		}
+		return Math.floorMod(nextShard.getAndIncrement(), shardCount());
+	}
+
+	/**
+	 * Runs a call on the given shard from the current thread, which must not be
+	 * in a transaction
+	 *
+	 * @param shard The shard, or null for the catalog
+	 * @param call  The call
+	 * @return The result of the call
+	 */
+	public <T> T callOnShard(Integer shard, Supplier<T> call) {
+		return isSharded() ? ShardContext.callOn(shard, call) : call.get();
+	}
+
+	/**
+	 * Runs a query on every shard in parallel. When called in a read-only
+	 * transaction, the query runs in a read-only transaction on each shard
+	 *
+	 * @param query The query, given the shard it runs on
+	 * @return The results of the query, by shard
+	 */
+	public <T> List<T> fanOut(IntFunction<T> query) {
+		if (!isSharded()) {
+			return Collections.singletonList(query.apply(0));
+		}
+		boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+		List<Future<T>> futures = new ArrayList<>();
+		for (int shard = 0; shard < shardCount(); shard++) {
+			int target = shard;
+			futures.add(executor.submit(() -> ShardContext.callOn(target,
+					() -> readOnly ? readOnlyTransaction.execute(status -> query.apply(target)) : query.apply(target))));
+		}
+		List<T> results = new ArrayList<>(futures.size());
+		try {
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while querying the patron shards", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException("Query on a patron shard failed", e.getCause());
+		} finally {
+			futures.forEach(future -> future.cancel(true));
+		}
+		return results;
+	}
+
+	/**
+	 * Runs a query on every shard in parallel and merges the sorted lists they
+	 * return
+	 *
+	 * @param query The query, returning its rows in the given order
+	 * @param order The order of the rows
+	 * @param limit The maximum number of merged rows
+	 * @return The first rows of all shards in the given order
+	 */
+	public <T> List<T> fanOutMerged(IntFunction<List<T>> query, Comparator<? super T> order, int limit) {
+		return merge(fanOut(query), order, limit);
+	}
+
+	/**
+	 * Runs a query on every shard in parallel and adds up the counts they return
+	 *
+	 * @param query The count query
+	 * @return The total count
+	 */
+	public long fanOutSum(IntFunction<Long> query) {
+		return fanOut(query).stream().mapToLong(Long::longValue).sum();
+	}
+
+	/**
+	 * Reads one page of a list view from every shard in parallel. Each shard
+	 * returns its rows up to the end of the page, so deep pages read more rows,
+	 * at most ListQuery.MAXIMUM_ROWS from each shard
+	 *
+	 * @param query      The page, page size and sort order
+	 * @param sliceQuery Reads the rows of one shard for a page request
+	 * @return The page of the merged list
+	 */
+	public <T> Slice<T> fanOutSlice(ListQuery query, Function<Pageable, Slice<T>> sliceQuery) {
+		Pageable pageable = query.toPageable();
+		if (!isSharded()) {
+			return sliceQuery.apply(pageable);
+		}
+		long end = pageable.getOffset() + pageable.getPageSize();
+		if (end > ListQuery.MAXIMUM_ROWS) {
+			throw new IllegalArgumentException("Pages end within the first " + ListQuery.MAXIMUM_ROWS
+					+ " rows, the following rows are read by keyset");
+		}
+		List<Slice<T>> slices = fanOut(
+				shard -> sliceQuery.apply(PageRequest.of(0, (int) end, pageable.getSort())));
+		List<T> rows = merge(slices.stream().map(Slice::getContent).toList(), query.comparator(), (int) end + 1);
+		boolean hasNext = rows.size() > end || slices.stream().anyMatch(Slice::hasNext);
+		return new SliceImpl<>(rows.stream().skip(pageable.getOffset()).limit(pageable.getPageSize()).toList(),
+				pageable, hasNext);
+	}
+
+	/**
+	 * Merges lists sorted in the given order into one sorted list of at most the
+	 * given size. A single list is returned as it is
+	 */
+	static <T> List<T> merge(List<List<T>> sortedLists, Comparator<? super T> order, int limit) {
+		if (sortedLists.size() == 1) {
+			return sortedLists.get(0);
+		}
+		return sortedLists.stream().flatMap(List::stream).sorted(order).limit(limit).toList();
+	}
+}
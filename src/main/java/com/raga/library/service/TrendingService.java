@@ -0,0 +1,129 @@
+package com.raga.library.service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.raga.library.entity.Book;
+import com.raga.library.entity.Patron;
+import com.raga.library.event.CirculationAction;
+import com.raga.library.event.CirculationEvent;
+import com.raga.library.repository.BookRepository;
+import com.raga.library.repository.PatronRepository;
+import com.raga.library.trending.SlidingWindowCounter;
+import com.raga.library.trending.SlidingWindowCounter.KeyCount;
+import com.raga.library.trending.TrendingEntry;
+import com.raga.library.trending.TrendingWindow;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Service class responsible for the "trending now" lists of the most borrowed
+ * titles and the most active patrons. Every committed borrow is counted in a
+ * bounded-memory sketch per sliding window; only the few ids of a requested list
+ * are resolved against the database.
+ */
+@Service
+public class TrendingService {
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private PatronRepository patronRepository;
+
+	@Autowired
+	private ShardService shardService;
+
+	@Value("${library.trending.sketch-depth:4}")
+	private int sketchDepth;
+
+	@Value("${library.trending.sketch-width:512}")
+	private int sketchWidth;
+
+	@Value("${library.trending.candidates:64}")
+	private int candidates;
+
+	private final Map<TrendingWindow, SlidingWindowCounter> bookCounters = new EnumMap<>(TrendingWindow.class);
+
+	private final Map<TrendingWindow, SlidingWindowCounter> patronCounters = new EnumMap<>(TrendingWindow.class);
+
+	@PostConstruct
+	void initialize() {
+		for (TrendingWindow window : TrendingWindow.values()) {
+			bookCounters.put(window, new SlidingWindowCounter(window, sketchDepth, sketchWidth, candidates));
+			patronCounters.put(window, new SlidingWindowCounter(window, sketchDepth, sketchWidth, candidates));
+		}
+	}
+
+	/**
+	 * Counts a committed borrow for its book and patron
+	 * 
+	 * @param event The committed circulation operation
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCirculation(CirculationEvent event) {
+		if (event.action() == CirculationAction.BORROWED) {
+			recordBorrow(event.borrowingRecord().getBook().getId(), event.borrowingRecord().getPatron().getId());
+		}
+	}
+
+	/**
+	 * Counts one borrow of a book by a patron in every window
+	 * 
+	 * @param bookId   The ID of the borrowed book
+	 * @param patronId The ID of the borrowing patron
+	 */
+	public void recordBorrow(Long bookId, Long patronId) {
+		long now = System.currentTimeMillis();
+		for (TrendingWindow window : TrendingWindow.values()) {
+			bookCounters.get(window).record(bookId, now);
+			patronCounters.get(window).record(patronId, now);
+		}
+	}
+
+	/**
+	 * Retrieves the most borrowed books of a window
+	 * 
+	 * @param window The sliding window
+	 * @param limit  The maximum number of books
+	 * @return The trending books, most borrowed first
+	 */
+	public List<TrendingEntry> retrieveTrendingBooks(TrendingWindow window, int limit) {
+		List<KeyCount> top = bookCounters.get(window).topK(limit, System.currentTimeMillis());
+		Map<Long, String> titles = bookRepository.findAllById(ids(top)).stream()
+				.collect(Collectors.toMap(Book::getId, Book::getTitle));
+		return entries(top, titles::get);
+	}
+
+	/**
+	 * Retrieves the most active patrons of a window
+	 * 
+	 * @param window The sliding window
+	 * @param limit  The maximum number of patrons
+	 * @return The trending patrons, most borrows first
+	 */
+	public List<TrendingEntry> retrieveTrendingPatrons(TrendingWindow window, int limit) {
+		List<KeyCount> top = patronCounters.get(window).topK(limit, System.currentTimeMillis());
+		Map<Long, String> names = shardService.fanOut(shard -> patronRepository.findAllById(ids(top))).stream()
+				.flatMap(List::stream).collect(Collectors.toMap(Patron::getId, Patron::getName));
+		return entries(top, names::get);
+	}
+
+	private static List<Long> ids(List<KeyCount> top) {
+		return top.stream().map(KeyCount::key).toList();
+	}
+
+	private static List<TrendingEntry> entries(List<KeyCount> top, Function<Long, String> names) {
+		return top.stream().filter(keyCount -> names.apply(keyCount.key()) != null)
+				.map(keyCount -> new TrendingEntry(keyCount.key(), names.apply(keyCount.key()), keyCount.count()))
+				.toList();
+	}
+}
@@ -0,0 +1,65 @@
+package com.raga.library.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the patron shard the current thread reads and writes. The routing data
+ * source connects to this shard when a transaction or a query starts, and to
+ * the catalog when no shard is set. The shard must therefore be set before the
+ * transaction starts, and cannot change within it
+ */
+public final class ShardContext {
+
+	private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+	private ShardContext() {
+	}
+
+	/**
+	 * @return The shard of the current thread, or null for the catalog
+	 */
+	public static Integer current() {
+		return CURRENT_SHARD.get();
+	}
+
+	/**
+	 * Sets the shard of the current thread
+	 *
+	 * @param shard The shard, or null for the catalog
+	 * @return The previous shard of the thread, to be given back to restore
+	 */
+	public static Integer switchTo(Integer shard) {
+		Integer previous = CURRENT_SHARD.get();
+		restore(shard);
+		return previous;
+	}
+
+	/**
+	 * Restores the shard the current thread had before switchTo
+	 *
+	 * @param previous The shard returned by switchTo
+	 */
+	public static void restore(Integer previous) {
+		if (previous == null) {
+			CURRENT_SHARD.remove();
+		} else {
+			CURRENT_SHARD.set(previous);
+		}
+	}
+
+	/**
+	 * Runs a call on the given shard from the current thread
+	 *
+	 * @param shard The shard, or null for the catalog
+	 * @param call  The call
+	 * @return The result of the call
+	 */
+	public static <T> T callOn(Integer shard, Supplier<T> call) {
+		Integer previous = switchTo(shard);
+		try {
+			return call.get();
+		} finally {
+			restore(previous);
+		}
+	}
+}
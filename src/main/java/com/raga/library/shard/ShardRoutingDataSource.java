@@ -0,0 +1,88 @@
+package com.raga.library.shard;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Data source connecting to the patron shard of the current thread, as set in
+ * the ShardContext, or to the catalog when no shard is set. The catalog holds
+ * the books, and each shard holds the patrons whose id maps to it, together
+ * with their loans and a copy of the books
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+	private final DataSource catalog;
+
+	private final List<DataSource> shards;
+
+	/**
+	 * Creates the data source
+	 *
+	 * @param catalog The data source of the catalog
+	 * @param shards  The data sources of the patron shards, by shard number
+	 */
+	public ShardRoutingDataSource(DataSource catalog, List<DataSource> shards) {
+		this.catalog = catalog;
+		this.shards = List.copyOf(shards);
+		Map<Object, Object> targetDataSources = new HashMap<>();
+		for (int shard = 0; shard < shards.size(); shard++) {
+			targetDataSources.put(shard, shards.get(shard));
+		}
+		setTargetDataSources(targetDataSources);
+		setDefaultTargetDataSource(catalog);
+		setLenientFallback(false);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return ShardContext.current();
+	}
+
+	/**
+	 * @return The number of patron shards
+	 */
+	public int shardCount() {
+		return shards.size();
+	}
+
+	/**
+	 * @param shard The shard number
+	 * @return The data source of the shard
+	 */
+	public DataSource shard(int shard) {
+		return shards.get(shard);
+	}
+
+	/**
+	 * @return The data source of the catalog
+	 */
+	public DataSource catalog() {
+		return catalog;
+	}
+
+	/**
+	 * Closes the connection pools of the catalog and of the shards
+	 */
+	@Override
+	public void close() {
+		for (DataSource dataSource : shards) {
+			close(dataSource);
+		}
+		close(catalog);
+	}
+
+	private static void close(DataSource dataSource) {
+		if (dataSource instanceof AutoCloseable closeable) {
+			try {
+				closeable.close();
+			} catch (Exception e) {
+				throw new IllegalStateException("Unable to close the connection pool " + dataSource, e);
+			}
+		}
+	}
+}
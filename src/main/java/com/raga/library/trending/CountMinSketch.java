@@ -0,0 +1,63 @@
+package com.raga.library.trending;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size count-min sketch over long keys. Counters are held in an
+ * AtomicLongArray so that concurrent increments are lock-free; estimates never
+ * undercount and overcount by at most the collisions in the least loaded row.
+ */
+public class CountMinSketch {
+
+	private static final long[] SEEDS = { 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L,
+			0xD6E8FEB86659FD93L, 0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L };
+
+	private final int depth;
+
+	private final int width;
+
+	private final AtomicLongArray counters;
+
+	public CountMinSketch(int depth, int width) {
+		if (depth < 1 || depth > SEEDS.length) {
+			throw new IllegalArgumentException("Sketch depth must be between 1 and " + SEEDS.length);
+		}
+		this.depth = depth;
+		this.width = width;
+		this.counters = new AtomicLongArray(depth * width);
+	}
+
+	/**
+	 * Increments the count of a key by one
+	 * 
+	 * @param key The key to count
+	 * @return The new estimated count of the key
+	 */
+	public long add(long key) {
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			estimate = Math.min(estimate, counters.incrementAndGet(index(row, key)));
+		}
+		return estimate;
+	}
+
+	/**
+	 * Estimates the count of a key
+	 * 
+	 * @param key The key to look up
+	 * @return The estimated count, never lower than the true count
+	 */
+	public long estimate(long key) {
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			estimate = Math.min(estimate, counters.get(index(row, key)));
+		}
+		return estimate;
+	}
+
+	private int index(int row, long key) {
+		long hash = (key + row) * SEEDS[row];
+		hash ^= hash >>> 31;
+		return row * width + (int) Math.floorMod(hash, (long) width);
+	}
+}
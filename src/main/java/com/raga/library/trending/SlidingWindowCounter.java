@@ -0,0 +1,151 @@
+package com.raga.library.trending;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Approximate heavy-hitter counter over a sliding window. The window is a ring
+ * of time buckets, each holding its own count-min sketch and candidate set, so
+ * memory is fixed by the sketch dimensions and never grows with the number of
+ * distinct keys. Recording only performs atomic operations. A bucket is never
+ * reset in place: the first record of a new time bucket swaps a fresh bucket
+ * into its ring slot, so no count added to the new bucket can be wiped by a
+ * late reset.
+ */
+public class SlidingWindowCounter {
+
+	private final TrendingWindow window;
+
+	private final int sketchDepth;
+
+	private final int sketchWidth;
+
+	private final int candidates;
+
+	private final AtomicReferenceArray<Bucket> buckets;
+
+	public SlidingWindowCounter(TrendingWindow window, int sketchDepth, int sketchWidth, int candidates) {
+		this.window = window;
+		this.sketchDepth = sketchDepth;
+		this.sketchWidth = sketchWidth;
+		this.candidates = candidates;
+		this.buckets = new AtomicReferenceArray<>(window.buckets());
+		for (int i = 0; i < buckets.length(); i++) {
+			buckets.set(i, newBucket(-1));
+		}
+	}
+
+	/**
+	 * Counts one occurrence of a key
+	 * 
+	 * @param key        The key to count, must be positive
+	 * @param nowMillis  The current time
+	 */
+	public void record(long key, long nowMillis) {
+		long epoch = nowMillis / window.bucketMillis();
+		int slot = (int) (epoch % buckets.length());
+		Bucket bucket = buckets.get(slot);
+		while (bucket.epoch < epoch) {
+			Bucket fresh = newBucket(epoch);
+			if (buckets.compareAndSet(slot, bucket, fresh)) {
+				bucket = fresh;
+			} else {
+				bucket = buckets.get(slot);
+			}
+		}
+		if (bucket.epoch > epoch) {
+			// Recorded with a clock older than the whole window
+			return;
+		}
+		bucket.sketch.add(key);
+		bucket.candidates.offer(key, bucket.sketch::estimate);
+	}
+
+	/**
+	 * Estimates the count of a key over the whole window
+	 * 
+	 * @param key       The key to look up
+	 * @param nowMillis The current time
+	 * @return The estimated count
+	 */
+	public long estimate(long key, long nowMillis) {
+		long oldestEpoch = nowMillis / window.bucketMillis() - buckets.length() + 1;
+		long total = 0;
+		for (int slot = 0; slot < buckets.length(); slot++) {
+			Bucket bucket = buckets.get(slot);
+			if (bucket.epoch >= oldestEpoch) {
+				total += bucket.sketch.estimate(key);
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Retrieves the keys with the highest estimated counts over the window
+	 * 
+	 * @param limit     The maximum number of keys to return
+	 * @param nowMillis The current time
+	 * @return The heavy hitters, highest count first
+	 */
+	public List<KeyCount> topK(int limit, long nowMillis) {
+		long oldestEpoch = nowMillis / window.bucketMillis() - buckets.length() + 1;
+		Set<Long> keys = new HashSet<>();
+		for (int i = 0; i < buckets.length(); i++) {
+			Bucket bucket = buckets.get(i);
+			if (bucket.epoch >= oldestEpoch) {
+				for (int slot = 0; slot < bucket.candidates.capacity(); slot++) {
+					long key = bucket.candidates.keyAt(slot);
+					if (key != 0) {
+						keys.add(key);
+					}
+				}
+			}
+		}
+		PriorityQueue<KeyCount> heap = new PriorityQueue<>(Comparator.comparingLong(KeyCount::count));
+		for (Long key : keys) {
+			long count = estimate(key, nowMillis);
+			if (count == 0) {
+				continue;
+			}
+			if (heap.size() < limit) {
+				heap.add(new KeyCount(key, count));
+			} else if (count > heap.peek().count()) {
+				heap.poll();
+				heap.add(new KeyCount(key, count));
+			}
+		}
+		List<KeyCount> top = new ArrayList<>(heap);
+		top.sort(Comparator.comparingLong(KeyCount::count).reversed().thenComparing(KeyCount::key));
+		return top;
+	}
+
+	/**
+	 * A key with its estimated count
+	 */
+	public record KeyCount(long key, long count) {
+	}
+
+	private Bucket newBucket(long epoch) {
+		return new Bucket(epoch, new CountMinSketch(sketchDepth, sketchWidth), new TopKCandidates(candidates));
+	}
+
+	private static final class Bucket {
+
+		private final long epoch;
+
+		private final CountMinSketch sketch;
+
+		private final TopKCandidates candidates;
+
+		private Bucket(long epoch, CountMinSketch sketch, TopKCandidates candidates) {
+			this.epoch = epoch;
+			this.sketch = sketch;
+			this.candidates = candidates;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.raga.library.trending;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Bounded, lock-free set of candidate heavy-hitter keys. Each key probes a few
+ * hash-addressed slots; when none is free it replaces the probed key with the
+ * smallest estimate if its own estimate is larger. Keys must be positive, zero
+ * marks an empty slot.
+ */
+public class TopKCandidates {
+
+	private static final int PROBES = 4;
+
+	private final AtomicLongArray slots;
+
+	public TopKCandidates(int capacity) {
+		this.slots = new AtomicLongArray(capacity);
+	}
+
+	/**
+	 * Offers a key as a candidate
+	 * 
+	 * @param key       The key that was just counted
+	 * @param estimates Estimates the current count of any key
+	 */
+	public void offer(long key, LongUnaryOperator estimates) {
+		int capacity = slots.length();
+		int start = (int) Math.floorMod(key * 0x9E3779B97F4A7C15L, (long) capacity);
+		int victimSlot = -1;
+		long victimKey = 0;
+		long victimEstimate = Long.MAX_VALUE;
+		for (int probe = 0; probe < PROBES && probe < capacity; probe++) {
+			int slot = (start + probe) % capacity;
+			long current = slots.get(slot);
+			if (current == key) {
+				return;
+			}
+			if (current == 0) {
+				if (slots.compareAndSet(slot, 0, key)) {
+					return;
+				}
+				current = slots.get(slot);
+				if (current == key) {
+					return;
+				}
+			}
+			long estimate = estimates.applyAsLong(current);
+			if (estimate < victimEstimate) {
+				victimSlot = slot;
+				victimKey = current;
+				victimEstimate = estimate;
+			}
+		}
+		if (victimSlot >= 0 && estimates.applyAsLong(key) > victimEstimate) {
+			slots.compareAndSet(victimSlot, victimKey, key);
+		}
+	}
+
+	/**
+	 * @return The number of slots
+	 */
+	public int capacity() {
+		return slots.length();
+	}
+
+	/**
+	 * @param slot The slot to read
+	 * @return The key held by the slot, zero when empty
+	 */
+	public long keyAt(int slot) {
+		return slots.get(slot);
+	}
+}
@@ -0,0 +1,9 @@
+package com.raga.library.trending;
+
+/**
+ * One entry of a trending list, the estimated number of borrows of a book or by
+ * a patron within the requested window
+ */
+public record TrendingEntry(Long id, String name, long count) {
+
+}
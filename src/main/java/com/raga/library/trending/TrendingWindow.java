@@ -0,0 +1,30 @@
+package com.raga.library.trending;
+
+import java.time.Duration;
+
+/**
+ * This enum represents the sliding windows trending lists are computed over.
+ * Each window is divided into a fixed number of time buckets; the oldest bucket
+ * is recycled as time advances, which gives bucket-granular decay.
+ */
+public enum TrendingWindow {
+
+	HOUR(Duration.ofMinutes(5), 12), DAY(Duration.ofHours(1), 24), WEEK(Duration.ofDays(1), 7);
+
+	private final long bucketMillis;
+
+	private final int buckets;
+
+	TrendingWindow(Duration bucketDuration, int buckets) {
+		this.bucketMillis = bucketDuration.toMillis();
+		this.buckets = buckets;
+	}
+
+	public long bucketMillis() {
+		return bucketMillis;
+	}
+
+	public int buckets() {
+		return buckets;
+	}
+}
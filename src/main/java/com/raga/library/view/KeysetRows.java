@@ -0,0 +1,68 @@
+package com.raga.library.view;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Rows of a list view that are read in id-ordered keyset pages while the view
+ * iterates over them. Since Thymeleaf writes its output as it processes the
+ * template, the first rows reach the browser once the first page is read, and
+ * only one page is held in memory however large the table is
+ *
+ * @param <T> The type of the rows
+ */
+public class KeysetRows<T> implements Iterable<T> {
+
+	public static final int PAGE_SIZE = 500;
+
+	private final int pageSize;
+
+	private final LongFunction<List<T>> nextPage;
+
+	private final ToLongFunction<T> idOf;
+
+	/**
+	 * @param pageSize The number of rows read at once
+	 * @param nextPage Reads the page of rows following the given id
+	 * @param idOf     The id of a row, used as the keyset position
+	 */
+	public KeysetRows(int pageSize, LongFunction<List<T>> nextPage, ToLongFunction<T> idOf) {
+		this.pageSize = pageSize;
+		this.nextPage = nextPage;
+		this.idOf = idOf;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<>() {
+
+			private List<T> page = nextPage.apply(0L);
+
+			private int position;
+
+			@Override
+			public boolean hasNext() {
+				if (position < page.size()) {
+					return true;
+				}
+				if (page.size() < pageSize) {
+					return false;
+				}
+				page = nextPage.apply(idOf.applyAsLong(page.get(page.size() - 1)));
+				position = 0;
+				return !page.isEmpty();
+			}
+
+			@Override
+			public T next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return page.get(position++);
+			}
+		};
+	}
+}
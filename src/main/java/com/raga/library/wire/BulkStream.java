@@ -0,0 +1,56 @@
+package com.raga.library.wire;
+
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+/**
+ * Streams a whole table to a bulk client as a sequence of values in the
+ * negotiated wire format. Rows are read in id-ordered keyset pages, so neither
+ * the full result nor a database cursor is held while the client consumes the
+ * stream
+ */
+public final class BulkStream {
+
+	public static final int PAGE_SIZE = 1000;
+
+	private BulkStream() {
+	}
+
+	/**
+	 * Creates the response body of a stream
+	 *
+	 * @param <T>      The type of the streamed values
+	 * @param format   The wire format of the values
+	 * @param nextPage Reads the page of values following the given id
+	 * @param idOf     The id of a value, used as the keyset position
+	 * @return The streaming response body
+	 */
+	public static <T> StreamingResponseBody of(WireFormat format, LongFunction<List<T>> nextPage,
+			ToLongFunction<T> idOf) {
+		return outputStream -> {
+			ObjectWriter writer = format.getObjectMapper().writer();
+			if (format == WireFormat.JSON) {
+				writer = writer.withRootValueSeparator("\n");
+			}
+			try (SequenceWriter sequence = writer.writeValues(outputStream)) {
+				long afterId = 0;
+				List<T> page = nextPage.apply(afterId);
+				while (!page.isEmpty()) {
+					sequence.writeAll(page);
+					sequence.flush();
+					if (page.size() < PAGE_SIZE) {
+						break;
+					}
+					afterId = idOf.applyAsLong(page.get(page.size() - 1));
+					page = nextPage.apply(afterId);
+				}
+			}
+		};
+	}
+}
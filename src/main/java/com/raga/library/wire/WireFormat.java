@@ -0,0 +1,83 @@
+package com.raga.library.wire;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * This enum represents the wire formats offered to bulk clients. Besides JSON,
+ * the binary CBOR and Smile encodings carry the same data model in fewer bytes
+ * and are cheaper to parse and generate. Dates are written as ISO strings, as
+ * by the application's own JSON mapper
+ */
+public enum WireFormat {
+
+	JSON(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON, Jackson2ObjectMapperBuilder.json()),
+
+	CBOR(MediaType.APPLICATION_CBOR, new MediaType("application", "cbor-seq"), Jackson2ObjectMapperBuilder.cbor()),
+
+	SMILE(new MediaType("application", "x-jackson-smile"), new MediaType("application", "x-jackson-smile"),
+			Jackson2ObjectMapperBuilder.smile());
+
+	private final MediaType mediaType;
+
+	private final MediaType streamMediaType;
+
+	private final ObjectMapper objectMapper;
+
+	WireFormat(MediaType mediaType, MediaType streamMediaType, Jackson2ObjectMapperBuilder builder) {
+		this.mediaType = mediaType;
+		this.streamMediaType = streamMediaType;
+		this.objectMapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+	}
+
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	/**
+	 * @return The media type of a stream of values, newline-delimited JSON or a
+	 *         sequence of binary values
+	 */
+	public MediaType getStreamMediaType() {
+		return streamMediaType;
+	}
+
+	public ObjectMapper getObjectMapper() {
+		return objectMapper;
+	}
+
+	/**
+	 * Chooses the wire format from the Accept header of a request, JSON unless a
+	 * binary format is explicitly accepted. The accepted types are tried by
+	 * decreasing quality, the more specific first among those of equal quality,
+	 * and types with a quality of zero are not acceptable
+	 *
+	 * @param accept The Accept header, may be null
+	 * @return The wire format of the response
+	 */
+	public static WireFormat negotiate(String accept) {
+		if (accept == null || accept.isBlank()) {
+			return JSON;
+		}
+		List<MediaType> acceptedTypes = MediaType.parseMediaTypes(accept);
+		MimeTypeUtils.sortBySpecificity(acceptedTypes);
+		acceptedTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+		for (MediaType acceptedType : acceptedTypes) {
+			for (WireFormat format : values()) {
+				if (!acceptedType.isWildcardType() && acceptedType.getQualityValue() > 0
+						&& (acceptedType.isCompatibleWith(format.mediaType)
+						|| acceptedType.isCompatibleWith(format.streamMediaType))) {
+					return format;
+				}
+			}
+		}
+		return JSON;
+	}
+}
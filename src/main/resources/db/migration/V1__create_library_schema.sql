@@ -0,0 +1,63 @@
+-- Tables of the library, matching the JPA entities
+
+create table book (
+	id bigint not null auto_increment,
+	title varchar(255),
+	author varchar(255),
+	publication_year integer not null,
+	isbn varchar(255),
+	version bigint not null default 0,
+	primary key (id)
+) engine=InnoDB;
+
+create table patron (
+	id bigint not null auto_increment,
+	name varchar(255),
+	contact_number varchar(255),
+	category enum ('STANDARD','STUDENT','STAFF'),
+	version bigint not null default 0,
+	primary key (id)
+) engine=InnoDB;
+
+create table borrowing_record (
+	id bigint not null auto_increment,
+	book_id bigint,
+	patron_id bigint,
+	borrow_date date,
+	due_date date,
+	return_date date,
+	fine_amount decimal(38,2),
+	fine_assessed_on date,
+	primary key (id)
+) engine=InnoDB;
+
+-- Returned loans moved out of borrowing_record by the archival job, keeping their ids
+create table borrowing_record_archive (
+	id bigint not null,
+	book_id bigint,
+	patron_id bigint,
+	borrow_date date,
+	due_date date,
+	return_date date,
+	fine_amount decimal(38,2),
+	fine_assessed_on date,
+	primary key (id)
+) engine=InnoDB;
+
+-- Denormalized read model of the loans not yet returned, keyed by the borrowing record id
+create table active_loan (
+	id bigint not null,
+	book_id bigint,
+	book_title varchar(255),
+	book_author varchar(255),
+	patron_id bigint,
+	patron_name varchar(255),
+	borrow_date date,
+	due_date date,
+	primary key (id)
+) engine=InnoDB;
+
+alter table borrowing_record add constraint FK79d6bb8ptx41act3qbt5pxuwm foreign key (book_id) references book (id);
+alter table borrowing_record add constraint FK6e5fdl33e4cvv2jgacf9bpswj foreign key (patron_id) references patron (id);
+alter table borrowing_record_archive add constraint FKdtc4bhwffyek0bwmo7bdt4218 foreign key (book_id) references book (id);
+alter table borrowing_record_archive add constraint FKfanbnvcx3it0sti4ohdteyye3 foreign key (patron_id) references patron (id);
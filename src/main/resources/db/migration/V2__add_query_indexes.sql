@@ -0,0 +1,20 @@
+-- Indexes of the list views, the loan history and the read models
+
+-- Sorted book and patron lists
+create index idx_book_title on book (title);
+create index idx_book_author on book (author);
+create index idx_patron_name on patron (name);
+
+-- Loan history of a book or a patron, and the borrowing record list sorted by borrow date
+create index idx_borrowing_record_book_borrow_date on borrowing_record (book_id, borrow_date);
+create index idx_borrowing_record_patron_borrow_date on borrowing_record (patron_id, borrow_date);
+create index idx_borrowing_record_borrow_date on borrowing_record (borrow_date);
+
+-- Archived loan history of a book or a patron
+create index idx_borrowing_record_archive_book_borrow_date on borrowing_record_archive (book_id, borrow_date);
+create index idx_borrowing_record_archive_patron_borrow_date on borrowing_record_archive (patron_id, borrow_date);
+
+-- Active loans read model
+create index idx_active_loan_book on active_loan (book_id);
+create index idx_active_loan_patron on active_loan (patron_id);
+create index idx_active_loan_borrow_date on active_loan (borrow_date, id);
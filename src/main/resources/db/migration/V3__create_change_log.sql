@@ -0,0 +1,13 @@
+-- Change feed read by every node to invalidate its caches, see ChangeFeedService
+
+create table change_log (
+	id bigint not null auto_increment,
+	entity_type enum ('BOOK','PATRON'),
+	entity_id bigint,
+	change_type enum ('CREATED','UPDATED','DELETED'),
+	origin_node varchar(255),
+	changed_at datetime(6),
+	primary key (id)
+) engine=InnoDB;
+
+create index idx_change_log_changed_at on change_log (changed_at);
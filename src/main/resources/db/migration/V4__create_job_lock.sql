@@ -0,0 +1,8 @@
+-- One row per job that must not run on two nodes at once, locked with select ... for update for the length of a run
+
+create table job_lock (
+	name varchar(64) not null,
+	primary key (name)
+) engine=InnoDB;
+
+insert into job_lock (name) values ('active-loan-projection');
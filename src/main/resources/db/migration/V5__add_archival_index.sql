@@ -0,0 +1,3 @@
+-- Returned loans in id order for the nightly archival, see BorrowingRecordRepository.findArchivableIds
+
+create index idx_borrowing_record_return_date on borrowing_record (return_date, id);
@@ -0,0 +1,182 @@
+package com.raga.library.aspect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.raga.library.lock.StripedLock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the BookLockAspect class. These tests cover the serialization
+ * of the operations on the same book, the parallelism of the operations on
+ * different books, the wait timeout and the contention metrics
+ *
+ */
+public class BookLockAspectTest {
+
+	private final BookLockAspect bookLockAspect = new BookLockAspect();
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final Circulation target = new Circulation();
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+	private Circulation circulation;
+
+	@BeforeEach
+	public void setup() {
+		ReflectionTestUtils.setField(bookLockAspect, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(bookLockAspect, "stripes", 64);
+		ReflectionTestUtils.setField(bookLockAspect, "waitTimeout", Duration.ofSeconds(5));
+		bookLockAspect.initialize();
+		AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+		proxyFactory.addAspect(bookLockAspect);
+		circulation = proxyFactory.getProxy();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Test case for concurrent operations on the same book running one at a time
+	 */
+	@Test
+	public void testSerializesOperationsOnTheSameBook() throws Exception {
+		// When
+		List<Future<?>> operations = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			long patronId = i;
+			operations.add(executor.submit(() -> circulation.borrow(7L, patronId, null)));
+		}
+		for (Future<?> operation : operations) {
+			operation.get(5, TimeUnit.SECONDS);
+		}
+
+		// Then
+		assertEquals(1, target.maximumConcurrency.get());
+		assertEquals(8, target.calls.get());
+		assertTrue(meterRegistry.get("library.book.lock.contended").counter().count() > 0);
+		assertEquals(meterRegistry.get("library.book.lock.contended").counter().count(),
+				meterRegistry.get("library.book.lock.wait").timer().count());
+	}
+
+	/**
+	 * Test case for operations on books of different stripes running at the same
+	 * time
+	 */
+	@Test
+	public void testRunsOperationsOnDifferentBooksInParallel() throws Exception {
+		// Given
+		StripedLock stripes = new StripedLock(64);
+		long otherBook = 8L;
+		while (stripes.stripeOf(otherBook) == stripes.stripeOf(7L)) {
+			otherBook++;
+		}
+		CyclicBarrier bothInside = new CyclicBarrier(2);
+
+		// When
+		Future<?> first = executor.submit(() -> circulation.borrow(7L, 1L, bothInside));
+		long secondBook = otherBook;
+		Future<?> second = executor.submit(() -> circulation.borrow(secondBook, 1L, bothInside));
+
+		// Then
+		first.get(5, TimeUnit.SECONDS);
+		second.get(5, TimeUnit.SECONDS);
+		assertEquals(2, target.maximumConcurrency.get());
+		assertEquals(0.0, meterRegistry.get("library.book.lock.contended").counter().count());
+	}
+
+	/**
+	 * Test case for an operation giving up after the wait timeout
+	 */
+	@Test
+	public void testTimesOutWaitingForTheBook() throws Exception {
+		// Given
+		ReflectionTestUtils.setField(bookLockAspect, "waitTimeout", Duration.ofMillis(50));
+		CountDownLatch holding = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<?> holder = executor.submit(() -> {
+			circulation.hold(7L, holding, release);
+			return null;
+		});
+		holding.await(5, TimeUnit.SECONDS);
+
+		// When, Then
+		assertThrows(IllegalStateException.class, () -> circulation.borrow(7L, 2L, null));
+		release.countDown();
+		holder.get(5, TimeUnit.SECONDS);
+		assertEquals(1.0, meterRegistry.get("library.book.lock.contended").counter().count());
+	}
+
+	/**
+	 * Test case for the rounding of the stripe count and the spreading of
+	 * consecutive books
+	 */
+	@Test
+	public void testStripes() {
+		StripedLock stripes = new StripedLock(100);
+		assertEquals(128, stripes.stripes());
+		assertEquals(1, new StripedLock(0).stripes());
+		assertNotEquals(stripes.stripeOf(1L), stripes.stripeOf(2L));
+		assertEquals(stripes.lockFor(42L), stripes.lockFor(42L));
+	}
+
+	/**
+	 * Circulation operations counting how many of them run at the same time
+	 */
+	public static class Circulation {
+
+		private final AtomicInteger running = new AtomicInteger();
+
+		private final AtomicInteger maximumConcurrency = new AtomicInteger();
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		@SerializedPerBook
+		public void borrow(Long bookId, Long patronId, CyclicBarrier barrier) {
+			maximumConcurrency.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				if (barrier != null) {
+					barrier.await(5, TimeUnit.SECONDS);
+				} else {
+					Thread.sleep(5);
+				}
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			} finally {
+				calls.incrementAndGet();
+				running.decrementAndGet();
+			}
+		}
+
+		@SerializedPerBook
+		public void hold(Long bookId, CountDownLatch holding, CountDownLatch release) throws InterruptedException {
+			holding.countDown();
+			release.await(5, TimeUnit.SECONDS);
+		}
+	}
+}
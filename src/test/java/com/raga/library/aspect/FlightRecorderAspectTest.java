@@ -0,0 +1,135 @@
+package com.raga.library.aspect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.ResponseEntity;
+
+import com.raga.library.dto.ListQuery;
+import com.raga.library.dto.PatronBatch;
+import com.raga.library.entity.Patron;
+import com.raga.library.exception.ResourceNotFoundException;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Unit tests for the FlightRecorderAspect class, recording into a temporary
+ * directory. These tests cover the catalog search and bulk import events of
+ * the annotated methods, and their outcome when the method throws
+ *
+ */
+public class FlightRecorderAspectTest {
+
+	@TempDir
+	Path directory;
+
+	private final Recording recording = new Recording();
+
+	private Library library;
+
+	@BeforeEach
+	public void setup() {
+		recording.enable("com.raga.library.CatalogSearch").withThreshold(Duration.ZERO);
+		recording.enable("com.raga.library.BulkImport").withThreshold(Duration.ZERO);
+		recording.start();
+		AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new Library());
+		proxyFactory.addAspect(new FlightRecorderAspect());
+		library = proxyFactory.getProxy();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		recording.close();
+	}
+
+	/**
+	 * Test case for the lookups and pages of books, recorded with their book,
+	 * sort, number of results and outcome
+	 */
+	@Test
+	public void testRecordsCatalogSearches() throws Exception {
+		// When
+		library.retrieveBook(7L);
+		assertThrows(ResourceNotFoundException.class, () -> library.retrieveBook(0L));
+		library.retrieveBooks(ListQuery.firstPage());
+
+		// Then
+		List<RecordedEvent> searches = events("com.raga.library.CatalogSearch");
+		assertEquals(3, searches.size());
+		assertEquals(7, searches.get(0).getLong("bookId"));
+		assertEquals(1, searches.get(0).getInt("results"));
+		assertEquals("SUCCEEDED", searches.get(0).getString("outcome"));
+		assertEquals(0, searches.get(1).getInt("results"));
+		assertEquals("NOT_FOUND", searches.get(1).getString("outcome"));
+		assertEquals("id,ASC", searches.get(2).getString("sort"));
+		assertEquals(3, searches.get(2).getInt("results"));
+	}
+
+	/**
+	 * Test case for the bulk imports, recorded with their entity, number of
+	 * records and outcome
+	 */
+	@Test
+	public void testRecordsBulkImports() throws Exception {
+		// When
+		library.addPatrons(new PatronBatch(
+				List.of(new Patron(null, "John Doe", "123456789"), new Patron(null, "Jane Doe", "987654321"))));
+		assertThrows(IllegalStateException.class, () -> library.addPatrons(new PatronBatch(null)));
+
+		// Then
+		List<RecordedEvent> imports = events("com.raga.library.BulkImport");
+		assertEquals(2, imports.size());
+		assertEquals("patron", imports.get(0).getString("entity"));
+		assertEquals(2, imports.get(0).getInt("records"));
+		assertEquals("SUCCEEDED", imports.get(0).getString("outcome"));
+		assertEquals(0, imports.get(1).getInt("records"));
+		assertEquals("REJECTED", imports.get(1).getString("outcome"));
+	}
+
+	private List<RecordedEvent> events(String eventName) throws Exception {
+		recording.stop();
+		Path file = directory.resolve("aspect.jfr");
+		recording.dump(file);
+		return RecordingFile.readAllEvents(file).stream()
+				.filter(event -> event.getEventType().getName().equals(eventName))
+				.sorted(Comparator.comparing(RecordedEvent::getStartTime)).toList();
+	}
+
+	public static class Library {
+
+		@RecordedAsCatalogSearch
+		public ResponseEntity<String> retrieveBook(Long id) throws ResourceNotFoundException {
+			if (id == 0) {
+				throw new ResourceNotFoundException("Book not found for this id :: " + id);
+			}
+			return ResponseEntity.ok("The Great Gatsby");
+		}
+
+		@RecordedAsCatalogSearch
+		public Slice<String> retrieveBooks(ListQuery query) {
+			return new SliceImpl<>(List.of("The Great Gatsby", "Moby Dick", "Ulysses"));
+		}
+
+		@RecordedAsBulkImport("patron")
+		public int addPatrons(PatronBatch batch) {
+			if (batch.patrons() == null) {
+				throw new IllegalStateException("At least one patron is required");
+			}
+			return batch.size();
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.raga.library.asset;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+/**
+ * Unit tests for the AssetPipeline class. These tests cover the scaling of
+ * images, the rewriting of stylesheet references to hashed URLs, the
+ * minification and the gzip variants
+ *
+ */
+public class AssetPipelineTest {
+
+	private static final String STYLESHEET = "/* Site layout */\n.header {\n    background-image: url('/images/wide.jpeg');\n"
+			+ "    color: #333;\n}\n\n.missing {\n    background: url(\"/images/missing.png\");\n}\n";
+
+	@TempDir
+	private Path temporaryDirectory;
+
+	private Path source;
+
+	private Path output;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		source = temporaryDirectory.resolve("static");
+		output = temporaryDirectory.resolve("assets");
+		Files.createDirectories(source.resolve("images"));
+		Files.createDirectories(source.resolve("css"));
+		BufferedImage image = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB);
+		Random random = new Random(7);
+		for (int x = 0; x < image.getWidth(); x++) {
+			for (int y = 0; y < image.getHeight(); y++) {
+				image.setRGB(x, y, random.nextInt(0xFFFFFF));
+			}
+		}
+		ImageIO.write(image, "jpeg", source.resolve("images/wide.jpeg").toFile());
+		Files.writeString(source.resolve("css/site.css"), STYLESHEET);
+	}
+
+	/**
+	 * Test case for scaling down and re-encoding an image wider than the maximum
+	 * width
+	 */
+	@Test
+	public void testScalesDownWideImages() throws IOException {
+		// When
+		AssetBuildSummary summary = pipeline().build();
+
+		// Then
+		BufferedImage optimized = ImageIO.read(output.resolve("images/wide.jpeg").toFile());
+		assertEquals(640, optimized.getWidth());
+		assertEquals(320, optimized.getHeight());
+		assertEquals(2, summary.files());
+		assertTrue(summary.outputBytes() < summary.sourceBytes() / 4);
+	}
+
+	/**
+	 * Test case for a stylesheet minified, referring to the hashed image URL and
+	 * written with its gzip variant
+	 */
+	@Test
+	public void testRewritesAndCompressesStylesheets() throws IOException {
+		// When
+		pipeline().build();
+
+		// Then
+		String versionedImage = AssetPipeline.versionedName("wide.jpeg",
+				Files.readAllBytes(output.resolve("images/wide.jpeg")));
+		byte[] css = Files.readAllBytes(output.resolve("css/site.css"));
+		assertEquals(".header{background-image: url('/images/" + versionedImage + "');color: #333;}"
+				+ ".missing{background: url(\"/images/missing.png\");}", new String(css, StandardCharsets.UTF_8));
+		try (GZIPInputStream gzip = new GZIPInputStream(
+				new ByteArrayInputStream(Files.readAllBytes(output.resolve("css/site.css.gz"))))) {
+			assertArrayEquals(css, gzip.readAllBytes());
+		}
+	}
+
+	/**
+	 * Test case for reusing the images of a previous build with the same settings,
+	 * and encoding them again once the settings changed
+	 */
+	@Test
+	public void testReusesUpToDateImages() throws IOException {
+		// Given
+		pipeline().build();
+		byte[] built = Files.readAllBytes(output.resolve("images/wide.jpeg"));
+
+		// When
+		AssetBuildSummary second = pipeline().build();
+		byte[] reused = Files.readAllBytes(output.resolve("images/wide.jpeg"));
+		AssetBuildSummary resized = new AssetPipeline(new PathMatchingResourcePatternResolver(),
+				source.toUri().toString(), output, 320, 0.8f).build();
+
+		// Then
+		assertEquals(1, second.reused());
+		assertArrayEquals(built, reused);
+		assertEquals(0, resized.reused());
+		assertEquals(320, ImageIO.read(output.resolve("images/wide.jpeg").toFile()).getWidth());
+	}
+
+	/**
+	 * Test case for the hashed names, in the form of the resource chain's content
+	 * version strategy
+	 */
+	@Test
+	public void testVersionedName() {
+		assertEquals("lib-5d41402abc4b2a76b9719d911017c592.jpeg",
+				AssetPipeline.versionedName("lib.jpeg", "hello".getBytes(StandardCharsets.UTF_8)));
+		assertEquals("LICENSE-5d41402abc4b2a76b9719d911017c592",
+				AssetPipeline.versionedName("LICENSE", "hello".getBytes(StandardCharsets.UTF_8)));
+		assertEquals("url('/images/a-1.jpeg') url(b.png)", AssetPipeline
+				.rewriteUrls("url( /images/a.jpeg ) url(b.png)", Map.of("/images/a.jpeg", "/images/a-1.jpeg")));
+	}
+
+	private AssetPipeline pipeline() {
+		return new AssetPipeline(new PathMatchingResourcePatternResolver(), source.toUri().toString(), output, 640,
+				0.8f);
+	}
+}
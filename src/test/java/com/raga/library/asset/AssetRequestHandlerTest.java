@@ -0,0 +1,145 @@
+package com.raga.library.asset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.CachingResourceResolver;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+/**
+ * Unit tests for the AssetRequestHandler class. These tests cover the cache
+ * headers of hashed and plain URLs, the precompressed stylesheets and the
+ * sendfile transfer
+ *
+ */
+public class AssetRequestHandlerTest {
+
+	private static final String CSS = ".header{color: #333;}";
+
+	@TempDir
+	private Path directory;
+
+	private AssetRequestHandler handler;
+
+	private String versionedPath;
+
+	@BeforeEach
+	public void setup() throws Exception {
+		Files.createDirectories(directory.resolve("css"));
+		Files.writeString(directory.resolve("css/site.css"), CSS);
+		Files.writeString(directory.resolve("css/site.css.gz"), "compressed");
+		versionedPath = AssetPipeline.versionedName("site.css", CSS.getBytes(StandardCharsets.UTF_8));
+
+		handler = new AssetRequestHandler();
+		handler.setServletContext(new MockServletContext());
+		handler.setLocations(List.of(new FileSystemResource(directory.resolve("css").toAbsolutePath() + "/")));
+		handler.setResourceResolvers(List.of(new CachingResourceResolver(new ConcurrentMapCache("staticAssets")),
+				new EncodedResourceResolver(), new VersionResourceResolver().addContentVersionStrategy("/**"),
+				new PathResourceResolver()));
+		handler.setResourceHttpMessageConverter(new SendfileResourceHttpMessageConverter(5));
+		handler.afterPropertiesSet();
+	}
+
+	@AfterEach
+	public void reset() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	/**
+	 * Test case for a hashed URL, cached as immutable for a year
+	 */
+	@Test
+	public void testHashedUrlIsImmutable() throws Exception {
+		// When
+		MockHttpServletResponse response = serve(request(versionedPath));
+
+		// Then
+		assertEquals(200, response.getStatus());
+		assertEquals(AssetRequestHandler.VERSIONED.getHeaderValue(), response.getHeader(HttpHeaders.CACHE_CONTROL));
+		assertEquals(CSS, response.getContentAsString());
+	}
+
+	/**
+	 * Test case for a plain URL, which has to be revalidated
+	 */
+	@Test
+	public void testPlainUrlIsRevalidated() throws Exception {
+		// When
+		MockHttpServletResponse response = serve(request("site.css"));
+
+		// Then
+		assertEquals(AssetRequestHandler.UNVERSIONED.getHeaderValue(), response.getHeader(HttpHeaders.CACHE_CONTROL));
+	}
+
+	/**
+	 * Test case for the precompressed stylesheet, sent with sendfile when the
+	 * container supports it
+	 */
+	@Test
+	public void testSendsPrecompressedStylesheetWithSendfile() throws Exception {
+		// Given
+		MockHttpServletRequest request = request(versionedPath);
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		request.setAttribute(SendfileResourceHttpMessageConverter.SENDFILE_SUPPORT, Boolean.TRUE);
+
+		// When
+		MockHttpServletResponse response = serve(request);
+
+		// Then
+		assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals("compressed".length(), response.getContentLength());
+		assertEquals(0, response.getContentAsByteArray().length);
+		assertEquals(directory.resolve("css/site.css.gz").toAbsolutePath().toString(),
+				request.getAttribute(SendfileResourceHttpMessageConverter.SENDFILE_FILENAME));
+		assertEquals(0L, request.getAttribute(SendfileResourceHttpMessageConverter.SENDFILE_START));
+	}
+
+	/**
+	 * Test case for copying the file when the container has no sendfile support
+	 */
+	@Test
+	public void testCopiesWithoutSendfileSupport() throws Exception {
+		// Given
+		MockHttpServletRequest request = request("site.css");
+
+		// When
+		MockHttpServletResponse response = serve(request);
+
+		// Then
+		assertEquals(CSS, response.getContentAsString());
+		assertNull(request.getAttribute(SendfileResourceHttpMessageConverter.SENDFILE_FILENAME));
+	}
+
+	private static MockHttpServletRequest request(String path) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/css/" + path);
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, path);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		return request;
+	}
+
+	private MockHttpServletResponse serve(MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		return response;
+	}
+}
@@ -0,0 +1,113 @@
+package com.raga.library.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raga.library.dto.BookResponse;
+import com.raga.library.dto.LoanListResponse;
+import com.raga.library.dto.LoanResponse;
+import com.raga.library.dto.PatronResponse;
+import com.raga.library.entity.Book;
+import com.raga.library.entity.BorrowingRecord;
+import com.raga.library.entity.Patron;
+
+/**
+ * Benchmark of the borrowing record list payload, comparing the serialized
+ * entity graph with the loan list response with books and patrons side-loaded.
+ * Run with mvn test -Pbenchmark
+ * 
+ */
+@Tag("benchmark")
+public class BorrowingRecordPayloadBenchmark {
+
+	private static final int LOANS = 20_000;
+
+	private static final int BOOKS = 500;
+
+	private static final int PATRONS = 400;
+
+	private static final int ITERATIONS = 20;
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	/**
+	 * Compares the payload size and serialization time of both representations
+	 */
+	@Test
+	public void benchmarkPayloadSizeAndSerializationTime() throws JsonProcessingException {
+		List<BorrowingRecord> borrowingRecords = createBorrowingRecords();
+		LoanListResponse loanList = toLoanList(borrowingRecords);
+
+		int entityBytes = objectMapper.writeValueAsBytes(borrowingRecords).length;
+		int responseBytes = objectMapper.writeValueAsBytes(loanList).length;
+		double entityMillis = measure(borrowingRecords);
+		double responseMillis = measure(loanList);
+
+		System.out.printf("Borrowing record payload for %d loans, %d books, %d patrons%n", LOANS, BOOKS, PATRONS);
+		System.out.printf("  entity graph          : %,10d bytes %8.2f ms%n", entityBytes, entityMillis);
+		System.out.printf("  side-loaded response  : %,10d bytes %8.2f ms%n", responseBytes, responseMillis);
+		System.out.printf("  size reduction        : %8.1f %%%n", 100.0 * (entityBytes - responseBytes) / entityBytes);
+
+		assertTrue(responseBytes < entityBytes);
+	}
+
+	private double measure(Object value) throws JsonProcessingException {
+		for (int i = 0; i < ITERATIONS; i++) {
+			objectMapper.writeValueAsBytes(value);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			objectMapper.writeValueAsBytes(value);
+		}
+		return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+	}
+
+	private static List<BorrowingRecord> createBorrowingRecords() {
+		List<Book> books = new ArrayList<>();
+		for (long id = 1; id <= BOOKS; id++) {
+			books.add(new Book(id, "Title of book " + id, "Author " + (id % 97), 1900 + (int) (id % 120),
+					String.format("978%010d", id)));
+		}
+		List<Patron> patrons = new ArrayList<>();
+		for (long id = 1; id <= PATRONS; id++) {
+			patrons.add(new Patron(id, "Patron " + id, String.format("555%07d", id)));
+		}
+		List<BorrowingRecord> borrowingRecords = new ArrayList<>();
+		LocalDate start = LocalDate.of(2020, 1, 1);
+		for (int i = 0; i < LOANS; i++) {
+			LocalDate borrowDate = start.plusDays(i % 1500);
+			BorrowingRecord borrowingRecord = new BorrowingRecord(books.get((i * 7) % BOOKS),
+					patrons.get((i * 13) % PATRONS), borrowDate, i % 5 == 0 ? null : borrowDate.plusDays(10));
+			ReflectionTestUtils.setField(borrowingRecord, "id", (long) i + 1);
+			borrowingRecord.setDueDate(borrowDate.plusDays(14));
+			borrowingRecords.add(borrowingRecord);
+		}
+		return borrowingRecords;
+	}
+
+	private static LoanListResponse toLoanList(List<BorrowingRecord> borrowingRecords) {
+		List<LoanResponse> loans = borrowingRecords.stream().map(LoanResponse::from).toList();
+		Map<Long, Book> books = borrowingRecords.stream().map(BorrowingRecord::getBook)
+				.collect(Collectors.toMap(Book::getId, Function.identity(), (a, b) -> a));
+		Map<Long, Patron> patrons = borrowingRecords.stream().map(BorrowingRecord::getPatron)
+				.collect(Collectors.toMap(Patron::getId, Function.identity(), (a, b) -> a));
+		return new LoanListResponse(loans,
+				books.values().stream().map(BookResponse::from).sorted(Comparator.comparing(BookResponse::id)).toList(),
+				patrons.values().stream().map(PatronResponse::from).sorted(Comparator.comparing(PatronResponse::id))
+						.toList());
+	}
+}
@@ -0,0 +1,137 @@
+package com.raga.library.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.raga.library.LibraryManagementSystemApplication;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Benchmark of the time a request holds database connections with
+ * open-session-in-view on, as before, and off, against an embedded H2
+ * database. Each configuration renders the borrowing record list, one page and
+ * all records streamed while they are read, and reports the connection hold
+ * time per request from the library.db.connection.hold timer. Run with mvn test
+ * -Pbenchmark
+ *
+ */
+@Tag("benchmark")
+public class ConnectionHoldBenchmark {
+
+	private static final int BOOKS = 500;
+
+	private static final int PATRONS = 400;
+
+	private static final int LOANS = 5_000;
+
+	private static final int REQUESTS = 20;
+
+	private static final String LIST_PATH = "/library/borrowingRecords";
+
+	private final HttpClient httpClient = HttpClient.newHttpClient();
+
+	/**
+	 * Compares the connection hold time per request of both configurations
+	 */
+	@Test
+	public void benchmarkConnectionHoldTime() throws Exception {
+		System.out.printf("Connection hold time per request of %s, %d loans%n", LIST_PATH, LOANS);
+		double[] openInView = measure(true);
+		double[] closedInView = measure(false);
+		print("open-in-view on", openInView);
+		print("open-in-view off", closedInView);
+
+		assertTrue(closedInView[0] < openInView[0]);
+		assertTrue(closedInView[1] < openInView[1]);
+	}
+
+	private double[] measure(boolean openInView) throws Exception {
+		// Command line arguments, since they take precedence over application.properties
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				LibraryManagementSystemApplication.class).run("--server.port=0",
+						"--spring.datasource.url=jdbc:h2:mem:connection-hold-" + openInView
+								+ ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+						"--spring.datasource.username=sa", "--spring.datasource.password=",
+						"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+						"--spring.jpa.hibernate.ddl-auto=none", "--spring.jpa.open-in-view=" + openInView,
+						"--logging.level.org.hibernate.SQL=INFO", "--logging.level.org.hibernate.type=INFO",
+						"--library.assets.directory=target/connection-hold-benchmark/assets",
+						"--library.journal.directory=target/connection-hold-benchmark/journal")) {
+			createRows(context.getBean(JdbcTemplate.class));
+			int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+			MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+			return new double[] { measure(port, meterRegistry, LIST_PATH + "?size=100"),
+					measure(port, meterRegistry, LIST_PATH + "?stream=true") };
+		}
+	}
+
+	private double measure(int port, MeterRegistry meterRegistry, String pathAndQuery)
+			throws IOException, InterruptedException {
+		for (int i = 0; i < REQUESTS; i++) {
+			get(port, pathAndQuery);
+		}
+		Timer hold = meterRegistry.find("library.db.connection.hold").tag("uri", LIST_PATH).timer();
+		double totalBefore = hold.totalTime(TimeUnit.MILLISECONDS);
+		for (int i = 0; i < REQUESTS; i++) {
+			get(port, pathAndQuery);
+		}
+		return (hold.totalTime(TimeUnit.MILLISECONDS) - totalBefore) / REQUESTS;
+	}
+
+	private void get(int port, String pathAndQuery) throws IOException, InterruptedException {
+		HttpResponse<String> response = httpClient.send(
+				HttpRequest.newBuilder(URI.create("http://localhost:" + port + pathAndQuery)).build(),
+				HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, response.statusCode());
+	}
+
+	private static void print(String name, double[] holdMillis) {
+		System.out.printf("  %-18s: page %8.2f ms, streamed list %8.2f ms%n", name, holdMillis[0], holdMillis[1]);
+	}
+
+	private static void createRows(JdbcTemplate jdbcTemplate) {
+		List<Object[]> books = new ArrayList<>();
+		for (long id = 1; id <= BOOKS; id++) {
+			books.add(new Object[] { id, "Title of book " + id, "Author " + (id % 97), 1900 + (int) (id % 120),
+					String.format("978%010d", id) });
+		}
+		jdbcTemplate.batchUpdate("insert into book (id, title, author, publication_year, isbn) values (?, ?, ?, ?, ?)",
+				books);
+		List<Object[]> patrons = new ArrayList<>();
+		for (long id = 1; id <= PATRONS; id++) {
+			patrons.add(new Object[] { id, "Patron " + id, String.format("555%07d", id) });
+		}
+		jdbcTemplate.batchUpdate("insert into patron (id, name, contact_number, category) values (?, ?, ?, 'STANDARD')",
+				patrons);
+		List<Object[]> loans = new ArrayList<>();
+		LocalDate start = LocalDate.of(2020, 1, 1);
+		for (int i = 0; i < LOANS; i++) {
+			LocalDate borrowDate = start.plusDays(i % 1500);
+			loans.add(new Object[] { i + 1L, (i * 7L) % BOOKS + 1, (i * 13L) % PATRONS + 1, Date.valueOf(borrowDate),
+					Date.valueOf(borrowDate.plusDays(14)) });
+		}
+		jdbcTemplate.batchUpdate(
+				"insert into borrowing_record (id, book_id, patron_id, borrow_date, due_date) values (?, ?, ?, ?, ?)",
+				loans);
+	}
+}
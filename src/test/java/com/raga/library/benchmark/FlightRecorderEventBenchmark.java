@@ -0,0 +1,57 @@
+package com.raga.library.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.raga.library.jfr.BorrowEvent;
+import com.raga.library.jfr.OperationOutcome;
+
+import jdk.jfr.Recording;
+
+/**
+ * Benchmark of the flight recorder events added to the borrows, returns,
+ * catalog searches and bulk imports, reporting the time of one event while no
+ * recording enables it and while a recording commits every event. Run with mvn
+ * test -Pbenchmark
+ *
+ */
+@Tag("benchmark")
+public class FlightRecorderEventBenchmark {
+
+	private static final int EVENTS = 5_000_000;
+
+	/**
+	 * Measures the nanoseconds per operation of a borrow event
+	 */
+	@Test
+	public void benchmarkBorrowEvent() {
+		// Warm up
+		emit();
+		double disabled = emit();
+		double enabled;
+		try (Recording recording = new Recording()) {
+			recording.enable(BorrowEvent.class).withoutThreshold();
+			recording.start();
+			emit();
+			enabled = emit();
+		}
+
+		System.out.printf("Borrow event begun and completed %,d times%n", EVENTS);
+		System.out.printf("  disabled : %6.1f ns per operation%n", disabled);
+		System.out.printf("  recorded : %6.1f ns per operation%n", enabled);
+		assertTrue(disabled < 20, "A disabled event must cost no more than a few nanoseconds");
+	}
+
+	private static double emit() {
+		long start = System.nanoTime();
+		for (int i = 0; i < EVENTS; i++) {
+			BorrowEvent event = new BorrowEvent();
+			event.begin();
+			event.complete((long) i, (long) i, OperationOutcome.SUCCEEDED);
+		}
+		long elapsed = System.nanoTime() - start;
+		return (double) elapsed / EVENTS;
+	}
+}
@@ -0,0 +1,159 @@
+package com.raga.library.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import com.raga.library.exception.CirculationNotFoundException;
+import com.raga.library.exception.ResourceNotFoundException;
+import com.sun.management.ThreadMXBean;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Benchmark of the not-found paths probed by clients walking through unknown
+ * ids. Compares creating the exceptions of these paths with and without a stack
+ * trace at the depth a request throws them from, and reports the throughput and
+ * the heap allocated per request of probing unknown books through the
+ * application, against an embedded H2 database. Run with mvn test -Pbenchmark
+ *
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:not-found-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect", "spring.jpa.hibernate.ddl-auto=none",
+		"library.rate-limit.circulation.client-capacity=100000000",
+		"library.rate-limit.circulation.patron-capacity=100000000",
+		"library.assets.directory=target/not-found-benchmark/assets",
+		"library.journal.directory=target/not-found-benchmark/journal" })
+@AutoConfigureMockMvc
+public class NotFoundPathBenchmark {
+
+	/**
+	 * Frames below the service method when a request through the embedded
+	 * server, the filters, the controller, the aspects and the transaction proxy
+	 * reaches it. MockMvc requests measured 136
+	 */
+	private static final int REQUEST_DEPTH = 160;
+
+	private static final int EXCEPTIONS = 200_000;
+
+	private static final int REQUESTS = 20_000;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	private final ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Compares the time and allocation of creating and catching a not-found
+	 * exception with a stack trace, as before, and without
+	 */
+	@Test
+	public void benchmarkNotFoundExceptions() {
+		Measurement withStackTrace = measure(EXCEPTIONS,
+				() -> atDepth(REQUEST_DEPTH, id -> new Exception("Book not found for this id :: " + id)));
+		Measurement resourceNotFound = measure(EXCEPTIONS,
+				() -> atDepth(REQUEST_DEPTH, id -> new ResourceNotFoundException("Book not found for this id :: " + id)));
+		Measurement entityNotFound = measure(EXCEPTIONS,
+				() -> atDepth(REQUEST_DEPTH, id -> new EntityNotFoundException("Book not found with id : " + id)));
+		Measurement circulationNotFound = measure(EXCEPTIONS,
+				() -> atDepth(REQUEST_DEPTH, id -> new CirculationNotFoundException("Book not found with id : " + id)));
+
+		System.out.printf("Not-found exceptions created and caught %d frames deep%n", REQUEST_DEPTH);
+		print("Exception", withStackTrace);
+		print("ResourceNotFoundException", resourceNotFound);
+		print("EntityNotFoundException", entityNotFound);
+		print("CirculationNotFoundException", circulationNotFound);
+
+		assertTrue(resourceNotFound.allocatedBytes() < withStackTrace.allocatedBytes());
+		assertTrue(circulationNotFound.allocatedBytes() < entityNotFound.allocatedBytes());
+	}
+
+	/**
+	 * Measures the throughput and allocation of probing unknown books through the
+	 * book lookup and the borrow endpoints
+	 */
+	@Test
+	public void benchmarkUnknownIdProbes() {
+		Measurement lookups = measure(REQUESTS, () -> perform(get("/library/api/books/" + (1_000_000 + probe()))));
+		Measurement borrows = measure(REQUESTS,
+				() -> perform(post("/library/api/borrow/" + (1_000_000 + probe()) + "/patron/1")));
+
+		System.out.printf("Probes of unknown ids, %d requests each%n", REQUESTS);
+		print("GET /library/api/books/{id}", lookups);
+		print("POST /library/api/borrow/...", borrows);
+	}
+
+	private static long probes;
+
+	private static long probe() {
+		return probes++;
+	}
+
+	private int perform(RequestBuilder request) {
+		try {
+			int status = mockMvc.perform(request).andReturn().getResponse().getStatus();
+			if (status != 404) {
+				throw new AssertionError("Expected 404 but was " + status);
+			}
+			return status;
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Creates and throws an exception from the given depth, and catches it at the
+	 * top, as a request does
+	 */
+	private static Throwable atDepth(int depth, LongFunction<Throwable> exception) {
+		try {
+			throwAt(depth, exception);
+			return null;
+		} catch (Throwable e) {
+			return e;
+		}
+	}
+
+	private static void throwAt(int depth, LongFunction<Throwable> exception) throws Throwable {
+		if (depth == 0) {
+			throw exception.apply(probe());
+		}
+		throwAt(depth - 1, exception);
+	}
+
+	private Measurement measure(int operations, Supplier<?> operation) {
+		for (int i = 0; i < operations; i++) {
+			operation.get();
+		}
+		long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+		long start = System.nanoTime();
+		for (int i = 0; i < operations; i++) {
+			operation.get();
+		}
+		long elapsed = System.nanoTime() - start;
+		return new Measurement(operations * 1_000_000_000.0 / elapsed,
+				(threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore) / operations);
+	}
+
+	private static void print(String name, Measurement measurement) {
+		System.out.printf("  %-30s : %,12.0f per second %,10d bytes each%n", name, measurement.perSecond(),
+				measurement.allocatedBytes());
+	}
+
+	private record Measurement(double perSecond, long allocatedBytes) {
+	}
+}
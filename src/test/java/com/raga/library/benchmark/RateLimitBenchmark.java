@@ -0,0 +1,98 @@
+package com.raga.library.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.raga.library.ratelimit.RateLimit;
+import com.raga.library.ratelimit.RateLimitKeyType;
+import com.raga.library.ratelimit.RateLimitPolicy;
+import com.raga.library.service.RateLimitService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmark of the rate limit check added to the circulation requests,
+ * reporting the time of one check of the client and the patron buckets on a
+ * single thread and with every core checking keys concurrently. Run with mvn
+ * test -Pbenchmark
+ *
+ */
+@Tag("benchmark")
+public class RateLimitBenchmark {
+
+	private static final int PATRONS = 10_000;
+
+	private static final int CLIENTS = 100;
+
+	private static final int CHECKS = 2_000_000;
+
+	private static final RateLimitPolicy CIRCULATION = new RateLimitPolicy("circulation",
+			List.of("/library/api/borrow/**"), RateLimit.of(5, 0.2), RateLimit.of(60, 5), true);
+
+	/**
+	 * Measures the nanoseconds per request of the rate limit check
+	 */
+	@Test
+	public void benchmarkRateLimitCheck() throws Exception {
+		RateLimitService rateLimitService = new RateLimitService();
+		ReflectionTestUtils.setField(rateLimitService, "rateLimitPolicies", List.of(CIRCULATION));
+		ReflectionTestUtils.setField(rateLimitService, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(rateLimitService, "maximumKeys", 100_000L);
+		ReflectionTestUtils.setField(rateLimitService, "idleEviction", Duration.ofMinutes(10));
+		ReflectionTestUtils.invokeMethod(rateLimitService, "initialize");
+		String[] patrons = new String[PATRONS];
+		for (int i = 0; i < PATRONS; i++) {
+			patrons[i] = String.valueOf(i);
+		}
+		String[] clients = new String[CLIENTS];
+		for (int i = 0; i < CLIENTS; i++) {
+			clients[i] = "10.0." + (i / 256) + "." + (i % 256);
+		}
+
+		// Warm up
+		check(rateLimitService, patrons, clients);
+		double singleThread = check(rateLimitService, patrons, clients);
+		int threads = Runtime.getRuntime().availableProcessors();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		double concurrent;
+		try {
+			List<Future<Double>> results = executor
+					.invokeAll(Collections.nCopies(threads, () -> check(rateLimitService, patrons, clients)));
+			concurrent = 0;
+			for (Future<Double> result : results) {
+				concurrent += result.get();
+			}
+			concurrent /= threads;
+		} finally {
+			executor.shutdown();
+		}
+
+		System.out.printf("Rate limit check of a client and a patron among %,d keys%n", rateLimitService.trackedKeys());
+		System.out.printf("  1 thread   : %6.1f ns per request%n", singleThread);
+		System.out.printf("  %-2d threads : %6.1f ns per request%n", threads, concurrent);
+		assertTrue(singleThread < 1_000, "The rate limit check must take well under a microsecond");
+	}
+
+	private static double check(RateLimitService rateLimitService, String[] patrons, String[] clients) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long start = System.nanoTime();
+		for (int i = 0; i < CHECKS; i++) {
+			if (rateLimitService.acquire(CIRCULATION, RateLimitKeyType.CLIENT, clients[random.nextInt(CLIENTS)]) == 0) {
+				rateLimitService.acquire(CIRCULATION, RateLimitKeyType.PATRON, patrons[random.nextInt(PATRONS)]);
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		return (double) elapsed / CHECKS;
+	}
+}
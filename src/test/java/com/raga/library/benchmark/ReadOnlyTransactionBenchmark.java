@@ -0,0 +1,153 @@
+package com.raga.library.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.raga.library.entity.BorrowingRecord;
+import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.sun.management.ThreadMXBean;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Benchmark of large list reads in a read-write transaction, as they ran
+ * before, and in the read-only transactions of the services, against an
+ * embedded H2 database. Reports the heap allocated and the CPU time of the
+ * calling thread per read, which include the snapshots Hibernate keeps for
+ * dirty checking and the dirty checking at commit. Run with mvn test
+ * -Pbenchmark
+ *
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:read-only-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect", "spring.jpa.hibernate.ddl-auto=none",
+		"library.assets.directory=target/read-only-benchmark/assets",
+		"library.journal.directory=target/read-only-benchmark/journal" })
+public class ReadOnlyTransactionBenchmark {
+
+	private static final int BOOKS = 20_000;
+
+	private static final int PATRONS = 2_000;
+
+	private static final int LOANS = 20_000;
+
+	private static final int ITERATIONS = 10;
+
+	private static final String LOANS_QUERY = "select r from BorrowingRecord r join fetch r.book join fetch r.patron "
+			+ "where r.id > :afterId order by r.id";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BorrowingRecordService borrowingRecordService;
+
+	private final ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Compares the allocations and CPU time of reading all books and all loans
+	 * with their book and patron
+	 */
+	@Test
+	public void benchmarkListReads() {
+		createRows();
+		TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+		Measurement booksReadWrite = measure(() -> readWrite.execute(status -> bookService.retrieveAllBooks()));
+		Measurement booksReadOnly = measure(() -> bookService.retrieveAllBooks());
+		Measurement loansReadWrite = measure(() -> readWrite.execute(status -> entityManager
+				.createQuery(LOANS_QUERY, BorrowingRecord.class).setParameter("afterId", 0L).setMaxResults(LOANS)
+				.getResultList()));
+		Measurement loansReadOnly = measure(() -> borrowingRecordService.retrieveBorrowingRecordsAfter(0, LOANS));
+
+		System.out.printf("List reads of %d books and %d loans with their book and patron%n", BOOKS, LOANS);
+		print("books, read-write", booksReadWrite);
+		print("books, read-only", booksReadOnly);
+		print("loans, read-write", loansReadWrite);
+		print("loans, read-only", loansReadOnly);
+		System.out.printf("  allocation reduction  : books %5.1f %%, loans %5.1f %%%n",
+				booksReadWrite.reductionTo(booksReadOnly), loansReadWrite.reductionTo(loansReadOnly));
+
+		assertTrue(booksReadOnly.allocatedBytes() < booksReadWrite.allocatedBytes());
+		assertTrue(loansReadOnly.allocatedBytes() < loansReadWrite.allocatedBytes());
+	}
+
+	private Measurement measure(Supplier<List<?>> read) {
+		for (int i = 0; i < ITERATIONS; i++) {
+			read.get();
+		}
+		long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+		long cpuBefore = threadMXBean.getCurrentThreadCpuTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			read.get();
+		}
+		return new Measurement((threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore) / ITERATIONS,
+				(threadMXBean.getCurrentThreadCpuTime() - cpuBefore) / 1_000_000.0 / ITERATIONS);
+	}
+
+	private static void print(String name, Measurement measurement) {
+		System.out.printf("  %-20s  : %,14d bytes %8.2f ms CPU%n", name, measurement.allocatedBytes(),
+				measurement.cpuMillis());
+	}
+
+	private void createRows() {
+		jdbcTemplate.update("delete from borrowing_record");
+		jdbcTemplate.update("delete from book");
+		jdbcTemplate.update("delete from patron");
+		List<Object[]> books = new ArrayList<>();
+		for (long id = 1; id <= BOOKS; id++) {
+			books.add(new Object[] { id, "Title of book " + id, "Author " + (id % 97), 1900 + (int) (id % 120),
+					String.format("978%010d", id) });
+		}
+		jdbcTemplate.batchUpdate("insert into book (id, title, author, publication_year, isbn) values (?, ?, ?, ?, ?)",
+				books);
+		List<Object[]> patrons = new ArrayList<>();
+		for (long id = 1; id <= PATRONS; id++) {
+			patrons.add(new Object[] { id, "Patron " + id, String.format("555%07d", id) });
+		}
+		jdbcTemplate.batchUpdate("insert into patron (id, name, contact_number, category) values (?, ?, ?, 'STANDARD')",
+				patrons);
+		List<Object[]> loans = new ArrayList<>();
+		LocalDate start = LocalDate.of(2020, 1, 1);
+		for (int i = 0; i < LOANS; i++) {
+			LocalDate borrowDate = start.plusDays(i % 1500);
+			loans.add(new Object[] { i + 1L, (i * 7L) % BOOKS + 1, (i * 13L) % PATRONS + 1, Date.valueOf(borrowDate),
+					Date.valueOf(borrowDate.plusDays(14)) });
+		}
+		jdbcTemplate.batchUpdate(
+				"insert into borrowing_record (id, book_id, patron_id, borrow_date, due_date) values (?, ?, ?, ?, ?)",
+				loans);
+	}
+
+	private record Measurement(long allocatedBytes, double cpuMillis) {
+
+		double reductionTo(Measurement other) {
+			return 100.0 * (allocatedBytes - other.allocatedBytes) / allocatedBytes;
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package com.raga.library.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.raga.library.LibraryManagementSystemApplication;
+
+/**
+ * Benchmark of the application startup, reporting the time from launching the
+ * JVM to the first served request for the default configuration, the
+ * startup-optimized profile and, once the archive was created as described in
+ * the README, the profile with the class data sharing archive. Each run starts
+ * a new JVM against the database configured for the application; spring.*
+ * system properties are passed on to it. Run with mvn test -Pbenchmark
+ *
+ */
+@Tag("benchmark")
+public class StartupBenchmark {
+
+	private static final String FIRST_REQUEST = "/library/books";
+
+	private static final int RUNS = 3;
+
+	private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+	private static final Path TARGET = Path.of("target");
+
+	private static final Path CDS_ARCHIVE = TARGET.resolve("library.jsa");
+
+	private static final Path CDS_LIBRARIES = TARGET.resolve("lib");
+
+	private static final Pattern STARTED = Pattern.compile("Started \\w+ in ([0-9.]+) seconds");
+
+	private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+	/**
+	 * Compares the time to the first served request of each configuration
+	 */
+	@Test
+	public void benchmarkTimeToFirstRequest() throws Exception {
+		String classPath = System.getProperty("java.class.path");
+		System.out.printf("Time to the first served request of %s, median of %d runs%n", FIRST_REQUEST, RUNS);
+		long defaultMillis = measure("default", classPath, List.of());
+		long startupMillis = measure("startup profile", classPath, List.of("-Dspring.profiles.active=startup"));
+		Optional<Path> applicationJar = applicationJar();
+		if (Files.exists(CDS_ARCHIVE) && applicationJar.isPresent()) {
+			measure("startup profile + CDS", applicationJar.get() + File.pathSeparator + CDS_LIBRARIES.resolve("*"),
+					List.of("-Dspring.profiles.active=startup", "-XX:SharedArchiveFile=" + CDS_ARCHIVE, "-Xshare:auto"));
+		} else {
+			System.out.println("  No class data sharing archive in " + CDS_ARCHIVE + ", see the README to create it");
+		}
+
+		assertTrue(defaultMillis > 0);
+		assertTrue(startupMillis > 0);
+	}
+
+	private long measure(String name, String classPath, List<String> options) throws Exception {
+		long[] millis = new long[RUNS];
+		String started = "";
+		for (int run = 0; run < RUNS; run++) {
+			Path log = TARGET.resolve("startup-benchmark-" + name.replaceAll("\\W+", "-") + ".log");
+			millis[run] = timeToFirstRequest(classPath, options, log);
+			Matcher matcher = STARTED.matcher(Files.readString(log));
+			started = matcher.find() ? matcher.group(1) + " s" : "?";
+		}
+		Arrays.sort(millis);
+		System.out.printf("  %-22s : %,6d ms to the first response (context started in %s)%n", name, millis[RUNS / 2],
+				started);
+		return millis[RUNS / 2];
+	}
+
+	private long timeToFirstRequest(String classPath, List<String> options, Path log) throws Exception {
+		int port;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		List<String> command = new ArrayList<>();
+		command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(options);
+		// Measured as deployed, without the restart class loader of the development tools
+		command.add("-Dspring.devtools.restart.enabled=false");
+		System.getProperties().stringPropertyNames().stream().filter(property -> property.startsWith("spring."))
+				.forEach(property -> command.add("-D" + property + "=" + System.getProperty(property)));
+		command.addAll(List.of("-Dserver.port=" + port, "-cp", classPath,
+				LibraryManagementSystemApplication.class.getName()));
+
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + FIRST_REQUEST)).build();
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+		try {
+			while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+				if (!process.isAlive()) {
+					throw new IllegalStateException("The application exited during startup, see " + log);
+				}
+				try {
+					if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+						return (System.nanoTime() - start) / 1_000_000;
+					}
+				} catch (ConnectException e) {
+					// Not listening yet
+				}
+				Thread.sleep(10);
+			}
+			throw new IllegalStateException("No response within " + TIMEOUT + ", see " + log);
+		} finally {
+			process.destroy();
+			process.waitFor();
+		}
+	}
+
+	private static Optional<Path> applicationJar() throws IOException {
+		if (!Files.isDirectory(CDS_LIBRARIES)) {
+			return Optional.empty();
+		}
+		try (Stream<Path> files = Files.list(TARGET)) {
+			return files.filter(file -> file.toString().endsWith(".jar") && !file.toString().endsWith("-exec.jar"))
+					.findFirst();
+		}
+	}
+}
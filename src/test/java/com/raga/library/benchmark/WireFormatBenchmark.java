@@ -0,0 +1,106 @@
+package com.raga.library.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raga.library.dto.BookBatch;
+import com.raga.library.dto.LoanResponse;
+import com.raga.library.entity.Book;
+import com.raga.library.wire.WireFormat;
+
+/**
+ * Benchmark of the wire formats offered to bulk clients, comparing the size and
+ * the serialization and deserialization time of a bulk book import and of the
+ * loan stream in JSON, CBOR and Smile. Run with mvn test -Pbenchmark
+ *
+ */
+@Tag("benchmark")
+public class WireFormatBenchmark {
+
+	private static final int BOOKS = 10_000;
+
+	private static final int LOANS = 50_000;
+
+	private static final int ITERATIONS = 20;
+
+	/**
+	 * Compares the payload size and the encoding and decoding time of each format
+	 */
+	@Test
+	public void benchmarkWireFormats() throws IOException {
+		BookBatch batch = createBookBatch();
+		LoanResponse[] loans = createLoans();
+
+		Map<WireFormat, Integer> batchBytes = new EnumMap<>(WireFormat.class);
+		Map<WireFormat, Integer> loanBytes = new EnumMap<>(WireFormat.class);
+		System.out.printf("Wire formats for a batch of %d books and %d loans%n", BOOKS, LOANS);
+		for (WireFormat format : WireFormat.values()) {
+			ObjectMapper objectMapper = format.getObjectMapper();
+			byte[] encodedBatch = objectMapper.writeValueAsBytes(batch);
+			byte[] encodedLoans = objectMapper.writeValueAsBytes(loans);
+			batchBytes.put(format, encodedBatch.length);
+			loanBytes.put(format, encodedLoans.length);
+			System.out.printf("  %-5s books : %,10d bytes  write %7.2f ms  read %7.2f ms%n", format,
+					encodedBatch.length, measureWrite(objectMapper, batch),
+					measureRead(objectMapper, encodedBatch, BookBatch.class));
+			System.out.printf("  %-5s loans : %,10d bytes  write %7.2f ms  read %7.2f ms%n", format,
+					encodedLoans.length, measureWrite(objectMapper, loans),
+					measureRead(objectMapper, encodedLoans, LoanResponse[].class));
+		}
+
+		assertTrue(batchBytes.get(WireFormat.SMILE) < batchBytes.get(WireFormat.JSON));
+		assertTrue(loanBytes.get(WireFormat.CBOR) < loanBytes.get(WireFormat.JSON));
+	}
+
+	private static double measureWrite(ObjectMapper objectMapper, Object value) throws IOException {
+		for (int i = 0; i < ITERATIONS; i++) {
+			objectMapper.writeValueAsBytes(value);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			objectMapper.writeValueAsBytes(value);
+		}
+		return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+	}
+
+	private static double measureRead(ObjectMapper objectMapper, byte[] encoded, Class<?> type) throws IOException {
+		for (int i = 0; i < ITERATIONS; i++) {
+			objectMapper.readValue(encoded, type);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			objectMapper.readValue(encoded, type);
+		}
+		return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+	}
+
+	private static BookBatch createBookBatch() {
+		List<Book> books = new ArrayList<>();
+		for (int i = 1; i <= BOOKS; i++) {
+			books.add(new Book(null, "Title of book " + i, "Author " + (i % 97), 1900 + i % 120,
+					String.format("978%010d", i)));
+		}
+		return new BookBatch(books);
+	}
+
+	private static LoanResponse[] createLoans() {
+		LoanResponse[] loans = new LoanResponse[LOANS];
+		LocalDate start = LocalDate.of(2020, 1, 1);
+		for (int i = 0; i < LOANS; i++) {
+			LocalDate borrowDate = start.plusDays(i % 1500);
+			loans[i] = new LoanResponse((long) i + 1, (long) (i * 7) % 5000 + 1, (long) (i * 13) % 4000 + 1,
+					borrowDate, borrowDate.plusDays(14), i % 5 == 0 ? null : borrowDate.plusDays(10), null);
+		}
+		return loans;
+	}
+}
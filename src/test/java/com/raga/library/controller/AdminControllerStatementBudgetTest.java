@@ -0,0 +1,114 @@
+package com.raga.library.controller;
+
+import static com.raga.library.sql.StatementResultMatchers.statements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.raga.library.entity.Book;
+import com.raga.library.entity.Patron;
+import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.PatronService;
+import com.raga.library.sql.StatementCountingTest;
+
+/**
+ * Statement budgets of the AdminController endpoints. The fine run, the
+ * archival and the projection rebuild work on several loans, so that a
+ * statement per loan fails their budget. Their statements are counted from
+ * every thread they run on
+ *
+ */
+@StatementCountingTest
+public class AdminControllerStatementBudgetTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private PatronService patronService;
+
+	@Autowired
+	private BorrowingRecordService borrowingRecordService;
+
+	@BeforeEach
+	public void setup() {
+		for (int i = 0; i < 3; i++) {
+			Book book = bookService.saveBook(new Book(null, "Book " + i, "Author " + i, 1925, "9780141182636"));
+			Patron patron = patronService.savePatron(new Patron(null, "Patron " + i, "123456789"));
+			borrowingRecordService.borrowBook(book.getId(), patron.getId());
+			if (i > 0) {
+				borrowingRecordService.returnBook(book.getId(), patron.getId());
+			}
+		}
+	}
+
+	/**
+	 * Test case for the fine run reading the loans in one page and writing their
+	 * fines in one batch
+	 */
+	@Test
+	public void testRunFineCalculation() throws Exception {
+		mockMvc.perform(post("/library/api/admin/fines/run").param("asOf", "2099-01-01")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(2));
+	}
+
+	/**
+	 * Test case for the archival finding the archivable loans in one select
+	 */
+	@Test
+	public void testRunArchival() throws Exception {
+		mockMvc.perform(post("/library/api/admin/archive/run")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the journal read from its files without any statement
+	 */
+	@Test
+	public void testReadJournal() throws Exception {
+		mockMvc.perform(get("/library/api/admin/journal")).andExpect(status().isOk())
+				.andExpect(statements().totalAtMost(0));
+	}
+
+	/**
+	 * Test case for the projection rebuild replacing the active loans in a single
+	 * chunk under the rebuild lock, after locking the open loans of the chunk
+	 */
+	@Test
+	public void testRebuildActiveLoans() throws Exception {
+		mockMvc.perform(post("/library/api/admin/projections/active-loans/rebuild")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(3)).andExpect(statements().totalAtMost(5));
+	}
+
+	/**
+	 * Test case for the most throttled keys kept in memory without any statement
+	 */
+	@Test
+	public void testMostThrottledKeys() throws Exception {
+		mockMvc.perform(get("/library/api/admin/rate-limits")).andExpect(status().isOk())
+				.andExpect(statements().totalAtMost(0));
+	}
+
+	/**
+	 * Test case for the flight recording started, dumped and stopped without any
+	 * statement
+	 */
+	@Test
+	public void testFlightRecording() throws Exception {
+		mockMvc.perform(post("/library/api/admin/recordings/start")).andExpect(status().isOk())
+				.andExpect(statements().totalAtMost(0));
+		mockMvc.perform(post("/library/api/admin/recordings/dump")).andExpect(status().isOk())
+				.andExpect(statements().totalAtMost(0));
+		mockMvc.perform(post("/library/api/admin/recordings/stop")).andExpect(status().isOk())
+				.andExpect(statements().totalAtMost(0));
+	}
+}
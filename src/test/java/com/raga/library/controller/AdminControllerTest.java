@@ -0,0 +1,257 @@
+package com.raga.library.controller;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.raga.library.archive.ArchiveRunSummary;
+import com.raga.library.exception.ResourceNotFoundException;
+import com.raga.library.fine.FineRunSummary;
+import com.raga.library.jfr.FlightRecordingSummary;
+import com.raga.library.journal.JournalEventType;
+import com.raga.library.journal.JournalRecord;
+import com.raga.library.projection.ProjectionRebuildSummary;
+import com.raga.library.ratelimit.RateLimitKeyType;
+import com.raga.library.ratelimit.ThrottledKey;
+import com.raga.library.service.ActiveLoanProjectionService;
+import com.raga.library.service.ArchivalService;
+import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.EventJournalService;
+import com.raga.library.service.FineCalculationService;
+import com.raga.library.service.FlightRecordingService;
+import com.raga.library.service.IdempotencyService;
+import com.raga.library.service.LibraryStatisticsService;
+import com.raga.library.service.PatronService;
+import com.raga.library.service.RateLimitService;
+import com.raga.library.service.RenderedPageCacheService;
+import com.raga.library.service.TrendingService;
+
+/**
+ * Unit tests for the AdminController class. These tests cover the
+ * functionality of AdminController
+ * 
+ */
+@WebMvcTest
+public class AdminControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private BookService bookService;
+
+	@MockBean
+	private PatronService patronService;
+
+	@MockBean
+	private BorrowingRecordService borrowingRecordService;
+
+	@MockBean
+	private FineCalculationService fineCalculationService;
+
+	@MockBean
+	private LibraryStatisticsService libraryStatisticsService;
+
+	@MockBean
+	private TrendingService trendingService;
+
+	@MockBean
+	private ArchivalService archivalService;
+
+	@MockBean
+	private EventJournalService eventJournalService;
+
+	@MockBean
+	private ActiveLoanProjectionService activeLoanProjectionService;
+
+	@MockBean
+	private RenderedPageCacheService renderedPageCacheService;
+
+	@MockBean
+	private RateLimitService rateLimitService;
+
+	@MockBean
+	private IdempotencyService idempotencyService;
+
+	@MockBean
+	private FlightRecordingService flightRecordingService;
+
+	/**
+	 * Test case for running the fine calculation on demand
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testRunFineCalculation() throws Exception {
+		// Given
+		LocalDate asOf = LocalDate.of(2024, 3, 31);
+		given(fineCalculationService.calculateFines(asOf))
+				.willReturn(FineRunSummary.of(asOf, 1000, 10, 500_000_000L));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(post("/library/api/admin/fines/run").param("asOf", "2024-03-31"));
+
+		// Then
+		resultActions.andExpect(status().isOk()).andExpect(jsonPath("$.loansProcessed").value(1000))
+				.andExpect(jsonPath("$.loansUpdated").value(10))
+				.andExpect(jsonPath("$.loansPerSecond").value(2000.0));
+	}
+
+	/**
+	 * Test case for running the archival of returned loans on demand
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testRunArchival() throws Exception {
+		// Given
+		LocalDate asOf = LocalDate.of(2024, 3, 31);
+		given(archivalService.archiveReturnedLoans(asOf))
+				.willReturn(new ArchiveRunSummary(LocalDate.of(2023, 10, 3), 2500, 3, 900));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(post("/library/api/admin/archive/run").param("asOf", "2024-03-31"));
+
+		// Then
+		resultActions.andExpect(status().isOk()).andExpect(jsonPath("$.loansArchived").value(2500))
+				.andExpect(jsonPath("$.batches").value(3))
+				.andExpect(jsonPath("$.returnedBefore").value("2023-10-03"));
+	}
+
+	/**
+	 * Test case for reading the event journal from an offset
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testReadJournal() throws Exception {
+		// Given
+		JournalRecord borrowed = new JournalRecord(42, Instant.parse("2024-03-01T10:15:30Z"),
+				JournalEventType.BOOK_BORROWED, 7L, 1L, 2L, LocalDate.of(2024, 3, 1), Map.of());
+		JournalRecord updated = new JournalRecord(43, Instant.parse("2024-03-01T10:16:00Z"),
+				JournalEventType.BOOK_UPDATED, null, 1L, null, null, Map.of("title", "Dune"));
+		given(eventJournalService.readJournal(42, 10)).willReturn(List.of(borrowed, updated));
+
+		// When
+		ResultActions resultActions = mockMvc
+				.perform(get("/library/api/admin/journal").param("fromOffset", "42").param("limit", "10"));
+
+		// Then
+		resultActions.andExpect(status().isOk()).andExpect(jsonPath("$[0].offset").value(42))
+				.andExpect(jsonPath("$[0].type").value("BOOK_BORROWED"))
+				.andExpect(jsonPath("$[0].loanId").value(7))
+				.andExpect(jsonPath("$[1].fields.title").value("Dune"));
+	}
+
+	/**
+	 * Test case for rebuilding the active loans read model on demand
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testRebuildActiveLoans() throws Exception {
+		// Given
+		given(activeLoanProjectionService.rebuildProjection()).willReturn(new ProjectionRebuildSummary(1200, 4, 80));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(post("/library/api/admin/projections/active-loans/rebuild"));
+
+		// Then
+		resultActions.andExpect(status().isOk()).andExpect(jsonPath("$.activeLoans").value(1200))
+				.andExpect(jsonPath("$.chunks").value(4));
+	}
+
+	/**
+	 * Test case for listing the most throttled patrons and clients
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testMostThrottledKeys() throws Exception {
+		// Given
+		given(rateLimitService.mostThrottledKeys(5)).willReturn(
+				List.of(new ThrottledKey("circulation", RateLimitKeyType.CLIENT, "10.0.0.7", 340)));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(get("/library/api/admin/rate-limits").param("limit", "5"));
+
+		// Then
+		resultActions.andExpect(status().isOk()).andExpect(jsonPath("$[0].group").value("circulation"))
+				.andExpect(jsonPath("$[0].keyType").value("CLIENT")).andExpect(jsonPath("$[0].key").value("10.0.0.7"))
+				.andExpect(jsonPath("$[0].throttledRequests").value(340));
+	}
+
+	/**
+	 * Test case for starting the flight recording of the library events
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testStartRecording() throws Exception {
+		// Given
+		given(flightRecordingService.startRecording()).willReturn(new FlightRecordingSummary(3, "library", "RUNNING",
+				Instant.parse("2024-03-01T10:15:30Z"), "default", null, 0));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(post("/library/api/admin/recordings/start"));
+
+		// Then
+		resultActions.andExpect(status().isOk()).andExpect(jsonPath("$.id").value(3))
+				.andExpect(jsonPath("$.state").value("RUNNING")).andExpect(jsonPath("$.settings").value("default"));
+	}
+
+	/**
+	 * Test case for stopping the flight recording and dumping it to a file
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testStopRecording() throws Exception {
+		// Given
+		given(flightRecordingService.stopRecording()).willReturn(new FlightRecordingSummary(3, "library", "STOPPED",
+				Instant.parse("2024-03-01T10:15:30Z"), "default", "/data/recordings/library-3.jfr", 52000));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(post("/library/api/admin/recordings/stop"));
+
+		// Then
+		resultActions.andExpect(status().isOk()).andExpect(jsonPath("$.state").value("STOPPED"))
+				.andExpect(jsonPath("$.file").value("/data/recordings/library-3.jfr"))
+				.andExpect(jsonPath("$.fileBytes").value(52000));
+	}
+
+	/**
+	 * Test case for dumping the flight recording when none is running
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testDumpRecording_NotRunning() throws Exception {
+		// Given
+		given(flightRecordingService.dumpRecording())
+				.willThrow(new ResourceNotFoundException("No flight recording is running"));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(post("/library/api/admin/recordings/dump"));
+
+		// Then
+		resultActions.andExpect(status().isNotFound())
+				.andExpect(content().string("No flight recording is running"));
+	}
+}
@@ -0,0 +1,159 @@
+package com.raga.library.controller;
+
+import static com.raga.library.sql.StatementResultMatchers.statements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raga.library.dto.BookBatch;
+import com.raga.library.entity.Book;
+import com.raga.library.entity.Patron;
+import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.PatronService;
+import com.raga.library.sql.StatementCountingTest;
+
+/**
+ * Statement budgets of the BookController endpoints. Each list and history is
+ * read with several books and loans, so that a query per row fails its budget
+ *
+ */
+@StatementCountingTest
+public class BookControllerStatementBudgetTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private PatronService patronService;
+
+	@Autowired
+	private BorrowingRecordService borrowingRecordService;
+
+	private Book book;
+
+	@BeforeEach
+	public void setup() {
+		List<Book> books = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			books.add(bookService.saveBook(new Book(null, "Book " + i, "Author " + i, 1925, "9780141182636")));
+		}
+		book = books.get(0);
+		for (int i = 0; i < 3; i++) {
+			Patron patron = patronService.savePatron(new Patron(null, "Patron " + i, "123456789"));
+			borrowingRecordService.borrowBook(book.getId(), patron.getId());
+			if (i > 0) {
+				borrowingRecordService.returnBook(book.getId(), patron.getId());
+			}
+		}
+	}
+
+	/**
+	 * Test case for the list of all books in a single select
+	 */
+	@Test
+	public void testRetrieveAllBooks() throws Exception {
+		mockMvc.perform(get("/library/api/books")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the streamed books in one select per page
+	 */
+	@Test
+	public void testStreamAllBooks() throws Exception {
+		MvcResult result = mockMvc.perform(get("/library/api/books/stream")).andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andExpect(statements().selectsAtMost(1))
+				.andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for a book in a single select
+	 */
+	@Test
+	public void testRetrieveBookById() throws Exception {
+		mockMvc.perform(get("/library/api/books/" + book.getId())).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the loan history of a book, reading the loans and the archive
+	 * with their book and patron
+	 */
+	@Test
+	public void testRetrieveBookLoans() throws Exception {
+		mockMvc.perform(get("/library/api/books/" + book.getId() + "/loans")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(2)).andExpect(statements().totalAtMost(2));
+	}
+
+	/**
+	 * Test case for a new book in a single insert
+	 */
+	@Test
+	public void testAddNewBook() throws Exception {
+		mockMvc.perform(post("/library/api/books").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new Book(null, "New Book", "New Author", 2000, "9780141182636"))))
+				.andExpect(status().isCreated()).andExpect(statements().selectsAtMost(0))
+				.andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for a batch of books in one insert per book
+	 */
+	@Test
+	public void testAddNewBooks() throws Exception {
+		List<Book> books = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			books.add(new Book(null, "Bulk Book " + i, "Bulk Author", 2000, "9780141182636"));
+		}
+
+		mockMvc.perform(post("/library/api/books/bulk").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new BookBatch(books)))).andExpect(status().isCreated())
+				.andExpect(statements().selectsAtMost(0)).andExpect(statements().totalAtMost(3));
+	}
+
+	/**
+	 * Test case for an updated book, its active loans and the change feed
+	 */
+	@Test
+	public void testUpdateBookById() throws Exception {
+		mockMvc.perform(put("/library/api/books/" + book.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new Book(null, "Updated Book", "New Author", 2000, "9780141182636"))))
+				.andExpect(status().isOk()).andExpect(statements().selectsAtMost(2))
+				.andExpect(statements().totalAtMost(5));
+	}
+
+	/**
+	 * Test case for a deleted book, its active loans and the change feed
+	 */
+	@Test
+	public void testDeleteBookById() throws Exception {
+		Book deleted = bookService.saveBook(new Book(null, "Deleted Book", "Old Author", 2000, "9780141182636"));
+
+		mockMvc.perform(delete("/library/api/books/" + deleted.getId())).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(2)).andExpect(statements().totalAtMost(5));
+	}
+}
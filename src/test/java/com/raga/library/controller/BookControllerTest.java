@@ -1,9 +1,12 @@
 package com.raga.library.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -11,8 +14,10 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
@@ -21,16 +26,35 @@ import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raga.library.dto.BookBatch;
+import com.raga.library.dto.LoanHistoryEntry;
+import com.raga.library.dto.LoanHistoryPage;
+import com.raga.library.dto.LoanHistoryQuery;
 import com.raga.library.entity.Book;
 import com.raga.library.exception.ResourceNotFoundException;
+import com.raga.library.ratelimit.RateLimitKeyType;
+import com.raga.library.service.ActiveLoanProjectionService;
+import com.raga.library.service.ArchivalService;
 import com.raga.library.service.BookService;
 import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.EventJournalService;
+import com.raga.library.service.FineCalculationService;
+import com.raga.library.service.FlightRecordingService;
+import com.raga.library.service.IdempotencyService;
+import com.raga.library.service.LibraryStatisticsService;
 import com.raga.library.service.PatronService;
+import com.raga.library.service.RateLimitService;
+import com.raga.library.service.RenderedPageCacheService;
+import com.raga.library.service.TrendingService;
+import com.raga.library.wire.BulkStream;
+import com.raga.library.wire.WireFormat;
 
 /**
  * Unit tests for the BookController class. These tests cover the functionality
@@ -52,6 +76,36 @@ public class BookControllerTest {
 	@MockBean
 	private BorrowingRecordService borrowingRecordService;
 
+	@MockBean
+	private FineCalculationService fineCalculationService;
+
+	@MockBean
+	private LibraryStatisticsService libraryStatisticsService;
+
+	@MockBean
+	private TrendingService trendingService;
+
+	@MockBean
+	private ArchivalService archivalService;
+
+	@MockBean
+	private EventJournalService eventJournalService;
+
+	@MockBean
+	private ActiveLoanProjectionService activeLoanProjectionService;
+
+	@MockBean
+	private RenderedPageCacheService renderedPageCacheService;
+
+	@MockBean
+	private RateLimitService rateLimitService;
+
+	@MockBean
+	private IdempotencyService idempotencyService;
+
+	@MockBean
+	private FlightRecordingService flightRecordingService;
+
 	@Autowired
 	private ObjectMapper objectMapper;
 
@@ -239,4 +293,206 @@ public class BookControllerTest {
 		resultActions.andExpect(status().isNotFound());
 	}
 		 
+
+	/**
+	 * Test case for retrieving the loan history of a book
+	 * 
+	 * @throws Exception if an error occurs during the test
+	 */
+	@Test
+	public void testRetrieveBookLoans() throws Exception {
+
+		// Given
+		LoanHistoryEntry entry = new LoanHistoryEntry(7L, 1L, "The Great Gatsby", 2L, "John Doe",
+				LocalDate.of(2024, 2, 2), LocalDate.of(2024, 2, 16), null, null);
+		given(borrowingRecordService.retrieveBookLoanHistory(ArgumentMatchers.eq(1L),
+				ArgumentMatchers.any(LoanHistoryQuery.class)))
+				.willReturn(new LoanHistoryPage(List.of(entry), "MjAyNC0wMi0wMjo3"));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(get("/library/api/books/1/loans").param("status", "ACTIVE"));
+
+		// Then
+		resultActions.andExpect(status().isOk()).andExpect(jsonPath("$.loans[0].bookTitle").value("The Great Gatsby"))
+				.andExpect(jsonPath("$.loans[0].borrowDate").value("2024-02-02"))
+				.andExpect(jsonPath("$.nextCursor").value("MjAyNC0wMi0wMjo3"));
+	}
+
+	/**
+	 * Test case for retrieving the loan history of a book with a malformed cursor
+	 * 
+	 * @throws Exception if an error occurs during the test
+	 */
+	@Test
+	public void testRetrieveBookLoansInvalidCursor() throws Exception {
+
+		// When
+		ResultActions resultActions = mockMvc
+				.perform(get("/library/api/books/1/loans").param("cursor", "not-a-cursor"));
+
+		// Then
+		resultActions.andExpect(status().isBadRequest());
+	}
+
+	/**
+	 * Test case for retrieving all books in CBOR
+	 * 
+	 * @throws Exception if an error occurs during the test
+	 */
+	@Test
+	public void testRetrieveAllBooksInCbor() throws Exception {
+
+		// Given
+		List<Book> books = Arrays.asList(
+				new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636"),
+				new Book(2L, "To Kill a Mockingbird", "Harper Lee", 1960, "9780061120084"));
+		given(bookService.retrieveAllBooks()).willReturn(books);
+
+		// When
+		MvcResult result = mockMvc.perform(get("/library/api/books").accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk()).andExpect(content().contentType(MediaType.APPLICATION_CBOR)).andReturn();
+
+		// Then
+		Book[] decoded = WireFormat.CBOR.getObjectMapper().readValue(result.getResponse().getContentAsByteArray(),
+				Book[].class);
+		assertEquals(2, decoded.length);
+		assertEquals("To Kill a Mockingbird", decoded[1].getTitle());
+	}
+
+	/**
+	 * Test case for a stream sent with a stored idempotency key, which is still
+	 * rate limited since streams are not answered from stored responses
+	 * 
+	 * @throws Exception if an error occurs during the test
+	 */
+	@Test
+	public void testStreamAllBooksWithIdempotencyKeyIsThrottled() throws Exception {
+		// Given
+		given(rateLimitService.acquire(any(), eq(RateLimitKeyType.CLIENT), any())).willReturn(10_000_000_000L);
+		given(idempotencyService.isKnown(any(), any())).willReturn(true);
+
+		// When
+		ResultActions resultActions = mockMvc
+				.perform(get("/library/api/books/stream").header("Idempotency-Key", "kiosk-7-42"));
+
+		// Then
+		resultActions.andExpect(status().isTooManyRequests());
+	}
+
+	/**
+	 * Test case for streaming all books as newline-delimited JSON
+	 * 
+	 * @throws Exception if an error occurs during the test
+	 */
+	@Test
+	public void testStreamAllBooks() throws Exception {
+
+		// Given
+		given(bookService.retrieveBooksAfter(0L, BulkStream.PAGE_SIZE)).willReturn(List.of(
+				new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636"),
+				new Book(2L, "To Kill a Mockingbird", "Harper Lee", 1960, "9780061120084")));
+
+		// When
+		MvcResult asyncResult = mockMvc.perform(get("/library/api/books/stream"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		// Then
+		String[] lines = mockMvc.perform(asyncDispatch(asyncResult)).andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON)).andReturn().getResponse()
+				.getContentAsString().split("\n");
+		assertEquals(2, lines.length);
+		assertEquals("The Great Gatsby", objectMapper.readValue(lines[0], Book.class).getTitle());
+	}
+
+	/**
+	 * Test case for streaming all books as a sequence of Smile values
+	 * 
+	 * @throws Exception if an error occurs during the test
+	 */
+	@Test
+	public void testStreamAllBooksInSmile() throws Exception {
+
+		// Given
+		given(bookService.retrieveBooksAfter(0L, BulkStream.PAGE_SIZE)).willReturn(
+				List.of(new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636")));
+
+		// When
+		MvcResult asyncResult = mockMvc
+				.perform(get("/library/api/books/stream").header(HttpHeaders.ACCEPT, "application/x-jackson-smile"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		// Then
+		byte[] body = mockMvc.perform(asyncDispatch(asyncResult)).andExpect(status().isOk())
+				.andExpect(content().contentType(WireFormat.SMILE.getStreamMediaType())).andReturn().getResponse()
+				.getContentAsByteArray();
+		List<Book> decoded = WireFormat.SMILE.getObjectMapper().readerFor(Book.class).<Book>readValues(body)
+				.readAll();
+		assertEquals(1, decoded.size());
+		assertEquals("9780141182636", decoded.get(0).getIsbn());
+	}
+
+	/**
+	 * Test case for streaming all books in the binary format accepted with the
+	 * highest quality
+	 * 
+	 * @throws Exception if an error occurs during the test
+	 */
+	@Test
+	public void testStreamAllBooksInPreferredFormat() throws Exception {
+
+		// Given
+		given(bookService.retrieveBooksAfter(0L, BulkStream.PAGE_SIZE)).willReturn(
+				List.of(new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636")));
+
+		// When
+		MvcResult asyncResult = mockMvc
+				.perform(get("/library/api/books/stream").header(HttpHeaders.ACCEPT,
+						"application/x-jackson-smile;q=0.2, application/cbor;q=0.8, application/json;q=0"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		// Then
+		mockMvc.perform(asyncDispatch(asyncResult)).andExpect(status().isOk())
+				.andExpect(content().contentType(WireFormat.CBOR.getStreamMediaType()));
+	}
+
+	/**
+	 * Test case for adding a batch of books sent in CBOR
+	 * 
+	 * @throws Exception if an error occurs during the test
+	 */
+	@Test
+	public void testAddNewBooksInCbor() throws Exception {
+
+		// Given
+		BookBatch batch = new BookBatch(
+				List.of(new Book(null, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636"),
+						new Book(null, "To Kill a Mockingbird", "Harper Lee", 1960, "9780061120084")));
+		given(bookService.saveBooks(ArgumentMatchers.anyList())).willReturn(2);
+
+		// When
+		ResultActions resultActions = mockMvc.perform(post("/library/api/books/bulk")
+				.contentType(MediaType.APPLICATION_CBOR).content(WireFormat.CBOR.getObjectMapper().writeValueAsBytes(batch)));
+
+		// Then
+		resultActions.andExpect(status().isCreated()).andExpect(content().string("2 books added successfully"));
+	}
+
+	/**
+	 * Test case for adding a batch of books containing an invalid book
+	 * 
+	 * @throws Exception if an error occurs during the test
+	 */
+	@Test
+	public void testAddNewBooksInvalidBook() throws Exception {
+
+		// Given
+		BookBatch batch = new BookBatch(List.of(new Book(null, "", "F. Scott Fitzgerald", 1925, "9780141182636")));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(post("/library/api/books/bulk")
+				.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(batch)));
+
+		// Then
+		resultActions.andExpect(status().isBadRequest());
+	}
 }
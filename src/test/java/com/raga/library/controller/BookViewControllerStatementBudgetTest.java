@@ -0,0 +1,147 @@
+package com.raga.library.controller;
+
+import static com.raga.library.sql.StatementResultMatchers.statements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.raga.library.entity.Book;
+import com.raga.library.entity.Patron;
+import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.PatronService;
+import com.raga.library.sql.StatementCountingTest;
+
+/**
+ * Statement budgets of the BookViewController pages. The lists and histories
+ * are rendered with several books and loans, so that a query per row fails its
+ * budget
+ *
+ */
+@StatementCountingTest
+public class BookViewControllerStatementBudgetTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private PatronService patronService;
+
+	@Autowired
+	private BorrowingRecordService borrowingRecordService;
+
+	private Book book;
+
+	@BeforeEach
+	public void setup() {
+		book = bookService.saveBook(new Book(null, "Book", "Author", 1925, "9780141182636"));
+		for (int i = 0; i < 3; i++) {
+			bookService.saveBook(new Book(null, "Book " + i, "Author " + i, 1925, "9780141182636"));
+			Patron patron = patronService.savePatron(new Patron(null, "Patron " + i, "123456789"));
+			borrowingRecordService.borrowBook(book.getId(), patron.getId());
+		}
+	}
+
+	/**
+	 * Test case for the home page with the books trending today
+	 */
+	@Test
+	public void testViewHomePage() throws Exception {
+		mockMvc.perform(get("/library")).andExpect(status().isOk()).andExpect(statements().selectsAtMost(1))
+				.andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the dashboard with the books and patrons trending today
+	 */
+	@Test
+	public void testViewDashboard() throws Exception {
+		mockMvc.perform(get("/library/dashboard")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(2)).andExpect(statements().totalAtMost(2));
+	}
+
+	/**
+	 * Test case for a page of the book list in a single select
+	 */
+	@Test
+	public void testRetrieveAllBooks() throws Exception {
+		mockMvc.perform(get("/library/books")).andExpect(status().isOk()).andExpect(statements().selectsAtMost(1))
+				.andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the streamed book list in one select per page
+	 */
+	@Test
+	public void testStreamAllBooks() throws Exception {
+		mockMvc.perform(get("/library/books").param("stream", "true")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the book details with the first page of its loan history
+	 */
+	@Test
+	public void testRetrieveBookById() throws Exception {
+		mockMvc.perform(get("/library/books/" + book.getId())).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(3)).andExpect(statements().totalAtMost(3));
+	}
+
+	/**
+	 * Test case for the new book form without any statement
+	 */
+	@Test
+	public void testShowAddBookForm() throws Exception {
+		mockMvc.perform(get("/library/books/new")).andExpect(status().isOk()).andExpect(statements().totalAtMost(0));
+	}
+
+	/**
+	 * Test case for a new book in a single insert
+	 */
+	@Test
+	public void testAddNewBook() throws Exception {
+		mockMvc.perform(post("/library/books").param("title", "New Book").param("author", "New Author")
+				.param("publicationYear", "2000").param("isbn", "9780141182636"))
+				.andExpect(status().is3xxRedirection()).andExpect(statements().selectsAtMost(0))
+				.andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the edit form of a book in a single select
+	 */
+	@Test
+	public void testShowEditBookForm() throws Exception {
+		mockMvc.perform(get("/library/books/" + book.getId() + "/edit")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for an updated book, its active loans and the change feed
+	 */
+	@Test
+	public void testUpdateBookById() throws Exception {
+		mockMvc.perform(post("/library/books/" + book.getId() + "/edit").param("title", "Updated Book")
+				.param("author", "New Author").param("publicationYear", "2000").param("isbn", "9780141182636"))
+				.andExpect(status().is3xxRedirection()).andExpect(statements().selectsAtMost(2))
+				.andExpect(statements().totalAtMost(5));
+	}
+
+	/**
+	 * Test case for a deleted book, its active loans and the change feed
+	 */
+	@Test
+	public void testDeleteBookById() throws Exception {
+		Book deleted = bookService.saveBook(new Book(null, "Deleted Book", "Old Author", 2000, "9780141182636"));
+
+		mockMvc.perform(post("/library/books/" + deleted.getId() + "/delete")).andExpect(status().is3xxRedirection())
+				.andExpect(statements().selectsAtMost(2)).andExpect(statements().totalAtMost(5));
+	}
+}
@@ -1,19 +1,30 @@
 package com.raga.library.controller;
 
+import com.raga.library.cache.RenderedPageKey;
+import com.raga.library.dto.ListQuery;
 import com.raga.library.entity.Book;
 import com.raga.library.exception.MethodArgumentNotValidException;
 import com.raga.library.exception.ResourceNotFoundException;
 import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.LibraryStatisticsService;
+import com.raga.library.service.RenderedPageCacheService;
+import com.raga.library.service.TrendingService;
+import com.raga.library.view.KeysetRows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.View;
 import java.util.ArrayList;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 /**
@@ -26,6 +37,18 @@ public class BookViewControllerTest {
 	@Mock
 	private BookService bookService;
 
+	@Mock
+	private LibraryStatisticsService libraryStatisticsService;
+
+	@Mock
+	private TrendingService trendingService;
+
+	@Mock
+	private BorrowingRecordService borrowingRecordService;
+
+	@Mock
+	private RenderedPageCacheService renderedPageCacheService;
+
 	@InjectMocks
 	private BookViewController bookViewController;
 
@@ -54,17 +77,75 @@ public class BookViewControllerTest {
 	}
 
 	/**
-	 * Test for retrieval of all books
+	 * Test for retrieval of one sorted page of books
 	 */
 	@Test
 	public void testRetrieveAllBooks() {
-		List<Book> mockBooks = new ArrayList<>();
-		when(bookService.retrieveAllBooks()).thenReturn(mockBooks);
+		SliceImpl<Book> mockBooks = new SliceImpl<>(new ArrayList<>());
+		ListQuery listQuery = new ListQuery(2, 20, "title", Sort.Direction.DESC);
+		when(bookService.retrieveBooks(listQuery)).thenReturn(mockBooks);
 
-		ModelAndView modelAndView = bookViewController.retrieveAllBooks();
+		ModelAndView modelAndView = bookViewController.retrieveAllBooks(2, 20, "title", Sort.Direction.DESC, false);
 
 		assertEquals("book-list", modelAndView.getViewName());
 		assertEquals(mockBooks, modelAndView.getModel().get("books"));
+		assertEquals(listQuery, modelAndView.getModel().get("listQuery"));
+	}
+
+	/**
+	 * Test for retrieval of a page beyond the rows reachable by paging, which
+	 * returns the last reachable page
+	 */
+	@Test
+	public void testRetrieveAllBooksDeepPage() {
+		ListQuery lastPage = new ListQuery(ListQuery.MAXIMUM_ROWS / 50 - 1, 50, "id", Sort.Direction.ASC);
+		when(bookService.retrieveBooks(lastPage)).thenReturn(new SliceImpl<>(new ArrayList<>()));
+
+		ModelAndView modelAndView = bookViewController.retrieveAllBooks(Integer.MAX_VALUE, 50, "id",
+				Sort.Direction.ASC, false);
+
+		assertEquals(lastPage, modelAndView.getModel().get("listQuery"));
+		assertTrue(lastPage.isLastReachablePage());
+		verify(bookService).retrieveBooks(lastPage);
+	}
+
+	/**
+	 * Test for retrieval of a page of books sorted by a property that is not
+	 * sortable
+	 */
+	@Test
+	public void testRetrieveAllBooksUnknownSort() {
+		when(bookService.retrieveBooks(ListQuery.firstPage())).thenReturn(new SliceImpl<>(new ArrayList<>()));
+
+		ModelAndView modelAndView = bookViewController.retrieveAllBooks(0, 50, "password", Sort.Direction.ASC, false);
+
+		assertEquals(ListQuery.firstPage(), modelAndView.getModel().get("listQuery"));
+		verify(bookService).retrieveBooks(ListQuery.firstPage());
+	}
+
+	/**
+	 * Test for streaming all books, read in keyset pages while the view iterates
+	 */
+	@Test
+	public void testRetrieveAllBooksStreaming() {
+		List<Book> firstPage = new ArrayList<>();
+		for (long id = 1; id <= KeysetRows.PAGE_SIZE; id++) {
+			firstPage.add(new Book(id, "Title " + id, "Author", 2000, "9780141182636"));
+		}
+		when(bookService.retrieveBooksAfter(0L, KeysetRows.PAGE_SIZE)).thenReturn(firstPage);
+		when(bookService.retrieveBooksAfter((long) KeysetRows.PAGE_SIZE, KeysetRows.PAGE_SIZE))
+				.thenReturn(List.of(new Book(501L, "Last Title", "Author", 2000, "9780141182636")));
+
+		ModelAndView modelAndView = bookViewController.retrieveAllBooks(0, 50, "id", Sort.Direction.ASC, true);
+
+		assertEquals(true, modelAndView.getModel().get("streaming"));
+		verify(bookService, never()).retrieveBooksAfter(anyLong(), anyInt());
+		int rows = 0;
+		for (Object book : (Iterable<?>) modelAndView.getModel().get("books")) {
+			assertTrue(book instanceof Book);
+			rows++;
+		}
+		assertEquals(KeysetRows.PAGE_SIZE + 1, rows);
 	}
 
 	/**
@@ -77,14 +158,34 @@ public class BookViewControllerTest {
 		long id = 1L;
 		Book mockBook = new Book();
 
+		View cachedView = mock(View.class);
 		when(bookService.retrieveBook(id)).thenReturn(mockBook);
+		when(renderedPageCacheService.cachedView(eq(RenderedPageKey.bookDetails(id)), eq(0L), any()))
+				.thenReturn(cachedView);
 
-		ModelAndView modelAndView = bookViewController.retrieveBookById(id);
+		ModelAndView modelAndView = bookViewController.retrieveBookById(id, null);
 
-		assertEquals("book-details", modelAndView.getViewName());
+		assertEquals(cachedView, modelAndView.getView());
 		assertEquals(mockBook, modelAndView.getModel().get("book"));
 	}
 
+	/**
+	 * Test for retrieving a book by ID with an older page of its loan history,
+	 * which is rendered without the page cache
+	 *
+	 * @throws ResourceNotFoundException if the book is not found
+	 */
+	@Test
+	public void testRetrieveBookByIdOlderLoans() throws ResourceNotFoundException {
+		long id = 1L;
+		when(bookService.retrieveBook(id)).thenReturn(new Book());
+
+		ModelAndView modelAndView = bookViewController.retrieveBookById(id, "MjAyNC0wMi0wMjo3");
+
+		assertEquals("book-details", modelAndView.getViewName());
+		verifyNoInteractions(renderedPageCacheService);
+	}
+
 	/**
 	 * Test for retrieving a book by ID when a ResourceNotFoundException is thrown
 	 *
@@ -95,7 +196,7 @@ public class BookViewControllerTest {
 		long id = 1L;
 		when(bookService.retrieveBook(id)).thenThrow(ResourceNotFoundException.class);
 
-		ModelAndView modelAndView = bookViewController.retrieveBookById(id);
+		ModelAndView modelAndView = bookViewController.retrieveBookById(id, null);
 
 		assertEquals("error", modelAndView.getViewName());
 	}
@@ -0,0 +1,145 @@
+package com.raga.library.controller;
+
+import static com.raga.library.sql.StatementResultMatchers.statements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.raga.library.entity.Book;
+import com.raga.library.entity.Patron;
+import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.IdempotencyService;
+import com.raga.library.service.PatronService;
+import com.raga.library.sql.StatementCountingTest;
+import com.raga.library.sql.StatementType;
+
+/**
+ * Statement budgets of the BorrowingRecordController endpoints. The lists are
+ * read with several loans of different books and patrons, so that a query per
+ * loan, book or patron fails its budget
+ *
+ */
+@StatementCountingTest
+public class BorrowingRecordControllerStatementBudgetTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private PatronService patronService;
+
+	@Autowired
+	private BorrowingRecordService borrowingRecordService;
+
+	private Book book;
+
+	private Patron patron;
+
+	@BeforeEach
+	public void setup() {
+		for (int i = 0; i < 3; i++) {
+			book = bookService.saveBook(new Book(null, "Book " + i, "Author " + i, 1925, "9780141182636"));
+			patron = patronService.savePatron(new Patron(null, "Patron " + i, "123456789"));
+			borrowingRecordService.borrowBook(book.getId(), patron.getId());
+		}
+		borrowingRecordService.returnBook(book.getId(), patron.getId());
+	}
+
+	/**
+	 * Test case for the loans referencing their book and patron by id in a single
+	 * select
+	 */
+	@Test
+	public void testRetrieveLoans() throws Exception {
+		mockMvc.perform(get("/library/api/borrowingRecords")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the loans with their books and patrons side-loaded in one
+	 * select each
+	 */
+	@Test
+	public void testRetrieveLoansWithBooksAndPatrons() throws Exception {
+		mockMvc.perform(get("/library/api/borrowingRecords").param("include", "BOOK", "PATRON"))
+				.andExpect(status().isOk()).andExpect(statements().selectsAtMost(3))
+				.andExpect(statements().totalAtMost(3));
+	}
+
+	/**
+	 * Test case for the streamed loans in one select per page
+	 */
+	@Test
+	public void testStreamAllBorrowingRecords() throws Exception {
+		MvcResult result = mockMvc.perform(get("/library/api/borrowingRecords/stream"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andExpect(statements().selectsAtMost(1))
+				.andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the active loans in a single select of the read model
+	 */
+	@Test
+	public void testRetrieveActiveLoans() throws Exception {
+		mockMvc.perform(get("/library/api/loans/active")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for a borrow reading the book and patron, checking for an active
+	 * loan, and writing the loan, its active loan and the change feed
+	 */
+	@Test
+	public void testBorrowABook() throws Exception {
+		Patron borrower = patronService.savePatron(new Patron(null, "Borrower", "123456789"));
+
+		mockMvc.perform(post("/library/api/borrow/" + book.getId() + "/patron/" + borrower.getId()))
+				.andExpect(status().isCreated()).andExpect(statements().selectsAtMost(3))
+				.andExpect(statements().atMost(StatementType.INSERT, 4)).andExpect(statements().totalAtMost(7));
+	}
+
+	/**
+	 * Test case for a borrow with an idempotency key, which keeps its response in
+	 * memory and needs no more statements
+	 */
+	@Test
+	public void testBorrowABookWithIdempotencyKey() throws Exception {
+		Patron borrower = patronService.savePatron(new Patron(null, "Borrower", "123456789"));
+
+		mockMvc.perform(post("/library/api/borrow/" + book.getId() + "/patron/" + borrower.getId())
+				.header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString()))
+				.andExpect(status().isCreated()).andExpect(statements().selectsAtMost(3))
+				.andExpect(statements().atMost(StatementType.INSERT, 4)).andExpect(statements().totalAtMost(7));
+	}
+
+	/**
+	 * Test case for a return reading the active loan with its book and patron, and
+	 * writing the return date, the active loan and the change feed
+	 */
+	@Test
+	public void testReturnABook() throws Exception {
+		Patron borrower = patronService.savePatron(new Patron(null, "Borrower", "123456789"));
+		borrowingRecordService.borrowBook(book.getId(), borrower.getId());
+
+		mockMvc.perform(put("/library/api/return/" + book.getId() + "/patron/" + borrower.getId()))
+				.andExpect(status().isOk()).andExpect(statements().selectsAtMost(1))
+				.andExpect(statements().totalAtMost(5));
+	}
+}
@@ -1,16 +1,23 @@
 package com.raga.library.controller;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -19,15 +26,38 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import com.raga.library.dto.BookResponse;
+import com.raga.library.dto.LoanInclude;
+import com.raga.library.dto.LoanListResponse;
+import com.raga.library.dto.LoanResponse;
+import com.raga.library.dto.PatronResponse;
+import com.raga.library.entity.ActiveLoan;
 import com.raga.library.entity.Book;
 import com.raga.library.entity.BorrowingRecord;
 import com.raga.library.entity.Patron;
+import com.raga.library.entity.PatronCategory;
+import com.raga.library.exception.CirculationConflictException;
+import com.raga.library.exception.CirculationNotFoundException;
+import com.raga.library.ratelimit.RateLimitKeyType;
+import com.raga.library.service.ActiveLoanProjectionService;
+import com.raga.library.service.ArchivalService;
 import com.raga.library.service.BookService;
 import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.EventJournalService;
+import com.raga.library.service.FineCalculationService;
+import com.raga.library.service.FlightRecordingService;
+import com.raga.library.service.IdempotencyService;
+import com.raga.library.service.LibraryStatisticsService;
 import com.raga.library.service.PatronService;
+import com.raga.library.service.RateLimitService;
+import com.raga.library.service.RenderedPageCacheService;
+import com.raga.library.service.TrendingService;
+import com.raga.library.wire.BulkStream;
 
 /**
  * Unit tests for the BorrowingRecordController class. These tests cover the
@@ -52,6 +82,36 @@ public class BorrowingRecordControllerTest {
 	@MockBean
 	private BorrowingRecordService borrowingRecordService;
 
+	@MockBean
+	private FineCalculationService fineCalculationService;
+
+	@MockBean
+	private LibraryStatisticsService libraryStatisticsService;
+
+	@MockBean
+	private TrendingService trendingService;
+
+	@MockBean
+	private ArchivalService archivalService;
+
+	@MockBean
+	private EventJournalService eventJournalService;
+
+	@MockBean
+	private ActiveLoanProjectionService activeLoanProjectionService;
+
+	@MockBean
+	private RenderedPageCacheService renderedPageCacheService;
+
+	@MockBean
+	private RateLimitService rateLimitService;
+
+	@MockBean
+	private IdempotencyService idempotencyService;
+
+	@MockBean
+	private FlightRecordingService flightRecordingService;
+
 	/**
 	 * Test case for borrowing a book.
 	 * 
@@ -74,6 +134,95 @@ public class BorrowingRecordControllerTest {
 				.andExpect(content().contentType(MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8"));
 	}
 
+	/**
+	 * Test case for a patron exceeding the rate limit of the circulation
+	 * endpoints
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testBorrowABookThrottled() throws Exception {
+		// Given
+		given(rateLimitService.acquire(any(), eq(RateLimitKeyType.PATRON), eq("2"))).willReturn(2_500_000_000L);
+
+		// When
+		ResultActions resultActions = mockMvc.perform(post("/library/api/borrow/1/patron/2"));
+
+		// Then
+		resultActions.andExpect(status().isTooManyRequests()).andExpect(header().string("Retry-After", "3"));
+		verify(borrowingRecordService, never()).borrowBook(anyLong(), anyLong());
+	}
+
+	/**
+	 * Test case for a borrow retried with an idempotency key, answered with the
+	 * stored response instead of borrowing again
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testBorrowABookWithIdempotencyKey() throws Exception {
+		// Given
+		ResponseEntity<String> storedResponse = ResponseEntity.status(201)
+				.header(IdempotencyService.REPLAYED_HEADER, "true").body("Book Borrowed Successfully on 2024-03-01");
+		given(idempotencyService.execute(eq("kiosk-7-42"), eq("POST /library/api/borrow/1/patron/2"), any()))
+				.willAnswer(invocation -> storedResponse);
+
+		// When
+		ResultActions resultActions = mockMvc
+				.perform(post("/library/api/borrow/1/patron/2").header("Idempotency-Key", "kiosk-7-42"));
+
+		// Then
+		resultActions.andExpect(status().isCreated()).andExpect(header().string("Idempotent-Replayed", "true"))
+				.andExpect(content().string("Book Borrowed Successfully on 2024-03-01"));
+		verify(borrowingRecordService, never()).borrowBook(anyLong(), anyLong());
+	}
+
+	/**
+	 * Test case for a borrow retried with a known idempotency key by a throttled
+	 * patron, replayed without taking a token
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testBorrowABookRetryIsNotThrottled() throws Exception {
+		// Given
+		given(rateLimitService.acquire(any(), eq(RateLimitKeyType.PATRON), eq("2"))).willReturn(2_500_000_000L);
+		given(idempotencyService.isKnown("kiosk-7-42", "POST /library/api/borrow/1/patron/2")).willReturn(true);
+		ResponseEntity<String> storedResponse = ResponseEntity.status(201)
+				.header(IdempotencyService.REPLAYED_HEADER, "true").body("Book Borrowed Successfully on 2024-03-01");
+		given(idempotencyService.execute(eq("kiosk-7-42"), eq("POST /library/api/borrow/1/patron/2"), any()))
+				.willAnswer(invocation -> storedResponse);
+
+		// When
+		ResultActions resultActions = mockMvc
+				.perform(post("/library/api/borrow/1/patron/2").header("Idempotency-Key", "kiosk-7-42"));
+
+		// Then
+		resultActions.andExpect(status().isCreated()).andExpect(header().string("Idempotent-Replayed", "true"));
+		verify(rateLimitService, never()).acquire(any(), any(), any());
+	}
+
+	/**
+	 * Test case for a borrow sent by a throttled patron with a key stored for
+	 * another request, which is rate limited
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testBorrowABookWithKeyOfAnotherRequestIsThrottled() throws Exception {
+		// Given
+		given(rateLimitService.acquire(any(), eq(RateLimitKeyType.PATRON), eq("2"))).willReturn(2_500_000_000L);
+		given(idempotencyService.isKnown("kiosk-7-42", "PUT /library/api/return/1/patron/2")).willReturn(true);
+
+		// When
+		ResultActions resultActions = mockMvc
+				.perform(post("/library/api/borrow/1/patron/2").header("Idempotency-Key", "kiosk-7-42"));
+
+		// Then
+		resultActions.andExpect(status().isTooManyRequests());
+		verify(idempotencyService, never()).execute(any(), any(), any());
+	}
+
 	/**
 	 * Test case for handling errors during borrowing a book.
 	 * 
@@ -92,6 +241,25 @@ public class BorrowingRecordControllerTest {
 				.andExpect(content().string("Error in borrowing the book: Some error"));
 	}
 
+	/**
+	 * Test case for borrowing a book that is not found, answered by the
+	 * GlobalExceptionHandler
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testBorrowABookNotFound() throws Exception {
+		// Given
+		given(borrowingRecordService.borrowBook(anyLong(), anyLong()))
+				.willThrow(new CirculationNotFoundException("Book not found with id : 1"));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(post("/library/api/borrow/1/patron/2"));
+
+		// Then
+		resultActions.andExpect(status().isNotFound()).andExpect(content().string("Book not found with id : 1"));
+	}
+
 	/**
 	 * Test case for returning a book.
 	 * 
@@ -132,6 +300,26 @@ public class BorrowingRecordControllerTest {
 				.andExpect(content().contentType(MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8"))
 				.andExpect(content().string("Error in returning the book: Some error"));
 	}
+
+	/**
+	 * Test case for returning a book the patron has borrowed more than once,
+	 * answered by the GlobalExceptionHandler
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testReturnABookConflict() throws Exception {
+		// Given
+		given(borrowingRecordService.returnBook(anyLong(), anyLong())).willThrow(
+				new CirculationConflictException("More than one active borrowing record found for Book and Patron!"));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(put("/library/api/return/1/patron/2"));
+
+		// Then
+		resultActions.andExpect(status().isConflict())
+				.andExpect(content().string("More than one active borrowing record found for Book and Patron!"));
+	}
 	
 	/**
 	 * Test case to retrieve all Borrowing records
@@ -139,24 +327,94 @@ public class BorrowingRecordControllerTest {
 	 */
 	@Test
 	public void testRetrieveAllBorrowingRecord() throws Exception {
-		
+
 		// Given
-		Long bookId = 1L;
-		Long patronId = 2L;
-		Book book = new Book(bookId, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
-		Patron patron = new Patron(patronId, "John Doe", "123456789");
-		BorrowingRecord activeBorrowingRecord = new BorrowingRecord(book, patron, LocalDate.now(), null);
-		List<BorrowingRecord> mockBorrowingRecords = new ArrayList<>();
-		mockBorrowingRecords.add(activeBorrowingRecord);
-				
-		given(borrowingRecordService.retrieveAllBorrowingRecord()).willReturn(mockBorrowingRecords);
+		LoanResponse loan = new LoanResponse(7L, 1L, 2L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 15), null,
+				null);
+		given(borrowingRecordService.retrieveLoanList(EnumSet.noneOf(LoanInclude.class)))
+				.willReturn(new LoanListResponse(List.of(loan), null, null));
 
+		// When
 		ResultActions resultActions = mockMvc.perform(get("/library/api/borrowingRecords"));
 
 		// then
 		resultActions.andExpect(status().isOk()).andExpect(content().contentType(MediaType.APPLICATION_JSON))
-				.andExpect(jsonPath("$[0].book.title").value("The Great Gatsby"))
-				.andExpect(jsonPath("$[0].book.author").value("F. Scott Fitzgerald"));
-				
+				.andExpect(jsonPath("$.loans[0].bookId").value(1))
+				.andExpect(jsonPath("$.loans[0].patronId").value(2))
+				.andExpect(jsonPath("$.books").doesNotExist());
+	}
+
+	/**
+	 * Test case for retrieving all borrowing records with their books and patrons
+	 * side-loaded
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testRetrieveAllBorrowingRecordIncludingBooksAndPatrons() throws Exception {
+
+		// Given
+		LoanResponse loan = new LoanResponse(7L, 1L, 2L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 15), null,
+				null);
+		BookResponse book = new BookResponse(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		PatronResponse patron = new PatronResponse(2L, "John Doe", "123456789", PatronCategory.STANDARD);
+		given(borrowingRecordService.retrieveLoanList(EnumSet.of(LoanInclude.BOOK, LoanInclude.PATRON)))
+				.willReturn(new LoanListResponse(List.of(loan), List.of(book), List.of(patron)));
+
+		// When
+		ResultActions resultActions = mockMvc
+				.perform(get("/library/api/borrowingRecords").param("include", "BOOK,PATRON"));
+
+		// then
+		resultActions.andExpect(status().isOk()).andExpect(jsonPath("$.loans[0].bookId").value(1))
+				.andExpect(jsonPath("$.books[0].title").value("The Great Gatsby"))
+				.andExpect(jsonPath("$.books[0].author").value("F. Scott Fitzgerald"))
+				.andExpect(jsonPath("$.patrons[0].name").value("John Doe"));
+	}
+
+	/**
+	 * Test case for retrieving the active loans from the read model
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testRetrieveActiveLoans() throws Exception {
+		// Given
+		Book book = new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		Patron patron = new Patron(2L, "John Doe", "123456789");
+		ActiveLoan activeLoan = new ActiveLoan(new BorrowingRecord(book, patron, LocalDate.of(2024, 3, 1), null));
+		given(activeLoanProjectionService.retrieveActiveLoans()).willReturn(List.of(activeLoan));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(get("/library/api/loans/active"));
+
+		// Then
+		resultActions.andExpect(status().isOk()).andExpect(jsonPath("$[0].bookTitle").value("The Great Gatsby"))
+				.andExpect(jsonPath("$[0].bookAuthor").value("F. Scott Fitzgerald"))
+				.andExpect(jsonPath("$[0].patronName").value("John Doe"));
+	}
+
+	/**
+	 * Test case for streaming all borrowing records as newline-delimited JSON
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testStreamAllBorrowingRecords() throws Exception {
+
+		// Given
+		LoanResponse loan = new LoanResponse(7L, 1L, 2L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 15), null,
+				null);
+		given(borrowingRecordService.retrieveLoansAfter(0L, BulkStream.PAGE_SIZE)).willReturn(List.of(loan));
+
+		// When
+		MvcResult asyncResult = mockMvc.perform(get("/library/api/borrowingRecords/stream"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		// Then
+		mockMvc.perform(asyncDispatch(asyncResult)).andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+				.andExpect(content().string("{\"id\":7,\"bookId\":1,\"patronId\":2,\"borrowDate\":\"2024-03-01\","
+						+ "\"dueDate\":\"2024-03-15\",\"returnDate\":null,\"fineAmount\":null}"));
 	}
 }
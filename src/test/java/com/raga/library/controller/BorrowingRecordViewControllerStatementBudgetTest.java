@@ -0,0 +1,132 @@
+package com.raga.library.controller;
+
+import static com.raga.library.sql.StatementResultMatchers.statements;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.raga.library.entity.Book;
+import com.raga.library.entity.Patron;
+import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.PatronService;
+import com.raga.library.sql.StatementCountingTest;
+import com.raga.library.sql.StatementType;
+
+/**
+ * Statement budgets of the BorrowingRecordViewController pages. The lists are
+ * rendered with several loans of different books and patrons, so that a query
+ * per loan, book or patron fails its budget. A borrow and a return are held to
+ * the minimum number of statements of each kind they are known to need
+ *
+ */
+@StatementCountingTest
+public class BorrowingRecordViewControllerStatementBudgetTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private PatronService patronService;
+
+	@Autowired
+	private BorrowingRecordService borrowingRecordService;
+
+	private Book book;
+
+	@BeforeEach
+	public void setup() {
+		for (int i = 0; i < 3; i++) {
+			book = bookService.saveBook(new Book(null, "Book " + i, "Author " + i, 1925, "9780141182636"));
+			Patron patron = patronService.savePatron(new Patron(null, "Patron " + i, "123456789"));
+			borrowingRecordService.borrowBook(book.getId(), patron.getId());
+		}
+	}
+
+	/**
+	 * Test case for a page of the borrowing record list with their books and
+	 * patrons in a single select
+	 */
+	@Test
+	public void testRetrieveAllBorrowingRecords() throws Exception {
+		mockMvc.perform(get("/library/borrowingRecords")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the streamed borrowing record list in one select per page
+	 */
+	@Test
+	public void testStreamAllBorrowingRecords() throws Exception {
+		mockMvc.perform(get("/library/borrowingRecords").param("stream", "true")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the borrow form without any statement
+	 */
+	@Test
+	public void testBorrowBookForm() throws Exception {
+		mockMvc.perform(get("/library/borrowingBook")).andExpect(status().isOk())
+				.andExpect(statements().totalAtMost(0));
+	}
+
+	/**
+	 * Test case for the return form listing the active loans in a single select of
+	 * the read model
+	 */
+	@Test
+	public void testReturnBookRecord() throws Exception {
+		mockMvc.perform(get("/library/returningBook")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for a borrow confirmed with the book and patron it already read.
+	 * It reads the book and the patron and checks for an active loan, then inserts
+	 * the loan, its active loan and the book and patron into the change feed
+	 */
+	@Test
+	public void testBorrowABook() throws Exception {
+		Patron patron = patronService.savePatron(new Patron(null, "Borrower", "123456789"));
+
+		mockMvc.perform(get("/library/borrow/" + book.getId() + "/patron/" + patron.getId()))
+				.andExpect(status().isOk()).andExpect(view().name("borrow-success"))
+				.andExpect(model().attribute("book", hasProperty("title", equalTo(book.getTitle()))))
+				.andExpect(statements().selectsAtMost(3))
+				.andExpect(statements().atMost(StatementType.INSERT, 4))
+				.andExpect(statements().atMost(StatementType.UPDATE, 0))
+				.andExpect(statements().atMost(StatementType.DELETE, 0)).andExpect(statements().totalAtMost(7));
+	}
+
+	/**
+	 * Test case for a return confirmed with the book and patron it already read.
+	 * It reads the active loan with its book and patron, then sets the return
+	 * date, removes the active loan and inserts the book and patron into the
+	 * change feed
+	 */
+	@Test
+	public void testReturnABook() throws Exception {
+		Patron patron = patronService.savePatron(new Patron(null, "Borrower", "123456789"));
+		borrowingRecordService.borrowBook(book.getId(), patron.getId());
+
+		mockMvc.perform(get("/library/return/" + book.getId() + "/patron/" + patron.getId()))
+				.andExpect(status().isOk()).andExpect(view().name("return-success"))
+				.andExpect(model().attribute("patron", hasProperty("name", equalTo(patron.getName()))))
+				.andExpect(statements().selectsAtMost(1))
+				.andExpect(statements().atMost(StatementType.INSERT, 2))
+				.andExpect(statements().atMost(StatementType.UPDATE, 1))
+				.andExpect(statements().atMost(StatementType.DELETE, 1)).andExpect(statements().totalAtMost(5));
+	}
+}
@@ -1,19 +1,23 @@
 package com.raga.library.controller;
 
+import com.raga.library.dto.ListQuery;
+import com.raga.library.entity.ActiveLoan;
 import com.raga.library.entity.Book;
 import com.raga.library.entity.BorrowingRecord;
 import com.raga.library.entity.Patron;
-import com.raga.library.exception.ResourceNotFoundException;
-import com.raga.library.service.BookService;
+import com.raga.library.service.ActiveLoanProjectionService;
 import com.raga.library.service.BorrowingRecordService;
-import com.raga.library.service.PatronService;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.web.servlet.ModelAndView;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -31,10 +35,7 @@ public class BorrowingRecordViewControllerTest {
 	private BorrowingRecordService borrowingRecordService;
 
 	@Mock
-	private BookService bookService;
-
-	@Mock
-	private PatronService patronService;
+	private ActiveLoanProjectionService activeLoanProjectionService;
 
 	@InjectMocks
 	private BorrowingRecordViewController borrowingRecordViewController;
@@ -45,101 +46,90 @@ public class BorrowingRecordViewControllerTest {
 	}
 
 	/**
-	 * Tests the retrieval of all borrowing records
+	 * Tests the retrieval of one sorted page of borrowing records
 	 */
 	@Test
 	public void testRetrieveAllBooks() {
-		List<BorrowingRecord> mockBorrowingRecords = new ArrayList<>();
-		when(borrowingRecordService.retrieveAllBorrowingRecord()).thenReturn(mockBorrowingRecords);
+		SliceImpl<BorrowingRecord> mockBorrowingRecords = new SliceImpl<>(new ArrayList<>());
+		ListQuery listQuery = new ListQuery(1, 50, "borrowDate", Sort.Direction.DESC);
+		when(borrowingRecordService.retrieveBorrowingRecords(listQuery)).thenReturn(mockBorrowingRecords);
 
-		ModelAndView modelAndView = borrowingRecordViewController.retrieveAllBooks();
+		ModelAndView modelAndView = borrowingRecordViewController.retrieveAllBooks(1, 50, "borrowDate",
+				Sort.Direction.DESC, false);
 
 		assertEquals("borrowingRecord-list", modelAndView.getViewName());
 		assertEquals(mockBorrowingRecords, modelAndView.getModel().get("borrowingRecord"));
+		assertEquals(false, modelAndView.getModel().get("streaming"));
 	}
 
 	/**
-	 * Test for borrowing a book successfully
-	 *
-	 * @throws ResourceNotFoundException if the book or patron is not found
+	 * Test for borrowing a book successfully, confirmed with the book and patron of
+	 * the borrowing record
 	 */
 	@Test
-	public void testBorrowABook() throws ResourceNotFoundException {
+	public void testBorrowABook() {
 		long bookId = 1L;
 		long patronId = 1L;
-		BorrowingRecord mockBorrowingRecord = new BorrowingRecord();
 		Book mockBook = new Book();
 		Patron mockPatron = new Patron();
+		BorrowingRecord mockBorrowingRecord = new BorrowingRecord(mockBook, mockPatron, LocalDate.now(), null);
 
 		when(borrowingRecordService.borrowBook(bookId, patronId)).thenReturn(mockBorrowingRecord);
-		when(bookService.retrieveBook(bookId)).thenReturn(mockBook);
-		when(patronService.retrievePatron(patronId)).thenReturn(mockPatron);
 
 		ModelAndView modelAndView = borrowingRecordViewController.borrowABook(bookId, patronId);
 
 		assertEquals("borrow-success", modelAndView.getViewName());
 		assertEquals("Book Borrowed Successfully on " + mockBorrowingRecord.getBorrowDate(),
 				modelAndView.getModel().get("message"));
+		assertEquals(mockBook, modelAndView.getModel().get("book"));
+		assertEquals(mockPatron, modelAndView.getModel().get("patron"));
 	}
 
 	/**
-	 * Test for borrowing a book when a ResourceNotFoundException is thrown for the
+	 * Test for borrowing a book when an EntityNotFoundException is thrown for the
 	 * patron
-	 *
-	 * @throws ResourceNotFoundException if the book or patron is not found
 	 */
 	@Test
-	public void testBorrowABook1() throws ResourceNotFoundException {
+	public void testBorrowABook1() {
 		long bookId = 1L;
 		long patronId = 1L;
-		BorrowingRecord mockBorrowingRecord = new BorrowingRecord();
-		Book mockBook = new Book();
-		when(borrowingRecordService.returnBook(bookId, patronId)).thenReturn(mockBorrowingRecord);
-		when(bookService.retrieveBook(bookId)).thenReturn(mockBook);
-		when(patronService.retrievePatron(patronId)).thenThrow(ResourceNotFoundException.class);
+		when(borrowingRecordService.borrowBook(bookId, patronId)).thenThrow(EntityNotFoundException.class);
 		ModelAndView modelAndView = borrowingRecordViewController.borrowABook(bookId, patronId);
 		assertEquals("error", modelAndView.getViewName());
 	}
 
 	/**
-	 * Test for returning a book successfully
-	 *
-	 * @throws ResourceNotFoundException if the book or patron is not found
+	 * Test for returning a book successfully, confirmed with the book and patron of
+	 * the borrowing record
 	 */
 	@Test
-	public void testReturnABook() throws ResourceNotFoundException {
+	public void testReturnABook() {
 		long bookId = 1L;
 		long patronId = 1L;
-		BorrowingRecord mockBorrowingRecord = new BorrowingRecord();
 		Book mockBook = new Book();
 		Patron mockPatron = new Patron();
+		BorrowingRecord mockBorrowingRecord = new BorrowingRecord(mockBook, mockPatron, LocalDate.now(), LocalDate.now());
 
 		when(borrowingRecordService.returnBook(bookId, patronId)).thenReturn(mockBorrowingRecord);
-		when(bookService.retrieveBook(bookId)).thenReturn(mockBook);
-		when(patronService.retrievePatron(patronId)).thenReturn(mockPatron);
 
 		ModelAndView modelAndView = borrowingRecordViewController.returnABook(bookId, patronId);
 
 		assertEquals("return-success", modelAndView.getViewName());
 		assertEquals("Book Returned Successfully on " + mockBorrowingRecord.getReturnDate(),
 				modelAndView.getModel().get("message"));
+		assertEquals(mockBook, modelAndView.getModel().get("book"));
+		assertEquals(mockPatron, modelAndView.getModel().get("patron"));
 	}
 
 	/**
-	 * Test for returning a book when a ResourceNotFoundException is thrown for the
+	 * Test for returning a book when an EntityNotFoundException is thrown for the
 	 * patron
-	 *
-	 * @throws ResourceNotFoundException if the book or patron is not found
 	 */
 	@Test
-	public void testReturnABook1() throws ResourceNotFoundException {
+	public void testReturnABook1() {
 		long bookId = 1L;
 		long patronId = 1L;
-		BorrowingRecord mockBorrowingRecord = new BorrowingRecord();
-		Book mockBook = new Book();
-		when(borrowingRecordService.returnBook(bookId, patronId)).thenReturn(mockBorrowingRecord);
-		when(bookService.retrieveBook(bookId)).thenReturn(mockBook);
-		when(patronService.retrievePatron(patronId)).thenThrow(ResourceNotFoundException.class);
+		when(borrowingRecordService.returnBook(bookId, patronId)).thenThrow(EntityNotFoundException.class);
 		ModelAndView modelAndView = borrowingRecordViewController.returnABook(bookId, patronId);
 		assertEquals("error", modelAndView.getViewName());
 	}
@@ -154,16 +144,16 @@ public class BorrowingRecordViewControllerTest {
 	}
 
 	/**
-	 * Test for showing the borrowing records for returning a book
+	 * Test for showing the active loans for returning a book
 	 */
 	@Test
 	public void testReturnBookRecord() {
-		List<BorrowingRecord> mockBorrowingRecords = new ArrayList<>();
-		when(borrowingRecordService.retrieveAllBorrowingRecord()).thenReturn(mockBorrowingRecords);
+		List<ActiveLoan> mockActiveLoans = new ArrayList<>();
+		when(activeLoanProjectionService.retrieveActiveLoans()).thenReturn(mockActiveLoans);
 
 		ModelAndView modelAndView = borrowingRecordViewController.returnBookRecord();
 
 		assertEquals("return-book", modelAndView.getViewName());
-		assertEquals(mockBorrowingRecords, modelAndView.getModel().get("borrowingRecord"));
+		assertEquals(mockActiveLoans, modelAndView.getModel().get("activeLoans"));
 	}
 }
@@ -0,0 +1,159 @@
+package com.raga.library.controller;
+
+import static com.raga.library.sql.StatementResultMatchers.statements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raga.library.dto.PatronBatch;
+import com.raga.library.entity.Book;
+import com.raga.library.entity.Patron;
+import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.PatronService;
+import com.raga.library.sql.StatementCountingTest;
+
+/**
+ * Statement budgets of the PatronController endpoints. Each list and history is
+ * read with several patrons and loans, so that a query per row fails its budget
+ *
+ */
+@StatementCountingTest
+public class PatronControllerStatementBudgetTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private PatronService patronService;
+
+	@Autowired
+	private BorrowingRecordService borrowingRecordService;
+
+	private Patron patron;
+
+	@BeforeEach
+	public void setup() {
+		List<Patron> patrons = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			patrons.add(patronService.savePatron(new Patron(null, "Patron " + i, "123456789")));
+		}
+		patron = patrons.get(0);
+		for (int i = 0; i < 3; i++) {
+			Book book = bookService.saveBook(new Book(null, "Book " + i, "Author " + i, 1925, "9780141182636"));
+			borrowingRecordService.borrowBook(book.getId(), patron.getId());
+			if (i > 0) {
+				borrowingRecordService.returnBook(book.getId(), patron.getId());
+			}
+		}
+	}
+
+	/**
+	 * Test case for the list of all patrons in a single select
+	 */
+	@Test
+	public void testRetrieveAllPatrons() throws Exception {
+		mockMvc.perform(get("/library/api/patrons")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the streamed patrons in one select per page
+	 */
+	@Test
+	public void testStreamAllPatrons() throws Exception {
+		MvcResult result = mockMvc.perform(get("/library/api/patrons/stream")).andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andExpect(statements().selectsAtMost(1))
+				.andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for a patron in a single select
+	 */
+	@Test
+	public void testRetrievePatronById() throws Exception {
+		mockMvc.perform(get("/library/api/patrons/" + patron.getId())).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the loan history of a patron, reading the loans and the
+	 * archive with their book and patron
+	 */
+	@Test
+	public void testRetrievePatronLoans() throws Exception {
+		mockMvc.perform(get("/library/api/patrons/" + patron.getId() + "/loans")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(2)).andExpect(statements().totalAtMost(2));
+	}
+
+	/**
+	 * Test case for a new patron in a single insert
+	 */
+	@Test
+	public void testAddNewPatron() throws Exception {
+		mockMvc.perform(post("/library/api/patrons").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new Patron(null, "New Patron", "123456789"))))
+				.andExpect(status().isCreated()).andExpect(statements().selectsAtMost(0))
+				.andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for a batch of patrons in one insert per patron
+	 */
+	@Test
+	public void testAddNewPatrons() throws Exception {
+		List<Patron> patrons = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			patrons.add(new Patron(null, "Bulk Patron " + i, "123456789"));
+		}
+
+		mockMvc.perform(post("/library/api/patrons/bulk").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new PatronBatch(patrons)))).andExpect(status().isCreated())
+				.andExpect(statements().selectsAtMost(0)).andExpect(statements().totalAtMost(3));
+	}
+
+	/**
+	 * Test case for an updated patron, their active loans and the change feed
+	 */
+	@Test
+	public void testUpdatePatronById() throws Exception {
+		mockMvc.perform(put("/library/api/patrons/" + patron.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new Patron(null, "Updated Patron", "987654321"))))
+				.andExpect(status().isOk()).andExpect(statements().selectsAtMost(2))
+				.andExpect(statements().totalAtMost(5));
+	}
+
+	/**
+	 * Test case for a deleted patron, their active loans and the change feed
+	 */
+	@Test
+	public void testDeletePatronById() throws Exception {
+		Patron deleted = patronService.savePatron(new Patron(null, "Deleted Patron", "123456789"));
+
+		mockMvc.perform(delete("/library/api/patrons/" + deleted.getId())).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(2)).andExpect(statements().totalAtMost(5));
+	}
+}
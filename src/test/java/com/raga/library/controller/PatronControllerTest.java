@@ -1,9 +1,11 @@
 package com.raga.library.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -11,8 +13,10 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
@@ -23,14 +27,31 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raga.library.dto.LoanHistoryEntry;
+import com.raga.library.dto.LoanHistoryPage;
+import com.raga.library.dto.LoanHistoryQuery;
+import com.raga.library.dto.PatronBatch;
 import com.raga.library.entity.Patron;
 import com.raga.library.exception.ResourceNotFoundException;
+import com.raga.library.service.ActiveLoanProjectionService;
+import com.raga.library.service.ArchivalService;
 import com.raga.library.service.BookService;
 import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.EventJournalService;
+import com.raga.library.service.FineCalculationService;
+import com.raga.library.service.FlightRecordingService;
+import com.raga.library.service.IdempotencyService;
+import com.raga.library.service.LibraryStatisticsService;
 import com.raga.library.service.PatronService;
+import com.raga.library.service.RateLimitService;
+import com.raga.library.service.RenderedPageCacheService;
+import com.raga.library.service.TrendingService;
+import com.raga.library.wire.BulkStream;
+import com.raga.library.wire.WireFormat;
 
 /**
  * Unit tests for the PatronController class. These tests cover the
@@ -52,6 +73,36 @@ public class PatronControllerTest {
 	@MockBean
 	private BorrowingRecordService borrowingRecordServiceMock;
 
+	@MockBean
+	private FineCalculationService fineCalculationService;
+
+	@MockBean
+	private LibraryStatisticsService libraryStatisticsService;
+
+	@MockBean
+	private TrendingService trendingService;
+
+	@MockBean
+	private ArchivalService archivalService;
+
+	@MockBean
+	private EventJournalService eventJournalService;
+
+	@MockBean
+	private ActiveLoanProjectionService activeLoanProjectionService;
+
+	@MockBean
+	private RenderedPageCacheService renderedPageCacheService;
+
+	@MockBean
+	private RateLimitService rateLimitService;
+
+	@MockBean
+	private IdempotencyService idempotencyService;
+
+	@MockBean
+	private FlightRecordingService flightRecordingService;
+
 	@Autowired
 	private ObjectMapper objectMapper;
 
@@ -236,4 +287,106 @@ public class PatronControllerTest {
 		resultActions.andExpect(status().isNotFound());
 	}
 
+	/**
+	 * Test case for retrieving the loan history of a patron
+	 * 
+	 * @throws Exception if an error occurs during the test
+	 */
+	@Test
+	public void testRetrievePatronLoans() throws Exception {
+
+		// Given
+		LoanHistoryEntry entry = new LoanHistoryEntry(7L, 1L, "The Great Gatsby", 2L, "John Doe",
+				LocalDate.of(2024, 2, 2), LocalDate.of(2024, 2, 16), null, null);
+		given(borrowingRecordServiceMock.retrievePatronLoanHistory(ArgumentMatchers.eq(1L),
+				ArgumentMatchers.any(LoanHistoryQuery.class)))
+				.willReturn(new LoanHistoryPage(List.of(entry), "MjAyNC0wMi0wMjo3"));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(get("/library/api/patrons/1/loans").param("status", "ACTIVE"));
+
+		// Then
+		resultActions.andExpect(status().isOk()).andExpect(jsonPath("$.loans[0].bookTitle").value("The Great Gatsby"))
+				.andExpect(jsonPath("$.loans[0].borrowDate").value("2024-02-02"))
+				.andExpect(jsonPath("$.nextCursor").value("MjAyNC0wMi0wMjo3"));
+	}
+
+	/**
+	 * Test case for retrieving the loan history of a patron with a malformed cursor
+	 * 
+	 * @throws Exception if an error occurs during the test
+	 */
+	@Test
+	public void testRetrievePatronLoansInvalidCursor() throws Exception {
+
+		// When
+		ResultActions resultActions = mockMvc
+				.perform(get("/library/api/patrons/1/loans").param("cursor", "not-a-cursor"));
+
+		// Then
+		resultActions.andExpect(status().isBadRequest());
+	}
+
+	/**
+	 * Test case for streaming all patrons as a sequence of CBOR values
+	 * 
+	 * @throws Exception if an error occurs during the test
+	 */
+	@Test
+	public void testStreamAllPatronsInCbor() throws Exception {
+
+		// Given
+		given(patronService.retrievePatronsAfter(0L, BulkStream.PAGE_SIZE))
+				.willReturn(List.of(new Patron(1L, "John Doe", "123456789"), new Patron(2L, "Jane Smith", "987654321")));
+
+		// When
+		MvcResult asyncResult = mockMvc
+				.perform(get("/library/api/patrons/stream").accept(MediaType.APPLICATION_CBOR))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		// Then
+		byte[] body = mockMvc.perform(asyncDispatch(asyncResult)).andExpect(status().isOk())
+				.andExpect(content().contentType(WireFormat.CBOR.getStreamMediaType())).andReturn().getResponse()
+				.getContentAsByteArray();
+		List<Patron> decoded = WireFormat.CBOR.getObjectMapper().readerFor(Patron.class).<Patron>readValues(body)
+				.readAll();
+		assertEquals(2, decoded.size());
+		assertEquals("Jane Smith", decoded.get(1).getName());
+	}
+
+	/**
+	 * Test case for adding a batch of patrons
+	 * 
+	 * @throws Exception if an error occurs during the test
+	 */
+	@Test
+	public void testAddNewPatrons() throws Exception {
+
+		// Given
+		PatronBatch batch = new PatronBatch(List.of(new Patron(null, "John Doe", "123456789")));
+		given(patronService.savePatrons(ArgumentMatchers.anyList())).willReturn(1);
+
+		// When
+		ResultActions resultActions = mockMvc.perform(post("/library/api/patrons/bulk")
+				.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(batch)));
+
+		// Then
+		resultActions.andExpect(status().isCreated()).andExpect(content().string("1 patrons added successfully"));
+	}
+
+	/**
+	 * Test case for adding an empty batch of patrons
+	 * 
+	 * @throws Exception if an error occurs during the test
+	 */
+	@Test
+	public void testAddNewPatronsEmptyBatch() throws Exception {
+
+		// When
+		ResultActions resultActions = mockMvc.perform(post("/library/api/patrons/bulk")
+				.contentType(MediaType.APPLICATION_JSON).content("{\"patrons\":[]}"));
+
+		// Then
+		resultActions.andExpect(status().isBadRequest());
+	}
 }
@@ -0,0 +1,128 @@
+package com.raga.library.controller;
+
+import static com.raga.library.sql.StatementResultMatchers.statements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.raga.library.entity.Book;
+import com.raga.library.entity.Patron;
+import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.PatronService;
+import com.raga.library.sql.StatementCountingTest;
+
+/**
+ * Statement budgets of the PatronViewController pages. The lists and histories
+ * are rendered with several patrons and loans, so that a query per row fails
+ * its budget
+ *
+ */
+@StatementCountingTest
+public class PatronViewControllerStatementBudgetTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private PatronService patronService;
+
+	@Autowired
+	private BorrowingRecordService borrowingRecordService;
+
+	private Patron patron;
+
+	@BeforeEach
+	public void setup() {
+		patron = patronService.savePatron(new Patron(null, "Patron", "123456789"));
+		for (int i = 0; i < 3; i++) {
+			patronService.savePatron(new Patron(null, "Patron " + i, "123456789"));
+			Book book = bookService.saveBook(new Book(null, "Book " + i, "Author " + i, 1925, "9780141182636"));
+			borrowingRecordService.borrowBook(book.getId(), patron.getId());
+		}
+	}
+
+	/**
+	 * Test case for a page of the patron list in a single select
+	 */
+	@Test
+	public void testRetrieveAllPatrons() throws Exception {
+		mockMvc.perform(get("/library/patrons")).andExpect(status().isOk()).andExpect(statements().selectsAtMost(1))
+				.andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the streamed patron list in one select per page
+	 */
+	@Test
+	public void testStreamAllPatrons() throws Exception {
+		mockMvc.perform(get("/library/patrons").param("stream", "true")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the patron details with the first page of their loan history
+	 */
+	@Test
+	public void testRetrievePatronById() throws Exception {
+		mockMvc.perform(get("/library/patrons/" + patron.getId())).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(3)).andExpect(statements().totalAtMost(3));
+	}
+
+	/**
+	 * Test case for the new patron form without any statement
+	 */
+	@Test
+	public void testShowAddPatronForm() throws Exception {
+		mockMvc.perform(get("/library/patrons/new")).andExpect(status().isOk()).andExpect(statements().totalAtMost(0));
+	}
+
+	/**
+	 * Test case for a new patron in a single insert
+	 */
+	@Test
+	public void testCreatePatron() throws Exception {
+		mockMvc.perform(post("/library/patrons").param("name", "New Patron").param("contactNumber", "123456789"))
+				.andExpect(status().is3xxRedirection()).andExpect(statements().selectsAtMost(0))
+				.andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for the edit form of a patron in a single select
+	 */
+	@Test
+	public void testShowEditPatronForm() throws Exception {
+		mockMvc.perform(get("/library/patrons/" + patron.getId() + "/edit")).andExpect(status().isOk())
+				.andExpect(statements().selectsAtMost(1)).andExpect(statements().totalAtMost(1));
+	}
+
+	/**
+	 * Test case for an updated patron, their active loans and the change feed
+	 */
+	@Test
+	public void testUpdatePatronById() throws Exception {
+		mockMvc.perform(post("/library/patrons/" + patron.getId()).param("name", "Updated Patron")
+				.param("contactNumber", "987654321")).andExpect(status().is3xxRedirection())
+				.andExpect(statements().selectsAtMost(2)).andExpect(statements().totalAtMost(5));
+	}
+
+	/**
+	 * Test case for a deleted patron, their active loans and the change feed
+	 */
+	@Test
+	public void testDeletePatronById() throws Exception {
+		Patron deleted = patronService.savePatron(new Patron(null, "Deleted Patron", "123456789"));
+
+		mockMvc.perform(post("/library/patrons/" + deleted.getId() + "/delete"))
+				.andExpect(status().is3xxRedirection()).andExpect(statements().selectsAtMost(2))
+				.andExpect(statements().totalAtMost(5));
+	}
+}
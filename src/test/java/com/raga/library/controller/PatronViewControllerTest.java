@@ -1,15 +1,23 @@
 package com.raga.library.controller;
 
+import com.raga.library.dto.ListQuery;
+import com.raga.library.cache.RenderedPageKey;
 import com.raga.library.entity.Patron;
 import com.raga.library.exception.ResourceNotFoundException;
+import com.raga.library.service.BorrowingRecordService;
 import com.raga.library.service.PatronService;
+import com.raga.library.service.RenderedPageCacheService;
+import com.raga.library.view.KeysetRows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.View;
 import java.util.ArrayList;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -25,6 +33,12 @@ public class PatronViewControllerTest {
 	@Mock
 	private PatronService patronService;
 
+	@Mock
+	private BorrowingRecordService borrowingRecordService;
+
+	@Mock
+	private RenderedPageCacheService renderedPageCacheService;
+
 	@InjectMocks
 	private PatronViewController patronViewController;
 
@@ -38,15 +52,31 @@ public class PatronViewControllerTest {
 	 */
 	@Test
 	public void testRetrieveAllPatrons() {
-		List<Patron> mockPatrons = new ArrayList<>();
-		when(patronService.retrieveAllPatrons()).thenReturn(mockPatrons);
+		SliceImpl<Patron> mockPatrons = new SliceImpl<>(new ArrayList<>());
+		ListQuery listQuery = new ListQuery(0, 50, "name", Sort.Direction.ASC);
+		when(patronService.retrievePatrons(listQuery)).thenReturn(mockPatrons);
 
-		ModelAndView modelAndView = patronViewController.retrieveAllPatrons();
+		ModelAndView modelAndView = patronViewController.retrieveAllPatrons(0, 50, "name", Sort.Direction.ASC, false);
 
 		assertEquals("patron-list", modelAndView.getViewName());
 		assertEquals(mockPatrons, modelAndView.getModel().get("patrons"));
 	}
 
+	/**
+	 * Test case for streaming all patrons
+	 */
+	@Test
+	public void testRetrieveAllPatronsStreaming() {
+		when(patronService.retrievePatronsAfter(0L, KeysetRows.PAGE_SIZE))
+				.thenReturn(List.of(new Patron(1L, "John Doe", "123456789")));
+
+		ModelAndView modelAndView = patronViewController.retrieveAllPatrons(0, 50, "id", Sort.Direction.ASC, true);
+
+		assertEquals(true, modelAndView.getModel().get("streaming"));
+		Iterable<?> patrons = (Iterable<?>) modelAndView.getModel().get("patrons");
+		assertEquals("John Doe", ((Patron) patrons.iterator().next()).getName());
+	}
+
 	/**
 	 * Test case for the retrieval of a patron by ID
 	 *
@@ -57,14 +87,34 @@ public class PatronViewControllerTest {
 		long id = 1L;
 		Patron mockPatron = new Patron();
 
+		View cachedView = mock(View.class);
 		when(patronService.retrievePatron(id)).thenReturn(mockPatron);
+		when(renderedPageCacheService.cachedView(eq(RenderedPageKey.patronDetails(id)), eq(0L), any()))
+				.thenReturn(cachedView);
 
-		ModelAndView modelAndView = patronViewController.retrievePatronById(id);
+		ModelAndView modelAndView = patronViewController.retrievePatronById(id, null);
 
-		assertEquals("patron-details", modelAndView.getViewName());
+		assertEquals(cachedView, modelAndView.getView());
 		assertEquals(mockPatron, modelAndView.getModel().get("patron"));
 	}
 
+	/**
+	 * Test case for the retrieval of a patron by ID with an older page of its
+	 * loan history, which is rendered without the page cache
+	 *
+	 * @throws ResourceNotFoundException if the patron is not found
+	 */
+	@Test
+	public void testRetrievePatronByIdOlderLoans() throws ResourceNotFoundException {
+		long id = 1L;
+		when(patronService.retrievePatron(id)).thenReturn(new Patron());
+
+		ModelAndView modelAndView = patronViewController.retrievePatronById(id, "MjAyNC0wMi0wMjo3");
+
+		assertEquals("patron-details", modelAndView.getViewName());
+		verifyNoInteractions(renderedPageCacheService);
+	}
+
 	/**
 	 * Test case for the retrieval of a patron by ID when a ResourceNotFoundException is
 	 * thrown
@@ -76,7 +126,7 @@ public class PatronViewControllerTest {
 		long id = 1L;
 		when(patronService.retrievePatron(id)).thenThrow(ResourceNotFoundException.class);
 
-		ModelAndView modelAndView = patronViewController.retrievePatronById(id);
+		ModelAndView modelAndView = patronViewController.retrievePatronById(id, null);
 
 		assertEquals("error", modelAndView.getViewName());
 	}
@@ -0,0 +1,32 @@
+package com.raga.library.controller;
+
+import static com.raga.library.sql.StatementResultMatchers.statements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.raga.library.sql.StatementCountingTest;
+
+/**
+ * Statement budget of the StatisticsController endpoint, which serves the
+ * counters kept in memory
+ *
+ */
+@StatementCountingTest
+public class StatisticsControllerStatementBudgetTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	/**
+	 * Test case for the library statistics without any statement
+	 */
+	@Test
+	public void testRetrieveStatistics() throws Exception {
+		mockMvc.perform(get("/library/api/statistics")).andExpect(status().isOk())
+				.andExpect(statements().totalAtMost(0));
+	}
+}
@@ -0,0 +1,99 @@
+package com.raga.library.controller;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.raga.library.dto.LibraryStatistics;
+import com.raga.library.service.ActiveLoanProjectionService;
+import com.raga.library.service.ArchivalService;
+import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.EventJournalService;
+import com.raga.library.service.FineCalculationService;
+import com.raga.library.service.FlightRecordingService;
+import com.raga.library.service.IdempotencyService;
+import com.raga.library.service.LibraryStatisticsService;
+import com.raga.library.service.PatronService;
+import com.raga.library.service.RateLimitService;
+import com.raga.library.service.RenderedPageCacheService;
+import com.raga.library.service.TrendingService;
+
+/**
+ * Unit tests for the StatisticsController class. These tests cover the
+ * functionality of StatisticsController
+ * 
+ */
+@WebMvcTest
+public class StatisticsControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private BookService bookService;
+
+	@MockBean
+	private PatronService patronService;
+
+	@MockBean
+	private BorrowingRecordService borrowingRecordService;
+
+	@MockBean
+	private FineCalculationService fineCalculationService;
+
+	@MockBean
+	private LibraryStatisticsService libraryStatisticsService;
+
+	@MockBean
+	private TrendingService trendingService;
+
+	@MockBean
+	private ArchivalService archivalService;
+
+	@MockBean
+	private EventJournalService eventJournalService;
+
+	@MockBean
+	private ActiveLoanProjectionService activeLoanProjectionService;
+
+	@MockBean
+	private RenderedPageCacheService renderedPageCacheService;
+
+	@MockBean
+	private RateLimitService rateLimitService;
+
+	@MockBean
+	private IdempotencyService idempotencyService;
+
+	@MockBean
+	private FlightRecordingService flightRecordingService;
+
+	/**
+	 * Test case for retrieving the library statistics
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testRetrieveStatistics() throws Exception {
+		// Given
+		given(libraryStatisticsService.retrieveStatistics())
+				.willReturn(new LibraryStatistics(120, 45, 12, 3, 2, 1, null));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(get("/library/api/statistics"));
+
+		// Then
+		resultActions.andExpect(status().isOk()).andExpect(jsonPath("$.totalBooks").value(120))
+				.andExpect(jsonPath("$.activeLoans").value(12))
+				.andExpect(jsonPath("$.overdueLoans").value(1));
+	}
+}
@@ -0,0 +1,120 @@
+package com.raga.library.controller;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.raga.library.service.ActiveLoanProjectionService;
+import com.raga.library.service.ArchivalService;
+import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.EventJournalService;
+import com.raga.library.service.FineCalculationService;
+import com.raga.library.service.FlightRecordingService;
+import com.raga.library.service.IdempotencyService;
+import com.raga.library.service.LibraryStatisticsService;
+import com.raga.library.service.PatronService;
+import com.raga.library.service.RateLimitService;
+import com.raga.library.service.RenderedPageCacheService;
+import com.raga.library.service.TrendingService;
+import com.raga.library.trending.TrendingEntry;
+import com.raga.library.trending.TrendingWindow;
+
+/**
+ * Unit tests for the TrendingController class. These tests cover the
+ * functionality of TrendingController
+ * 
+ */
+@WebMvcTest
+public class TrendingControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private BookService bookService;
+
+	@MockBean
+	private PatronService patronService;
+
+	@MockBean
+	private BorrowingRecordService borrowingRecordService;
+
+	@MockBean
+	private FineCalculationService fineCalculationService;
+
+	@MockBean
+	private LibraryStatisticsService libraryStatisticsService;
+
+	@MockBean
+	private TrendingService trendingService;
+
+	@MockBean
+	private ArchivalService archivalService;
+
+	@MockBean
+	private EventJournalService eventJournalService;
+
+	@MockBean
+	private ActiveLoanProjectionService activeLoanProjectionService;
+
+	@MockBean
+	private RenderedPageCacheService renderedPageCacheService;
+
+	@MockBean
+	private RateLimitService rateLimitService;
+
+	@MockBean
+	private IdempotencyService idempotencyService;
+
+	@MockBean
+	private FlightRecordingService flightRecordingService;
+
+	/**
+	 * Test case for retrieving the trending books of a window
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testRetrieveTrendingBooks() throws Exception {
+		// Given
+		given(trendingService.retrieveTrendingBooks(TrendingWindow.WEEK, 2)).willReturn(Arrays.asList(
+				new TrendingEntry(1L, "The Great Gatsby", 12), new TrendingEntry(2L, "The Catcher in the Rye", 7)));
+
+		// When
+		ResultActions resultActions = mockMvc
+				.perform(get("/library/api/trending/books").param("window", "WEEK").param("limit", "2"));
+
+		// Then
+		resultActions.andExpect(status().isOk()).andExpect(jsonPath("$[0].name").value("The Great Gatsby"))
+				.andExpect(jsonPath("$[0].count").value(12)).andExpect(jsonPath("$[1].id").value(2));
+	}
+
+	/**
+	 * Test case for retrieving the trending patrons with the default window
+	 * 
+	 * @throws Exception if an error occurs during the test.
+	 */
+	@Test
+	public void testRetrieveTrendingPatrons() throws Exception {
+		// Given
+		given(trendingService.retrieveTrendingPatrons(TrendingWindow.DAY, 10))
+				.willReturn(Arrays.asList(new TrendingEntry(2L, "John Doe", 4)));
+
+		// When
+		ResultActions resultActions = mockMvc.perform(get("/library/api/trending/patrons"));
+
+		// Then
+		resultActions.andExpect(status().isOk()).andExpect(jsonPath("$[0].name").value("John Doe"));
+	}
+}
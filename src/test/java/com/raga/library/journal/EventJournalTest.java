@@ -0,0 +1,197 @@
+package com.raga.library.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the EventJournal class. These tests cover appending and
+ * replaying records, waiting for the group fsync, segment rolling, recovery
+ * after a restart and retention
+ * 
+ */
+public class EventJournalTest {
+
+	@TempDir
+	private Path directory;
+
+	/**
+	 * Test case for replaying the records of each type from an offset
+	 */
+	@Test
+	public void testAppendAndRead() {
+		try (EventJournal journal = new EventJournal(directory, 4096, 256)) {
+			journal.append(JournalEventType.BOOK_CREATED, null, 1L, null, null);
+			journal.append(JournalEventType.PATRON_UPDATED, null, null, 2L, null);
+			journal.append(JournalEventType.BOOK_BORROWED, 3L, 1L, 2L, LocalDate.of(2024, 3, 1));
+
+			List<JournalRecord> records = journal.read(1, 10);
+
+			assertEquals(2, records.size());
+			assertEquals(JournalEventType.PATRON_UPDATED, records.get(0).type());
+			assertEquals(2L, records.get(0).patronId());
+			assertNull(records.get(0).bookId());
+			JournalRecord borrowed = records.get(1);
+			assertEquals(2, borrowed.offset());
+			assertEquals(3L, borrowed.loanId());
+			assertEquals(1L, borrowed.bookId());
+			assertEquals(LocalDate.of(2024, 3, 1), borrowed.date());
+		}
+	}
+
+	/**
+	 * Test case for replaying the fields of the changed books and patrons, also
+	 * after the journal is reopened
+	 */
+	@Test
+	public void testFieldsOfChanges() {
+		Map<String, String> fields = new LinkedHashMap<>();
+		fields.put("title", "Dune");
+		fields.put("author", "Frank Herbert");
+		fields.put("isbn", null);
+		try (EventJournal journal = new EventJournal(directory, 4096, 256)) {
+			journal.append(JournalEventType.BOOK_UPDATED, null, 1L, null, null, fields);
+			journal.append(JournalEventType.PATRON_CREATED, null, null, 2L, null, Map.of("name", "Zo\u00eb"));
+			journal.append(JournalEventType.BOOK_DELETED, null, 1L, null, null);
+		}
+
+		try (EventJournal journal = new EventJournal(directory, 4096, 256)) {
+			List<JournalRecord> records = journal.read(0, 10);
+
+			assertEquals(3, records.size());
+			assertEquals(fields, records.get(0).fields());
+			assertEquals(List.of("title", "author", "isbn"), new ArrayList<>(records.get(0).fields().keySet()));
+			assertEquals(Map.of("name", "Zo\u00eb"), records.get(1).fields());
+			assertTrue(records.get(2).fields().isEmpty());
+			assertEquals(3, journal.append(JournalEventType.BOOK_CREATED, null, 3L, null, null, fields));
+		}
+	}
+
+	/**
+	 * Test case for the appends of concurrent threads, each returning once its
+	 * record is flushed to disk
+	 */
+	@Test
+	public void testAppendWaitsForGroupFsync() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try (EventJournal journal = new EventJournal(directory, 65536, 1024)) {
+			List<Future<?>> appends = new ArrayList<>();
+			for (int thread = 0; thread < 8; thread++) {
+				appends.add(executor.submit(() -> {
+					for (long i = 0; i < 100; i++) {
+						long offset = journal.append(JournalEventType.BOOK_UPDATED, null, i, null, null);
+						assertTrue(journal.durableOffset() > offset);
+					}
+				}));
+			}
+			for (Future<?> append : appends) {
+				append.get();
+			}
+
+			assertEquals(800, journal.durableOffset());
+			long written = journal.write(JournalEventType.BOOK_CREATED, null, 1L, null, null, Map.of());
+			journal.awaitDurable(written);
+			assertEquals(801, journal.durableOffset());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Test case for rejecting a record larger than a segment
+	 */
+	@Test
+	public void testRecordLargerThanSegment() {
+		try (EventJournal journal = new EventJournal(directory, 256, 128)) {
+			Map<String, String> fields = Map.of("title", "x".repeat(512));
+
+			assertThrows(IllegalArgumentException.class,
+					() -> journal.append(JournalEventType.BOOK_CREATED, null, 1L, null, null, fields));
+		}
+	}
+
+	/**
+	 * Test case for rolling over to new segments and replaying across them from
+	 * any offset
+	 */
+	@Test
+	public void testRollingAndReplayAcrossSegments() {
+		try (EventJournal journal = new EventJournal(directory, 1024, 128)) {
+			for (long i = 0; i < 200; i++) {
+				journal.append(JournalEventType.BOOK_RETURNED, i, i, i, LocalDate.of(2024, 3, 1));
+			}
+
+			assertTrue(journal.segmentCount() > 1);
+			assertEquals(200, journal.nextOffset());
+			List<JournalRecord> records = journal.read(37, 100);
+			assertEquals(100, records.size());
+			for (int i = 0; i < records.size(); i++) {
+				assertEquals(37 + i, records.get(i).offset());
+				assertEquals(37L + i, records.get(i).loanId());
+			}
+		}
+	}
+
+	/**
+	 * Test case for recovering the journal after it is reopened
+	 */
+	@Test
+	public void testRecoveryAfterReopen() {
+		try (EventJournal journal = new EventJournal(directory, 1024, 128)) {
+			for (long i = 0; i < 50; i++) {
+				journal.append(JournalEventType.BOOK_UPDATED, null, i, null, null);
+			}
+		}
+
+		try (EventJournal journal = new EventJournal(directory, 1024, 128)) {
+			assertEquals(50, journal.nextOffset());
+			assertEquals(50, journal.append(JournalEventType.BOOK_DELETED, null, 50L, null, null));
+			List<JournalRecord> records = journal.read(0, 100);
+			assertEquals(51, records.size());
+			assertEquals(JournalEventType.BOOK_DELETED, records.get(50).type());
+		}
+	}
+
+	/**
+	 * Test case for deleting the segments older than the retention cutoff while
+	 * keeping the active segment
+	 */
+	@Test
+	public void testRetentionDeletesOldSegments() throws IOException {
+		try (EventJournal journal = new EventJournal(directory, 1024, 128)) {
+			for (long i = 0; i < 200; i++) {
+				journal.append(JournalEventType.PATRON_CREATED, null, null, i, null);
+			}
+			int segments = journal.segmentCount();
+
+			int deleted = journal.deleteSegmentsBefore(Instant.now().plusSeconds(60));
+
+			assertEquals(segments - 1, deleted);
+			assertEquals(1, journal.segmentCount());
+			try (Stream<Path> files = Files.list(directory)) {
+				assertEquals(1, files.count());
+			}
+			List<JournalRecord> records = journal.read(0, 500);
+			assertEquals(journal.firstOffset(), records.get(0).offset());
+			assertEquals(199, records.get(records.size() - 1).offset());
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.raga.library.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the EndpointConnectionMetricsTrackerFactory class. These tests
+ * cover the connection acquire and hold times recorded per endpoint, next to
+ * the standard metrics of the pool
+ *
+ */
+public class EndpointConnectionMetricsTrackerFactoryTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final IMetricsTracker tracker = new EndpointConnectionMetricsTrackerFactory(meterRegistry)
+			.create("HikariPool-1", new PoolStats(0) {
+
+				@Override
+				protected void update() {
+				}
+			});
+
+	@AfterEach
+	public void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	/**
+	 * Test case for the times of a connection taken for a request, tagged with
+	 * the URI pattern of its handler
+	 */
+	@Test
+	public void testRecordsTimesPerEndpoint() {
+		// Given
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/library/books/7");
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/library/books/{id}");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+		// When
+		tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(2));
+		tracker.recordConnectionUsageMillis(30);
+
+		// Then
+		Timer acquire = meterRegistry.get("library.db.connection.acquire").tag("pool", "HikariPool-1")
+				.tag("method", "GET").tag("uri", "/library/books/{id}").timer();
+		Timer hold = meterRegistry.get("library.db.connection.hold").tag("uri", "/library/books/{id}").timer();
+		assertEquals(2.0, acquire.totalTime(TimeUnit.MILLISECONDS));
+		assertEquals(30.0, hold.totalTime(TimeUnit.MILLISECONDS));
+		assertEquals(1, meterRegistry.get("hikaricp.connections.usage").timer().count());
+	}
+
+	/**
+	 * Test case for the times of a connection taken outside of a request
+	 */
+	@Test
+	public void testRecordsTimesOutsideRequests() {
+		// When
+		tracker.recordConnectionUsageMillis(5);
+		tracker.recordConnectionUsageMillis(7);
+
+		// Then
+		Timer hold = meterRegistry.get("library.db.connection.hold")
+				.tag("method", EndpointConnectionMetricsTrackerFactory.NONE)
+				.tag("uri", EndpointConnectionMetricsTrackerFactory.NONE).timer();
+		assertEquals(2, hold.count());
+		assertEquals(12.0, hold.totalTime(TimeUnit.MILLISECONDS));
+	}
+}
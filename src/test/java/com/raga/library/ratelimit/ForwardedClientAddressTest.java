@@ -0,0 +1,64 @@
+package com.raga.library.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Tests of the client buckets behind a load balancer, against the embedded
+ * Tomcat. The requests come from the loopback address, a trusted proxy, so the
+ * client is the address in their X-Forwarded-For header
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:forwarded;MODE=MySQL;DB_CLOSE_DELAY=-1", "spring.datasource.username=sa",
+		"spring.datasource.password=", "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=none", "library.change-feed.poll-interval=PT1H",
+		"library.rate-limit.bulk.client-capacity=1", "library.rate-limit.bulk.client-per-second=0.001",
+		"library.assets.directory=target/forwarded-client-test/assets",
+		"library.journal.directory=target/forwarded-client-test/journal",
+		"library.flight-recording.directory=target/forwarded-client-test/recordings" })
+public class ForwardedClientAddressTest {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	/**
+	 * Test case for the bucket of each forwarded client, so that the clients
+	 * behind the same load balancer are throttled separately
+	 */
+	@Test
+	public void testClientsBehindLoadBalancerHaveOwnBuckets() {
+		// Given
+		ResponseEntity<String> first = streamBooks("203.0.113.7");
+
+		// When
+		ResponseEntity<String> retry = streamBooks("203.0.113.7");
+		ResponseEntity<String> otherClient = streamBooks("203.0.113.8");
+
+		// Then
+		assertEquals(HttpStatus.OK, first.getStatusCode());
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, retry.getStatusCode());
+		assertEquals(HttpStatus.OK, otherClient.getStatusCode());
+		String throttledKeys = restTemplate.getForObject("/library/api/admin/rate-limits", String.class);
+		assertTrue(throttledKeys.contains("\"key\":\"203.0.113.7\""), throttledKeys);
+		assertFalse(throttledKeys.contains("127.0.0.1"), throttledKeys);
+	}
+
+	private ResponseEntity<String> streamBooks(String clientAddress) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set("X-Forwarded-For", clientAddress);
+		return restTemplate.exchange("/library/api/books/stream", HttpMethod.GET, new HttpEntity<>(headers),
+				String.class);
+	}
+}
@@ -0,0 +1,137 @@
+package com.raga.library.replica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/**
+ * Unit tests for the ReplicaRoutingDataSource class. These tests cover the
+ * choice between the primary and the replicas by the read-only flag of the
+ * transaction, the replication lag and the last write of the client
+ *
+ */
+public class ReplicaRoutingDataSourceTest {
+
+	private Connection primaryConnection;
+
+	private Connection firstReplicaConnection;
+
+	private Connection secondReplicaConnection;
+
+	private Replica firstReplica;
+
+	private Replica secondReplica;
+
+	private ReplicaRoutingDataSource dataSource;
+
+	@BeforeEach
+	public void setup() throws Exception {
+		primaryConnection = mock(Connection.class);
+		firstReplicaConnection = mock(Connection.class);
+		secondReplicaConnection = mock(Connection.class);
+		firstReplica = new Replica("replica-0", dataSource(firstReplicaConnection));
+		secondReplica = new Replica("replica-1", dataSource(secondReplicaConnection));
+		dataSource = new ReplicaRoutingDataSource(dataSource(primaryConnection), List.of(firstReplica, secondReplica),
+				Duration.ofSeconds(5));
+		dataSource.afterPropertiesSet();
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		TransactionSynchronizationManager.clear();
+		ReadYourWrites.close();
+	}
+
+	/**
+	 * Test case for read-only transactions spread over the replicas in turn, and
+	 * other transactions sent to the primary
+	 */
+	@Test
+	public void testSendsReadOnlyTransactionsToReplicas() throws Exception {
+		// Given
+		firstReplica.markUp(Instant.now(), Duration.ZERO);
+		secondReplica.markUp(Instant.now(), Duration.ZERO);
+
+		// When
+		Connection writeConnection = dataSource.getConnection();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		Connection firstReadConnection = dataSource.getConnection();
+		Connection secondReadConnection = dataSource.getConnection();
+
+		// Then
+		assertSame(primaryConnection, writeConnection);
+		assertSame(firstReplicaConnection, firstReadConnection);
+		assertSame(secondReplicaConnection, secondReadConnection);
+		assertEquals(0, dataSource.primaryFallbacks());
+	}
+
+	/**
+	 * Test case for replicas that are down or lag too far behind being skipped,
+	 * and for the primary used when no replica qualifies
+	 */
+	@Test
+	public void testSkipsReplicasThatAreDownOrLagging() throws Exception {
+		// Given
+		firstReplica.markUp(Instant.now(), Duration.ofSeconds(30));
+		secondReplica.markUp(Instant.now(), Duration.ZERO);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		// When
+		Connection laggingConnection = dataSource.getConnection();
+		Connection nextConnection = dataSource.getConnection();
+		secondReplica.markDown();
+		Connection fallbackConnection = dataSource.getConnection();
+
+		// Then
+		assertSame(secondReplicaConnection, laggingConnection);
+		assertSame(secondReplicaConnection, nextConnection);
+		assertSame(primaryConnection, fallbackConnection);
+		assertEquals(1, dataSource.primaryFallbacks());
+	}
+
+	/**
+	 * Test case for the reads following a write committed by the same client,
+	 * sent to the primary until a replica has applied the write
+	 */
+	@Test
+	public void testReadsOwnWritesFromThePrimary() throws Exception {
+		// Given
+		Instant beforeWrite = Instant.now().minusSeconds(1);
+		firstReplica.markUp(beforeWrite, Duration.ZERO);
+		secondReplica.markUp(beforeWrite, Duration.ZERO);
+		dataSource.getConnection();
+
+		// When
+		TransactionSynchronizationUtils.triggerAfterCommit();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		Connection readConnection = dataSource.getConnection();
+		firstReplica.markUp(Instant.now().plusSeconds(1), Duration.ZERO);
+		Connection caughtUpConnection = dataSource.getConnection();
+
+		// Then
+		assertSame(primaryConnection, readConnection);
+		assertSame(firstReplicaConnection, caughtUpConnection);
+	}
+
+	private static DataSource dataSource(Connection connection) throws Exception {
+		DataSource dataSource = mock(DataSource.class);
+		when(dataSource.getConnection()).thenReturn(connection);
+		return dataSource;
+	}
+}
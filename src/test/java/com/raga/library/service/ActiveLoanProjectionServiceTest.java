@@ -0,0 +1,243 @@
+package com.raga.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.raga.library.entity.ActiveLoan;
+import com.raga.library.entity.Book;
+import com.raga.library.entity.BorrowingRecord;
+import com.raga.library.entity.Patron;
+import com.raga.library.event.BookChangedEvent;
+import com.raga.library.event.ChangeType;
+import com.raga.library.event.CirculationAction;
+import com.raga.library.event.CirculationEvent;
+import com.raga.library.event.PatronChangedEvent;
+import com.raga.library.projection.ProjectionRebuildSummary;
+import com.raga.library.repository.ActiveLoanRepository;
+import com.raga.library.repository.BookRepository;
+import com.raga.library.repository.PatronRepository;
+
+/**
+ * Unit tests for the ActiveLoanProjectionService class. These tests cover
+ * keeping the projection up to date and its chunked rebuild
+ * 
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ActiveLoanProjectionServiceTest {
+
+	@Mock
+	private ActiveLoanRepository activeLoanRepository;
+
+	@Mock
+	private BookRepository bookRepository;
+
+	@Mock
+	private PatronRepository patronRepository;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Spy
+	private ShardService shardService = new ShardService();
+
+	@InjectMocks
+	private ActiveLoanProjectionService activeLoanProjectionService;
+
+	@BeforeEach
+	public void setup() {
+		ReflectionTestUtils.setField(activeLoanProjectionService, "parallelism", 2);
+		ReflectionTestUtils.setField(activeLoanProjectionService, "chunkSize", 100);
+		activeLoanProjectionService.initialize();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		activeLoanProjectionService.shutdown();
+	}
+
+	/**
+	 * Test case for adding a borrowed loan to the projection
+	 */
+	@Test
+	public void testBorrowAddsActiveLoan() {
+		// Given
+		Book book = new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		Patron patron = new Patron(2L, "John Doe", "123456789");
+		BorrowingRecord borrowingRecord = new BorrowingRecord(book, patron, LocalDate.of(2024, 3, 1), null);
+
+		// When
+		activeLoanProjectionService.onCirculation(new CirculationEvent(borrowingRecord, CirculationAction.BORROWED));
+
+		// Then
+		ArgumentCaptor<ActiveLoan> captor = ArgumentCaptor.forClass(ActiveLoan.class);
+		verify(activeLoanRepository).save(captor.capture());
+		assertEquals("The Great Gatsby", captor.getValue().getBookTitle());
+		assertEquals("F. Scott Fitzgerald", captor.getValue().getBookAuthor());
+		assertEquals("John Doe", captor.getValue().getPatronName());
+		assertEquals(LocalDate.of(2024, 3, 1), captor.getValue().getBorrowDate());
+	}
+
+	/**
+	 * Test case for copying an updated book title to its active loans
+	 */
+	@Test
+	public void testBookUpdateRefreshesActiveLoans() {
+		// Given
+		Book book = new Book(1L, "The Great Gatsby (Revised)", "F. Scott Fitzgerald", 1925, "9780141182636");
+		when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+		// When
+		activeLoanProjectionService.onBookChanged(new BookChangedEvent(1L, ChangeType.UPDATED));
+		activeLoanProjectionService.onBookChanged(new BookChangedEvent(1L, ChangeType.CREATED));
+
+		// Then
+		verify(activeLoanRepository, times(1)).updateBook(1L, "The Great Gatsby (Revised)", "F. Scott Fitzgerald");
+	}
+
+	/**
+	 * Test case for removing the active loans of a deleted patron
+	 */
+	@Test
+	public void testPatronDeleteRemovesActiveLoans() {
+		// When
+		activeLoanProjectionService.onPatronChanged(new PatronChangedEvent(2L, ChangeType.DELETED));
+
+		// Then
+		verify(activeLoanRepository).deleteByPatronId(2L);
+		verify(activeLoanRepository, never()).updatePatron(any(), any());
+	}
+
+	/**
+	 * Test case for rebuilding the projection in id range chunks
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRebuildProjectionInChunks() {
+		// Given
+		when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class))).thenReturn(new long[] { 1, 250 });
+		when(jdbcTemplate.update(anyString(), eq(1L), eq(100L))).thenReturn(40);
+		when(jdbcTemplate.update(anyString(), eq(101L), eq(200L))).thenReturn(30);
+		when(jdbcTemplate.update(anyString(), eq(201L), eq(250L))).thenReturn(5);
+
+		// When
+		ProjectionRebuildSummary summary = activeLoanProjectionService.rebuildProjection();
+
+		// Then
+		assertEquals(3, summary.chunks());
+		assertEquals(75, summary.activeLoans());
+		verify(jdbcTemplate).queryForList(contains("for update"), eq(String.class));
+		verify(transactionManager, times(4)).commit(any());
+	}
+
+	/**
+	 * Test case for rebuilding from the lowest projected or open loan up to the
+	 * highest borrowing record, ignoring loans the listener has already added
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRebuildProjectionBounds() throws Exception {
+		// Given
+		ResultSet bounds = mock(ResultSet.class);
+		when(bounds.next()).thenReturn(true);
+		when(bounds.getObject(1)).thenReturn(5L);
+		when(bounds.getLong(1)).thenReturn(5L);
+		when(bounds.getObject(2)).thenReturn(120L);
+		when(bounds.getLong(2)).thenReturn(120L);
+		when(bounds.getObject(3)).thenReturn(250L);
+		when(bounds.getLong(3)).thenReturn(250L);
+		when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class)))
+				.thenAnswer(invocation -> invocation.getArgument(1, ResultSetExtractor.class).extractData(bounds));
+
+		// When
+		ProjectionRebuildSummary summary = activeLoanProjectionService.rebuildProjection();
+
+		// Then
+		assertEquals(3, summary.chunks());
+		verify(jdbcTemplate).update(startsWith("insert ignore"), eq(5L), eq(104L));
+		verify(jdbcTemplate).update(startsWith("insert ignore"), eq(105L), eq(204L));
+		verify(jdbcTemplate).update(startsWith("insert ignore"), eq(205L), eq(250L));
+		verify(jdbcTemplate, times(3)).update(startsWith("delete"), any(Long.class), any(Long.class));
+	}
+
+	/**
+	 * Test case for a chunk locking its open borrowing records before the
+	 * projection rows, and retried after losing a deadlock
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRebuildChunkLocksLoansFirstAndRetriesDeadlock() {
+		// Given
+		when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class))).thenReturn(new long[] { 1, 50 });
+		when(jdbcTemplate.update(startsWith("insert ignore"), eq(1L), eq(50L)))
+				.thenThrow(new CannotAcquireLockException("Deadlock found when trying to get lock")).thenReturn(7);
+
+		// When
+		ProjectionRebuildSummary summary = activeLoanProjectionService.rebuildProjection();
+
+		// Then
+		assertEquals(1, summary.chunks());
+		assertEquals(7, summary.activeLoans());
+		InOrder order = inOrder(jdbcTemplate);
+		for (int attempt = 0; attempt < 2; attempt++) {
+			order.verify(jdbcTemplate).queryForList(startsWith("select id from borrowing_record"), eq(Long.class),
+					eq(1L), eq(50L));
+			order.verify(jdbcTemplate).update(startsWith("delete"), eq(1L), eq(50L));
+			order.verify(jdbcTemplate).update(startsWith("insert ignore"), eq(1L), eq(50L));
+		}
+		verify(transactionManager).rollback(any());
+	}
+
+	/**
+	 * Test case for skipping the startup population of a shard another node has
+	 * already populated
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testPopulateProjectionSkipsPopulatedShard() {
+		// Given
+		when(activeLoanRepository.count()).thenReturn(3L);
+
+		// When
+		activeLoanProjectionService.populateProjection();
+
+		// Then
+		verify(jdbcTemplate).queryForList(contains("for update"), eq(String.class));
+		verify(jdbcTemplate, never()).query(anyString(), any(ResultSetExtractor.class));
+	}
+}
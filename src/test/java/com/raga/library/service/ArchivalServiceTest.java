@@ -0,0 +1,116 @@
+package com.raga.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.raga.library.archive.ArchiveRunSummary;
+import com.raga.library.event.LoansRewrittenEvent;
+import com.raga.library.repository.BorrowingRecordRepository;
+
+/**
+ * Unit tests for the ArchivalService class. These tests cover the batching of
+ * the archival run and the retention cutoff
+ * 
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ArchivalServiceTest {
+
+	private static final LocalDate AS_OF = LocalDate.of(2024, 3, 31);
+
+	@Mock
+	private BorrowingRecordRepository borrowingRecordRepository;
+
+	@Mock
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Spy
+	private ShardService shardService = new ShardService();
+
+	@InjectMocks
+	private ArchivalService archivalService;
+
+	@BeforeEach
+	public void setup() {
+		ReflectionTestUtils.setField(archivalService, "returnedAfterDays", 180);
+		ReflectionTestUtils.setField(archivalService, "batchSize", 2);
+		ReflectionTestUtils.setField(archivalService, "batchPause", Duration.ZERO);
+		ReflectionTestUtils.setField(archivalService, "maxBatches", 10);
+		archivalService.initialize();
+	}
+
+	/**
+	 * Test case for moving returned loans to the archive in batches
+	 */
+	@Test
+	public void testArchiveReturnedLoansInBatches() {
+		// Given
+		LocalDate returnedBefore = AS_OF.minusDays(180);
+		when(borrowingRecordRepository.findArchivableIds(eq(returnedBefore), any(Pageable.class)))
+				.thenReturn(Arrays.asList(1L, 2L)).thenReturn(Arrays.asList(3L));
+		when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class))).thenReturn(2, 2, 1, 1);
+
+		// When
+		ArchiveRunSummary summary = archivalService.archiveReturnedLoans(AS_OF);
+
+		// Then
+		assertEquals(returnedBefore, summary.returnedBefore());
+		assertEquals(3, summary.loansArchived());
+		assertEquals(2, summary.batches());
+		verify(jdbcTemplate, times(4)).update(anyString(), any(SqlParameterSource.class));
+		verify(transactionManager, times(2)).commit(any());
+		verify(eventPublisher).publishEvent(new LoansRewrittenEvent("archive", 3));
+	}
+
+	/**
+	 * Test case for a run without loans old enough to archive
+	 */
+	@Test
+	public void testArchiveReturnedLoansNothingToArchive() {
+		// Given
+		when(borrowingRecordRepository.findArchivableIds(any(LocalDate.class), any(Pageable.class)))
+				.thenReturn(Collections.emptyList());
+
+		// When
+		ArchiveRunSummary summary = archivalService.archiveReturnedLoans(AS_OF);
+
+		// Then
+		assertEquals(0, summary.loansArchived());
+		assertEquals(0, summary.batches());
+		verify(jdbcTemplate, never()).update(anyString(), any(SqlParameterSource.class));
+		verify(eventPublisher, never()).publishEvent(any(Object.class));
+	}
+}
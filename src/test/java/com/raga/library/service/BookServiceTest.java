@@ -4,6 +4,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import java.util.Arrays;
 import java.util.List;
@@ -14,8 +16,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
+import com.raga.library.dto.ListQuery;
 import com.raga.library.entity.Book;
+import com.raga.library.event.BookChangedEvent;
+import com.raga.library.event.ChangeType;
 import com.raga.library.exception.ResourceNotFoundException;
 import com.raga.library.repository.BookRepository;
 
@@ -30,6 +40,9 @@ public class BookServiceTest {
 	@Mock
 	private BookRepository bookRepository;
 
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
 	@InjectMocks
 	private BookService bookService;
 
@@ -97,7 +110,88 @@ public class BookServiceTest {
 	 */
 	@Test
 	public void testDeleteBook() {
+		// Given
+		Book book = new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		given(bookRepository.findById(1L)).willReturn(Optional.of(book));
+
+		// When
 		bookService.deleteBook(1L);
+
+		// Then
+		verify(bookRepository).delete(book);
+		verify(eventPublisher).publishEvent(new BookChangedEvent(1L, ChangeType.DELETED));
+	}
+
+	/**
+	 * Test case for deleting a book that does not exist, which publishes nothing
+	 */
+	@Test
+	public void testDeleteMissingBook() {
+		// Given
+		given(bookRepository.findById(1000L)).willReturn(Optional.empty());
+
+		// When
+		bookService.deleteBook(1000L);
+
+		// Then
+		verify(bookRepository, never()).delete(any());
+		verify(eventPublisher, never()).publishEvent(any());
+	}
+
+	/**
+	 * Test case for the event published when a new book is saved
+	 */
+	@Test
+	public void testSaveNewBookPublishesCreatedEvent() {
+		// Given
+		Book book = new Book(null, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		Book savedBook = new Book(5L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		given(bookRepository.save(book)).willReturn(savedBook);
+
+		// When
+		bookService.saveBook(book);
+
+		// Then
+		verify(eventPublisher).publishEvent(new BookChangedEvent(5L, ChangeType.CREATED, savedBook));
+	}
+
+	/**
+	 * Test case for saving a batch of books, one created event per book
+	 */
+	@Test
+	public void testSaveBooks() {
+		// Given
+		List<Book> books = List.of(new Book(null, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636"),
+				new Book(null, "To Kill a Mockingbird", "Harper Lee", 1960, "9780061120084"));
+		List<Book> savedBooks = List.of(new Book(5L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636"),
+				new Book(6L, "To Kill a Mockingbird", "Harper Lee", 1960, "9780061120084"));
+		given(bookRepository.saveAll(books)).willReturn(savedBooks);
+
+		// When
+		int saved = bookService.saveBooks(books);
+
+		// Then
+		assertThat(saved).isEqualTo(2);
+		verify(eventPublisher).publishEvent(new BookChangedEvent(5L, ChangeType.CREATED, savedBooks.get(0)));
+		verify(eventPublisher).publishEvent(new BookChangedEvent(6L, ChangeType.CREATED, savedBooks.get(1)));
+	}
+
+	/**
+	 * Test case for retrieving one page of books sorted by a property that is not
+	 * sortable, which falls back to the id order
+	 */
+	@Test
+	public void testRetrieveBooksUnknownSort() {
+		// Given
+		Slice<Book> page = new SliceImpl<>(
+				List.of(new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636")));
+		given(bookRepository.findSliceBy(PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "id")))).willReturn(page);
+
+		// When
+		Slice<Book> result = bookService.retrieveBooks(new ListQuery(0, 50, "publisher", Sort.Direction.DESC));
+
+		// Then
+		assertThat(result).isSameAs(page);
 	}
 
 	/**
@@ -8,29 +8,58 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import com.raga.library.dto.ListQuery;
+import com.raga.library.dto.LoanCursor;
+import com.raga.library.dto.LoanHistoryPage;
+import com.raga.library.dto.LoanHistoryQuery;
+import com.raga.library.dto.LoanInclude;
+import com.raga.library.dto.LoanListResponse;
+import com.raga.library.dto.LoanResponse;
+import com.raga.library.dto.LoanStatus;
+import com.raga.library.entity.ArchivedBorrowingRecord;
 import com.raga.library.entity.Book;
 import com.raga.library.entity.BorrowingRecord;
 import com.raga.library.entity.Patron;
+import com.raga.library.exception.CirculationConflictException;
+import com.raga.library.exception.CirculationNotFoundException;
+import com.raga.library.exception.InvalidCursorException;
+import com.raga.library.exception.ResourceNotFoundException;
+import com.raga.library.jfr.BorrowEvent;
+import com.raga.library.repository.ArchivedBorrowingRecordRepository;
 import com.raga.library.repository.BookRepository;
 import com.raga.library.repository.BorrowingRecordRepository;
 import com.raga.library.repository.PatronRepository;
 
-import jakarta.persistence.EntityNotFoundException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 /**
  * Unit tests for the BorrowingRecord class. These tests cover the functionality
@@ -50,6 +79,15 @@ public class BorrowingRecordServiceTest {
 	@Mock
 	private BookRepository bookRepository;
 
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Mock
+	private ArchivedBorrowingRecordRepository archivedBorrowingRecordRepository;
+
+	@Spy
+	private ShardService shardService = new ShardService();
+
 	@InjectMocks
 	private BorrowingRecordService borrowingRecordService;
 
@@ -67,8 +105,8 @@ public class BorrowingRecordServiceTest {
 		// When
 		when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
 		when(patronRepository.findById(patronId)).thenReturn(Optional.of(patron));
-		when(borrowingRecordRepository.findByBookIdAndPatronId(eq(bookId), eq(patronId)))
-				.thenReturn(Collections.emptyList());
+		when(borrowingRecordRepository.existsByBookIdAndPatronIdAndReturnDateIsNull(eq(bookId), eq(patronId)))
+				.thenReturn(false);
 		when(borrowingRecordRepository.save(any(BorrowingRecord.class)))
 				.thenAnswer(invocation -> invocation.getArgument(0));
 		BorrowingRecord result = borrowingRecordService.borrowBook(bookId, patronId);
@@ -93,7 +131,7 @@ public class BorrowingRecordServiceTest {
 		BorrowingRecord activeBorrowingRecord = new BorrowingRecord(book, patron, LocalDate.now(), null);
 
 		// When
-		when(borrowingRecordRepository.findByBookIdAndPatronId(eq(bookId), eq(patronId)))
+		when(borrowingRecordRepository.findActiveWithBookAndPatron(eq(bookId), eq(patronId)))
 				.thenReturn(Arrays.asList(activeBorrowingRecord));
 		when(borrowingRecordRepository.save(any(BorrowingRecord.class)))
 				.thenAnswer(invocation -> invocation.getArgument(0));
@@ -115,10 +153,29 @@ public class BorrowingRecordServiceTest {
 		Long bookId = 1L;
 		Long patronId = 2L;
 		// When
-		when(borrowingRecordRepository.findByBookIdAndPatronId(eq(bookId), eq(patronId)))
+		when(borrowingRecordRepository.findActiveWithBookAndPatron(eq(bookId), eq(patronId)))
 				.thenReturn(Collections.emptyList());
 		// Then
-		assertThrows(EntityNotFoundException.class, () -> borrowingRecordService.returnBook(bookId, patronId));
+		assertThrows(CirculationNotFoundException.class, () -> borrowingRecordService.returnBook(bookId, patronId));
+	}
+
+	/**
+	 * Test case for the exception of a return without an active borrowing record,
+	 * an expected outcome created without a stack trace
+	 */
+	@Test
+	public void testReturnBookNoActiveRecordWithoutStackTrace() {
+		// Given
+		when(borrowingRecordRepository.findActiveWithBookAndPatron(eq(1L), eq(2L)))
+				.thenReturn(Collections.emptyList());
+
+		// When
+		CirculationNotFoundException exception = assertThrows(CirculationNotFoundException.class,
+				() -> borrowingRecordService.returnBook(1L, 2L));
+
+		// Then
+		assertEquals("No active borrowing record found for Book and Patron!", exception.getMessage());
+		assertEquals(0, exception.getStackTrace().length);
 	}
 
 	/**
@@ -132,19 +189,17 @@ public class BorrowingRecordServiceTest {
 		Long patronId = 2L;
 		Book book = new Book(bookId, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
 		Patron patron = new Patron(patronId, "John Doe", "123456789");
-		List<BorrowingRecord> activeBorrowingRecord = new ArrayList<>();
-		activeBorrowingRecord.add(new BorrowingRecord(book, patron, null, null));
 
 		// When
 		when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
 		when(patronRepository.findById(patronId)).thenReturn(Optional.of(patron));
-		when(borrowingRecordRepository.findByBookIdAndPatronId(eq(bookId), eq(patronId)))
-				.thenReturn(activeBorrowingRecord);
+		when(borrowingRecordRepository.existsByBookIdAndPatronIdAndReturnDateIsNull(eq(bookId), eq(patronId)))
+				.thenReturn(true);
 		when(borrowingRecordRepository.save(any(BorrowingRecord.class)))
 				.thenAnswer(invocation -> invocation.getArgument(0));
 
 		// Then
-		assertThrows(IllegalStateException.class, () -> borrowingRecordService.borrowBook(bookId, patronId));
+		assertThrows(CirculationConflictException.class, () -> borrowingRecordService.borrowBook(bookId, patronId));
 	}
 
 	/**
@@ -163,11 +218,11 @@ public class BorrowingRecordServiceTest {
 		activeBorrowingRecord.add(new BorrowingRecord(book, patron, LocalDate.now(), null));
 
 		// When
-		when(borrowingRecordRepository.findByBookIdAndPatronId(eq(bookId), eq(patronId)))
+		when(borrowingRecordRepository.findActiveWithBookAndPatron(eq(bookId), eq(patronId)))
 				.thenReturn(activeBorrowingRecord);
 
 		// Then
-		assertThrows(IllegalStateException.class, () -> borrowingRecordService.returnBook(bookId, patronId));
+		assertThrows(CirculationConflictException.class, () -> borrowingRecordService.returnBook(bookId, patronId));
 	}
 
 	/**
@@ -186,7 +241,7 @@ public class BorrowingRecordServiceTest {
 		when(patronRepository.findById(patronId)).thenReturn(Optional.of(patron));
 
 		// Then
-		assertThrows(EntityNotFoundException.class, () -> borrowingRecordService.borrowBook(bookId, patronId));
+		assertThrows(CirculationNotFoundException.class, () -> borrowingRecordService.borrowBook(bookId, patronId));
 	}
 
 	/**
@@ -205,7 +260,39 @@ public class BorrowingRecordServiceTest {
 		when(patronRepository.findById(patronId)).thenReturn(Optional.empty());
 
 		// Then
-		assertThrows(EntityNotFoundException.class, () -> borrowingRecordService.borrowBook(bookId, patronId));
+		assertThrows(CirculationNotFoundException.class, () -> borrowingRecordService.borrowBook(bookId, patronId));
+	}
+
+	/**
+	 * Test case for a borrow of a book that is not found, recorded for the flight
+	 * recorder with its book, patron and outcome
+	 */
+	@Test
+	public void testBorrowBookIdNotFoundRecordsBorrowEvent() throws Exception {
+
+		// Given
+		Long bookId = 100L;
+		Long patronId = 2L;
+		when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
+		Path file = Files.createTempFile("borrow-events", ".jfr");
+
+		// When
+		try (Recording recording = new Recording()) {
+			recording.enable(BorrowEvent.class);
+			recording.start();
+			assertThrows(CirculationNotFoundException.class, () -> borrowingRecordService.borrowBook(bookId, patronId));
+			recording.stop();
+			recording.dump(file);
+		}
+
+		// Then
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+				.filter(event -> event.getEventType().getName().equals("com.raga.library.Borrow")).toList();
+		Files.delete(file);
+		assertEquals(1, events.size());
+		assertEquals(100, events.get(0).getLong("bookId"));
+		assertEquals(2, events.get(0).getLong("patronId"));
+		assertEquals("NOT_FOUND", events.get(0).getString("outcome"));
 	}
 
 	/**
@@ -230,4 +317,167 @@ public class BorrowingRecordServiceTest {
 		// Then
 		assertEquals(mockBorrowingRecords, actualBorrowingRecords);
 	}
+
+	/**
+	 * Test case for a patron loan history page followed by an older page
+	 */
+	@Test
+	public void testRetrievePatronLoanHistoryWithNextCursor() throws ResourceNotFoundException {
+
+		// Given
+		Long patronId = 2L;
+		Book book = new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		Patron patron = new Patron(patronId, "John Doe", "123456789");
+		List<BorrowingRecord> loans = Arrays.asList(
+				new BorrowingRecord(book, patron, LocalDate.of(2024, 3, 3), null),
+				new BorrowingRecord(book, patron, LocalDate.of(2024, 2, 2), LocalDate.of(2024, 2, 10)),
+				new BorrowingRecord(book, patron, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 5)));
+
+		// When
+		when(borrowingRecordRepository.findPatronLoanHistory(eq(patronId), eq(true), eq(true), any(), any(), any(),
+				any(), any())).thenReturn(loans);
+		LoanHistoryPage page = borrowingRecordService.retrievePatronLoanHistory(patronId,
+				LoanHistoryQuery.firstPage(2));
+
+		// Then
+		assertEquals(2, page.loans().size());
+		assertEquals(LocalDate.of(2024, 2, 2), page.loans().get(1).borrowDate());
+		assertNotNull(page.nextCursor());
+	}
+
+	/**
+	 * Test case for the last page of a loan history
+	 */
+	@Test
+	public void testRetrieveBookLoanHistoryLastPage() throws ResourceNotFoundException {
+
+		// Given
+		Long bookId = 1L;
+		Book book = new Book(bookId, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		Patron patron = new Patron(2L, "John Doe", "123456789");
+		List<BorrowingRecord> loans = Arrays.asList(new BorrowingRecord(book, patron, LocalDate.of(2024, 3, 3), null));
+
+		// When
+		when(borrowingRecordRepository.findBookLoanHistory(eq(bookId), eq(true), eq(false), any(), any(), any(),
+				any(), any())).thenReturn(loans);
+		LoanHistoryPage page = borrowingRecordService.retrieveBookLoanHistory(bookId,
+				new LoanHistoryQuery(LoanStatus.ACTIVE, null, null, null, 20));
+
+		// Then
+		assertEquals(1, page.loans().size());
+		assertNull(page.nextCursor());
+	}
+
+	/**
+	 * Test case for the loan history of a patron that does not exist
+	 */
+	@Test
+	public void testRetrievePatronLoanHistoryPatronNotFound() {
+
+		// Given
+		Long patronId = 100L;
+
+		// When
+		when(borrowingRecordRepository.findPatronLoanHistory(eq(patronId), eq(true), eq(true), any(), any(), any(),
+				any(), any())).thenReturn(Collections.emptyList());
+		when(patronRepository.existsById(patronId)).thenReturn(false);
+
+		// Then
+		assertThrows(ResourceNotFoundException.class,
+				() -> borrowingRecordService.retrievePatronLoanHistory(patronId, LoanHistoryQuery.firstPage(20)));
+	}
+
+	/**
+	 * Test case for the round trip of a loan history cursor
+	 */
+	@Test
+	public void testLoanCursorRoundTrip() throws InvalidCursorException {
+
+		// Given
+		LoanCursor cursor = new LoanCursor(LocalDate.of(2024, 2, 2), 42L);
+
+		// Then
+		assertEquals(cursor, LoanCursor.decode(cursor.encode()));
+		assertNull(LoanCursor.decode(null));
+		assertThrows(InvalidCursorException.class, () -> LoanCursor.decode("not-a-cursor"));
+	}
+
+	/**
+	 * Test case for a patron loan history spanning the borrowing records and the
+	 * archive
+	 */
+	@Test
+	public void testRetrievePatronLoanHistoryMergesArchive() throws ResourceNotFoundException {
+
+		// Given
+		Long patronId = 2L;
+		Book book = new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		Patron patron = new Patron(patronId, "John Doe", "123456789");
+		List<BorrowingRecord> loans = Arrays.asList(new BorrowingRecord(book, patron, LocalDate.of(2024, 3, 3), null));
+		List<ArchivedBorrowingRecord> archivedLoans = Arrays.asList(
+				new ArchivedBorrowingRecord(5L, book, patron, LocalDate.of(2024, 4, 4), LocalDate.of(2024, 4, 8)),
+				new ArchivedBorrowingRecord(3L, book, patron, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 5)));
+
+		// When
+		when(borrowingRecordRepository.findPatronLoanHistory(eq(patronId), eq(true), eq(true), any(), any(), any(),
+				any(), any())).thenReturn(loans);
+		when(archivedBorrowingRecordRepository.findPatronLoanHistory(eq(patronId), any(), any(), any(), any(), any()))
+				.thenReturn(archivedLoans);
+		LoanHistoryPage page = borrowingRecordService.retrievePatronLoanHistory(patronId,
+				LoanHistoryQuery.firstPage(2));
+
+		// Then
+		assertEquals(2, page.loans().size());
+		assertEquals(5L, page.loans().get(0).id());
+		assertEquals(LocalDate.of(2024, 3, 3), page.loans().get(1).borrowDate());
+		assertNotNull(page.nextCursor());
+	}
+
+	/**
+	 * Test case for side-loading each referenced book once into the loan list
+	 */
+	@Test
+	public void testRetrieveLoanListIncludingBooks() {
+
+		// Given
+		Book book = new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		List<LoanResponse> loans = Arrays.asList(
+				new LoanResponse(7L, 1L, 2L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 15), null, null),
+				new LoanResponse(8L, 1L, 3L, LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 16), null, null));
+
+		// When
+		when(borrowingRecordRepository.findAllLoanResponses()).thenReturn(loans);
+		when(bookRepository.findAllById(new TreeSet<>(Set.of(1L)))).thenReturn(List.of(book));
+		LoanListResponse response = borrowingRecordService.retrieveLoanList(EnumSet.of(LoanInclude.BOOK));
+
+		// Then
+		assertEquals(loans, response.loans());
+		assertEquals(1, response.books().size());
+		assertEquals("The Great Gatsby", response.books().get(0).title());
+		assertNull(response.patrons());
+	}
+
+	/**
+	 * Test case for retrieving one page of borrowing records sorted by borrow
+	 * date, ties broken by id
+	 */
+	@Test
+	public void testRetrieveBorrowingRecordsSorted() {
+
+		// Given
+		Book book = new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		Patron patron = new Patron(2L, "John Doe", "123456789");
+		Slice<BorrowingRecord> page = new SliceImpl<>(
+				List.of(new BorrowingRecord(book, patron, LocalDate.of(2024, 3, 1), null)));
+		Pageable pageable = PageRequest.of(1, 20,
+				Sort.by(Sort.Direction.DESC, "borrowDate").and(Sort.by(Sort.Direction.ASC, "id")));
+
+		// When
+		when(borrowingRecordRepository.findSliceBy(pageable)).thenReturn(page);
+		Slice<BorrowingRecord> result = borrowingRecordService
+				.retrieveBorrowingRecords(new ListQuery(1, 20, "borrowDate", Sort.Direction.DESC));
+
+		// Then
+		assertEquals(page, result);
+	}
 }
@@ -0,0 +1,247 @@
+package com.raga.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.raga.library.entity.Book;
+import com.raga.library.entity.BorrowingRecord;
+import com.raga.library.entity.ChangeLogEntry;
+import com.raga.library.entity.Patron;
+import com.raga.library.event.BookChangedEvent;
+import com.raga.library.event.ChangeType;
+import com.raga.library.event.ChangedEntityType;
+import com.raga.library.event.CirculationAction;
+import com.raga.library.event.CirculationEvent;
+import com.raga.library.event.RemoteChangeEvent;
+import com.raga.library.repository.ChangeLogRepository;
+import com.raga.library.shard.ShardContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the ChangeFeedService class. These tests cover appending the
+ * changes, publishing the changes of other nodes, the gaps left by uncommitted
+ * entries and the lag metrics
+ *
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ChangeFeedServiceTest {
+
+	private static final String THIS_NODE = "node-1";
+
+	private static final String OTHER_NODE = "node-2";
+
+	@Mock
+	private ChangeLogRepository changeLogRepository;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Spy
+	private ShardService shardService = new ShardService();
+
+	@InjectMocks
+	private ChangeFeedService changeFeedService;
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final AtomicLong now = new AtomicLong();
+
+	private final List<ChangeLogEntry> feed = new ArrayList<>();
+
+	@BeforeEach
+	public void setup() {
+		ReflectionTestUtils.setField(changeFeedService, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(changeFeedService, "nodeId", THIS_NODE);
+		ReflectionTestUtils.setField(changeFeedService, "batchSize", 2);
+		ReflectionTestUtils.setField(changeFeedService, "gapTimeout", Duration.ofSeconds(10));
+		ReflectionTestUtils.setField(changeFeedService, "nanoClock", (LongSupplier) now::get);
+		changeFeedService.initialize();
+		when(changeLogRepository.findLastId()).thenReturn(10L);
+		when(changeLogRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class)))
+				.thenAnswer(invocation -> {
+					long afterId = invocation.getArgument(0);
+					Pageable pageable = invocation.getArgument(1);
+					return feed.stream().filter(entry -> entry.getId() > afterId).limit(pageable.getPageSize())
+							.toList();
+				});
+		changeFeedService.pollChanges();
+	}
+
+	/**
+	 * Test case for appending the updates and deletions, but not the creations
+	 */
+	@Test
+	public void testAppendsChanges() {
+		// Given
+		Book book = new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		Patron patron = new Patron(2L, "John Doe", "123456789");
+
+		// When
+		changeFeedService.onBookChanged(new BookChangedEvent(1L, ChangeType.CREATED));
+		changeFeedService.onBookChanged(new BookChangedEvent(1L, ChangeType.UPDATED));
+		changeFeedService.onCirculation(new CirculationEvent(
+				new BorrowingRecord(book, patron, LocalDate.of(2024, 3, 1), null), CirculationAction.BORROWED));
+
+		// Then
+		ArgumentCaptor<ChangeLogEntry> entries = ArgumentCaptor.forClass(ChangeLogEntry.class);
+		verify(changeLogRepository, times(3)).save(entries.capture());
+		assertEquals(List.of(ChangedEntityType.BOOK, ChangedEntityType.BOOK, ChangedEntityType.PATRON),
+				entries.getAllValues().stream().map(ChangeLogEntry::getEntityType).toList());
+		assertEquals(List.of(1L, 1L, 2L),
+				entries.getAllValues().stream().map(ChangeLogEntry::getEntityId).toList());
+		assertEquals(THIS_NODE, entries.getValue().getOriginNode());
+	}
+
+	/**
+	 * Test case for publishing the changes of other nodes, over several batches,
+	 * and skipping those of this node
+	 */
+	@Test
+	public void testPublishesChangesOfOtherNodes() {
+		// Given
+		feed.add(entry(11, OTHER_NODE, ChangedEntityType.BOOK, 1L));
+		feed.add(entry(12, THIS_NODE, ChangedEntityType.BOOK, 2L));
+		feed.add(entry(13, OTHER_NODE, ChangedEntityType.PATRON, 3L));
+
+		// When
+		int remoteChanges = changeFeedService.pollChanges();
+		int repeated = changeFeedService.pollChanges();
+
+		// Then
+		assertEquals(2, remoteChanges);
+		assertEquals(0, repeated);
+		verify(eventPublisher).publishEvent(new RemoteChangeEvent(ChangedEntityType.BOOK, 1L, ChangeType.UPDATED));
+		verify(eventPublisher).publishEvent(new RemoteChangeEvent(ChangedEntityType.PATRON, 3L, ChangeType.UPDATED));
+		verify(eventPublisher, never())
+				.publishEvent(new RemoteChangeEvent(ChangedEntityType.BOOK, 2L, ChangeType.UPDATED));
+		assertEquals(13, changeFeedService.position());
+		assertEquals(2, meterRegistry.get("library.change.feed.lag").tag("origin", OTHER_NODE).timer().count());
+	}
+
+	/**
+	 * Test case for an entry committed after an entry with a greater id, and for a
+	 * gap never filled
+	 */
+	@Test
+	public void testWaitsForGapsUntilTheGapTimeout() {
+		// Given
+		feed.add(entry(11, OTHER_NODE, ChangedEntityType.BOOK, 1L));
+		feed.add(entry(13, OTHER_NODE, ChangedEntityType.BOOK, 3L));
+		feed.add(entry(16, OTHER_NODE, ChangedEntityType.BOOK, 6L));
+
+		// When
+		changeFeedService.pollChanges();
+		long positionWithGaps = changeFeedService.position();
+		feed.add(1, entry(12, OTHER_NODE, ChangedEntityType.BOOK, 2L));
+		int lateChanges = changeFeedService.pollChanges();
+		long positionAfterLateCommit = changeFeedService.position();
+		now.addAndGet(Duration.ofSeconds(11).toNanos());
+		changeFeedService.pollChanges();
+
+		// Then
+		assertEquals(11, positionWithGaps);
+		assertEquals(1, lateChanges);
+		assertEquals(13, positionAfterLateCommit);
+		assertEquals(16, changeFeedService.position());
+		verify(eventPublisher, times(4)).publishEvent(any(RemoteChangeEvent.class));
+		verify(eventPublisher).publishEvent(eq(new RemoteChangeEvent(ChangedEntityType.BOOK, 2L, ChangeType.UPDATED)));
+	}
+
+	/**
+	 * Test case for a gap opened after an earlier gap was filled, which waits for
+	 * the gap timeout from when it was first seen
+	 */
+	@Test
+	public void testWaitsForEachGapFromWhenItWasSeen() {
+		// Given
+		feed.add(entry(12, OTHER_NODE, ChangedEntityType.BOOK, 2L));
+
+		// When
+		changeFeedService.pollChanges();
+		now.addAndGet(Duration.ofSeconds(9).toNanos());
+		feed.add(0, entry(11, OTHER_NODE, ChangedEntityType.BOOK, 1L));
+		feed.add(entry(14, OTHER_NODE, ChangedEntityType.BOOK, 4L));
+		changeFeedService.pollChanges();
+		now.addAndGet(Duration.ofSeconds(2).toNanos());
+		changeFeedService.pollChanges();
+		long positionBeforeTimeout = changeFeedService.position();
+		now.addAndGet(Duration.ofSeconds(9).toNanos());
+		changeFeedService.pollChanges();
+
+		// Then
+		assertEquals(12, positionBeforeTimeout);
+		assertEquals(14, changeFeedService.position());
+	}
+
+	/**
+	 * Test case for the feed of a shard, whose ids step by the number of shards,
+	 * moving past its entries without waiting for gaps
+	 */
+	@Test
+	public void testShardFeedStepsByShardCount() {
+		// Given
+		doReturn(true).when(shardService).isSharded();
+		doReturn(2).when(shardService).shardCount();
+		MeterRegistry shardedMeterRegistry = new SimpleMeterRegistry();
+		ReflectionTestUtils.setField(changeFeedService, "meterRegistry", shardedMeterRegistry);
+		((List<?>) ReflectionTestUtils.getField(changeFeedService, "feeds")).clear();
+		changeFeedService.initialize();
+		List<ChangeLogEntry> shardFeed = List.of(entry(12, OTHER_NODE, ChangedEntityType.PATRON, 2L),
+				entry(14, OTHER_NODE, ChangedEntityType.PATRON, 4L), entry(16, OTHER_NODE, ChangedEntityType.PATRON, 6L));
+		when(changeLogRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class)))
+				.thenAnswer(invocation -> {
+					long afterId = invocation.getArgument(0);
+					Pageable pageable = invocation.getArgument(1);
+					List<ChangeLogEntry> entries = Integer.valueOf(1).equals(ShardContext.current()) ? shardFeed : feed;
+					return entries.stream().filter(entry -> entry.getId() > afterId).limit(pageable.getPageSize())
+							.toList();
+				});
+		changeFeedService.pollChanges();
+
+		// When
+		int remoteChanges = changeFeedService.pollChanges();
+
+		// Then
+		assertEquals(3, remoteChanges);
+		assertEquals(16, shardedMeterRegistry.get("library.change.feed.position").tag("feed", "shard-1").gauge()
+				.value());
+	}
+
+	private static ChangeLogEntry entry(long id, String originNode, ChangedEntityType entityType, Long entityId) {
+		return new ChangeLogEntry(id, entityType, entityId, ChangeType.UPDATED, originNode,
+				LocalDateTime.now(ZoneOffset.UTC).minusSeconds(1));
+	}
+}
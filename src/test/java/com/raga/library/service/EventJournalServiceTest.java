@@ -0,0 +1,151 @@
+package com.raga.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.raga.library.entity.Book;
+import com.raga.library.entity.BorrowingRecord;
+import com.raga.library.entity.Patron;
+import com.raga.library.event.BookChangedEvent;
+import com.raga.library.event.ChangeType;
+import com.raga.library.event.CirculationAction;
+import com.raga.library.event.CirculationEvent;
+import com.raga.library.event.PatronChangedEvent;
+import com.raga.library.journal.JournalEventType;
+import com.raga.library.journal.JournalRecord;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Unit tests for the EventJournalService class. These tests cover the fields
+ * recorded with the book and patron changes, and the changes of a transaction
+ * written and flushed just before it commits
+ *
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class EventJournalServiceTest {
+
+	@TempDir
+	private Path directory;
+
+	@Mock
+	private EntityManager entityManager;
+
+	@InjectMocks
+	private EventJournalService eventJournalService;
+
+	@BeforeEach
+	public void setup() {
+		ReflectionTestUtils.setField(eventJournalService, "directory", directory.toString());
+		ReflectionTestUtils.setField(eventJournalService, "segmentBytes", 65536);
+		ReflectionTestUtils.setField(eventJournalService, "indexIntervalBytes", 1024);
+		ReflectionTestUtils.setField(eventJournalService, "retention", Duration.ofDays(90));
+		eventJournalService.initialize();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		TransactionSynchronizationManager.clear();
+		eventJournalService.shutdown();
+	}
+
+	/**
+	 * Test case for recording a change outside of a transaction right away, with
+	 * the fields of the saved book
+	 */
+	@Test
+	public void testRecordsChangeWithoutTransaction() {
+		// Given
+		Book book = new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+
+		// When
+		eventJournalService.onBookChanged(new BookChangedEvent(book, ChangeType.UPDATED));
+
+		// Then
+		List<JournalRecord> records = eventJournalService.readJournal(0, 10);
+		assertEquals(1, records.size());
+		assertEquals(JournalEventType.BOOK_UPDATED, records.get(0).type());
+		assertEquals(Map.of("title", "The Great Gatsby", "author", "F. Scott Fitzgerald", "publicationYear", "1925",
+				"isbn", "9780141182636"), records.get(0).fields());
+	}
+
+	/**
+	 * Test case for the changes of a transaction, written to the journal after a
+	 * flush when the transaction is about to commit
+	 */
+	@Test
+	public void testRecordsChangesBeforeCommit() {
+		// Given
+		beginTransaction();
+		Book book = new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		Patron patron = new Patron(2L, "John Doe", "123456789");
+		eventJournalService.onPatronChanged(new PatronChangedEvent(patron, ChangeType.CREATED));
+		eventJournalService.onCirculation(new CirculationEvent(
+				new BorrowingRecord(book, patron, LocalDate.of(2024, 3, 1), null), CirculationAction.BORROWED));
+		eventJournalService.onPatronChanged(new PatronChangedEvent(3L, ChangeType.DELETED));
+		assertTrue(eventJournalService.readJournal(0, 10).isEmpty());
+
+		// When
+		TransactionSynchronizationUtils.triggerBeforeCommit(false);
+		TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+		// Then
+		verify(entityManager).flush();
+		List<JournalRecord> records = eventJournalService.readJournal(0, 10);
+		assertEquals(3, records.size());
+		assertEquals(Map.of("name", "John Doe", "contactNumber", "123456789", "category", "STANDARD"),
+				records.get(0).fields());
+		assertEquals(JournalEventType.BOOK_BORROWED, records.get(1).type());
+		assertEquals(LocalDate.of(2024, 3, 1), records.get(1).date());
+		assertEquals(JournalEventType.PATRON_DELETED, records.get(2).type());
+		assertEquals(3L, records.get(2).patronId());
+		assertFalse(TransactionSynchronizationManager.hasResource(eventJournalService));
+	}
+
+	/**
+	 * Test case for the changes of a rolled back transaction, which are not
+	 * recorded
+	 */
+	@Test
+	public void testSkipsChangesOfRolledBackTransaction() {
+		// Given
+		beginTransaction();
+		eventJournalService.onBookChanged(new BookChangedEvent(1L, ChangeType.DELETED));
+
+		// When
+		TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		// Then
+		assertTrue(eventJournalService.readJournal(0, 10).isEmpty());
+		assertFalse(TransactionSynchronizationManager.hasResource(eventJournalService));
+	}
+
+	private void beginTransaction() {
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+	}
+}
@@ -0,0 +1,195 @@
+package com.raga.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.raga.library.entity.PatronCategory;
+import com.raga.library.event.LoansRewrittenEvent;
+import com.raga.library.fine.DailyRateFinePolicy;
+import com.raga.library.fine.FinePolicy;
+import com.raga.library.fine.FineRunSummary;
+import com.raga.library.fine.LoanFineCandidate;
+import com.raga.library.repository.BorrowingRecordRepository;
+
+/**
+ * Unit tests for the FineCalculationService class. These tests cover the fine
+ * assessment per patron category and the idempotency of the fine run
+ * 
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class FineCalculationServiceTest {
+
+	private static final LocalDate AS_OF = LocalDate.of(2024, 3, 31);
+
+	@Mock
+	private BorrowingRecordRepository borrowingRecordRepository;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Spy
+	private ShardService shardService = new ShardService();
+
+	@InjectMocks
+	private FineCalculationService fineCalculationService;
+
+	@BeforeEach
+	public void setup() {
+		List<FinePolicy> policies = Arrays.asList(
+				new DailyRateFinePolicy(PatronCategory.STANDARD, new BigDecimal("0.25"), 0, new BigDecimal("10.00")),
+				new DailyRateFinePolicy(PatronCategory.STUDENT, new BigDecimal("0.10"), 2, new BigDecimal("5.00")));
+		ReflectionTestUtils.setField(fineCalculationService, "finePolicies", policies);
+		ReflectionTestUtils.setField(fineCalculationService, "parallelism", 2);
+		ReflectionTestUtils.setField(fineCalculationService, "pageSize", 100);
+		ReflectionTestUtils.setField(fineCalculationService, "batchSize", 10);
+		ReflectionTestUtils.setField(fineCalculationService, "splitThreshold", 2);
+		ReflectionTestUtils.setField(fineCalculationService, "loanPeriodDays", 14);
+		fineCalculationService.initialize();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		fineCalculationService.shutdown();
+	}
+
+	/**
+	 * Test case for assessing fines with the policy of each patron category
+	 */
+	@Test
+	public void testAssessFinePerCategory() {
+		LoanFineCandidate standardLoan = new LoanFineCandidate(1L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 21),
+				null, PatronCategory.STANDARD, null);
+		LoanFineCandidate studentLoan = new LoanFineCandidate(2L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 21),
+				null, PatronCategory.STUDENT, null);
+		LoanFineCandidate staffLoan = new LoanFineCandidate(3L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 21),
+				null, PatronCategory.STAFF, null);
+
+		assertEquals(new BigDecimal("2.50"), fineCalculationService.assessFine(standardLoan, AS_OF));
+		assertEquals(new BigDecimal("0.80"), fineCalculationService.assessFine(studentLoan, AS_OF));
+		assertEquals(new BigDecimal("0.00"), fineCalculationService.assessFine(staffLoan, AS_OF));
+	}
+
+	/**
+	 * Test case for the fine of a loan without a due date and returned late
+	 */
+	@Test
+	public void testAssessFineDefaultsDueDateAndStopsAtReturn() {
+		LoanFineCandidate loan = new LoanFineCandidate(1L, LocalDate.of(2024, 1, 1), null, LocalDate.of(2024, 1, 19),
+				null, null);
+
+		assertEquals(new BigDecimal("1.00"), fineCalculationService.assessFine(loan, AS_OF));
+	}
+
+	/**
+	 * Test case for the maximum fine of a policy
+	 */
+	@Test
+	public void testAssessFineIsCapped() {
+		LoanFineCandidate loan = new LoanFineCandidate(1L, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 15), null,
+				PatronCategory.STANDARD, null);
+
+		assertEquals(new BigDecimal("10.00"), fineCalculationService.assessFine(loan, AS_OF));
+	}
+
+	/**
+	 * Test case for rounding to cents a daily rate or maximum fine configured with
+	 * more decimals
+	 */
+	@Test
+	public void testAssessFineRoundsToCents() {
+		ReflectionTestUtils.setField(fineCalculationService, "finePolicies", Arrays.asList(
+				new DailyRateFinePolicy(PatronCategory.STANDARD, new BigDecimal("0.0625"), 0, new BigDecimal("10.00")),
+				new DailyRateFinePolicy(PatronCategory.STUDENT, new BigDecimal("0.50"), 0, new BigDecimal("2.345"))));
+		fineCalculationService.shutdown();
+		fineCalculationService.initialize();
+		LoanFineCandidate standardLoan = new LoanFineCandidate(1L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 21),
+				null, PatronCategory.STANDARD, null);
+		LoanFineCandidate studentLoan = new LoanFineCandidate(2L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 21),
+				null, PatronCategory.STUDENT, null);
+
+		assertEquals(new BigDecimal("0.63"), fineCalculationService.assessFine(standardLoan, AS_OF));
+		assertEquals(new BigDecimal("2.35"), fineCalculationService.assessFine(studentLoan, AS_OF));
+	}
+
+	/**
+	 * Test case for a fine run writing only the fines that changed
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCalculateFinesWritesChangedFines() {
+		List<LoanFineCandidate> page = Arrays.asList(
+				new LoanFineCandidate(1L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 21), null,
+						PatronCategory.STANDARD, null),
+				new LoanFineCandidate(2L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 21), null,
+						PatronCategory.STANDARD, new BigDecimal("2.50")),
+				new LoanFineCandidate(3L, LocalDate.of(2024, 3, 20), LocalDate.of(2024, 4, 3), null,
+						PatronCategory.STANDARD, new BigDecimal("0.00")),
+				new LoanFineCandidate(4L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 21), null,
+						PatronCategory.STANDARD, new BigDecimal("2.25")));
+		when(borrowingRecordRepository.findFineCandidates(eq(AS_OF.minusDays(7)), eq(0L), any(Pageable.class)))
+				.thenReturn(page);
+		ReflectionTestUtils.setField(fineCalculationService, "recentReturnDays", 7);
+
+		FineRunSummary summary = fineCalculationService.calculateFines(AS_OF);
+
+		ArgumentCaptor<List<Object>> written = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate).batchUpdate(anyString(), written.capture(), eq(10),
+				any(ParameterizedPreparedStatementSetter.class));
+		assertEquals(2, written.getValue().size());
+		assertEquals(4, summary.loansProcessed());
+		assertEquals(2, summary.loansUpdated());
+		verify(eventPublisher).publishEvent(new LoansRewrittenEvent("fines", 2));
+	}
+
+	/**
+	 * Test case for rerunning the fine calculation when all fines are up to date
+	 */
+	@Test
+	public void testCalculateFinesIsIdempotent() {
+		List<LoanFineCandidate> page = Collections.singletonList(new LoanFineCandidate(1L, LocalDate.of(2024, 3, 1),
+				LocalDate.of(2024, 3, 21), null, PatronCategory.STANDARD, new BigDecimal("2.50")));
+		when(borrowingRecordRepository.findFineCandidates(any(LocalDate.class), eq(0L), any(Pageable.class)))
+				.thenReturn(page);
+
+		FineRunSummary summary = fineCalculationService.calculateFines(AS_OF);
+
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any());
+		assertEquals(1, summary.loansProcessed());
+		assertEquals(0, summary.loansUpdated());
+		verify(eventPublisher, never()).publishEvent(any(Object.class));
+	}
+}
@@ -0,0 +1,147 @@
+package com.raga.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.raga.library.dto.ListQuery;
+import com.raga.library.exception.ResourceNotFoundException;
+import com.raga.library.jfr.BorrowEvent;
+import com.raga.library.jfr.BulkImportEvent;
+import com.raga.library.jfr.CatalogSearchEvent;
+import com.raga.library.jfr.FlightRecordingSummary;
+import com.raga.library.jfr.OperationOutcome;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Unit tests for the FlightRecordingService class, recording into a temporary
+ * directory. These tests cover the start, dump and stop of the recording and
+ * the library events it holds
+ *
+ */
+public class FlightRecordingServiceTest {
+
+	@TempDir
+	Path directory;
+
+	private FlightRecordingService flightRecordingService;
+
+	@BeforeEach
+	public void setup() {
+		flightRecordingService = new FlightRecordingService();
+		ReflectionTestUtils.setField(flightRecordingService, "directory", directory.toString());
+		ReflectionTestUtils.setField(flightRecordingService, "settings", "default");
+		ReflectionTestUtils.setField(flightRecordingService, "maxAge", Duration.ofMinutes(5));
+	}
+
+	@AfterEach
+	public void shutdown() {
+		flightRecordingService.shutdown();
+	}
+
+	/**
+	 * Test case for starting the recording twice, which keeps the running
+	 * recording
+	 */
+	@Test
+	public void testStartRecording() {
+		// When
+		FlightRecordingSummary started = flightRecordingService.startRecording();
+		FlightRecordingSummary startedAgain = flightRecordingService.startRecording();
+
+		// Then
+		assertEquals("RUNNING", started.state());
+		assertEquals(FlightRecordingService.RECORDING_NAME, started.name());
+		assertEquals(started.id(), startedAgain.id());
+		assertNull(started.file());
+	}
+
+	/**
+	 * Test case for dumping the running recording, which holds the committed
+	 * library events and keeps recording
+	 */
+	@Test
+	public void testDumpRecording() throws Exception {
+		// Given
+		flightRecordingService.startRecording();
+		BorrowEvent borrowEvent = new BorrowEvent();
+		borrowEvent.begin();
+		borrowEvent.complete(7L, 9L, OperationOutcome.SUCCEEDED);
+		CatalogSearchEvent searchEvent = new CatalogSearchEvent();
+		searchEvent.begin();
+		searchEvent.complete(null, ListQuery.firstPage(), 12, OperationOutcome.SUCCEEDED);
+
+		// When
+		FlightRecordingSummary dumped = flightRecordingService.dumpRecording();
+
+		// Then
+		assertEquals("RUNNING", dumped.state());
+		assertTrue(Files.size(Path.of(dumped.file())) > 0);
+		assertEquals(Files.size(Path.of(dumped.file())), dumped.fileBytes());
+		List<RecordedEvent> borrows = libraryEvents(dumped, "com.raga.library.Borrow");
+		assertEquals(1, borrows.size());
+		assertEquals(7, borrows.get(0).getLong("bookId"));
+		assertEquals(9, borrows.get(0).getLong("patronId"));
+		assertEquals("SUCCEEDED", borrows.get(0).getString("outcome"));
+		List<RecordedEvent> searches = libraryEvents(dumped, "com.raga.library.CatalogSearch");
+		assertEquals(1, searches.size());
+		assertEquals("id,ASC", searches.get(0).getString("sort"));
+		assertEquals(12, searches.get(0).getInt("results"));
+	}
+
+	/**
+	 * Test case for stopping the recording, after which the library events are
+	 * disabled again
+	 */
+	@Test
+	public void testStopRecording() throws Exception {
+		// Given
+		flightRecordingService.startRecording();
+		BulkImportEvent importEvent = new BulkImportEvent();
+		importEvent.begin();
+		importEvent.complete("patron", 500, OperationOutcome.REJECTED);
+
+		// When
+		FlightRecordingSummary stopped = flightRecordingService.stopRecording();
+
+		// Then
+		assertEquals("STOPPED", stopped.state());
+		List<RecordedEvent> imports = libraryEvents(stopped, "com.raga.library.BulkImport");
+		assertEquals(1, imports.size());
+		assertEquals("patron", imports.get(0).getString("entity"));
+		assertEquals(500, imports.get(0).getInt("records"));
+		assertEquals("REJECTED", imports.get(0).getString("outcome"));
+		assertFalse(new BorrowEvent().isEnabled());
+	}
+
+	/**
+	 * Test case for dumping and stopping when no recording runs
+	 */
+	@Test
+	public void testNoRecordingRunning() {
+		// When & Then
+		assertThrows(ResourceNotFoundException.class, () -> flightRecordingService.dumpRecording());
+		assertThrows(ResourceNotFoundException.class, () -> flightRecordingService.stopRecording());
+	}
+
+	private static List<RecordedEvent> libraryEvents(FlightRecordingSummary summary, String eventName)
+			throws Exception {
+		return RecordingFile.readAllEvents(Path.of(summary.file())).stream()
+				.filter(event -> event.getEventType().getName().equals(eventName)).toList();
+	}
+}
@@ -0,0 +1,195 @@
+package com.raga.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.raga.library.exception.IdempotencyKeyConflictException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the IdempotencyService class. These tests cover the replay of
+ * stored responses, the collapsing of concurrent requests, the keys reused for
+ * other requests, the server errors and the expiry of stored responses
+ *
+ */
+public class IdempotencyServiceTest {
+
+	private static final String BORROW = "POST /borrow/1/patron/2";
+
+	private final IdempotencyService idempotencyService = new IdempotencyService();
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final AtomicLong now = new AtomicLong();
+
+	private final AtomicInteger executions = new AtomicInteger();
+
+	@BeforeEach
+	public void setup() {
+		ReflectionTestUtils.setField(idempotencyService, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(idempotencyService, "maximumKeys", 1000L);
+		ReflectionTestUtils.setField(idempotencyService, "retention", Duration.ofHours(24));
+		ReflectionTestUtils.setField(idempotencyService, "waitTimeout", Duration.ofSeconds(5));
+		ReflectionTestUtils.setField(idempotencyService, "ticker", (Ticker) now::get);
+		idempotencyService.initialize();
+	}
+
+	/**
+	 * Test case for a retry answered with the response of the first request
+	 */
+	@Test
+	public void testReplaysStoredResponse() throws Exception {
+		// Given
+		ResponseEntity<?> first = idempotencyService.execute("key-1", BORROW, this::borrow);
+
+		// When
+		ResponseEntity<?> retry = idempotencyService.execute("key-1", BORROW, this::borrow);
+
+		// Then
+		assertEquals(1, executions.get());
+		assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+		assertEquals(first.getBody(), retry.getBody());
+		assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+		assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+		assertEquals(1.0, meterRegistry.get("library.idempotency.requests").tag("result", "replayed").counter()
+				.count());
+	}
+
+	/**
+	 * Test case for concurrent requests with the same key executed once
+	 */
+	@Test
+	public void testCollapsesConcurrentRequests() throws Exception {
+		// Given
+		CountDownLatch executing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<ResponseEntity<?>>> responses = new ArrayList<>();
+
+		// When
+		try {
+			responses.add(executor.submit(() -> idempotencyService.execute("key-1", BORROW, () -> {
+				executing.countDown();
+				await(release);
+				return borrow();
+			})));
+			executing.await(5, TimeUnit.SECONDS);
+			for (int i = 0; i < 3; i++) {
+				responses.add(executor.submit(() -> idempotencyService.execute("key-1", BORROW, this::borrow)));
+			}
+			release.countDown();
+
+			// Then
+			for (Future<ResponseEntity<?>> response : responses) {
+				assertEquals(HttpStatus.CREATED, response.get(5, TimeUnit.SECONDS).getStatusCode());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, executions.get());
+	}
+
+	/**
+	 * Test case for a key reused for a different request
+	 */
+	@Test
+	public void testRejectsKeyReusedForAnotherRequest() throws Exception {
+		// Given
+		idempotencyService.execute("key-1", BORROW, this::borrow);
+
+		// When, Then
+		assertThrows(IdempotencyKeyConflictException.class,
+				() -> idempotencyService.execute("key-1", "POST /borrow/1/patron/3", this::borrow));
+		assertEquals(1, executions.get());
+	}
+
+	/**
+	 * Test case for a server error, which is not stored so that the retry
+	 * executes again
+	 */
+	@Test
+	public void testDoesNotStoreServerErrors() throws Exception {
+		// Given
+		ResponseEntity<?> failed = idempotencyService.execute("key-1", BORROW,
+				() -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error in borrowing the book"));
+
+		// When
+		ResponseEntity<?> retry = idempotencyService.execute("key-1", BORROW, this::borrow);
+
+		// Then
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, failed.getStatusCode());
+		assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+		assertEquals(1, executions.get());
+	}
+
+	/**
+	 * Test case for the keys known to the rate limiter, which are those with a
+	 * stored response of the same request
+	 */
+	@Test
+	public void testKnowsKeysWithStoredResponse() throws Exception {
+		// When
+		boolean knownBefore = idempotencyService.isKnown("key-1", BORROW);
+		idempotencyService.execute("key-1", BORROW, this::borrow);
+		idempotencyService.execute("key-2", BORROW,
+				() -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error in borrowing the book"));
+
+		// Then
+		assertFalse(knownBefore);
+		assertTrue(idempotencyService.isKnown("key-1", BORROW));
+		assertFalse(idempotencyService.isKnown("key-1", "POST /borrow/1/patron/3"));
+		assertFalse(idempotencyService.isKnown("key-2", BORROW));
+	}
+
+	/**
+	 * Test case for a response dropped after the retention period
+	 */
+	@Test
+	public void testExpiresStoredResponses() throws Exception {
+		// Given
+		idempotencyService.execute("key-1", BORROW, this::borrow);
+		now.addAndGet(Duration.ofHours(25).toNanos());
+
+		// When
+		idempotencyService.execute("key-1", BORROW, this::borrow);
+
+		// Then
+		assertEquals(2, executions.get());
+	}
+
+	private ResponseEntity<?> borrow() {
+		return ResponseEntity.status(HttpStatus.CREATED)
+				.body("Book Borrowed Successfully, execution " + executions.incrementAndGet());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
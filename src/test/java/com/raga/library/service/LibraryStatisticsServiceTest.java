@@ -0,0 +1,121 @@
+package com.raga.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.raga.library.dto.LibraryStatistics;
+import com.raga.library.entity.Book;
+import com.raga.library.entity.BorrowingRecord;
+import com.raga.library.entity.Patron;
+import com.raga.library.event.BookChangedEvent;
+import com.raga.library.event.ChangeType;
+import com.raga.library.event.CirculationAction;
+import com.raga.library.event.CirculationEvent;
+import com.raga.library.event.PatronChangedEvent;
+import com.raga.library.repository.BookRepository;
+import com.raga.library.repository.BorrowingRecordRepository;
+import com.raga.library.repository.PatronRepository;
+
+/**
+ * Unit tests for the LibraryStatisticsService class. These tests cover the
+ * seeding and the incremental maintenance of the counters
+ * 
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class LibraryStatisticsServiceTest {
+
+	@Mock
+	private BookRepository bookRepository;
+
+	@Mock
+	private PatronRepository patronRepository;
+
+	@Mock
+	private BorrowingRecordRepository borrowingRecordRepository;
+
+	@Spy
+	private ShardService shardService = new ShardService();
+
+	@InjectMocks
+	private LibraryStatisticsService libraryStatisticsService;
+
+	@BeforeEach
+	public void setup() {
+		when(bookRepository.count()).thenReturn(10L);
+		when(patronRepository.count()).thenReturn(4L);
+		when(borrowingRecordRepository.countByReturnDateIsNull()).thenReturn(3L);
+		when(borrowingRecordRepository.countByBorrowDate(any(LocalDate.class))).thenReturn(2L);
+		when(borrowingRecordRepository.countByReturnDate(any(LocalDate.class))).thenReturn(1L);
+		when(borrowingRecordRepository.countByReturnDateIsNullAndDueDateBefore(any(LocalDate.class))).thenReturn(1L);
+		libraryStatisticsService.seedStatistics();
+	}
+
+	/**
+	 * Test case for seeding the counters from the database
+	 */
+	@Test
+	public void testSeedStatistics() {
+		LibraryStatistics statistics = libraryStatisticsService.retrieveStatistics();
+
+		assertEquals(10L, statistics.totalBooks());
+		assertEquals(4L, statistics.totalPatrons());
+		assertEquals(3L, statistics.activeLoans());
+		assertEquals(2L, statistics.borrowsToday());
+		assertEquals(1L, statistics.returnsToday());
+		assertEquals(1L, statistics.overdueLoans());
+		assertNotNull(statistics.lastReconciledAt());
+	}
+
+	/**
+	 * Test case for updating the counters from book and patron changes
+	 */
+	@Test
+	public void testCatalogChangesUpdateCounters() {
+		libraryStatisticsService.onBookChanged(new BookChangedEvent(11L, ChangeType.CREATED));
+		libraryStatisticsService.onBookChanged(new BookChangedEvent(1L, ChangeType.UPDATED));
+		libraryStatisticsService.onPatronChanged(new PatronChangedEvent(2L, ChangeType.DELETED));
+
+		LibraryStatistics statistics = libraryStatisticsService.retrieveStatistics();
+
+		assertEquals(11L, statistics.totalBooks());
+		assertEquals(3L, statistics.totalPatrons());
+	}
+
+	/**
+	 * Test case for updating the counters from borrows and returns
+	 */
+	@Test
+	public void testCirculationUpdatesCounters() {
+		Book book = new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		Patron patron = new Patron(2L, "John Doe", "123456789");
+		BorrowingRecord borrowed = new BorrowingRecord(book, patron, LocalDate.now(), null);
+		BorrowingRecord overdue = new BorrowingRecord(book, patron, LocalDate.now().minusDays(30),
+				LocalDate.now());
+		overdue.setDueDate(LocalDate.now().minusDays(16));
+
+		libraryStatisticsService.onCirculation(new CirculationEvent(borrowed, CirculationAction.BORROWED));
+		libraryStatisticsService.onCirculation(new CirculationEvent(overdue, CirculationAction.RETURNED));
+
+		LibraryStatistics statistics = libraryStatisticsService.retrieveStatistics();
+
+		assertEquals(3L, statistics.activeLoans());
+		assertEquals(3L, statistics.borrowsToday());
+		assertEquals(2L, statistics.returnsToday());
+		assertEquals(0L, statistics.overdueLoans());
+	}
+}
@@ -4,18 +4,26 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.raga.library.entity.Patron;
+import com.raga.library.event.ChangeType;
+import com.raga.library.event.PatronChangedEvent;
 import com.raga.library.exception.ResourceNotFoundException;
 import com.raga.library.repository.PatronRepository;
 
@@ -30,9 +38,23 @@ public class PatronServiceTest {
 	@Mock
 	private PatronRepository patronRepository;
 
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Spy
+	private ShardService shardService = new ShardService();
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
 	@InjectMocks
 	private PatronService patronService;
 
+	@BeforeEach
+	public void setup() {
+		patronService.initialize();
+	}
+
 	/**
 	 * Test case for saving a Patron
 	 */
@@ -50,6 +72,29 @@ public class PatronServiceTest {
 		assertThat(savedPatron.getName()).isEqualTo("John Doe");
 	}
 
+	/**
+	 * Test case for saving a batch of patrons in the transaction of their shard,
+	 * which publishes their changes
+	 */
+	@Test
+	public void testSavePatronsPerShard() {
+		// Given
+		List<Patron> patrons = Arrays.asList(new Patron(null, "John Doe", "123456789"),
+				new Patron(null, "Jane Doe", "987654321"));
+		List<Patron> savedPatrons = Arrays.asList(new Patron(1L, "John Doe", "123456789"),
+				new Patron(2L, "Jane Doe", "987654321"));
+		given(patronRepository.saveAll(patrons)).willReturn(savedPatrons);
+
+		// When
+		int saved = patronService.savePatrons(patrons);
+
+		// Then
+		assertThat(saved).isEqualTo(2);
+		verify(eventPublisher).publishEvent(new PatronChangedEvent(1L, ChangeType.CREATED, savedPatrons.get(0)));
+		verify(eventPublisher).publishEvent(new PatronChangedEvent(2L, ChangeType.CREATED, savedPatrons.get(1)));
+		verify(transactionManager).commit(any());
+	}
+
 	/**
 	 * Test case for retrieving a patron by ID
 	 * 
@@ -96,7 +141,33 @@ public class PatronServiceTest {
 	 */
 	@Test
 	public void testDeletePatron() {
+		// Given
+		Patron patron = new Patron(1L, "John Doe", "123456789");
+		given(patronRepository.findById(1L)).willReturn(Optional.of(patron));
+
+		// When
 		patronService.deletePatron(1L);
+
+		// Then
+		verify(patronRepository).delete(patron);
+		verify(eventPublisher).publishEvent(new PatronChangedEvent(1L, ChangeType.DELETED));
+	}
+
+	/**
+	 * Test case for deleting a patron that does not exist, which publishes
+	 * nothing
+	 */
+	@Test
+	public void testDeleteMissingPatron() {
+		// Given
+		given(patronRepository.findById(1000L)).willReturn(Optional.empty());
+
+		// When
+		patronService.deletePatron(1000L);
+
+		// Then
+		verify(patronRepository, never()).delete(any());
+		verify(eventPublisher, never()).publishEvent(any());
 	}
 
 	/**
@@ -0,0 +1,177 @@
+package com.raga.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.raga.library.ratelimit.RateLimit;
+import com.raga.library.ratelimit.RateLimitKeyType;
+import com.raga.library.ratelimit.RateLimitPolicy;
+import com.raga.library.ratelimit.ThrottledKey;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the RateLimitService class. These tests cover the burst and
+ * the refill of a bucket, the independence of keys, the unlimited key types,
+ * the metrics, the most throttled keys and the eviction of idle buckets
+ *
+ */
+public class RateLimitServiceTest {
+
+	private static final RateLimitPolicy CIRCULATION = new RateLimitPolicy("circulation",
+			List.of("/library/api/borrow/**"), RateLimit.of(3, 1), RateLimit.of(100, 50), true);
+
+	private static final RateLimitPolicy BULK = new RateLimitPolicy("bulk", List.of("/library/api/books/bulk"), null,
+			RateLimit.of(1, 0.1), false);
+
+	private final RateLimitService rateLimitService = new RateLimitService();
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+	@BeforeEach
+	public void setup() {
+		ReflectionTestUtils.setField(rateLimitService, "rateLimitPolicies", List.of(CIRCULATION, BULK));
+		ReflectionTestUtils.setField(rateLimitService, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(rateLimitService, "maximumKeys", 1000L);
+		ReflectionTestUtils.setField(rateLimitService, "idleEviction", Duration.ofMinutes(10));
+		ReflectionTestUtils.setField(rateLimitService, "nanoClock", (LongSupplier) now::get);
+		rateLimitService.initialize();
+	}
+
+	/**
+	 * Test case for admitting a burst up to the capacity, then throttling until a
+	 * token is refilled
+	 */
+	@Test
+	public void testBurstAndRefill() {
+		// When
+		long[] waits = new long[4];
+		for (int i = 0; i < waits.length; i++) {
+			waits[i] = rateLimitService.acquire(CIRCULATION, RateLimitKeyType.PATRON, "1");
+		}
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(400));
+		long waitBeforeRefill = rateLimitService.acquire(CIRCULATION, RateLimitKeyType.PATRON, "1");
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+		long waitAfterRefill = rateLimitService.acquire(CIRCULATION, RateLimitKeyType.PATRON, "1");
+
+		// Then
+		assertEquals(0, waits[0]);
+		assertEquals(0, waits[1]);
+		assertEquals(0, waits[2]);
+		assertEquals(TimeUnit.SECONDS.toNanos(1), waits[3]);
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(600), waitBeforeRefill);
+		assertEquals(0, waitAfterRefill);
+	}
+
+	/**
+	 * Test case for keys and key types with buckets of their own, and for a key
+	 * type without a limit
+	 */
+	@Test
+	public void testKeysAreIndependent() {
+		// Given
+		rateLimitService.acquire(BULK, RateLimitKeyType.CLIENT, "10.0.0.1");
+
+		// When
+		long sameClient = rateLimitService.acquire(BULK, RateLimitKeyType.CLIENT, "10.0.0.1");
+		long otherClient = rateLimitService.acquire(BULK, RateLimitKeyType.CLIENT, "10.0.0.2");
+		long otherGroup = rateLimitService.acquire(CIRCULATION, RateLimitKeyType.CLIENT, "10.0.0.1");
+		long unlimitedPatron = rateLimitService.acquire(BULK, RateLimitKeyType.PATRON, "1");
+
+		// Then
+		assertTrue(sameClient > 0);
+		assertEquals(0, otherClient);
+		assertEquals(0, otherGroup);
+		assertEquals(0, unlimitedPatron);
+		assertEquals(3, rateLimitService.trackedKeys());
+	}
+
+	/**
+	 * Test case for the request counters of each group and the most throttled
+	 * keys
+	 */
+	@Test
+	public void testMetricsAndMostThrottledKeys() {
+		// Given
+		for (int i = 0; i < 5; i++) {
+			rateLimitService.acquire(BULK, RateLimitKeyType.CLIENT, "10.0.0.1");
+		}
+		for (int i = 0; i < 3; i++) {
+			rateLimitService.acquire(BULK, RateLimitKeyType.CLIENT, "10.0.0.2");
+		}
+		rateLimitService.acquire(BULK, RateLimitKeyType.CLIENT, "10.0.0.3");
+
+		// When
+		List<ThrottledKey> throttledKeys = rateLimitService.mostThrottledKeys(10);
+
+		// Then
+		assertEquals(List.of(new ThrottledKey("bulk", RateLimitKeyType.CLIENT, "10.0.0.1", 4),
+				new ThrottledKey("bulk", RateLimitKeyType.CLIENT, "10.0.0.2", 2)), throttledKeys);
+		assertEquals(3.0, meterRegistry.get("library.rate.limit.requests").tag("group", "bulk")
+				.tag("result", "admitted").counter().count());
+		assertEquals(6.0, meterRegistry.get("library.rate.limit.requests").tag("group", "bulk")
+				.tag("result", "throttled").counter().count());
+		assertEquals(0.0, meterRegistry.get("library.rate.limit.requests").tag("group", "circulation")
+				.tag("result", "throttled").counter().count());
+		assertEquals(3.0, meterRegistry.get("library.rate.limit.keys").gauge().value());
+	}
+
+	/**
+	 * Test case for dropping the buckets that have been full for the eviction
+	 * period, keeping the others
+	 */
+	@Test
+	public void testEvictIdleBuckets() {
+		// Given
+		rateLimitService.acquire(CIRCULATION, RateLimitKeyType.PATRON, "1");
+		now.addAndGet(TimeUnit.MINUTES.toNanos(9));
+		for (int i = 0; i < 3; i++) {
+			rateLimitService.acquire(CIRCULATION, RateLimitKeyType.PATRON, "2");
+		}
+		now.addAndGet(TimeUnit.MINUTES.toNanos(2));
+
+		// When
+		int evicted = rateLimitService.evictIdleBuckets();
+
+		// Then
+		assertEquals(1, evicted);
+		assertEquals(1, rateLimitService.trackedKeys());
+		assertEquals(0, rateLimitService.acquire(CIRCULATION, RateLimitKeyType.PATRON, "1"));
+	}
+
+	/**
+	 * Test case for dropping the full buckets once the maximum number of keys is
+	 * reached
+	 */
+	@Test
+	public void testEvictFullBucketsPastMaximumKeys() {
+		// Given
+		ReflectionTestUtils.setField(rateLimitService, "maximumKeys", 2L);
+		rateLimitService.acquire(CIRCULATION, RateLimitKeyType.PATRON, "1");
+		for (int i = 0; i < 4; i++) {
+			rateLimitService.acquire(CIRCULATION, RateLimitKeyType.PATRON, "2");
+		}
+		now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+		// When
+		rateLimitService.acquire(CIRCULATION, RateLimitKeyType.PATRON, "3");
+
+		// Then
+		assertEquals(2, rateLimitService.trackedKeys());
+		assertEquals(List.of(new ThrottledKey("circulation", RateLimitKeyType.PATRON, "2", 1)),
+				rateLimitService.mostThrottledKeys(10));
+	}
+}
@@ -0,0 +1,264 @@
+package com.raga.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.View;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import com.raga.library.cache.RenderedPageKey;
+import com.raga.library.entity.Book;
+import com.raga.library.entity.BorrowingRecord;
+import com.raga.library.entity.Patron;
+import com.raga.library.event.BookChangedEvent;
+import com.raga.library.event.ChangeType;
+import com.raga.library.event.ChangedEntityType;
+import com.raga.library.event.CirculationAction;
+import com.raga.library.event.CirculationEvent;
+import com.raga.library.event.LoansRewrittenEvent;
+import com.raga.library.event.RemoteChangeEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the RenderedPageCacheService class. These tests cover cache
+ * hits, version checks, eviction by events, the gzip variant and the metrics
+ *
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class RenderedPageCacheServiceTest {
+
+	private static final RenderedPageKey BOOK_PAGE = RenderedPageKey.bookDetails(1L);
+
+	@Mock
+	private ThymeleafViewResolver thymeleafViewResolver;
+
+	@InjectMocks
+	private RenderedPageCacheService renderedPageCacheService;
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final AtomicInteger renders = new AtomicInteger();
+
+	@BeforeEach
+	public void setup() throws Exception {
+		ReflectionTestUtils.setField(renderedPageCacheService, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(renderedPageCacheService, "maximumBytes", 1_000_000L);
+		ReflectionTestUtils.setField(renderedPageCacheService, "maximumAge", Duration.ofMinutes(10));
+		renderedPageCacheService.initialize();
+		View detailsView = (model, request, response) -> {
+			renders.incrementAndGet();
+			response.setContentType("text/html;charset=UTF-8");
+			response.getWriter().write("<p>" + model.get("title") + " " + model.get("loans") + "</p>");
+		};
+		when(thymeleafViewResolver.resolveViewName(eq(RenderedPageKey.BOOK_DETAILS), any())).thenReturn(detailsView);
+	}
+
+	/**
+	 * Test case for serving a cached page without loading its model again
+	 */
+	@Test
+	public void testServesCachedPage() throws Exception {
+		// Given
+		AtomicInteger loads = new AtomicInteger();
+		View view = renderedPageCacheService.cachedView(BOOK_PAGE, 0L, model -> {
+			loads.incrementAndGet();
+			model.put("loans", "none");
+		});
+
+		// When
+		String first = render(view, null).getContentAsString();
+		String second = render(view, null).getContentAsString();
+
+		// Then
+		assertEquals("<p>The Great Gatsby none</p>", first);
+		assertEquals(first, second);
+		assertEquals(1, renders.get());
+		assertEquals(1, loads.get());
+		assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+		assertTrue(meterRegistry.get("library.page.cache.bytes").gauge().value() > 0);
+	}
+
+	/**
+	 * Test case for rendering the page again once the entity's version changed
+	 */
+	@Test
+	public void testRendersAgainForNewVersion() throws Exception {
+		// When
+		render(renderedPageCacheService.cachedView(BOOK_PAGE, 0L, model -> {
+		}), null);
+		render(renderedPageCacheService.cachedView(BOOK_PAGE, 1L, model -> {
+		}), null);
+		render(renderedPageCacheService.cachedView(BOOK_PAGE, 1L, model -> {
+		}), null);
+
+		// Then
+		assertEquals(2, renders.get());
+	}
+
+	/**
+	 * Test case for serving the gzip variant to clients accepting it
+	 */
+	@Test
+	public void testServesGzipVariant() throws Exception {
+		// When
+		View view = renderedPageCacheService.cachedView(BOOK_PAGE, 0L, model -> {
+		});
+		MockHttpServletResponse plain = render(view, "br;q=1.0, gzip;q=0");
+		MockHttpServletResponse compressed = render(view, "gzip, deflate, br");
+
+		// Then
+		assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals("gzip", compressed.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(HttpHeaders.ACCEPT_ENCODING, compressed.getHeader(HttpHeaders.VARY));
+		try (GZIPInputStream gzip = new GZIPInputStream(
+				new ByteArrayInputStream(compressed.getContentAsByteArray()))) {
+			assertEquals(plain.getContentAsString(), new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Test case for evicting the page of a changed book
+	 */
+	@Test
+	public void testEvictsOnBookChange() throws Exception {
+		// Given
+		View view = renderedPageCacheService.cachedView(BOOK_PAGE, 0L, model -> {
+		});
+		render(view, null);
+
+		// When
+		renderedPageCacheService.onBookChanged(new BookChangedEvent(1L, ChangeType.UPDATED));
+		render(view, null);
+
+		// Then
+		assertEquals(2, renders.get());
+	}
+
+	/**
+	 * Test case for evicting the page of a borrowed book, whose loan history
+	 * changed
+	 */
+	@Test
+	public void testEvictsOnCirculation() throws Exception {
+		// Given
+		View view = renderedPageCacheService.cachedView(BOOK_PAGE, 0L, model -> {
+		});
+		render(view, null);
+		Book book = new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		Patron patron = new Patron(2L, "John Doe", "123456789");
+
+		// When
+		renderedPageCacheService.onCirculation(new CirculationEvent(
+				new BorrowingRecord(book, patron, LocalDate.of(2024, 3, 1), null), CirculationAction.BORROWED));
+		render(view, null);
+
+		// Then
+		assertEquals(2, renders.get());
+		assertFalse(renderedPageCacheService.cachedBytes() == 0);
+	}
+
+	/**
+	 * Test case for evicting the page of a book changed by another node
+	 */
+	@Test
+	public void testEvictsOnRemoteChange() throws Exception {
+		// Given
+		View view = renderedPageCacheService.cachedView(BOOK_PAGE, 0L, model -> {
+		});
+		render(view, null);
+
+		// When
+		renderedPageCacheService.onRemoteChange(new RemoteChangeEvent(ChangedEntityType.PATRON, 1L, ChangeType.UPDATED));
+		render(view, null);
+		renderedPageCacheService.onRemoteChange(new RemoteChangeEvent(ChangedEntityType.BOOK, 1L, ChangeType.UPDATED));
+		render(view, null);
+
+		// Then
+		assertEquals(2, renders.get());
+	}
+
+	/**
+	 * Test case for evicting every page after a fine or archival run
+	 */
+	@Test
+	public void testEvictsOnLoansRewritten() throws Exception {
+		// Given
+		View view = renderedPageCacheService.cachedView(BOOK_PAGE, 0L, model -> {
+		});
+		render(view, null);
+
+		// When
+		renderedPageCacheService.onLoansRewritten(new LoansRewrittenEvent("fines", 120));
+		render(view, null);
+
+		// Then
+		assertEquals(2, renders.get());
+	}
+
+	/**
+	 * Test case for a render whose model was loaded before an eviction, which
+	 * serves its page but does not store it
+	 */
+	@Test
+	public void testDoesNotStorePageEvictedWhileRendering() throws Exception {
+		// Given
+		Book book = new Book(1L, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636");
+		Patron patron = new Patron(2L, "John Doe", "123456789");
+		AtomicInteger loads = new AtomicInteger();
+		View view = renderedPageCacheService.cachedView(BOOK_PAGE, 0L, model -> {
+			model.put("loans", "none");
+			if (loads.incrementAndGet() == 1) {
+				renderedPageCacheService.onCirculation(new CirculationEvent(
+						new BorrowingRecord(book, patron, LocalDate.of(2024, 3, 1), null), CirculationAction.BORROWED));
+			}
+		});
+
+		// When
+		String first = render(view, null).getContentAsString();
+		render(view, null);
+		render(view, null);
+
+		// Then
+		assertEquals("<p>The Great Gatsby none</p>", first);
+		assertEquals(2, renders.get());
+		assertEquals(2, loads.get());
+	}
+
+	private static MockHttpServletResponse render(View view, String acceptEncoding) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/library/books/1");
+		if (acceptEncoding != null) {
+			request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		view.render(Map.of("title", "The Great Gatsby"), request, response);
+		return response;
+	}
+}
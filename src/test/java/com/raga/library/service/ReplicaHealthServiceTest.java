@@ -0,0 +1,97 @@
+package com.raga.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.raga.library.replica.Replica;
+import com.raga.library.replica.ReplicaRoutingDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the ReplicaHealthService class, against replicas held in
+ * embedded H2 databases. These tests cover the reading of the replication lag
+ * and the replicas marked down
+ *
+ */
+public class ReplicaHealthServiceTest {
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private Replica replica;
+
+	private ReplicaHealthService replicaHealthService;
+
+	@BeforeEach
+	public void setup() {
+		meterRegistry = new SimpleMeterRegistry();
+		replica = new Replica("replica-0", new DriverManagerDataSource("jdbc:h2:mem:replica-health", "sa", ""));
+		replicaHealthService = new ReplicaHealthService();
+		ReflectionTestUtils.setField(replicaHealthService, "replicaRoutingDataSource",
+				new ReplicaRoutingDataSource(new DriverManagerDataSource("jdbc:h2:mem:primary-health", "sa", ""),
+						List.of(replica), Duration.ofSeconds(5)));
+		ReflectionTestUtils.setField(replicaHealthService, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(replicaHealthService, "lagColumn", "Seconds_Behind_Source");
+		ReflectionTestUtils.setField(replicaHealthService, "checkTimeout", Duration.ofSeconds(2));
+		replicaHealthService.initialize();
+	}
+
+	/**
+	 * Test case for a replica reporting its lag, recorded as applied up to that
+	 * lag, and one more second, before the check
+	 */
+	@Test
+	public void testRecordsTheLagOfAReplica() {
+		// Given
+		ReflectionTestUtils.setField(replicaHealthService, "lagQuery", "select 3 as seconds_behind_source");
+		Instant beforeCheck = Instant.now();
+
+		// When
+		replicaHealthService.checkReplicas();
+
+		// Then
+		assertEquals(Duration.ofSeconds(3), replica.getLag());
+		assertTrue(replica.hasApplied(beforeCheck.minusSeconds(4)));
+		assertFalse(replica.hasApplied(Instant.now().minusSeconds(3)));
+		assertEquals(3.0, meterRegistry.get("library.replica.lag").tag("replica", "replica-0").gauge().value());
+	}
+
+	/**
+	 * Test case for replicas marked down when they are not replicating or the check
+	 * fails
+	 */
+	@Test
+	public void testMarksReplicasDown() {
+		// Given
+		ReflectionTestUtils.setField(replicaHealthService, "lagQuery", "select 0 as seconds_behind_source");
+		replicaHealthService.checkReplicas();
+
+		// When
+		ReflectionTestUtils.setField(replicaHealthService, "lagQuery",
+				"select cast(null as int) as seconds_behind_source");
+		replicaHealthService.checkReplicas();
+
+		// Then
+		assertNull(replica.getAppliedUpTo());
+
+		// When
+		replica.markUp(Instant.now(), Duration.ZERO);
+		ReflectionTestUtils.setField(replicaHealthService, "lagQuery", "select * from missing_table");
+		replicaHealthService.checkReplicas();
+
+		// Then
+		assertNull(replica.getAppliedUpTo());
+		assertTrue(Double.isNaN(meterRegistry.get("library.replica.lag").gauge().value()));
+	}
+}
@@ -0,0 +1,197 @@
+package com.raga.library.shard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.raga.library.dto.ListQuery;
+import com.raga.library.dto.LoanHistoryEntry;
+import com.raga.library.dto.LoanHistoryQuery;
+import com.raga.library.entity.ActiveLoan;
+import com.raga.library.entity.Book;
+import com.raga.library.entity.Patron;
+import com.raga.library.service.ActiveLoanProjectionService;
+import com.raga.library.service.BookService;
+import com.raga.library.service.BorrowingRecordService;
+import com.raga.library.service.PatronService;
+import com.raga.library.service.ShardService;
+
+/**
+ * Tests of the patron shards against a catalog and two shards held in embedded
+ * H2 databases. These tests cover the routing of the patron and loan
+ * operations, the copies of the books on the shards and the lists merged from
+ * both shards
+ *
+ */
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:catalog;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect", "spring.jpa.hibernate.ddl-auto=none",
+		"library.sharding.enabled=true",
+		"library.sharding.shards[0].url=jdbc:h2:mem:shard0;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"library.sharding.shards[0].username=sa", "library.sharding.shards[0].password=",
+		"library.sharding.shards[1].url=jdbc:h2:mem:shard1;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"library.sharding.shards[1].username=sa", "library.sharding.shards[1].password=",
+		"library.sharding.id-interleaving-sql=", "library.assets.directory=target/sharding-test/assets",
+		"library.journal.directory=target/sharding-test/journal" })
+public class PatronShardingTest {
+
+	private static final String[] SHARDED_TABLES = { "active_loan", "borrowing_record_archive", "borrowing_record",
+			"change_log", "patron", "book" };
+
+	private static boolean idsInterleaved;
+
+	@Autowired
+	private ShardRoutingDataSource dataSource;
+
+	@Autowired
+	private ShardService shardService;
+
+	@Autowired
+	private PatronService patronService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BorrowingRecordService borrowingRecordService;
+
+	@Autowired
+	private ActiveLoanProjectionService activeLoanProjectionService;
+
+	@BeforeEach
+	public void setup() {
+		for (int shard = 0; shard < dataSource.shardCount(); shard++) {
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource.shard(shard));
+			if (!idsInterleaved) {
+				// H2 has no session setting for the id interleaving, so the identity columns
+				// are given the offset and increment of the shard instead
+				for (String table : List.of("patron", "borrowing_record")) {
+					jdbcTemplate.execute("alter table " + table + " alter column id restart with " + (shard + 1));
+					jdbcTemplate.execute("alter table " + table + " alter column id set increment by "
+							+ dataSource.shardCount());
+				}
+			}
+			for (String table : SHARDED_TABLES) {
+				jdbcTemplate.update("delete from " + table);
+			}
+		}
+		idsInterleaved = true;
+		JdbcTemplate catalog = new JdbcTemplate(dataSource.catalog());
+		for (String table : SHARDED_TABLES) {
+			catalog.update("delete from " + table);
+		}
+	}
+
+	/**
+	 * Test case for patrons stored only on the shard their id maps to
+	 */
+	@Test
+	public void testStoresPatronsOnTheirShard() throws Exception {
+		// When
+		List<Patron> patrons = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			patrons.add(patronService.savePatron(new Patron(null, "Patron " + i, "123456789")));
+		}
+
+		// Then
+		for (Patron patron : patrons) {
+			int shard = shardService.shardOf(patron.getId());
+			assertEquals(1, countPatron(dataSource.shard(shard), patron.getId()));
+			assertEquals(0, countPatron(dataSource.shard(1 - shard), patron.getId()));
+			assertEquals(patron.getName(), patronService.retrievePatron(patron.getId()).getName());
+		}
+		assertEquals(Set.of(0, 1), patrons.stream().map(shardService::shardOf).collect(Collectors.toSet()));
+		assertEquals(0, count(dataSource.catalog(), "patron"));
+
+		// When
+		patronService.deletePatron(patrons.get(1).getId());
+
+		// Then
+		assertEquals(3, patronService.retrieveAllPatrons().size());
+	}
+
+	/**
+	 * Test case for loans stored on the shard of their patron, referencing the copy
+	 * of their book, and for the loan history of a book merged from both shards
+	 */
+	@Test
+	public void testBorrowsOnThePatronShard() throws Exception {
+		// Given
+		Book book = bookService.saveBook(new Book(null, "The Great Gatsby", "F. Scott Fitzgerald", 1925, "9780141182636"));
+		Patron first = patronService.savePatron(new Patron(null, "John Doe", "123456789"));
+		Patron second = patronService.savePatron(new Patron(null, "Jane Doe", "987654321"));
+
+		// When
+		borrowingRecordService.borrowBook(book.getId(), first.getId());
+		borrowingRecordService.borrowBook(book.getId(), second.getId());
+		borrowingRecordService.returnBook(book.getId(), first.getId());
+
+		// Then
+		assertEquals(1, count(dataSource.shard(0), "book"));
+		assertEquals(1, count(dataSource.shard(1), "book"));
+		assertEquals(1, count(dataSource.shard(shardService.shardOf(first.getId())), "borrowing_record"));
+		assertEquals(1, count(dataSource.shard(shardService.shardOf(second.getId())), "borrowing_record"));
+		assertEquals(0, count(dataSource.catalog(), "borrowing_record"));
+		assertEquals(1, borrowingRecordService
+				.retrievePatronLoanHistory(first.getId(), LoanHistoryQuery.firstPage(10)).loans().size());
+		List<LoanHistoryEntry> bookHistory = borrowingRecordService
+				.retrieveBookLoanHistory(book.getId(), LoanHistoryQuery.firstPage(10)).loans();
+		assertEquals(List.of(first.getId(), second.getId()),
+				bookHistory.stream().map(LoanHistoryEntry::patronId).sorted().toList());
+		List<ActiveLoan> activeLoans = activeLoanProjectionService.retrieveActiveLoans();
+		assertEquals(1, activeLoans.size());
+		assertEquals(second.getId(), activeLoans.get(0).getPatronId());
+		assertEquals(2, borrowingRecordService.retrieveAllBorrowingRecord().size());
+	}
+
+	/**
+	 * Test case for the pages of the patron list merged from both shards
+	 */
+	@Test
+	public void testMergesListsFromAllShards() {
+		// Given
+		List<Patron> patrons = new ArrayList<>();
+		for (String name : List.of("Frank", "Alice", "Erin", "Bob", "Dave", "Carol")) {
+			patrons.add(new Patron(null, name, "123456789"));
+		}
+		patronService.savePatrons(patrons);
+
+		// When
+		Slice<Patron> firstPage = patronService.retrievePatrons(new ListQuery(0, 4, "name", Sort.Direction.DESC));
+		Slice<Patron> secondPage = patronService.retrievePatrons(new ListQuery(1, 4, "name", Sort.Direction.DESC));
+		List<Patron> byId = patronService.retrievePatronsAfter(0, 5);
+
+		// Then
+		assertTrue(count(dataSource.shard(0), "patron") > 0);
+		assertTrue(count(dataSource.shard(1), "patron") > 0);
+		assertEquals(List.of("Frank", "Erin", "Dave", "Carol"), firstPage.map(Patron::getName).toList());
+		assertTrue(firstPage.hasNext());
+		assertEquals(List.of("Bob", "Alice"), secondPage.map(Patron::getName).toList());
+		assertEquals(false, secondPage.hasNext());
+		assertEquals(5, byId.size());
+		assertEquals(byId.stream().sorted(Comparator.comparing(Patron::getId)).toList(), byId);
+	}
+
+	private static long countPatron(DataSource dataSource, Long id) {
+		return new JdbcTemplate(dataSource).queryForObject("select count(*) from patron where id = ?", Long.class, id);
+	}
+
+	private static long count(DataSource dataSource, String table) {
+		return new JdbcTemplate(dataSource).queryForObject("select count(*) from " + table, Long.class);
+	}
+}
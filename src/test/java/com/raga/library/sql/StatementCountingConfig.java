@@ -0,0 +1,42 @@
+package com.raga.library.sql;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+
+/**
+ * Test configuration wrapping the spring.datasource data source in a
+ * StatementCountingDataSource, and recording the statements of each request
+ * ahead of every other filter. The post processor is declared by a static
+ * method, so that it is registered before the data source is created
+ */
+@TestConfiguration
+public class StatementCountingConfig {
+
+	@Bean
+	public static BeanPostProcessor statementCountingPostProcessor() {
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (beanName.equals("dataSource") && bean instanceof DataSource dataSource
+						&& !(bean instanceof StatementCountingDataSource)) {
+					return new StatementCountingDataSource(dataSource);
+				}
+				return bean;
+			}
+		};
+	}
+
+	@Bean
+	public FilterRegistrationBean<StatementCountingFilter> statementCountingFilter() {
+		FilterRegistrationBean<StatementCountingFilter> registration = new FilterRegistrationBean<>(
+				new StatementCountingFilter());
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+}
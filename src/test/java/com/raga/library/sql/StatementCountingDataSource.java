@@ -0,0 +1,154 @@
+package com.raga.library.sql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Data source counting the statements executed through the connections of the
+ * data source it wraps. The statements are recorded into every StatementCounts
+ * started and not yet stopped, from whichever thread executes them, so that
+ * the work a request hands to other threads is counted too. Background work of
+ * the application must therefore be kept out of the recorded blocks
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+	private static final List<StatementCounts> RECORDING = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Creates the data source
+	 *
+	 * @param targetDataSource The data source whose statements are counted
+	 */
+	public StatementCountingDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+	/**
+	 * Starts recording the executed statements
+	 *
+	 * @return The counts the statements are recorded into until they are stopped
+	 */
+	public static StatementCounts start() {
+		StatementCounts counts = new StatementCounts();
+		RECORDING.add(counts);
+		return counts;
+	}
+
+	/**
+	 * Stops recording into the given counts
+	 *
+	 * @param counts The counts returned by start
+	 */
+	public static void stop(StatementCounts counts) {
+		RECORDING.remove(counts);
+	}
+
+	/**
+	 * Records the statements executed while a block runs
+	 *
+	 * @param block The block
+	 * @return The statements executed by the block
+	 */
+	public static StatementCounts record(RecordedBlock block) throws Exception {
+		StatementCounts counts = start();
+		try {
+			block.run();
+		} finally {
+			stop(counts);
+		}
+		return counts;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return countingConnection(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return countingConnection(super.getConnection(username, password));
+	}
+
+	private static void executed(String sql) {
+		for (StatementCounts counts : RECORDING) {
+			counts.add(sql);
+		}
+	}
+
+	private static Connection countingConnection(Connection connection) {
+		return proxy(Connection.class, connection, (target, method, args) -> {
+			Object result = method.invoke(target, args);
+			if (method.getName().equals("createStatement")) {
+				return proxy(Statement.class, (Statement) result, countingHandler(null));
+			} else if (method.getName().equals("prepareStatement")) {
+				return proxy(PreparedStatement.class, (PreparedStatement) result, countingHandler((String) args[0]));
+			} else if (method.getName().equals("prepareCall")) {
+				return proxy(CallableStatement.class, (CallableStatement) result, countingHandler((String) args[0]));
+			}
+			return result;
+		});
+	}
+
+	/**
+	 * Counts each execution of a statement, and each batch once under the SQL of
+	 * its first entry
+	 */
+	private static TargetHandler countingHandler(String preparedSql) {
+		List<String> batch = new CopyOnWriteArrayList<>();
+		return (target, method, args) -> {
+			String name = method.getName();
+			if (name.equals("addBatch") && args != null && args.length == 1 && args[0] instanceof String sql) {
+				batch.add(sql);
+			} else if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+				String sql = preparedSql != null ? preparedSql : batch.isEmpty() ? null : batch.get(0);
+				if (sql != null) {
+					executed(sql);
+				}
+				batch.clear();
+			} else if (name.startsWith("execute")) {
+				executed(args != null && args.length > 0 && args[0] instanceof String sql ? sql : preparedSql);
+			}
+			return method.invoke(target, args);
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, T target, TargetHandler handler) {
+		InvocationHandler invocationHandler = (proxy, method, args) -> {
+			try {
+				return handler.invoke(target, method, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		};
+		return (T) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(), new Class<?>[] { type },
+				invocationHandler);
+	}
+
+	private interface TargetHandler {
+
+		Object invoke(Object target, Method method, Object[] args) throws Throwable;
+	}
+
+	/**
+	 * A block of test code whose statements are recorded
+	 */
+	@FunctionalInterface
+	public interface RecordedBlock {
+
+		void run() throws Exception;
+	}
+}
@@ -0,0 +1,107 @@
+package com.raga.library.sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Unit tests for the StatementCountingDataSource class, against an embedded H2
+ * database. These tests cover the statements counted by type, the batches and
+ * the blocks recorded
+ *
+ */
+public class StatementCountingDataSourceTest {
+
+	private StatementCountingDataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	public void setup() {
+		dataSource = new StatementCountingDataSource(
+				new DriverManagerDataSource("jdbc:h2:mem:statement-counting;DB_CLOSE_DELAY=-1", "sa", ""));
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table if not exists item (id int primary key, name varchar(20))");
+		jdbcTemplate.update("delete from item");
+	}
+
+	/**
+	 * Test case for the statements of a block counted by type
+	 */
+	@Test
+	public void testCountsStatementsByType() throws Exception {
+		// When
+		StatementCounts counts = StatementCountingDataSource.record(() -> {
+			jdbcTemplate.update("insert into item values (?, ?)", 1, "first");
+			jdbcTemplate.update("update item set name = ? where id = ?", "renamed", 1);
+			jdbcTemplate.queryForObject("select count(*) from item", Long.class);
+			jdbcTemplate.queryForList("with named as (select name from item) select * from named");
+			jdbcTemplate.update("delete from item where id = ?", 1);
+		});
+
+		// Then
+		assertEquals(1, counts.count(StatementType.INSERT));
+		assertEquals(1, counts.count(StatementType.UPDATE));
+		assertEquals(2, counts.count(StatementType.SELECT));
+		assertEquals(1, counts.count(StatementType.DELETE));
+		assertEquals(5, counts.total());
+	}
+
+	/**
+	 * Test case for a batch counted as one statement, and for the statements
+	 * executed outside of any recorded block
+	 */
+	@Test
+	public void testCountsABatchOnce() throws Exception {
+		// Given
+		jdbcTemplate.update("insert into item values (?, ?)", 1, "unrecorded");
+
+		// When
+		StatementCounts counts = StatementCountingDataSource.record(() -> {
+			try (Connection connection = dataSource.getConnection();
+					PreparedStatement statement = connection.prepareStatement("insert into item values (?, ?)")) {
+				for (int id = 2; id <= 4; id++) {
+					statement.setInt(1, id);
+					statement.setString(2, "batched");
+					statement.addBatch();
+				}
+				statement.executeBatch();
+			}
+		});
+
+		// Then
+		assertEquals(List.of("insert into item values (?, ?)"), counts.statements());
+		assertEquals(4, jdbcTemplate.queryForObject("select count(*) from item", Long.class));
+	}
+
+	/**
+	 * Test case for a budget exceeded, failing with the statements executed
+	 */
+	@Test
+	public void testFailsWhenTheBudgetIsExceeded() throws Exception {
+		// Given
+		StatementCounts counts = StatementCountingDataSource.record(() -> {
+			for (int id = 1; id <= 3; id++) {
+				jdbcTemplate.queryForList("select name from item where id = ?", id);
+			}
+		});
+
+		// When
+		AssertionError error = assertThrows(AssertionError.class,
+				() -> counts.assertAtMost(StatementType.SELECT, 2));
+
+		// Then
+		assertTrue(error.getMessage().contains("Expected at most 2 SELECT statements but 3 were executed"));
+		assertTrue(error.getMessage().contains("select name from item where id = ?"));
+		counts.assertAtMost(StatementType.SELECT, 3).assertTotalAtMost(3).assertExactly(StatementType.INSERT, 0);
+	}
+}
@@ -0,0 +1,43 @@
+package com.raga.library.sql;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Filter recording the statements each request executes, and storing them as
+ * a request attribute for the StatementResultMatchers. A streamed response is
+ * recorded until its async dispatch completes, so its statements are counted
+ * once the test dispatches it
+ */
+public class StatementCountingFilter extends OncePerRequestFilter {
+
+	public static final String COUNTS_ATTRIBUTE = StatementCountingFilter.class.getName() + ".COUNTS";
+
+	@Override
+	protected boolean shouldNotFilterAsyncDispatch() {
+		return false;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		StatementCounts counts = (StatementCounts) request.getAttribute(COUNTS_ATTRIBUTE);
+		if (counts == null) {
+			counts = StatementCountingDataSource.start();
+			request.setAttribute(COUNTS_ATTRIBUTE, counts);
+		}
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			if (!request.isAsyncStarted()) {
+				StatementCountingDataSource.stop(counts);
+			}
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package com.raga.library.sql;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Annotation for tests counting the statements of requests or blocks of test
+ * code. The application runs against an embedded H2 database through a
+ * StatementCountingDataSource, with MockMvc, and the change feed polls once an
+ * hour so that its reads stay out of the counts. Every test class with this
+ * annotation shares the same application context and database, so the tests
+ * create the rows they need and must not rely on the other rows
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:statements;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect", "spring.jpa.hibernate.ddl-auto=none",
+		"library.change-feed.poll-interval=PT1H", "library.rate-limit.bulk.client-capacity=1000",
+		"library.rate-limit.circulation.client-capacity=1000", "library.rate-limit.circulation.patron-capacity=1000",
+		"library.assets.directory=target/statement-count-test/assets",
+		"library.journal.directory=target/statement-count-test/journal",
+		"library.flight-recording.directory=target/statement-count-test/recordings" })
+@AutoConfigureMockMvc
+@Import(StatementCountingConfig.class)
+public @interface StatementCountingTest {
+}
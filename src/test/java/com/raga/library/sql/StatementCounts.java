@@ -0,0 +1,105 @@
+package com.raga.library.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SQL statements executed while a test block or a request was recorded,
+ * with assertions on their number by type. A batch counts as one statement,
+ * since it is sent to the database in one round trip
+ */
+public class StatementCounts {
+
+	private final List<String> statements = new ArrayList<>();
+
+	synchronized void add(String sql) {
+		statements.add(sql);
+	}
+
+	/**
+	 * @return The SQL of the executed statements, in execution order
+	 */
+	public synchronized List<String> statements() {
+		return List.copyOf(statements);
+	}
+
+	/**
+	 * @param type The kind of statement
+	 * @return The number of executed statements of that kind
+	 */
+	public synchronized int count(StatementType type) {
+		return (int) statements.stream().filter(sql -> StatementType.of(sql) == type).count();
+	}
+
+	/**
+	 * @return The number of executed statements
+	 */
+	public synchronized int total() {
+		return statements.size();
+	}
+
+	/**
+	 * Fails when more statements of the given kind were executed than the budget
+	 * allows
+	 *
+	 * @param type   The kind of statement
+	 * @param budget The maximum number of statements of that kind
+	 * @return These counts
+	 */
+	public StatementCounts assertAtMost(StatementType type, int budget) {
+		int count = count(type);
+		if (count > budget) {
+			throw new AssertionError("Expected at most " + budget + " " + type + " statements but " + count
+					+ " were executed" + listing());
+		}
+		return this;
+	}
+
+	/**
+	 * Fails when a different number of statements of the given kind were executed
+	 *
+	 * @param type     The kind of statement
+	 * @param expected The number of statements of that kind
+	 * @return These counts
+	 */
+	public StatementCounts assertExactly(StatementType type, int expected) {
+		int count = count(type);
+		if (count != expected) {
+			throw new AssertionError("Expected " + expected + " " + type + " statements but " + count
+					+ " were executed" + listing());
+		}
+		return this;
+	}
+
+	/**
+	 * Fails when more statements were executed than the budget allows
+	 *
+	 * @param budget The maximum number of statements
+	 * @return These counts
+	 */
+	public StatementCounts assertTotalAtMost(int budget) {
+		int total = total();
+		if (total > budget) {
+			throw new AssertionError(
+					"Expected at most " + budget + " statements but " + total + " were executed" + listing());
+		}
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		List<String> counts = new ArrayList<>();
+		for (StatementType type : StatementType.values()) {
+			counts.add(type + "=" + count(type));
+		}
+		return String.join(", ", counts);
+	}
+
+	private String listing() {
+		StringBuilder listing = new StringBuilder(" :");
+		for (String sql : statements()) {
+			listing.append(System.lineSeparator()).append("  ").append(sql);
+		}
+		return listing.toString();
+	}
+}
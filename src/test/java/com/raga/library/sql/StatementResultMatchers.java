@@ -0,0 +1,73 @@
+package com.raga.library.sql;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * Result matchers on the statements a request executed, recorded by the
+ * StatementCountingFilter. For example
+ * {@code mockMvc.perform(get("/library/borrowingRecords")).andExpect(statements().selectsAtMost(2))}
+ * fails when the borrowing record list needs more than 2 selects
+ */
+public final class StatementResultMatchers {
+
+	private StatementResultMatchers() {
+	}
+
+	/**
+	 * @return The matchers on the statements of the request
+	 */
+	public static StatementResultMatchers statements() {
+		return new StatementResultMatchers();
+	}
+
+	/**
+	 * @param budget The maximum number of selects
+	 * @return Matcher failing when the request executed more selects
+	 */
+	public ResultMatcher selectsAtMost(int budget) {
+		return atMost(StatementType.SELECT, budget);
+	}
+
+	/**
+	 * @param type   The kind of statement
+	 * @param budget The maximum number of statements of that kind
+	 * @return Matcher failing when the request executed more statements of that
+	 *         kind
+	 */
+	public ResultMatcher atMost(StatementType type, int budget) {
+		return result -> counts(result).assertAtMost(type, budget);
+	}
+
+	/**
+	 * @param type     The kind of statement
+	 * @param expected The number of statements of that kind
+	 * @return Matcher failing when the request executed a different number of
+	 *         statements of that kind
+	 */
+	public ResultMatcher exactly(StatementType type, int expected) {
+		return result -> counts(result).assertExactly(type, expected);
+	}
+
+	/**
+	 * @param budget The maximum number of statements
+	 * @return Matcher failing when the request executed more statements
+	 */
+	public ResultMatcher totalAtMost(int budget) {
+		return result -> counts(result).assertTotalAtMost(budget);
+	}
+
+	/**
+	 * @param result The result of the request
+	 * @return The statements the request executed
+	 */
+	public static StatementCounts counts(MvcResult result) {
+		StatementCounts counts = (StatementCounts) result.getRequest()
+				.getAttribute(StatementCountingFilter.COUNTS_ATTRIBUTE);
+		if (counts == null) {
+			throw new AssertionError("The statements of the request were not recorded, "
+					+ "the test must be annotated with @StatementCountingTest");
+		}
+		return counts;
+	}
+}
@@ -0,0 +1,30 @@
+package com.raga.library.sql;
+
+import java.util.Locale;
+
+/**
+ * This enum represents the kind of SQL statement sent to the database, taken
+ * from its first keyword
+ */
+public enum StatementType {
+
+	SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+	/**
+	 * @param sql The SQL of the statement
+	 * @return The kind of the statement, a select for a query starting with a
+	 *         common table expression
+	 */
+	public static StatementType of(String sql) {
+		String keyword = sql.stripLeading().split("[\\s(]", 2)[0].toUpperCase(Locale.ROOT);
+		if (keyword.equals("WITH")) {
+			return SELECT;
+		}
+		for (StatementType type : values()) {
+			if (type.name().equals(keyword)) {
+				return type;
+			}
+		}
+		return OTHER;
+	}
+}
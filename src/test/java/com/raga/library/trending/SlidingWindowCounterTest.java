@@ -0,0 +1,130 @@
+package com.raga.library.trending;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.raga.library.trending.SlidingWindowCounter.KeyCount;
+
+/**
+ * Unit tests for the SlidingWindowCounter class. These tests cover the top-k
+ * accuracy, the time-bucketed decay and concurrent recording
+ * 
+ */
+public class SlidingWindowCounterTest {
+
+	private static final long HOUR_MILLIS = 3_600_000L;
+
+	/**
+	 * Test case for finding the heavy hitters among many light keys
+	 */
+	@Test
+	public void testTopKFindsHeavyHitters() {
+		SlidingWindowCounter counter = new SlidingWindowCounter(TrendingWindow.DAY, 4, 512, 64);
+		long now = 100 * HOUR_MILLIS;
+		for (long key = 1; key <= 5000; key++) {
+			counter.record(key, now);
+		}
+		for (int i = 0; i < 300; i++) {
+			counter.record(7001, now);
+			if (i < 200) {
+				counter.record(7002, now);
+			}
+			if (i < 100) {
+				counter.record(7003, now);
+			}
+		}
+
+		List<KeyCount> top = counter.topK(3, now);
+
+		assertEquals(3, top.size());
+		assertEquals(7001, top.get(0).key());
+		assertEquals(7002, top.get(1).key());
+		assertEquals(7003, top.get(2).key());
+		assertTrue(top.get(0).count() >= 300);
+	}
+
+	/**
+	 * Test case for counts leaving the window once their bucket expires
+	 */
+	@Test
+	public void testCountsDecayOutOfTheWindow() {
+		SlidingWindowCounter counter = new SlidingWindowCounter(TrendingWindow.DAY, 4, 256, 16);
+		long start = 100 * HOUR_MILLIS;
+		counter.record(42, start);
+		counter.record(42, start + 2 * HOUR_MILLIS);
+
+		assertEquals(2, counter.estimate(42, start + 2 * HOUR_MILLIS));
+		assertEquals(1, counter.estimate(42, start + 24 * HOUR_MILLIS));
+		assertEquals(0, counter.estimate(42, start + 30 * HOUR_MILLIS));
+		assertTrue(counter.topK(5, start + 30 * HOUR_MILLIS).isEmpty());
+	}
+
+	/**
+	 * Test case for recording from several threads without losing counts
+	 * 
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testConcurrentRecording() throws InterruptedException {
+		SlidingWindowCounter counter = new SlidingWindowCounter(TrendingWindow.HOUR, 4, 256, 16);
+		long now = 100 * HOUR_MILLIS;
+		counter.record(9, now);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		for (int thread = 0; thread < 4; thread++) {
+			executor.execute(() -> {
+				for (int i = 0; i < 1000; i++) {
+					counter.record(9, now);
+				}
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		assertEquals(4001, counter.estimate(9, now));
+		assertEquals(9, counter.topK(1, now).get(0).key());
+	}
+
+	/**
+	 * Test case for threads recording concurrently into a time bucket that
+	 * replaces an expired one, none of their counts being reset
+	 * 
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testConcurrentRecordingWhileBucketRotates() throws InterruptedException {
+		for (int round = 0; round < 20; round++) {
+			SlidingWindowCounter counter = new SlidingWindowCounter(TrendingWindow.HOUR, 4, 256, 16);
+			long expired = 100 * HOUR_MILLIS;
+			long now = expired + HOUR_MILLIS;
+			counter.record(9, expired);
+			CountDownLatch start = new CountDownLatch(1);
+			ExecutorService executor = Executors.newFixedThreadPool(4);
+			for (int thread = 0; thread < 4; thread++) {
+				executor.execute(() -> {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+					for (int i = 0; i < 1000; i++) {
+						counter.record(9, now);
+					}
+				});
+			}
+			start.countDown();
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+			assertEquals(4000, counter.estimate(9, now));
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.raga.library.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the KeysetRows class. These tests cover the lazy reading of
+ * keyset pages while the rows are iterated
+ *
+ */
+public class KeysetRowsTest {
+
+	/**
+	 * Test case for iterating over several pages, each read only when the previous
+	 * one is exhausted
+	 */
+	@Test
+	public void testIteratesAllPagesLazily() {
+		List<Long> requestedAfterIds = new ArrayList<>();
+		KeysetRows<Long> rows = new KeysetRows<>(3, afterId -> {
+			requestedAfterIds.add(afterId);
+			return LongStream.rangeClosed(afterId + 1, Math.min(afterId + 3, 7)).boxed().toList();
+		}, Long::longValue);
+
+		Iterator<Long> iterator = rows.iterator();
+		assertEquals(List.of(0L), requestedAfterIds);
+
+		List<Long> ids = new ArrayList<>();
+		iterator.forEachRemaining(ids::add);
+
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), ids);
+		assertEquals(List.of(0L, 3L, 6L), requestedAfterIds);
+	}
+
+	/**
+	 * Test case for a last page that is exactly full, followed by an empty page
+	 */
+	@Test
+	public void testStopsAtEmptyPage() {
+		KeysetRows<Long> rows = new KeysetRows<>(2,
+				afterId -> afterId < 4 ? List.of(afterId + 1, afterId + 2) : List.of(), Long::longValue);
+
+		Iterator<Long> iterator = rows.iterator();
+		int count = 0;
+		while (iterator.hasNext()) {
+			iterator.next();
+			count++;
+		}
+
+		assertEquals(4, count);
+		assertFalse(iterator.hasNext());
+		assertThrows(NoSuchElementException.class, iterator::next);
+	}
+}